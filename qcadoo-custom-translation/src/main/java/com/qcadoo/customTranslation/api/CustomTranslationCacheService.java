@@ -130,4 +130,14 @@ public interface CustomTranslationCacheService {
      */
     void loadCustomTranslations(final List<Entity> customTranslations);
 
+    /**
+     * Replaces all cached custom translations of current tenant with given ones
+     * 
+     * @param customTranslations
+     *            custom translations
+     * 
+     * @since 1.5
+     */
+    void reloadCustomTranslations(final List<Entity> customTranslations);
+
 }
\ No newline at end of file
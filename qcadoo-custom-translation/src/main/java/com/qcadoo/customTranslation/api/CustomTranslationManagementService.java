@@ -48,6 +48,18 @@ public interface CustomTranslationManagementService {
      */
     void addCustomTranslations(final String pluginIdentifier, final String locale, final Map<String, String> translations);
 
+    /**
+     * Adds custom translations with given plugin identifier for all given locales at once, skipping already existing ones
+     * 
+     * @param pluginIdentifier
+     *            plugin identifier
+     * @param translationsByLocale
+     *            translation keys and values by locale
+     * 
+     * @since 1.5
+     */
+    void addCustomTranslations(final String pluginIdentifier, final Map<String, Map<String, String>> translationsByLocale);
+
     /**
      * Removes custom translations with given plugin identifier
      * 
@@ -104,4 +116,20 @@ public interface CustomTranslationManagementService {
      */
     DataDefinition getCustomTranslationDD();
 
+    /**
+     * Gets version of custom translations, changed every time custom translations are changed
+     * 
+     * @return the custom translations version or null if custom translations weren't changed yet
+     * 
+     * @since 1.5
+     */
+    Integer getCustomTranslationsVersion();
+
+    /**
+     * Changes version of custom translations, in current transaction
+     * 
+     * @since 1.5
+     */
+    void incrementCustomTranslationsVersion();
+
 }
\ No newline at end of file
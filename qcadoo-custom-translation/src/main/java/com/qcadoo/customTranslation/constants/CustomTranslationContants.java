@@ -34,4 +34,6 @@ public final class CustomTranslationContants {
     // MODEL
     public static final String MODEL_CUSTOM_TRANSLATION = "customTranslation";
 
+    public static final String MODEL_CUSTOM_TRANSLATION_VERSION = "customTranslationVersion";
+
 }
@@ -28,121 +28,186 @@ import static com.qcadoo.customTranslation.constants.CustomTranslationFields.KEY
 import static com.qcadoo.customTranslation.constants.CustomTranslationFields.LOCALE;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import com.google.common.collect.Maps;
 import com.qcadoo.customTranslation.api.CustomTranslationCacheService;
 import com.qcadoo.customTranslation.constants.CustomTranslationFields;
 import com.qcadoo.model.api.Entity;
 import com.qcadoo.tenant.api.MultiTenantService;
 
+/**
+ * Keeps custom translations of every tenant as an immutable map, replaced as a whole on every change. Readers never lock and
+ * always see a consistent state, writers of the same tenant are serialized.
+ */
 @Service
 public class CustomTranslationCacheServiceImpl implements CustomTranslationCacheService {
 
     @Autowired
     private MultiTenantService multiTenantService;
 
-    private final Map<Integer, Map<String, Map<String, String>>> customTranslationsCache;
-
-    public CustomTranslationCacheServiceImpl() {
-        this.customTranslationsCache = Maps.newHashMap();
-    }
+    private final ConcurrentMap<Integer, TenantCustomTranslations> customTranslationsCache = new ConcurrentHashMap<>();
 
     @Override
     public void addCustomTranslation(final String key, final String locale, final String customTranslation) {
-        Map<String, String> localeAndCustomTranslation = Maps.newHashMap();
-        localeAndCustomTranslation.put(locale, customTranslation);
-
-        getTenantCustomTranslationsCache().put(key, localeAndCustomTranslation);
+        getTenantCustomTranslationsCache().update(
+                customTranslations -> addCustomTranslation(customTranslations, key, locale, customTranslation));
     }
 
     @Override
     public void updateCustomTranslation(final String key, final String locale, final String customTranslation) {
-        if (isCustomTranslationAdded(key)) {
-            getTenantCustomTranslationsCache().get(key).put(locale, customTranslation);
-        }
+        getTenantCustomTranslationsCache().update(
+                customTranslations -> updateCustomTranslation(customTranslations, key, locale, customTranslation));
     }
 
     @Override
     public void manageCustomTranslation(final String key, final String locale, final String customTranslation) {
-        if (isCustomTranslationAdded(key)) {
-            updateCustomTranslation(key, locale, customTranslation);
-        } else {
-            addCustomTranslation(key, locale, customTranslation);
-        }
+        getTenantCustomTranslationsCache().update(
+                customTranslations -> manageCustomTranslation(customTranslations, key, locale, customTranslation));
     }
 
     @Override
     public void removeCustomTranslations(final List<String> keys) {
         if (keys != null) {
-            for (String key : keys) {
-                if (isCustomTranslationAdded(key)) {
-                    for (String locale : getTenantCustomTranslationsCache().get(key).keySet()) {
-                        updateCustomTranslation(key, locale, null);
+            getTenantCustomTranslationsCache().update(customTranslations -> {
+                for (String key : keys) {
+                    Map<String, String> localeAndCustomTranslation = customTranslations.get(key);
+
+                    if (localeAndCustomTranslation != null) {
+                        Map<String, String> removedLocaleAndCustomTranslation = new HashMap<>();
+
+                        for (String locale : localeAndCustomTranslation.keySet()) {
+                            removedLocaleAndCustomTranslation.put(locale, null);
+                        }
+
+                        customTranslations.put(key, Collections.unmodifiableMap(removedLocaleAndCustomTranslation));
                     }
                 }
-            }
+            });
         }
     }
 
     @Override
     public String getCustomTranslation(final String key, final String locale) {
-        if (getTenantCustomTranslationsCache().containsKey(key)
-                && getTenantCustomTranslationsCache().get(key).containsKey(locale)) {
-            return getTenantCustomTranslationsCache().get(key).get(locale);
+        Map<String, String> localeAndCustomTranslation = getTenantCustomTranslationsCache().customTranslations.get(key);
+
+        if (localeAndCustomTranslation == null) {
+            return null;
         }
-        return null;
+
+        return localeAndCustomTranslation.get(locale);
     }
 
     @Override
     public Map<String, Map<String, String>> getCustomTranslations() {
-        return Collections.unmodifiableMap(getTenantCustomTranslationsCache());
+        return getTenantCustomTranslationsCache().customTranslations;
     }
 
     @Override
     public boolean isCustomTranslationAdded(final String key) {
-        return getTenantCustomTranslationsCache().containsKey(key);
+        return getTenantCustomTranslationsCache().customTranslations.containsKey(key);
     }
 
     @Override
     public boolean isCustomTranslationActive(final String key, final String locale) {
-        if (getTenantCustomTranslationsCache().containsKey(key)
-                && getTenantCustomTranslationsCache().get(key).containsKey(locale)) {
-            return getTenantCustomTranslationsCache().get(key).get(locale) != null;
-        }
-
-        return false;
+        return getCustomTranslation(key, locale) != null;
     }
 
     @Override
     public void loadCustomTranslations(final List<Entity> customTranslations) {
+        getTenantCustomTranslationsCache().update(loadedCustomTranslations -> {
+            for (Entity customTranslation : customTranslations) {
+                manageCustomTranslation(loadedCustomTranslations, customTranslation);
+            }
+        });
+    }
+
+    @Override
+    public void reloadCustomTranslations(final List<Entity> customTranslations) {
+        Map<String, Map<String, String>> reloadedCustomTranslations = new HashMap<>();
+
         for (Entity customTranslation : customTranslations) {
-            boolean active = customTranslation.getBooleanField(ACTIVE);
+            manageCustomTranslation(reloadedCustomTranslations, customTranslation);
+        }
+
+        getTenantCustomTranslationsCache().replace(reloadedCustomTranslations);
+    }
 
-            String key = customTranslation.getStringField(KEY);
-            String translation = customTranslation.getStringField(CustomTranslationFields.CUSTOM_TRANSLATION);
-            String locale = (active) ? customTranslation.getStringField(LOCALE) : null;
+    private void manageCustomTranslation(final Map<String, Map<String, String>> customTranslations, final Entity customTranslation) {
+        boolean active = customTranslation.getBooleanField(ACTIVE);
 
-            manageCustomTranslation(key, locale, translation);
+        String key = customTranslation.getStringField(KEY);
+        String translation = customTranslation.getStringField(CustomTranslationFields.CUSTOM_TRANSLATION);
+        String locale = (active) ? customTranslation.getStringField(LOCALE) : null;
+
+        manageCustomTranslation(customTranslations, key, locale, translation);
+    }
+
+    private void manageCustomTranslation(final Map<String, Map<String, String>> customTranslations, final String key,
+            final String locale, final String customTranslation) {
+        if (customTranslations.containsKey(key)) {
+            updateCustomTranslation(customTranslations, key, locale, customTranslation);
+        } else {
+            addCustomTranslation(customTranslations, key, locale, customTranslation);
+        }
+    }
+
+    private void addCustomTranslation(final Map<String, Map<String, String>> customTranslations, final String key,
+            final String locale, final String customTranslation) {
+        Map<String, String> localeAndCustomTranslation = new HashMap<>();
+        localeAndCustomTranslation.put(locale, customTranslation);
+
+        customTranslations.put(key, Collections.unmodifiableMap(localeAndCustomTranslation));
+    }
+
+    private void updateCustomTranslation(final Map<String, Map<String, String>> customTranslations, final String key,
+            final String locale, final String customTranslation) {
+        Map<String, String> localeAndCustomTranslation = customTranslations.get(key);
+
+        if (localeAndCustomTranslation != null) {
+            Map<String, String> updatedLocaleAndCustomTranslation = new HashMap<>(localeAndCustomTranslation);
+            updatedLocaleAndCustomTranslation.put(locale, customTranslation);
+
+            customTranslations.put(key, Collections.unmodifiableMap(updatedLocaleAndCustomTranslation));
         }
     }
 
-    private Map<String, Map<String, String>> getTenantCustomTranslationsCache() {
+    private TenantCustomTranslations getTenantCustomTranslationsCache() {
         final int tenantId = multiTenantService.getCurrentTenantId();
 
-        Map<String, Map<String, String>> tenantCustomTranslationsCache = customTranslationsCache.get(tenantId);
+        TenantCustomTranslations tenantCustomTranslationsCache = customTranslationsCache.get(tenantId);
 
         if (tenantCustomTranslationsCache == null) {
-            tenantCustomTranslationsCache = Maps.newHashMap();
-
-            customTranslationsCache.put(tenantId, tenantCustomTranslationsCache);
+            tenantCustomTranslationsCache = customTranslationsCache.computeIfAbsent(tenantId,
+                    id -> new TenantCustomTranslations());
         }
 
         return tenantCustomTranslationsCache;
     }
 
-}
\ No newline at end of file
+    private static final class TenantCustomTranslations {
+
+        private volatile Map<String, Map<String, String>> customTranslations = Collections.emptyMap();
+
+        private synchronized void update(final Consumer<Map<String, Map<String, String>>> change) {
+            Map<String, Map<String, String>> changedCustomTranslations = new HashMap<>(customTranslations);
+
+            change.accept(changedCustomTranslations);
+
+            customTranslations = Collections.unmodifiableMap(changedCustomTranslations);
+        }
+
+        private synchronized void replace(final Map<String, Map<String, String>> newCustomTranslations) {
+            customTranslations = Collections.unmodifiableMap(newCustomTranslations);
+        }
+
+    }
+
+}
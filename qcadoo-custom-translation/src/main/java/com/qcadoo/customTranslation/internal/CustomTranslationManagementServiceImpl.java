@@ -28,15 +28,32 @@ import static com.qcadoo.customTranslation.constants.CustomTranslationFields.KEY
 import static com.qcadoo.customTranslation.constants.CustomTranslationFields.LOCALE;
 import static com.qcadoo.customTranslation.constants.CustomTranslationFields.PLUGIN_IDENTIFIER;
 import static com.qcadoo.customTranslation.constants.CustomTranslationFields.PROPERTIES_TRANSLATION;
+import static com.qcadoo.customTranslation.constants.CustomTranslationVersionFields.VERSION;
 
 import java.lang.reflect.InvocationTargetException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import org.apache.commons.beanutils.MethodUtils;
 import org.hibernate.classic.Session;
+import org.hibernate.engine.SessionFactoryImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.SequenceGenerator;
+import org.hibernate.jdbc.Work;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.util.FieldUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -51,40 +68,134 @@ import com.qcadoo.model.api.search.SearchRestrictions;
 @Service
 public class CustomTranslationManagementServiceImpl implements CustomTranslationManagementService {
 
+    private static final Logger LOG = LoggerFactory.getLogger(CustomTranslationManagementServiceImpl.class);
+
     @Autowired
     private DataDefinitionService dataDefinitionService;
 
+    private static final String L_CUSTOM_TRANSLATION_ENTITY = "com.qcadoo.model.beans.qcadooCustomTranslation.QcadooCustomTranslationCustomTranslation";
+
+    @Value("${customTranslationsBatchSize:50}")
+    private int batchSize;
+
     @Override
     @Transactional
-    @SuppressWarnings("unchecked")
     public void addCustomTranslations(final String pluginIdentifier, final String locale, final Map<String, String> translations) {
+        addCustomTranslations(pluginIdentifier, Collections.singletonMap(locale, translations));
+    }
+
+    @Override
+    @Transactional
+    @SuppressWarnings("unchecked")
+    public void addCustomTranslations(final String pluginIdentifier, final Map<String, Map<String, String>> translationsByLocale) {
+        long startTime = System.currentTimeMillis();
+
         DataDefinition customTranslationDD = getCustomTranslationDD();
         Session currentSession = getCurrentSession(customTranslationDD);
 
-        List<String> existingKeys = currentSession
+        List<Object[]> existingTranslations = currentSession
                 .createQuery(
-                        "SELECT key FROM com.qcadoo.model.beans.qcadooCustomTranslation.QcadooCustomTranslationCustomTranslation "
-                                + "WHERE pluginIdentifier = :pluginIdentifier AND locale = :locale")
-                .setString("pluginIdentifier", pluginIdentifier).setString("locale", locale).list();
+                        "SELECT locale, key FROM com.qcadoo.model.beans.qcadooCustomTranslation.QcadooCustomTranslationCustomTranslation "
+                                + "WHERE pluginIdentifier = :pluginIdentifier").setString("pluginIdentifier", pluginIdentifier)
+                .list();
+
+        Map<String, Set<String>> existingKeysByLocale = new HashMap<>();
+
+        for (Object[] existingTranslation : existingTranslations) {
+            String locale = (String) existingTranslation[0];
 
-        for (Entry<String, String> translation : translations.entrySet()) {
-            String key = translation.getKey();
-            String value = translation.getValue();
+            Set<String> existingKeys = existingKeysByLocale.get(locale);
 
-            if (existingKeys.contains(key)) {
-                continue;
+            if (existingKeys == null) {
+                existingKeys = new HashSet<>();
+                existingKeysByLocale.put(locale, existingKeys);
             }
 
-            Object entity = getInstanceForEntity(customTranslationDD);
+            existingKeys.add((String) existingTranslation[1]);
+        }
 
-            FieldUtils.setProtectedFieldValue(PLUGIN_IDENTIFIER, entity, pluginIdentifier);
-            FieldUtils.setProtectedFieldValue(KEY, entity, key);
-            FieldUtils.setProtectedFieldValue(PROPERTIES_TRANSLATION, entity, value);
-            FieldUtils.setProtectedFieldValue(LOCALE, entity, locale);
-            FieldUtils.setProtectedFieldValue(ACTIVE, entity, false);
+        List<String[]> newTranslations = new ArrayList<>();
 
-            currentSession.save(entity);
+        for (Entry<String, Map<String, String>> localeAndTranslations : translationsByLocale.entrySet()) {
+            String locale = localeAndTranslations.getKey();
+            Set<String> existingKeys = existingKeysByLocale.get(locale);
+
+            for (Entry<String, String> translation : localeAndTranslations.getValue().entrySet()) {
+                String key = translation.getKey();
+
+                if ((existingKeys != null) && existingKeys.contains(key)) {
+                    continue;
+                }
+
+                newTranslations.add(new String[] { key, translation.getValue(), locale });
+            }
+        }
+
+        if (!newTranslations.isEmpty()) {
+            insertCustomTranslations(currentSession, pluginIdentifier, newTranslations);
         }
+
+        LOG.info(String.format("Added %d custom translations for plugin %s in %d locales in %d ms (%d already existed)",
+                newTranslations.size(), pluginIdentifier, translationsByLocale.size(), System.currentTimeMillis() - startTime,
+                existingTranslations.size()));
+    }
+
+    /**
+     * Inserts translations with plain JDBC batches of batchSize rows, ids are taken from the model's sequence in the insert
+     * itself. Hibernate's session would send them one by one, as batching isn't enabled for the shared session factory.
+     */
+    private void insertCustomTranslations(final Session currentSession, final String pluginIdentifier,
+            final List<String[]> translations) {
+        SessionFactoryImplementor sessionFactory = (SessionFactoryImplementor) currentSession.getSessionFactory();
+        AbstractEntityPersister persister = (AbstractEntityPersister) sessionFactory.getClassMetadata(L_CUSTOM_TRANSLATION_ENTITY);
+        IdentifierGenerator identifierGenerator = persister.getIdentifierGenerator();
+
+        if (!(identifierGenerator instanceof SequenceGenerator)) {
+            throw new IllegalStateException("Custom translation ids have to be generated from the sequence");
+        }
+
+        final String insert = "INSERT INTO " + persister.getTableName() + " (" + persister.getIdentifierColumnNames()[0] + ", "
+                + getColumnName(persister, PLUGIN_IDENTIFIER) + ", " + getColumnName(persister, KEY) + ", "
+                + getColumnName(persister, PROPERTIES_TRANSLATION) + ", " + getColumnName(persister, LOCALE) + ", "
+                + getColumnName(persister, ACTIVE) + ") VALUES ("
+                + sessionFactory.getDialect().getSelectSequenceNextValString(
+                        ((SequenceGenerator) identifierGenerator).getSequenceName()) + ", ?, ?, ?, ?, ?)";
+
+        currentSession.flush();
+        currentSession.doWork(new Work() {
+
+            @Override
+            public void execute(final Connection connection) throws SQLException {
+                PreparedStatement statement = connection.prepareStatement(insert);
+
+                try {
+                    int batched = 0;
+
+                    for (String[] translation : translations) {
+                        statement.setString(1, pluginIdentifier);
+                        statement.setString(2, translation[0]);
+                        statement.setString(3, translation[1]);
+                        statement.setString(4, translation[2]);
+                        statement.setBoolean(5, false);
+                        statement.addBatch();
+
+                        if (++batched % batchSize == 0) {
+                            statement.executeBatch();
+                        }
+                    }
+
+                    if (batched % batchSize != 0) {
+                        statement.executeBatch();
+                    }
+                } finally {
+                    statement.close();
+                }
+            }
+        });
+    }
+
+    private String getColumnName(final AbstractEntityPersister persister, final String fieldName) {
+        return persister.getPropertyColumnNames(fieldName)[0];
     }
 
     @Override
@@ -98,6 +209,8 @@ public class CustomTranslationManagementServiceImpl implements CustomTranslation
                         "UPDATE com.qcadoo.model.beans.qcadooCustomTranslation.QcadooCustomTranslationCustomTranslation "
                                 + "SET active = false WHERE pluginIdentifier = :pluginIdentifier AND active = true")
                 .setString("pluginIdentifier", pluginIdentifier).executeUpdate();
+
+        incrementCustomTranslationsVersion();
     }
 
     @Override
@@ -136,6 +249,42 @@ public class CustomTranslationManagementServiceImpl implements CustomTranslation
                 CustomTranslationContants.MODEL_CUSTOM_TRANSLATION);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Integer getCustomTranslationsVersion() {
+        DataDefinition customTranslationVersionDD = getCustomTranslationVersionDD();
+        Session currentSession = getCurrentSession(customTranslationVersionDD);
+
+        return (Integer) currentSession
+                .createQuery(
+                        "SELECT max(version) FROM com.qcadoo.model.beans.qcadooCustomTranslation.QcadooCustomTranslationCustomTranslationVersion")
+                .uniqueResult();
+    }
+
+    @Override
+    @Transactional
+    public void incrementCustomTranslationsVersion() {
+        DataDefinition customTranslationVersionDD = getCustomTranslationVersionDD();
+        Session currentSession = getCurrentSession(customTranslationVersionDD);
+
+        int updated = currentSession.createQuery(
+                "UPDATE com.qcadoo.model.beans.qcadooCustomTranslation.QcadooCustomTranslationCustomTranslationVersion "
+                        + "SET version = version + 1").executeUpdate();
+
+        if (updated == 0) {
+            Object entity = getInstanceForEntity(customTranslationVersionDD);
+
+            FieldUtils.setProtectedFieldValue(VERSION, entity, 1);
+
+            currentSession.save(entity);
+        }
+    }
+
+    private DataDefinition getCustomTranslationVersionDD() {
+        return dataDefinitionService.get(CustomTranslationContants.PLUGIN_IDENTIFIER,
+                CustomTranslationContants.MODEL_CUSTOM_TRANSLATION_VERSION);
+    }
+
     private Session getCurrentSession(final DataDefinition dataDefinition) {
         Object dataAccessService = FieldUtils.getProtectedFieldValue("dataAccessService", dataDefinition);
         Object hibernateService = FieldUtils.getProtectedFieldValue("hibernateService", dataAccessService);
@@ -163,4 +312,4 @@ public class CustomTranslationManagementServiceImpl implements CustomTranslation
         }
     }
 
-}
\ No newline at end of file
+}
@@ -23,15 +23,18 @@
  */
 package com.qcadoo.customTranslation.internal;
 
-import com.qcadoo.customTranslation.api.CustomTranslationCacheService;
-import com.qcadoo.customTranslation.api.CustomTranslationResolver;
+import java.text.MessageFormat;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentMap;
+
 import org.apache.commons.lang3.ArrayUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.util.ObjectUtils;
 
-import java.text.MessageFormat;
-import java.util.Locale;
+import com.google.common.cache.CacheBuilder;
+import com.qcadoo.customTranslation.api.CustomTranslationCacheService;
+import com.qcadoo.customTranslation.api.CustomTranslationResolver;
 
 @Service
 public class CustomTranslationResolverImpl implements CustomTranslationResolver {
@@ -39,6 +42,9 @@ public class CustomTranslationResolverImpl implements CustomTranslationResolver
     @Autowired
     private CustomTranslationCacheService customTranslationCacheService;
 
+    private final ConcurrentMap<String, MessageFormat> messageFormats = CacheBuilder.newBuilder().softValues()
+            .<String, MessageFormat> build().asMap();
+
     @Override
     public boolean isCustomTranslationActive(final String key, final Locale locale) {
         return customTranslationCacheService.isCustomTranslationActive(key, locale.getLanguage());
@@ -51,18 +57,34 @@ public class CustomTranslationResolverImpl implements CustomTranslationResolver
         if (translation == null) {
             return null;
         } else {
-            translation = translation.replace("'", "''");
-
             Object[] argsToUse = args;
 
-            if (!ObjectUtils.isEmpty(argsToUse)) {
+            if (ObjectUtils.isEmpty(argsToUse)) {
                 argsToUse = ArrayUtils.EMPTY_OBJECT_ARRAY;
             }
 
-            MessageFormat messageFormat = new MessageFormat(translation);
+            MessageFormat messageFormat = getMessageFormat(translation);
+
+            synchronized (messageFormat) {
+                return messageFormat.format(argsToUse);
+            }
+        }
+    }
+
+    private MessageFormat getMessageFormat(final String translation) {
+        MessageFormat messageFormat = messageFormats.get(translation);
+
+        if (messageFormat == null) {
+            messageFormat = new MessageFormat(translation.replace("'", "''"));
+
+            MessageFormat existingMessageFormat = messageFormats.putIfAbsent(translation, messageFormat);
 
-            return messageFormat.format(argsToUse);
+            if (existingMessageFormat != null) {
+                messageFormat = existingMessageFormat;
+            }
         }
+
+        return messageFormat;
     }
 
-}
\ No newline at end of file
+}
@@ -27,16 +27,20 @@ import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.qcadoo.customTranslation.api.CustomTranslationCacheService;
+import com.qcadoo.customTranslation.api.CustomTranslationInvalidationChannel;
+import com.qcadoo.customTranslation.api.CustomTranslationInvalidationListener;
 import com.qcadoo.customTranslation.api.CustomTranslationManagementService;
+import com.qcadoo.localization.api.TranslationsChangedEvent;
 import com.qcadoo.model.api.Entity;
 import com.qcadoo.plugin.api.Module;
 
 @Service
-public class CustomTranslationsOnStartupService extends Module {
+public class CustomTranslationsOnStartupService extends Module implements CustomTranslationInvalidationListener {
 
     @Autowired
     private CustomTranslationManagementService customTranslationManagementService;
@@ -44,6 +48,12 @@ public class CustomTranslationsOnStartupService extends Module {
     @Autowired
     private CustomTranslationCacheService customTranslationCacheService;
 
+    @Autowired
+    private CustomTranslationInvalidationChannel customTranslationInvalidationChannel;
+
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
     @Value("${useCustomTranslations}")
     private boolean useCustomTranslations;
 
@@ -51,9 +61,16 @@ public class CustomTranslationsOnStartupService extends Module {
     @Transactional
     public void multiTenantEnableOnStartup() {
         if (useCustomTranslations) {
+            customTranslationInvalidationChannel.subscribe(this);
             final List<Entity> customTranslations = customTranslationManagementService.getCustomTranslations();
             customTranslationCacheService.loadCustomTranslations(customTranslations);
         }
     }
 
+    @Override
+    public void customTranslationsChanged() {
+        customTranslationCacheService.reloadCustomTranslations(customTranslationManagementService.getCustomTranslations());
+        applicationEventPublisher.publishEvent(new TranslationsChangedEvent(this));
+    }
+
 }
@@ -77,6 +77,8 @@ public class TranslationModuleOverrideUtil {
     }
 
     public void addTranslationKeysForPlugin(final String pluginIdentifier, final Set<String> basenames) {
+        Map<String, Map<String, String>> translationsByLocale = Maps.newHashMap();
+
         for (String locale : translationService.getLocales().keySet()) {
             Map<String, String> translations = Maps.newHashMap();
 
@@ -84,8 +86,10 @@ public class TranslationModuleOverrideUtil {
                 translations.putAll(getTranslationsFromProperties(resource));
             }
 
-            customTranslationManagementService.addCustomTranslations(pluginIdentifier, locale, translations);
+            translationsByLocale.put(locale, translations);
         }
+
+        customTranslationManagementService.addCustomTranslations(pluginIdentifier, translationsByLocale);
     }
 
     public void removeTranslationKeysForPlugin(final String pluginIdentifier) {
@@ -0,0 +1,156 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.customTranslation.internal.invalidation;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.qcadoo.customTranslation.api.CustomTranslationInvalidationChannel;
+import com.qcadoo.customTranslation.api.CustomTranslationInvalidationListener;
+import com.qcadoo.customTranslation.api.CustomTranslationManagementService;
+import com.qcadoo.tenant.api.MultiTenantCallback;
+import com.qcadoo.tenant.api.MultiTenantService;
+
+/**
+ * Invalidation channel based on the custom translations version stored in the database. Every change increments the version
+ * in the same transaction, every node polls the version and notifies its listeners when it differs from the last seen one.
+ */
+@Service
+public class DatabaseCustomTranslationInvalidationChannel implements CustomTranslationInvalidationChannel {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DatabaseCustomTranslationInvalidationChannel.class);
+
+    @Autowired
+    private CustomTranslationManagementService customTranslationManagementService;
+
+    @Autowired
+    private MultiTenantService multiTenantService;
+
+    @Value("${customTranslationsPollingInterval:5}")
+    private int pollingInterval;
+
+    private final Set<CustomTranslationInvalidationListener> listeners = new CopyOnWriteArraySet<>();
+
+    private final ConcurrentMap<Integer, Integer> seenVersions = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService executor;
+
+    @Override
+    public void publishChange() {
+        customTranslationManagementService.incrementCustomTranslationsVersion();
+    }
+
+    @Override
+    public synchronized void subscribe(final CustomTranslationInvalidationListener listener) {
+        listeners.add(listener);
+
+        // listeners subscribe right before loading their translations, so current version is already known to them
+        seenVersions.put(multiTenantService.getCurrentTenantId(), getCurrentVersion());
+
+        if (executor == null && pollingInterval > 0) {
+            executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+                @Override
+                public Thread newThread(final Runnable runnable) {
+                    Thread thread = new Thread(runnable, "custom-translation-poller");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+
+            });
+
+            executor.scheduleWithFixedDelay(new Runnable() {
+
+                @Override
+                public void run() {
+                    poll();
+                }
+
+            }, pollingInterval, pollingInterval, TimeUnit.SECONDS);
+        }
+    }
+
+    @Override
+    public void unsubscribe(final CustomTranslationInvalidationListener listener) {
+        listeners.remove(listener);
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    void poll() {
+        try {
+            multiTenantService.doInMultiTenantContext(new MultiTenantCallback() {
+
+                @Override
+                public void invoke() {
+                    pollCurrentTenant();
+                }
+
+            });
+        } catch (RuntimeException e) {
+            LOG.warn("Can not check custom translations version", e);
+        }
+    }
+
+    private void pollCurrentTenant() {
+        int currentVersion = getCurrentVersion();
+
+        Integer seenVersion = seenVersions.put(multiTenantService.getCurrentTenantId(), currentVersion);
+
+        // first observation of tenant only records its version, translations were loaded on its startup
+        if (seenVersion != null && seenVersion != currentVersion) {
+            LOG.debug("Custom translations changed to version " + currentVersion);
+
+            for (CustomTranslationInvalidationListener listener : listeners) {
+                listener.customTranslationsChanged();
+            }
+        }
+    }
+
+    private int getCurrentVersion() {
+        Integer version = customTranslationManagementService.getCustomTranslationsVersion();
+        return (version == null) ? 0 : version;
+    }
+
+}
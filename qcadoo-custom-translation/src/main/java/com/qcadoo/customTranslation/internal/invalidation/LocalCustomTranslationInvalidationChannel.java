@@ -0,0 +1,57 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.customTranslation.internal.invalidation;
+
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import com.qcadoo.customTranslation.api.CustomTranslationInvalidationChannel;
+import com.qcadoo.customTranslation.api.CustomTranslationInvalidationListener;
+
+/**
+ * In-memory invalidation channel notifying listeners immediately, in the publishing thread. Suitable for a single node and for
+ * tests.
+ */
+public class LocalCustomTranslationInvalidationChannel implements CustomTranslationInvalidationChannel {
+
+    private final Set<CustomTranslationInvalidationListener> listeners = new CopyOnWriteArraySet<>();
+
+    @Override
+    public void publishChange() {
+        for (CustomTranslationInvalidationListener listener : listeners) {
+            listener.customTranslationsChanged();
+        }
+    }
+
+    @Override
+    public void subscribe(final CustomTranslationInvalidationListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void unsubscribe(final CustomTranslationInvalidationListener listener) {
+        listeners.remove(listener);
+    }
+
+}
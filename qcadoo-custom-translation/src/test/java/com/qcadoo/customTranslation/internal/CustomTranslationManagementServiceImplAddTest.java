@@ -0,0 +1,262 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.customTranslation.internal;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.hibernate.Query;
+import org.hibernate.classic.Session;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.SessionFactoryImplementor;
+import org.hibernate.id.SequenceGenerator;
+import org.hibernate.jdbc.Work;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.google.common.collect.ImmutableMap;
+import com.qcadoo.customTranslation.api.CustomTranslationManagementService;
+import com.qcadoo.customTranslation.constants.CustomTranslationContants;
+import com.qcadoo.model.api.DataDefinition;
+import com.qcadoo.model.api.DataDefinitionService;
+
+public class CustomTranslationManagementServiceImplAddTest {
+
+    private static final String L_PLUGIN_IDENTIFIER = "plugin";
+
+    private static final String L_INSERT = "INSERT INTO qcadoocustomtranslation_customtranslation (id, pluginIdentifier, key, "
+            + "propertiesTranslation, locale, active) VALUES (nextval ('translation_seq'), ?, ?, ?, ?, ?)";
+
+    private CustomTranslationManagementService customTranslationManagementService;
+
+    private Session session;
+
+    private Query existingTranslationsQuery;
+
+    private Connection connection;
+
+    private PreparedStatement statement;
+
+    @Before
+    public void init() throws Exception {
+        session = mock(Session.class);
+        existingTranslationsQuery = mock(Query.class);
+        connection = mock(Connection.class);
+        statement = mock(PreparedStatement.class);
+
+        given(session.createQuery(anyString())).willReturn(existingTranslationsQuery);
+        given(existingTranslationsQuery.setString("pluginIdentifier", L_PLUGIN_IDENTIFIER)).willReturn(existingTranslationsQuery);
+        given(existingTranslationsQuery.list()).willReturn(Collections.emptyList());
+
+        SessionFactoryImplementor sessionFactory = mock(SessionFactoryImplementor.class);
+        AbstractEntityPersister persister = mock(AbstractEntityPersister.class);
+        SequenceGenerator sequenceGenerator = mock(SequenceGenerator.class);
+        Dialect dialect = mock(Dialect.class);
+
+        given(session.getSessionFactory()).willReturn(sessionFactory);
+        given(sessionFactory.getClassMetadata("com.qcadoo.model.beans.qcadooCustomTranslation.QcadooCustomTranslationCustomTranslation"))
+                .willReturn(persister);
+        given(sessionFactory.getDialect()).willReturn(dialect);
+        given(persister.getIdentifierGenerator()).willReturn(sequenceGenerator);
+        given(persister.getTableName()).willReturn("qcadoocustomtranslation_customtranslation");
+        given(persister.getIdentifierColumnNames()).willReturn(new String[] { "id" });
+        given(persister.getPropertyColumnNames(anyString())).willAnswer(new Answer<String[]>() {
+
+            @Override
+            public String[] answer(final InvocationOnMock invocation) throws Throwable {
+                return new String[] { (String) invocation.getArguments()[0] };
+            }
+
+        });
+        given(sequenceGenerator.getSequenceName()).willReturn("translation_seq");
+        given(dialect.getSelectSequenceNextValString("translation_seq")).willReturn("nextval ('translation_seq')");
+
+        given(connection.prepareStatement(L_INSERT)).willReturn(statement);
+        willAnswer(new Answer<Object>() {
+
+            @Override
+            public Object answer(final InvocationOnMock invocation) throws Throwable {
+                ((Work) invocation.getArguments()[0]).execute(connection);
+                return null;
+            }
+
+        }).given(session).doWork(any(Work.class));
+
+        HibernateServiceStub hibernateService = new HibernateServiceStub(session);
+        DataAccessServiceStub dataAccessService = new DataAccessServiceStub(hibernateService);
+
+        CustomTranslationDataDefinition customTranslationDD = mock(CustomTranslationDataDefinition.class);
+        ReflectionTestUtils.setField(customTranslationDD, "dataAccessService", dataAccessService);
+
+        DataDefinitionService dataDefinitionService = mock(DataDefinitionService.class);
+        given(
+                dataDefinitionService.get(CustomTranslationContants.PLUGIN_IDENTIFIER,
+                        CustomTranslationContants.MODEL_CUSTOM_TRANSLATION)).willReturn(customTranslationDD);
+
+        customTranslationManagementService = new CustomTranslationManagementServiceImpl();
+
+        ReflectionTestUtils.setField(customTranslationManagementService, "dataDefinitionService", dataDefinitionService);
+        ReflectionTestUtils.setField(customTranslationManagementService, "batchSize", 50);
+    }
+
+    @Test
+    public void shouldAddTranslationsOfAllLocales() throws Exception {
+        // given
+        Map<String, Map<String, String>> translationsByLocale = new LinkedHashMap<String, Map<String, String>>();
+        translationsByLocale.put("pl", ImmutableMap.of("key1", "wartosc1", "key2", "wartosc2"));
+        translationsByLocale.put("en", ImmutableMap.of("key1", "value1"));
+
+        // when
+        customTranslationManagementService.addCustomTranslations(L_PLUGIN_IDENTIFIER, translationsByLocale);
+
+        // then
+        InOrder inOrder = inOrder(statement);
+        verifyRow(inOrder, "key1", "wartosc1", "pl");
+        verifyRow(inOrder, "key2", "wartosc2", "pl");
+        verifyRow(inOrder, "key1", "value1", "en");
+        inOrder.verify(statement).executeBatch();
+        inOrder.verify(statement).close();
+
+        verify(session, times(1)).createQuery(anyString());
+        verify(session, never()).save(any());
+    }
+
+    @Test
+    public void shouldSkipTranslationsExistingInSameLocale() throws Exception {
+        // given
+        given(existingTranslationsQuery.list()).willReturn(
+                Collections.singletonList(new Object[] { "pl", "key1" }));
+
+        Map<String, Map<String, String>> translationsByLocale = new LinkedHashMap<String, Map<String, String>>();
+        translationsByLocale.put("pl", ImmutableMap.of("key1", "wartosc1", "key2", "wartosc2"));
+        translationsByLocale.put("en", ImmutableMap.of("key1", "value1"));
+
+        // when
+        customTranslationManagementService.addCustomTranslations(L_PLUGIN_IDENTIFIER, translationsByLocale);
+
+        // then
+        InOrder inOrder = inOrder(statement);
+        verifyRow(inOrder, "key2", "wartosc2", "pl");
+        verifyRow(inOrder, "key1", "value1", "en");
+        inOrder.verify(statement).executeBatch();
+
+        verify(statement, times(2)).addBatch();
+    }
+
+    @Test
+    public void shouldAddNothingIfAllTranslationsExist() throws Exception {
+        // given
+        given(existingTranslationsQuery.list()).willReturn(
+                Collections.singletonList(new Object[] { "pl", "key1" }));
+
+        // when
+        customTranslationManagementService.addCustomTranslations(L_PLUGIN_IDENTIFIER, "pl",
+                Collections.singletonMap("key1", "wartosc1"));
+
+        // then
+        verify(session, never()).doWork(any(Work.class));
+        verify(session, never()).flush();
+    }
+
+    @Test
+    public void shouldSendTranslationsInJdbcBatches() throws Exception {
+        // given
+        ReflectionTestUtils.setField(customTranslationManagementService, "batchSize", 2);
+
+        // when
+        customTranslationManagementService.addCustomTranslations(L_PLUGIN_IDENTIFIER, "pl",
+                ImmutableMap.of("key1", "wartosc1", "key2", "wartosc2", "key3", "wartosc3"));
+
+        // then
+        InOrder inOrder = inOrder(session, statement);
+        inOrder.verify(session).flush();
+        verifyRow(inOrder, "key1", "wartosc1", "pl");
+        verifyRow(inOrder, "key2", "wartosc2", "pl");
+        inOrder.verify(statement).executeBatch();
+        verifyRow(inOrder, "key3", "wartosc3", "pl");
+        inOrder.verify(statement).executeBatch();
+        inOrder.verify(statement).close();
+
+        verify(connection, times(1)).prepareStatement(L_INSERT);
+    }
+
+    private void verifyRow(final InOrder inOrder, final String key, final String propertiesTranslation, final String locale)
+            throws Exception {
+        inOrder.verify(statement).setString(1, L_PLUGIN_IDENTIFIER);
+        inOrder.verify(statement).setString(2, key);
+        inOrder.verify(statement).setString(3, propertiesTranslation);
+        inOrder.verify(statement).setString(4, locale);
+        inOrder.verify(statement).setBoolean(5, false);
+        inOrder.verify(statement).addBatch();
+    }
+
+    public abstract static class CustomTranslationDataDefinition implements DataDefinition {
+
+        private Object dataAccessService;
+
+    }
+
+    private static final class DataAccessServiceStub {
+
+        private final Object hibernateService;
+
+        private DataAccessServiceStub(final Object hibernateService) {
+            this.hibernateService = hibernateService;
+        }
+
+    }
+
+    public static final class HibernateServiceStub {
+
+        private final Session session;
+
+        private HibernateServiceStub(final Session session) {
+            this.session = session;
+        }
+
+        public Session getCurrentSession() {
+            return session;
+        }
+
+    }
+
+}
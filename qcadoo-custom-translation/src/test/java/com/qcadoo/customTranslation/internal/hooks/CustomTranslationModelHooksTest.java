@@ -41,9 +41,11 @@ import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import com.qcadoo.customTranslation.api.CustomTranslationCacheService;
+import com.qcadoo.customTranslation.api.CustomTranslationInvalidationChannel;
 import com.qcadoo.model.api.DataDefinition;
 import com.qcadoo.model.api.Entity;
 import com.qcadoo.model.api.FieldDefinition;
@@ -63,6 +65,12 @@ public class CustomTranslationModelHooksTest {
     @Mock
     private PluginStateResolver pluginStateResolver;
 
+    @Mock
+    private CustomTranslationInvalidationChannel customTranslationInvalidationChannel;
+
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
     @Mock
     private DataDefinition customTranslationDD;
 
@@ -86,6 +94,9 @@ public class CustomTranslationModelHooksTest {
 
         ReflectionTestUtils.setField(customTranslationModelHooks, "pluginStateResolver", pluginStateResolver);
         ReflectionTestUtils.setField(customTranslationModelHooks, "customTranslationCacheService", customTranslationCacheService);
+        ReflectionTestUtils.setField(customTranslationModelHooks, "customTranslationInvalidationChannel",
+                customTranslationInvalidationChannel);
+        ReflectionTestUtils.setField(customTranslationModelHooks, "applicationEventPublisher", applicationEventPublisher);
     }
 
     @Test
@@ -0,0 +1,128 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.customTranslation.internal.invalidation;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.qcadoo.customTranslation.api.CustomTranslationInvalidationListener;
+import com.qcadoo.customTranslation.api.CustomTranslationManagementService;
+import com.qcadoo.tenant.api.MultiTenantCallback;
+import com.qcadoo.tenant.api.MultiTenantService;
+
+public class DatabaseCustomTranslationInvalidationChannelTest {
+
+    private DatabaseCustomTranslationInvalidationChannel customTranslationInvalidationChannel;
+
+    @Mock
+    private CustomTranslationManagementService customTranslationManagementService;
+
+    @Mock
+    private MultiTenantService multiTenantService;
+
+    @Mock
+    private CustomTranslationInvalidationListener listener;
+
+    @Before
+    public void init() {
+        MockitoAnnotations.initMocks(this);
+
+        customTranslationInvalidationChannel = new DatabaseCustomTranslationInvalidationChannel();
+
+        ReflectionTestUtils.setField(customTranslationInvalidationChannel, "customTranslationManagementService",
+                customTranslationManagementService);
+        ReflectionTestUtils.setField(customTranslationInvalidationChannel, "multiTenantService", multiTenantService);
+        ReflectionTestUtils.setField(customTranslationInvalidationChannel, "pollingInterval", 0);
+
+        given(multiTenantService.getCurrentTenantId()).willReturn(1);
+        doAnswer(new Answer<Void>() {
+
+            @Override
+            public Void answer(final InvocationOnMock invocation) throws Throwable {
+                ((MultiTenantCallback) invocation.getArguments()[0]).invoke();
+                return null;
+            }
+
+        }).when(multiTenantService).doInMultiTenantContext(any(MultiTenantCallback.class));
+    }
+
+    @Test
+    public void shouldNotifyListenersWhenVersionChanged() {
+        // given
+        given(customTranslationManagementService.getCustomTranslationsVersion()).willReturn(3);
+        customTranslationInvalidationChannel.subscribe(listener);
+
+        given(customTranslationManagementService.getCustomTranslationsVersion()).willReturn(4);
+
+        // when
+        customTranslationInvalidationChannel.poll();
+        customTranslationInvalidationChannel.poll();
+
+        // then
+        verify(listener, times(1)).customTranslationsChanged();
+    }
+
+    @Test
+    public void shouldntNotifyListenersWhenVersionIsUnchanged() {
+        // given
+        given(customTranslationManagementService.getCustomTranslationsVersion()).willReturn(3);
+        customTranslationInvalidationChannel.subscribe(listener);
+
+        // when
+        customTranslationInvalidationChannel.poll();
+        customTranslationInvalidationChannel.poll();
+
+        // then
+        verify(listener, never()).customTranslationsChanged();
+    }
+
+    @Test
+    public void shouldntNotifyListenersOnFirstPollOfTenant() {
+        // given
+        given(customTranslationManagementService.getCustomTranslationsVersion()).willReturn(3);
+        customTranslationInvalidationChannel.subscribe(listener);
+
+        given(multiTenantService.getCurrentTenantId()).willReturn(2);
+        given(customTranslationManagementService.getCustomTranslationsVersion()).willReturn(7);
+
+        // when
+        customTranslationInvalidationChannel.poll();
+
+        // then
+        verify(listener, never()).customTranslationsChanged();
+    }
+
+}
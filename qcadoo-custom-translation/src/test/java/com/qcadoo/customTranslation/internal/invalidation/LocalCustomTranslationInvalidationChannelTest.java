@@ -0,0 +1,138 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.customTranslation.internal.invalidation;
+
+import static com.qcadoo.customTranslation.constants.CustomTranslationFields.ACTIVE;
+import static com.qcadoo.customTranslation.constants.CustomTranslationFields.CUSTOM_TRANSLATION;
+import static com.qcadoo.customTranslation.constants.CustomTranslationFields.KEY;
+import static com.qcadoo.customTranslation.constants.CustomTranslationFields.LOCALE;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.qcadoo.customTranslation.api.CustomTranslationCacheService;
+import com.qcadoo.customTranslation.api.CustomTranslationInvalidationChannel;
+import com.qcadoo.customTranslation.api.CustomTranslationInvalidationListener;
+import com.qcadoo.customTranslation.internal.CustomTranslationCacheServiceImpl;
+import com.qcadoo.model.api.Entity;
+import com.qcadoo.tenant.api.MultiTenantService;
+
+public class LocalCustomTranslationInvalidationChannelTest {
+
+    private CustomTranslationInvalidationChannel customTranslationInvalidationChannel;
+
+    private CustomTranslationCacheService customTranslationCacheService;
+
+    @Mock
+    private MultiTenantService multiTenantService;
+
+    @Mock
+    private CustomTranslationInvalidationListener listener;
+
+    @Before
+    public void init() {
+        MockitoAnnotations.initMocks(this);
+
+        customTranslationInvalidationChannel = new LocalCustomTranslationInvalidationChannel();
+        customTranslationCacheService = new CustomTranslationCacheServiceImpl();
+
+        ReflectionTestUtils.setField(customTranslationCacheService, "multiTenantService", multiTenantService);
+    }
+
+    @Test
+    public void shouldNotifySubscribedListeners() {
+        // given
+        customTranslationInvalidationChannel.subscribe(listener);
+        customTranslationInvalidationChannel.subscribe(listener);
+
+        // when
+        customTranslationInvalidationChannel.publishChange();
+
+        // then
+        verify(listener, times(1)).customTranslationsChanged();
+    }
+
+    @Test
+    public void shouldntNotifyUnsubscribedListeners() {
+        // given
+        customTranslationInvalidationChannel.subscribe(listener);
+        customTranslationInvalidationChannel.unsubscribe(listener);
+
+        // when
+        customTranslationInvalidationChannel.publishChange();
+
+        // then
+        verify(listener, never()).customTranslationsChanged();
+    }
+
+    @Test
+    public void shouldReloadCacheWithoutChangingPreviouslyReadTranslations() {
+        // given
+        customTranslationCacheService.manageCustomTranslation("key", "pl", "old");
+
+        final Entity customTranslation = mockCustomTranslation("key", "pl", "new");
+
+        customTranslationInvalidationChannel.subscribe(new CustomTranslationInvalidationListener() {
+
+            @Override
+            public void customTranslationsChanged() {
+                customTranslationCacheService.reloadCustomTranslations(Collections.singletonList(customTranslation));
+            }
+
+        });
+
+        Map<String, Map<String, String>> customTranslationsBefore = customTranslationCacheService.getCustomTranslations();
+
+        // when
+        customTranslationInvalidationChannel.publishChange();
+
+        // then
+        assertEquals("new", customTranslationCacheService.getCustomTranslation("key", "pl"));
+        assertEquals("old", customTranslationsBefore.get("key").get("pl"));
+    }
+
+    private Entity mockCustomTranslation(final String key, final String locale, final String translation) {
+        Entity customTranslation = mock(Entity.class);
+
+        given(customTranslation.getBooleanField(ACTIVE)).willReturn(true);
+        given(customTranslation.getStringField(KEY)).willReturn(key);
+        given(customTranslation.getStringField(LOCALE)).willReturn(locale);
+        given(customTranslation.getStringField(CUSTOM_TRANSLATION)).willReturn(translation);
+
+        return customTranslation;
+    }
+
+}
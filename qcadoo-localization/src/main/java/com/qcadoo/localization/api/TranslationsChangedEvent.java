@@ -0,0 +1,43 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.localization.api;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Event published in the application context whenever translations returned by {@link TranslationService} may have changed,
+ * e.g. when translation modules are added or removed or custom translations are modified. Listeners holding translated content
+ * should drop it.
+ * 
+ * @since 1.5
+ */
+public class TranslationsChangedEvent extends ApplicationEvent {
+
+    private static final long serialVersionUID = 1L;
+
+    public TranslationsChangedEvent(final Object source) {
+        super(source);
+    }
+
+}
@@ -0,0 +1,142 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.localization.internal;
+
+import java.text.MessageFormat;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.context.support.ReloadableResourceBundleMessageSource;
+
+/**
+ * Message source keeping, for each used locale, an immutable table of all merged messages. Tables are built on first use and
+ * dropped all at once whenever the cache is cleared, i.e. when translation modules are enabled or disabled.
+ */
+public class TranslationMessageSource extends ReloadableResourceBundleMessageSource {
+
+    private volatile ConcurrentMap<Locale, LocaleMessages> localeMessages = new ConcurrentHashMap<>();
+
+    /**
+     * Returns message for given code, formatted like {@link #getMessage(String, Object[], String, Locale)} does, or null if there
+     * is no such message.
+     * 
+     * @param code
+     *            message code
+     * @param args
+     *            message arguments
+     * @param locale
+     *            locale
+     * @return message or null
+     */
+    public String getTranslation(final String code, final Object[] args, final Locale locale) {
+        return getLocaleMessages(locale).getMessage(code, args);
+    }
+
+    /**
+     * Records missing translation, returns true only for the first miss of given codes since tables were last dropped. Used to
+     * limit logging of missing translations.
+     * 
+     * @param codes
+     *            description of missing message codes
+     * @param locale
+     *            locale
+     * @return true if this is the first miss
+     */
+    public boolean recordMissingTranslation(final String codes, final Locale locale) {
+        return getLocaleMessages(locale).missingCodes.add(codes);
+    }
+
+    private LocaleMessages getLocaleMessages(final Locale locale) {
+        ConcurrentMap<Locale, LocaleMessages> currentLocaleMessages = localeMessages;
+        LocaleMessages messages = currentLocaleMessages.get(locale);
+
+        if (messages == null) {
+            messages = currentLocaleMessages.computeIfAbsent(locale, this::compileMessages);
+        }
+
+        return messages;
+    }
+
+    @Override
+    public void clearCache() {
+        super.clearCache();
+
+        localeMessages = new ConcurrentHashMap<>();
+    }
+
+    private LocaleMessages compileMessages(final Locale locale) {
+        Properties properties = getMergedProperties(locale).getProperties();
+        Map<String, String> messages = new HashMap<>();
+
+        if (properties != null) {
+            for (String code : properties.stringPropertyNames()) {
+                messages.put(code, properties.getProperty(code));
+            }
+        }
+
+        return new LocaleMessages(locale, messages);
+    }
+
+    private static final class LocaleMessages {
+
+        private final Locale locale;
+
+        private final Map<String, String> messages;
+
+        private final ConcurrentMap<String, MessageFormat> messageFormats = new ConcurrentHashMap<>();
+
+        private final Set<String> missingCodes = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+        private LocaleMessages(final Locale locale, final Map<String, String> messages) {
+            this.locale = locale;
+            this.messages = messages;
+        }
+
+        private String getMessage(final String code, final Object[] args) {
+            String message = messages.get(code);
+
+            if (message == null || args == null || args.length == 0) {
+                return message;
+            }
+
+            MessageFormat messageFormat = messageFormats.get(code);
+
+            if (messageFormat == null) {
+                messageFormat = messageFormats.computeIfAbsent(code, key -> new MessageFormat(message, locale));
+            }
+
+            synchronized (messageFormat) {
+                return messageFormat.format(args);
+            }
+        }
+
+    }
+
+}
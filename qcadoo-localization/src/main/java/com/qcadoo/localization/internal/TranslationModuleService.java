@@ -40,6 +40,8 @@ import org.springframework.context.support.ReloadableResourceBundleMessageSource
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 
+import com.qcadoo.localization.api.TranslationsChangedEvent;
+
 @Service
 public class TranslationModuleService {
 
@@ -59,12 +61,14 @@ public class TranslationModuleService {
         String[] basenamesArray = basenames.toArray(new String[basenames.size()]);
         ArrayUtils.reverse(basenamesArray);
         messageSource.setBasenames(basenamesArray);
+        applicationContext.publishEvent(new TranslationsChangedEvent(this));
     }
 
     public void removeTranslationModule(final Collection<? extends String> moduleBasenames) {
         basenames.removeAll(moduleBasenames);
         messageSource.clearCache();
         messageSource.setBasenames(basenames.toArray(new String[basenames.size()]));
+        applicationContext.publishEvent(new TranslationsChangedEvent(this));
     }
 
     public List<Resource> getLocalizationResources() {
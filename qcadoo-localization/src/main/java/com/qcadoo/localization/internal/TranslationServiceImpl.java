@@ -25,10 +25,10 @@ package com.qcadoo.localization.internal;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
@@ -43,8 +43,6 @@ import org.springframework.context.support.ReloadableResourceBundleMessageSource
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 
-import com.google.common.collect.Lists;
-
 @Service
 public final class TranslationServiceImpl implements InternalTranslationService {
 
@@ -81,7 +79,7 @@ public final class TranslationServiceImpl implements InternalTranslationService
             return message.trim();
         }
 
-        TRANSLATION_LOG.warn("Missing translation " + code + " for locale " + locale);
+        logMissingTranslation(code, locale);
 
         if (ignoreMissingTranslations) {
             message = translateWithError(code, Locale.ENGLISH, args);
@@ -95,7 +93,7 @@ public final class TranslationServiceImpl implements InternalTranslationService
         }
     }
 
-    private String translate(final List<String> messageCodes, final Locale locale, final String... args) {
+    private String translate(final String[] messageCodes, final Locale locale, final String... args) {
         for (String messageCode : messageCodes) {
             String message = translateWithError(messageCode, locale, args);
             if (message != null) {
@@ -103,7 +101,7 @@ public final class TranslationServiceImpl implements InternalTranslationService
             }
         }
 
-        TRANSLATION_LOG.warn("Missing translation " + messageCodes + " for locale " + locale);
+        logMissingTranslation(Arrays.toString(messageCodes), locale);
 
         if (ignoreMissingTranslations) {
             for (String messageCode : messageCodes) {
@@ -114,19 +112,19 @@ public final class TranslationServiceImpl implements InternalTranslationService
             }
             return DEFAULT_MISSING_MESSAGE;
         } else {
-            return messageCodes.toString();
+            return Arrays.toString(messageCodes);
         }
     }
 
     @Override
     public String translate(final String code, final String secondCode, final Locale locale, final String... args) {
-        return translate(Lists.newArrayList(code, secondCode), locale, args);
+        return translate(new String[] { code, secondCode }, locale, args);
     }
 
     @Override
     public String translate(final String code, final String secondCode, final String thirdCode, final Locale locale,
             final String... args) {
-        return translate(Lists.newArrayList(code, secondCode, thirdCode), locale, args);
+        return translate(new String[] { code, secondCode, thirdCode }, locale, args);
     }
 
     private String translateWithError(final String messageCode, final Locale locale, final String[] args) {
@@ -140,11 +138,20 @@ public final class TranslationServiceImpl implements InternalTranslationService
 
             return reloadableResourceBundleMessageSource.getMessage(messageCode, args, null, locale);
 
+        } else if (messageSource instanceof TranslationMessageSource) {
+            return ((TranslationMessageSource) messageSource).getTranslation(messageCode, args, locale);
         } else {
             return messageSource.getMessage(messageCode, args, null, locale);
         }
     }
 
+    private void logMissingTranslation(final String codes, final Locale locale) {
+        if (!(messageSource instanceof TranslationMessageSource)
+                || ((TranslationMessageSource) messageSource).recordMissingTranslation(codes, locale)) {
+            TRANSLATION_LOG.warn("Missing translation " + codes + " for locale " + locale);
+        }
+    }
+
     @Override
     public Map<String, String> getMessagesGroup(final String group, final Locale locale) {
         if (!GROUP_MESSAGES.containsKey(group)) {
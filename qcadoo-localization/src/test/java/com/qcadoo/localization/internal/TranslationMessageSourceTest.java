@@ -0,0 +1,148 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.localization.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Locale;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TranslationMessageSourceTest {
+
+    private static final Locale L_POLISH = new Locale("pl", "PL");
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private TranslationMessageSource messageSource;
+
+    @Before
+    public void init() throws IOException {
+        writeMessages("messages.properties", "common.title=Title\ncommon.count={0} has {1} items\ncommon.quote=it''s {0}\n");
+        writeMessages("messages_pl.properties", "common.title=Tytu\\u0142\n");
+
+        messageSource = new TranslationMessageSource();
+        messageSource.setBasename("file:" + new File(temporaryFolder.getRoot(), "messages").getAbsolutePath());
+        messageSource.setDefaultEncoding("UTF-8");
+        messageSource.setFallbackToSystemLocale(false);
+    }
+
+    @Test
+    public void shouldResolveMessageOfLanguageForLocaleWithCountry() {
+        // when
+        String message = messageSource.getTranslation("common.title", null, L_POLISH);
+
+        // then
+        assertEquals("Tytu\u0142", message);
+    }
+
+    @Test
+    public void shouldFallBackToDefaultMessagesIfLocaleHasNoSuchMessage() {
+        // when
+        String message = messageSource.getTranslation("common.count", null, L_POLISH);
+
+        // then
+        assertEquals("{0} has {1} items", message);
+    }
+
+    @Test
+    public void shouldReturnNullForMissingMessage() {
+        // when
+        String message = messageSource.getTranslation("common.missing", null, L_POLISH);
+
+        // then
+        assertNull(message);
+    }
+
+    @Test
+    public void shouldFormatMessageArguments() {
+        // when
+        String first = messageSource.getTranslation("common.count", new Object[] { "Box", "3" }, Locale.ENGLISH);
+        String second = messageSource.getTranslation("common.count", new Object[] { "Bag", "5" }, Locale.ENGLISH);
+        String quoted = messageSource.getTranslation("common.quote", new Object[] { "done" }, Locale.ENGLISH);
+
+        // then
+        assertEquals("Box has 3 items", first);
+        assertEquals("Bag has 5 items", second);
+        assertEquals("it's done", quoted);
+    }
+
+    @Test
+    public void shouldReturnMessageAsIsWithoutArguments() {
+        // when
+        String message = messageSource.getTranslation("common.quote", new Object[0], Locale.ENGLISH);
+
+        // then
+        assertEquals("it''s {0}", message);
+    }
+
+    @Test
+    public void shouldReadChangedMessagesAfterCacheIsCleared() throws IOException {
+        // given
+        assertEquals("Title", messageSource.getTranslation("common.title", null, Locale.ENGLISH));
+
+        writeMessages("messages.properties", "common.title=New title\n");
+
+        // when
+        String beforeClear = messageSource.getTranslation("common.title", null, Locale.ENGLISH);
+        messageSource.clearCache();
+        String afterClear = messageSource.getTranslation("common.title", null, Locale.ENGLISH);
+
+        // then
+        assertEquals("Title", beforeClear);
+        assertEquals("New title", afterClear);
+    }
+
+    @Test
+    public void shouldRecordMissingTranslationOncePerCacheGeneration() {
+        // when
+        boolean first = messageSource.recordMissingTranslation("common.missing", L_POLISH);
+        boolean second = messageSource.recordMissingTranslation("common.missing", L_POLISH);
+        boolean otherLocale = messageSource.recordMissingTranslation("common.missing", Locale.ENGLISH);
+        messageSource.clearCache();
+        boolean afterClear = messageSource.recordMissingTranslation("common.missing", L_POLISH);
+
+        // then
+        assertTrue(first);
+        assertFalse(second);
+        assertTrue(otherLocale);
+        assertTrue(afterClear);
+    }
+
+    private void writeMessages(final String fileName, final String content) throws IOException {
+        Files.write(new File(temporaryFolder.getRoot(), fileName).toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
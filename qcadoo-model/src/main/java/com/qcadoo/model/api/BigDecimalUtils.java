@@ -25,12 +25,12 @@ package com.qcadoo.model.api;
 
 import com.google.common.base.Optional;
 import com.qcadoo.commons.functional.Either;
+import com.qcadoo.model.api.utils.FormattingUtils;
 
 import java.math.BigDecimal;
 import java.math.MathContext;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
-import java.text.NumberFormat;
 import java.util.Locale;
 
 import org.apache.commons.lang3.StringUtils;
@@ -149,10 +149,9 @@ public final class BigDecimalUtils {
     }
 
     public static String toString(BigDecimal decimal,int maximumFractionDigits) {
-        DecimalFormatSymbols symbols = new DecimalFormatSymbols(LocaleContextHolder.getLocale());
-        NumberFormat format = DecimalFormat.getNumberInstance(LocaleContextHolder.getLocale());
-        format.setMaximumFractionDigits(maximumFractionDigits);
-        return format.format(decimal)
+        Locale locale = LocaleContextHolder.getLocale();
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+        return FormattingUtils.formatDecimal(decimal, locale, 0, maximumFractionDigits)
                 .replace(String.valueOf(symbols.getGroupingSeparator()), String.valueOf(""));
     }
 }
@@ -123,6 +123,22 @@ public interface DataDefinition {
      */
     Entity fastSave(final Entity entity);
 
+    /**
+     * Save the entity related with this data definition, parsing and validating only fields which value differs from the
+     * existing entity. Unchanged belongs to fields aren't loaded, field validators are called only for changed fields and old
+     * values are read only when they are needed. Entity validators and hooks are called as in {@link #save(Entity)}. New
+     * entities are saved as in {@link #save(Entity)}.
+     * 
+     * Fields of the returned entity are read from the saved row when they are accessed for the first time, belongs to fields
+     * are returned as proxies, expressions and view hooks aren't evaluated.
+     * 
+     * @param entity
+     *            entity to save
+     * @return saved entity
+     * @since 1.5
+     */
+    Entity saveChanges(final Entity entity);
+
     /**
      * Create search criteria builder for this data definition.
      * 
@@ -190,6 +206,16 @@ public interface DataDefinition {
      */
     void moveTo(final Long id, final int position);
 
+    /**
+     * Reorder the prioritizable entities. Positions currently taken by the entities are given to them in the order of ids, all
+     * entities must belong to the same priority scope.
+     * 
+     * @param ids
+     *            ids in the target order
+     * @since 1.5
+     */
+    void reorder(final List<Long> ids);
+
     /**
      * Return all defined fields' definitions.
      * 
@@ -29,8 +29,8 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 /**
- * Describes monitorable attributes on a method. Every call of this method will be logged into log file (method name, parameters
- * and the time of execution).
+ * Describes monitorable attributes on a method. Every call of this method is measured and passed to the registered
+ * {@link PerformanceProbe}s, the default one ({@link PerformanceMonitor}) collects latency histograms and logs slow calls.
  * 
  * @since 0.4.0
  */
@@ -39,7 +39,8 @@ import java.lang.annotation.Target;
 public @interface Monitorable {
 
     /**
-     * Number of milliseconds over which the warn is logged.
+     * Number of milliseconds over which the warn is logged, can be overridden at runtime by
+     * {@link PerformanceMonitor#setSlowCallThreshold(long)}.
      * 
      * @return time threshold
      */
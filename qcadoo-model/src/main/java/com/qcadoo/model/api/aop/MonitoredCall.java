@@ -0,0 +1,92 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.model.api.aop;
+
+/**
+ * Single call of the method annotated with {@link Monitorable}.
+ * 
+ * @since 1.5
+ */
+public final class MonitoredCall {
+
+    private final String method;
+
+    private final String dataDefinition;
+
+    private final long durationInNanos;
+
+    private final long threshold;
+
+    private final boolean failed;
+
+    public MonitoredCall(final String method, final String dataDefinition, final long durationInNanos, final long threshold,
+            final boolean failed) {
+        this.method = method;
+        this.dataDefinition = dataDefinition;
+        this.durationInNanos = durationInNanos;
+        this.threshold = threshold;
+        this.failed = failed;
+    }
+
+    /**
+     * Returns short signature of the called method, i.e. "DataAccessServiceImpl.save(..)".
+     * 
+     * @return method
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * Returns "pluginIdentifier.modelName" of the data definition which call concerns.
+     * 
+     * @return data definition, null if call doesn't concern any data definition
+     */
+    public String getDataDefinition() {
+        return dataDefinition;
+    }
+
+    public long getDurationInNanos() {
+        return durationInNanos;
+    }
+
+    /**
+     * Returns threshold declared by {@link Monitorable#threshold()}.
+     * 
+     * @return threshold in milliseconds
+     */
+    public long getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Returns true if the call has ended with exception.
+     * 
+     * @return true if call has failed
+     */
+    public boolean isFailed() {
+        return failed;
+    }
+
+}
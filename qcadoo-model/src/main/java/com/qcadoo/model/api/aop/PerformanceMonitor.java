@@ -0,0 +1,68 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.model.api.aop;
+
+import java.util.List;
+
+import javax.management.MXBean;
+
+/**
+ * Collects latency histograms, call counts and error counts of the methods annotated with {@link Monitorable}. It is also
+ * available through JMX as "com.qcadoo:type=PerformanceMonitor".
+ * 
+ * @since 1.5
+ */
+@MXBean
+public interface PerformanceMonitor {
+
+    /**
+     * Returns statistics for every monitored method and for every monitored method and data definition pair.
+     * 
+     * @return statistics
+     */
+    List<PerformanceStatistics> getStatistics();
+
+    /**
+     * Removes all collected statistics.
+     */
+    void reset();
+
+    /**
+     * Returns threshold (in milliseconds) over which the call is logged as slow, negative value means that
+     * {@link Monitorable#threshold()} is used.
+     * 
+     * @return threshold
+     */
+    long getSlowCallThreshold();
+
+    /**
+     * Sets threshold (in milliseconds) over which the call is logged as slow, negative value restores
+     * {@link Monitorable#threshold()}.
+     * 
+     * @param slowCallThreshold
+     *            threshold
+     */
+    void setSlowCallThreshold(long slowCallThreshold);
+
+}
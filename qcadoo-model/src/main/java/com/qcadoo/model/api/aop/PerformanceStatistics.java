@@ -0,0 +1,113 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.model.api.aop;
+
+/**
+ * Snapshot of the statistics of the monitored method. Times are given in microseconds.
+ * 
+ * @since 1.5
+ */
+public final class PerformanceStatistics {
+
+    private final String method;
+
+    private final String dataDefinition;
+
+    private final long count;
+
+    private final long errorCount;
+
+    private final long mean;
+
+    private final long max;
+
+    private final long median;
+
+    private final long percentile90;
+
+    private final long percentile99;
+
+    private final long percentile999;
+
+    public PerformanceStatistics(final String method, final String dataDefinition, final long count, final long errorCount,
+            final long mean, final long max, final long median, final long percentile90, final long percentile99,
+            final long percentile999) {
+        this.method = method;
+        this.dataDefinition = dataDefinition;
+        this.count = count;
+        this.errorCount = errorCount;
+        this.mean = mean;
+        this.max = max;
+        this.median = median;
+        this.percentile90 = percentile90;
+        this.percentile99 = percentile99;
+        this.percentile999 = percentile999;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * Returns "pluginIdentifier.modelName" of the data definition.
+     * 
+     * @return data definition, null for statistics of all calls of the method
+     */
+    public String getDataDefinition() {
+        return dataDefinition;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    public long getMean() {
+        return mean;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public long getMedian() {
+        return median;
+    }
+
+    public long getPercentile90() {
+        return percentile90;
+    }
+
+    public long getPercentile99() {
+        return percentile99;
+    }
+
+    public long getPercentile999() {
+        return percentile999;
+    }
+
+}
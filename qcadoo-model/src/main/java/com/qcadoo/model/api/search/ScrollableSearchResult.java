@@ -0,0 +1,65 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.model.api.search;
+
+import java.io.Closeable;
+import java.util.Iterator;
+
+import com.qcadoo.model.api.Entity;
+
+/**
+ * ScrollableSearchResult iterates over entities matching given criteria without loading all of them into memory. Entities are
+ * converted lazily, one by one, and the rows loaded by the result are evicted from the session after each fetched batch, so the
+ * memory usage doesn't depend on the size of the result. Entities the session held before scrolling started stay managed.<br/>
+ * <br/>
+ * It has to be used inside the transaction and closed after use:
+ * 
+ * <pre>
+ * ScrollableSearchResult result = dataDefinition.find().scroll();
+ * try {
+ *     while (result.hasNext()) {
+ *         Entity entity = result.next();
+ *         ...
+ *     }
+ * } finally {
+ *     result.close();
+ * }
+ * </pre>
+ * 
+ * @since 1.5
+ */
+public interface ScrollableSearchResult extends Iterator<Entity>, Closeable {
+
+    /**
+     * Default number of rows fetched from the database at once.
+     */
+    int DEFAULT_FETCH_SIZE = 100;
+
+    /**
+     * Releases the underlying database cursor.
+     */
+    @Override
+    void close();
+
+}
@@ -66,6 +66,24 @@ public interface SearchCriteriaBuilder {
      */
     Entity uniqueResult();
 
+    /**
+     * Finds entities using this criteria without loading all of them into memory, see {@link ScrollableSearchResult}.
+     * 
+     * @return scrollable search result
+     * @since 1.5
+     */
+    ScrollableSearchResult scroll();
+
+    /**
+     * Finds entities using this criteria without loading all of them into memory, see {@link ScrollableSearchResult}.
+     * 
+     * @param fetchSize
+     *            number of rows fetched at once, the session is flushed and cleared after each batch
+     * @return scrollable search result
+     * @since 1.5
+     */
+    ScrollableSearchResult scroll(int fetchSize);
+
     /**
      * Sets the ascending order by given field, by default there is an order by id.
      * 
@@ -88,6 +88,24 @@ public interface SearchQueryBuilder {
      */
     Entity uniqueResult();
 
+    /**
+     * Finds entities using this query without loading all of them into memory, see {@link ScrollableSearchResult}.
+     * 
+     * @return scrollable search result
+     * @since 1.5
+     */
+    ScrollableSearchResult scroll();
+
+    /**
+     * Finds entities using this query without loading all of them into memory, see {@link ScrollableSearchResult}.
+     * 
+     * @param fetchSize
+     *            number of rows fetched at once, the session is flushed and cleared after each batch
+     * @return scrollable search result
+     * @since 1.5
+     */
+    ScrollableSearchResult scroll(int fetchSize);
+
     /**
      * Sets the max results, by default there is no limit.
      * 
@@ -300,4 +318,13 @@ public interface SearchQueryBuilder {
      * @return this search builder
      */
     SearchQueryBuilder setCacheable(boolean cacheable);
+
+    /**
+     * Skips counting of all matching entities when first or max results are set. The total number of entities of the search
+     * result will be equal to the number of returned entities.
+     *
+     * @return this query builder
+     * @since 1.5
+     */
+    SearchQueryBuilder withoutTotalCount();
 }
@@ -51,6 +51,12 @@ public interface UnitConversionModelService {
      */
     List<Entity> find(final String unit, final CustomRestriction customRestriction);
 
+    /**
+     * @return list of all global unitConversionItem entities
+     * @since 1.5
+     */
+    List<Entity> findAll();
+
     /**
      * @return UnitConversionItem's DataDefinition instance
      */
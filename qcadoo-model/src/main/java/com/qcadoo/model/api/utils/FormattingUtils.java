@@ -0,0 +1,288 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.model.api.utils;
+
+import java.text.DecimalFormat;
+import java.text.NumberFormat;
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Map;
+
+import org.joda.time.DateTime;
+import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.Maps;
+import com.qcadoo.localization.api.utils.DateUtils;
+
+/**
+ * Thread-safe number and date formatting shared by field types, number service and grid rendering.
+ * 
+ * Dates are parsed by immutable Joda formatters created once. Date and number formats from java.text are not thread-safe, so
+ * each thread keeps its own {@link SimpleDateFormat} per date pattern and {@link DecimalFormat} per locale and fraction digits
+ * configuration. Formats never leave this class, thus they can't be reconfigured by callers.
+ * 
+ * @since 1.5
+ */
+public final class FormattingUtils {
+
+    private static final DateTimeFormatter DATE_PARSER = DateTimeFormat.forPattern(DateUtils.L_DATE_FORMAT);
+
+    private static final DateTimeFormatter DATE_TIME_PARSER = DateTimeFormat.forPattern(DateUtils.L_DATE_TIME_FORMAT);
+
+    // Joda and JDK time zone data differ for historical dates, so dates are still printed by SimpleDateFormat
+    private static final ThreadLocal<SimpleDateFormat> DATE_PRINTER = new ThreadLocal<SimpleDateFormat>() {
+
+        @Override
+        protected SimpleDateFormat initialValue() {
+            return new SimpleDateFormat(DateUtils.L_DATE_FORMAT);
+        }
+
+    };
+
+    private static final ThreadLocal<SimpleDateFormat> DATE_TIME_PRINTER = new ThreadLocal<SimpleDateFormat>() {
+
+        @Override
+        protected SimpleDateFormat initialValue() {
+            return new SimpleDateFormat(DateUtils.L_DATE_TIME_FORMAT);
+        }
+
+    };
+
+    private static final ThreadLocal<Map<FormatKey, DecimalFormat>> NUMBER_FORMATS = new ThreadLocal<Map<FormatKey, DecimalFormat>>() {
+
+        @Override
+        protected Map<FormatKey, DecimalFormat> initialValue() {
+            return Maps.newHashMap();
+        }
+
+    };
+
+    private FormattingUtils() {
+    }
+
+    /**
+     * Formats number using locale's number pattern.
+     * 
+     * @param value
+     *            number to format
+     * @param locale
+     *            locale
+     * @param minimumFractionDigits
+     *            minimum number of fraction digits
+     * @param maximumFractionDigits
+     *            maximum number of fraction digits, negative values are treated as zero
+     * @return formatted number
+     */
+    public static String formatDecimal(final Object value, final Locale locale, final int minimumFractionDigits,
+            final int maximumFractionDigits) {
+        return getFormat(FormatKind.DECIMAL, locale, minimumFractionDigits, Math.max(0, maximumFractionDigits)).format(value);
+    }
+
+    /**
+     * Parses number using locale's number pattern. Parsed value is {@link java.math.BigDecimal}.
+     * 
+     * @param value
+     *            text to parse
+     * @param locale
+     *            locale
+     * @param parsePosition
+     *            parse position, updated the same way as by {@link NumberFormat#parseObject(String, ParsePosition)}
+     * @return parsed value or null
+     */
+    public static Object parseDecimal(final String value, final Locale locale, final ParsePosition parsePosition) {
+        return getFormat(FormatKind.DECIMAL_PARSER, locale, 0, 0).parseObject(value, parsePosition);
+    }
+
+    /**
+     * Formats number using locale's integer pattern.
+     * 
+     * @param value
+     *            number to format
+     * @param locale
+     *            locale
+     * @return formatted number
+     */
+    public static String formatInteger(final Object value, final Locale locale) {
+        return getFormat(FormatKind.INTEGER, locale, 0, 0).format(value);
+    }
+
+    /**
+     * Parses number using locale's integer pattern.
+     * 
+     * @param value
+     *            text to parse
+     * @param locale
+     *            locale
+     * @param parsePosition
+     *            parse position, updated the same way as by {@link NumberFormat#parse(String, ParsePosition)}
+     * @return parsed value or null
+     */
+    public static Number parseInteger(final String value, final Locale locale, final ParsePosition parsePosition) {
+        return getFormat(FormatKind.INTEGER, locale, 0, 0).parse(value, parsePosition);
+    }
+
+    /**
+     * Formats date in {@value DateUtils#L_DATE_FORMAT} format.
+     * 
+     * @param date
+     *            date
+     * @return formatted date
+     */
+    public static String formatDate(final Date date) {
+        return DATE_PRINTER.get().format(date);
+    }
+
+    /**
+     * Formats date in {@value DateUtils#L_DATE_TIME_FORMAT} format.
+     * 
+     * @param date
+     *            date
+     * @return formatted date
+     */
+    public static String formatDateTime(final Date date) {
+        return DATE_TIME_PRINTER.get().format(date);
+    }
+
+    /**
+     * Parses date in {@value DateUtils#L_DATE_FORMAT} format.
+     * 
+     * @param value
+     *            text to parse
+     * @return parsed date
+     * @throws IllegalArgumentException
+     *             if text is not valid date
+     */
+    public static DateTime parseDate(final String value) {
+        return DATE_PARSER.parseDateTime(value);
+    }
+
+    /**
+     * Parses date in {@value DateUtils#L_DATE_TIME_FORMAT} format.
+     * 
+     * @param value
+     *            text to parse
+     * @return parsed date
+     * @throws IllegalArgumentException
+     *             if text is not valid date
+     */
+    public static DateTime parseDateTime(final String value) {
+        return DATE_TIME_PARSER.parseDateTime(value);
+    }
+
+    private static DecimalFormat getFormat(final FormatKind kind, final Locale locale, final int minimumFractionDigits,
+            final int maximumFractionDigits) {
+        Map<FormatKey, DecimalFormat> formats = NUMBER_FORMATS.get();
+        FormatKey key = new FormatKey(kind, locale, minimumFractionDigits, maximumFractionDigits);
+        DecimalFormat format = formats.get(key);
+        if (format == null) {
+            format = kind.build(locale, minimumFractionDigits, maximumFractionDigits);
+            formats.put(key, format);
+        }
+        return format;
+    }
+
+    private enum FormatKind {
+
+        DECIMAL {
+
+            @Override
+            DecimalFormat build(final Locale locale, final int minimumFractionDigits, final int maximumFractionDigits) {
+                DecimalFormat format = (DecimalFormat) NumberFormat.getNumberInstance(locale);
+                format.setMinimumFractionDigits(minimumFractionDigits);
+                format.setMaximumFractionDigits(maximumFractionDigits);
+                return format;
+            }
+
+        },
+
+        DECIMAL_PARSER {
+
+            @Override
+            DecimalFormat build(final Locale locale, final int minimumFractionDigits, final int maximumFractionDigits) {
+                DecimalFormat format = (DecimalFormat) NumberFormat.getNumberInstance(locale);
+                format.setParseBigDecimal(true);
+                return format;
+            }
+
+        },
+
+        INTEGER {
+
+            @Override
+            DecimalFormat build(final Locale locale, final int minimumFractionDigits, final int maximumFractionDigits) {
+                return (DecimalFormat) NumberFormat.getIntegerInstance(locale);
+            }
+
+        };
+
+        abstract DecimalFormat build(final Locale locale, final int minimumFractionDigits, final int maximumFractionDigits);
+
+    }
+
+    private static final class FormatKey {
+
+        private final FormatKind kind;
+
+        private final Locale locale;
+
+        private final int minimumFractionDigits;
+
+        private final int maximumFractionDigits;
+
+        FormatKey(final FormatKind kind, final Locale locale, final int minimumFractionDigits, final int maximumFractionDigits) {
+            this.kind = kind;
+            this.locale = locale;
+            this.minimumFractionDigits = minimumFractionDigits;
+            this.maximumFractionDigits = maximumFractionDigits;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = kind.hashCode();
+            result = 31 * result + (locale == null ? 0 : locale.hashCode());
+            result = 31 * result + minimumFractionDigits;
+            return 31 * result + maximumFractionDigits;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof FormatKey)) {
+                return false;
+            }
+            FormatKey other = (FormatKey) obj;
+            return kind == other.kind && Objects.equal(locale, other.locale)
+                    && minimumFractionDigits == other.minimumFractionDigits
+                    && maximumFractionDigits == other.maximumFractionDigits;
+        }
+
+    }
+
+}
@@ -0,0 +1,195 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.model.internal;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.hibernate.Criteria;
+import org.hibernate.criterion.Projections;
+import org.hibernate.criterion.Restrictions;
+
+import com.google.common.collect.Lists;
+import com.qcadoo.model.api.DataDefinition;
+import com.qcadoo.model.api.Entity;
+import com.qcadoo.model.api.FieldDefinition;
+import com.qcadoo.model.api.types.BelongsToType;
+import com.qcadoo.model.internal.api.HibernateService;
+import com.qcadoo.model.internal.api.InternalDataDefinition;
+
+/**
+ * Validation-phase resolution of belongs-to references. Before a batch of entities is saved, ids referenced by their belongs-to
+ * fields are collected per referenced model. The first reference resolved during validation checks all collected ids of its
+ * model using single "id in (...)" query, and existing references are handed to the validation as lazy proxies, so hooks which
+ * don't read their fields don't load them at all. References which weren't collected or weren't found are loaded one by one, as
+ * before.
+ */
+final class BelongsToReferenceResolver {
+
+    private static final int MAX_IDS_IN_STATEMENT = 1000;
+
+    private static final ThreadLocal<BelongsToReferenceResolver> CURRENT = new ThreadLocal<BelongsToReferenceResolver>();
+
+    private final HibernateService hibernateService;
+
+    private final Map<DataDefinition, Set<Long>> pendingIds = new HashMap<DataDefinition, Set<Long>>();
+
+    private final Map<DataDefinition, Set<Long>> checkedIds = new HashMap<DataDefinition, Set<Long>>();
+
+    private final Map<DataDefinition, Set<Long>> existingIds = new HashMap<DataDefinition, Set<Long>>();
+
+    private BelongsToReferenceResolver(final HibernateService hibernateService) {
+        this.hibernateService = hibernateService;
+    }
+
+    /**
+     * Opens resolution context for current thread, returns null if the context is already opened.
+     */
+    static BelongsToReferenceResolver open(final HibernateService hibernateService) {
+        if (CURRENT.get() != null) {
+            return null;
+        }
+
+        BelongsToReferenceResolver resolver = new BelongsToReferenceResolver(hibernateService);
+        CURRENT.set(resolver);
+
+        return resolver;
+    }
+
+    void close() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Collects ids referenced by belongs-to fields of given entities, does nothing outside of the context or for a single entity.
+     */
+    static void collect(final DataDefinition dataDefinition, final Collection<Entity> entities) {
+        BelongsToReferenceResolver resolver = CURRENT.get();
+
+        if (resolver == null || entities.size() <= 1) {
+            return;
+        }
+
+        for (FieldDefinition fieldDefinition : dataDefinition.getFields().values()) {
+            if (fieldDefinition.getType() instanceof BelongsToType) {
+                resolver.register(((BelongsToType) fieldDefinition.getType()).getDataDefinition(), fieldDefinition.getName(),
+                        entities);
+            }
+        }
+    }
+
+    /**
+     * Returns referenced entity, using the ids collected in the current context when possible.
+     */
+    static Entity resolve(final DataDefinition dataDefinition, final Long id) {
+        BelongsToReferenceResolver resolver = CURRENT.get();
+
+        if (resolver != null && resolver.exists(dataDefinition, id)) {
+            return ProxyEntityBatch.createProxy((InternalDataDefinition) dataDefinition, id);
+        }
+
+        return dataDefinition.get(id);
+    }
+
+    private void register(final DataDefinition dataDefinition, final String fieldName, final Collection<Entity> entities) {
+        Set<Long> checked = checkedIds.get(dataDefinition);
+        Set<Long> pending = pendingIds.get(dataDefinition);
+
+        for (Entity entity : entities) {
+            Long id = getReferencedId(entity.getField(fieldName));
+
+            if (id == null || (checked != null && checked.contains(id))) {
+                continue;
+            }
+            if (pending == null) {
+                pending = new LinkedHashSet<Long>();
+                pendingIds.put(dataDefinition, pending);
+            }
+
+            pending.add(id);
+        }
+    }
+
+    private boolean exists(final DataDefinition dataDefinition, final Long id) {
+        Set<Long> pending = pendingIds.get(dataDefinition);
+
+        if (pending != null && pending.contains(id)) {
+            check(dataDefinition, pendingIds.remove(dataDefinition));
+        }
+
+        Set<Long> existing = existingIds.get(dataDefinition);
+
+        return existing != null && existing.contains(id);
+    }
+
+    private void check(final DataDefinition dataDefinition, final Set<Long> ids) {
+        Set<Long> existing = getOrCreate(existingIds, dataDefinition);
+
+        for (List<Long> idsChunk : Lists.partition(Lists.newArrayList(ids), MAX_IDS_IN_STATEMENT)) {
+            Criteria criteria = hibernateService.getCurrentSession()
+                    .createCriteria(((InternalDataDefinition) dataDefinition).getClassForEntity())
+                    .add(Restrictions.in("id", idsChunk)).setProjection(Projections.id());
+
+            for (Object id : criteria.list()) {
+                existing.add((Long) id);
+            }
+        }
+
+        getOrCreate(checkedIds, dataDefinition).addAll(ids);
+    }
+
+    private Set<Long> getOrCreate(final Map<DataDefinition, Set<Long>> idsByDataDefinition, final DataDefinition dataDefinition) {
+        Set<Long> ids = idsByDataDefinition.get(dataDefinition);
+
+        if (ids == null) {
+            ids = new HashSet<Long>();
+            idsByDataDefinition.put(dataDefinition, ids);
+        }
+
+        return ids;
+    }
+
+    private static Long getReferencedId(final Object value) {
+        if (value instanceof Entity) {
+            return ((Entity) value).getId();
+        } else if (value instanceof Long) {
+            return (Long) value;
+        } else if (value instanceof Integer) {
+            return Long.valueOf((Integer) value);
+        } else if (value instanceof String) {
+            try {
+                return Long.valueOf(((String) value).trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,414 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.model.internal;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.hibernate.Query;
+import org.hibernate.Session;
+import org.hibernate.engine.EntityEntry;
+import org.hibernate.engine.PersistenceContext;
+import org.hibernate.engine.SessionImplementor;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
+import com.qcadoo.model.api.FieldDefinition;
+import com.qcadoo.model.api.types.BelongsToType;
+import com.qcadoo.model.api.types.Cascadeable;
+import com.qcadoo.model.api.types.CollectionFieldType;
+import com.qcadoo.model.api.types.ManyToManyType;
+import com.qcadoo.model.internal.api.EntityService;
+import com.qcadoo.model.internal.api.InternalDataDefinition;
+import com.qcadoo.model.internal.api.InternalFieldDefinition;
+import com.qcadoo.model.internal.utils.BeanAccessor;
+
+/**
+ * Cascade deletion plan, created once per delete operation. The model graph reachable through the cascaded collection fields
+ * is walked once and for each model it is decided whether its entities can be removed with set-based statements.
+ * 
+ * Model can be deleted in bulk if it has no delete hooks, no priority, no many to many fields and all models reached through
+ * its collections can be handled in bulk too. Children of such models are collected level by level with "select id ... where
+ * joinField.id in (...)" and removed with "delete ... where id in (...)", references to the deleted entities are cleared with
+ * "update ... set joinField = null", if the referencing model has no update hooks and isn't versionable nor auditable. All the
+ * other models are deleted entity by entity, with hooks, as before.
+ * 
+ * Statements are split into chunks of {@value #MAX_IDS_IN_STATEMENT} ids. When entities of a model reference each other (e.g.
+ * tree nodes collected through their owner), they are deleted children first, so no chunk removes a row which is still
+ * referenced by a row of a later chunk.
+ */
+final class CascadeDeletionPlanner {
+
+    private static final int MAX_IDS_IN_STATEMENT = 1000;
+
+    private final Session session;
+
+    private final EntityService entityService;
+
+    private final Map<InternalDataDefinition, Boolean> bulkDeletableModels = Maps.newHashMap();
+
+    private final Map<InternalDataDefinition, Set<Long>> deletedIds = Maps.newHashMap();
+
+    CascadeDeletionPlanner(final Session session, final EntityService entityService) {
+        this.session = session;
+        this.entityService = entityService;
+    }
+
+    /**
+     * Returns persistent and enabled collection fields of the model, which have to be handled before the entity is deleted.
+     */
+    static List<FieldDefinition> getCollectionFields(final InternalDataDefinition dataDefinition) {
+        List<FieldDefinition> collectionFields = Lists.newArrayList();
+
+        for (FieldDefinition fieldDefinition : dataDefinition.getFields().values()) {
+            if (fieldDefinition.getType() instanceof CollectionFieldType && fieldDefinition.isPersistent()
+                    && ((InternalFieldDefinition) fieldDefinition).isEnabled()) {
+                collectionFields.add(fieldDefinition);
+            }
+        }
+
+        return collectionFields;
+    }
+
+    boolean canDeleteInBulk(final CollectionFieldType fieldType) {
+        return !(fieldType instanceof ManyToManyType) && Cascadeable.Cascade.DELETE.equals(fieldType.getCascade())
+                && canDeleteInBulk(getDataDefinition(fieldType));
+    }
+
+    boolean canNullifyInBulk(final CollectionFieldType fieldType) {
+        if (fieldType instanceof ManyToManyType || !Cascadeable.Cascade.NULLIFY.equals(fieldType.getCascade())) {
+            return false;
+        }
+
+        InternalDataDefinition dataDefinition = getDataDefinition(fieldType);
+        FieldDefinition joinFieldDefinition = dataDefinition.getField(fieldType.getJoinFieldName());
+
+        return dataDefinition.isEnabled() && !dataDefinition.hasUpdateHooks() && !dataDefinition.isVersionable()
+                && !dataDefinition.isAuditable() && joinFieldDefinition != null && !joinFieldDefinition.isRequired();
+    }
+
+    /**
+     * Marks entity as deleted, so it won't be deleted again if it is reached through the cycle.
+     */
+    void markAsDeleted(final InternalDataDefinition dataDefinition, final Long id) {
+        getDeletedIds(dataDefinition).add(id);
+    }
+
+    /**
+     * Deletes all entities referenced by the given collection of the given parents, with all their descendants.
+     */
+    void deleteInBulk(final CollectionFieldType fieldType, final Collection<Long> parentIds) {
+        InternalDataDefinition dataDefinition = getDataDefinition(fieldType);
+        List<Long> ids = Lists.newArrayList();
+
+        for (List<Long> parentIdsChunk : Lists.partition(Lists.newArrayList(parentIds), MAX_IDS_IN_STATEMENT)) {
+            Query query = session.createQuery("select id from " + dataDefinition.getFullyQualifiedClassName() + " where "
+                    + fieldType.getJoinFieldName() + ".id in (:ids)");
+            query.setParameterList("ids", parentIdsChunk);
+
+            for (Object id : query.list()) {
+                if (getDeletedIds(dataDefinition).add((Long) id)) {
+                    ids.add((Long) id);
+                }
+            }
+        }
+
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        for (FieldDefinition fieldDefinition : getCollectionFields(dataDefinition)) {
+            CollectionFieldType childFieldType = (CollectionFieldType) fieldDefinition.getType();
+
+            if (Cascadeable.Cascade.DELETE.equals(childFieldType.getCascade())) {
+                deleteInBulk(childFieldType, ids);
+            } else {
+                nullifyInBulk(childFieldType, ids);
+            }
+        }
+
+        for (List<Long> idsChunk : Lists.partition(orderChildrenFirst(dataDefinition, ids), MAX_IDS_IN_STATEMENT)) {
+            Query query = session.createQuery("delete from " + dataDefinition.getFullyQualifiedClassName()
+                    + " where id in (:ids)");
+            query.setParameterList("ids", idsChunk);
+            query.executeUpdate();
+        }
+
+        evictLoadedEntities(dataDefinition, Sets.newHashSet(ids));
+    }
+
+    /**
+     * Clears the join field of all entities referenced by the given collection of the given parents.
+     */
+    void nullifyInBulk(final CollectionFieldType fieldType, final Collection<Long> parentIds) {
+        InternalDataDefinition dataDefinition = getDataDefinition(fieldType);
+        String joinFieldName = fieldType.getJoinFieldName();
+
+        for (List<Long> parentIdsChunk : Lists.partition(Lists.newArrayList(parentIds), MAX_IDS_IN_STATEMENT)) {
+            Query query = session.createQuery("update " + dataDefinition.getFullyQualifiedClassName() + " set "
+                    + joinFieldName + " = null where " + joinFieldName + ".id in (:ids)");
+            query.setParameterList("ids", parentIdsChunk);
+            query.executeUpdate();
+        }
+
+        clearJoinFieldOfLoadedEntities(dataDefinition, joinFieldName, Sets.newHashSet(parentIds));
+    }
+
+    /**
+     * Orders ids, so that each entity comes before the entities it references through the belongs to fields of its own model.
+     * Entities in a reference cycle are left at the end, in the original order.
+     */
+    private List<Long> orderChildrenFirst(final InternalDataDefinition dataDefinition, final List<Long> ids) {
+        List<String> selfReferencingFields = getSelfReferencingFields(dataDefinition);
+
+        if (ids.size() <= MAX_IDS_IN_STATEMENT || selfReferencingFields.isEmpty()) {
+            return ids;
+        }
+
+        Set<Long> idsToDelete = Sets.newHashSet(ids);
+        Multimap<Long, Long> referencedIds = ArrayListMultimap.create();
+        Map<Long, Integer> referencesCount = Maps.newHashMap();
+
+        for (String fieldName : selfReferencingFields) {
+            for (List<Long> idsChunk : Lists.partition(ids, MAX_IDS_IN_STATEMENT)) {
+                Query query = session.createQuery("select id, " + fieldName + ".id from "
+                        + dataDefinition.getFullyQualifiedClassName() + " where id in (:ids) and " + fieldName
+                        + " is not null");
+                query.setParameterList("ids", idsChunk);
+
+                for (Object row : query.list()) {
+                    Long id = (Long) ((Object[]) row)[0];
+                    Long referencedId = (Long) ((Object[]) row)[1];
+
+                    if (idsToDelete.contains(referencedId) && !id.equals(referencedId)) {
+                        referencedIds.put(id, referencedId);
+                        referencesCount.put(referencedId, getReferencesCount(referencesCount, referencedId) + 1);
+                    }
+                }
+            }
+        }
+
+        List<Long> orderedIds = Lists.newArrayListWithCapacity(ids.size());
+
+        for (Long id : ids) {
+            if (getReferencesCount(referencesCount, id) == 0) {
+                orderedIds.add(id);
+            }
+        }
+
+        for (int i = 0; i < orderedIds.size(); i++) {
+            for (Long referencedId : referencedIds.get(orderedIds.get(i))) {
+                int count = getReferencesCount(referencesCount, referencedId) - 1;
+                referencesCount.put(referencedId, count);
+
+                if (count == 0) {
+                    orderedIds.add(referencedId);
+                }
+            }
+        }
+
+        if (orderedIds.size() < ids.size()) {
+            for (Long id : ids) {
+                if (getReferencesCount(referencesCount, id) > 0) {
+                    orderedIds.add(id);
+                }
+            }
+        }
+
+        return orderedIds;
+    }
+
+    private int getReferencesCount(final Map<Long, Integer> referencesCount, final Long id) {
+        Integer count = referencesCount.get(id);
+
+        return count == null ? 0 : count;
+    }
+
+    private List<String> getSelfReferencingFields(final InternalDataDefinition dataDefinition) {
+        List<String> selfReferencingFields = Lists.newArrayList();
+
+        for (FieldDefinition fieldDefinition : dataDefinition.getFields().values()) {
+            if (fieldDefinition.getType() instanceof BelongsToType && fieldDefinition.isPersistent()
+                    && dataDefinition.equals(((BelongsToType) fieldDefinition.getType()).getDataDefinition())) {
+                selfReferencingFields.add(fieldDefinition.getName());
+            }
+        }
+
+        return selfReferencingFields;
+    }
+
+    private boolean canDeleteInBulk(final InternalDataDefinition dataDefinition) {
+        if (!bulkDeletableModels.containsKey(dataDefinition)) {
+            plan(dataDefinition);
+        }
+
+        return bulkDeletableModels.get(dataDefinition);
+    }
+
+    /**
+     * Walks all models reachable from the given one through the cascade delete collections. Models which can't be deleted in
+     * bulk on their own are marked first, then the mark is propagated to every model which reaches them, until nothing
+     * changes - it handles cycles in the model graph.
+     */
+    private void plan(final InternalDataDefinition rootDataDefinition) {
+        Map<InternalDataDefinition, List<InternalDataDefinition>> cascadedModels = Maps.newLinkedHashMap();
+        List<InternalDataDefinition> modelsToVisit = Lists.newArrayList(rootDataDefinition);
+
+        while (!modelsToVisit.isEmpty()) {
+            InternalDataDefinition dataDefinition = modelsToVisit.remove(modelsToVisit.size() - 1);
+
+            if (cascadedModels.containsKey(dataDefinition) || bulkDeletableModels.containsKey(dataDefinition)) {
+                continue;
+            }
+
+            List<InternalDataDefinition> children = Lists.newArrayList();
+            boolean bulkDeletable = canDeleteInBulkOnItsOwn(dataDefinition);
+
+            for (FieldDefinition fieldDefinition : getCollectionFields(dataDefinition)) {
+                CollectionFieldType fieldType = (CollectionFieldType) fieldDefinition.getType();
+
+                if (Cascadeable.Cascade.DELETE.equals(fieldType.getCascade())) {
+                    children.add(getDataDefinition(fieldType));
+                } else if (!canNullifyInBulk(fieldType)) {
+                    bulkDeletable = false;
+                }
+            }
+
+            cascadedModels.put(dataDefinition, children);
+            modelsToVisit.addAll(children);
+
+            if (!bulkDeletable) {
+                bulkDeletableModels.put(dataDefinition, false);
+            }
+        }
+
+        boolean changed = true;
+
+        while (changed) {
+            changed = false;
+
+            for (Map.Entry<InternalDataDefinition, List<InternalDataDefinition>> cascadedModel : cascadedModels.entrySet()) {
+                if (bulkDeletableModels.containsKey(cascadedModel.getKey())) {
+                    continue;
+                }
+
+                for (InternalDataDefinition child : cascadedModel.getValue()) {
+                    if (Boolean.FALSE.equals(bulkDeletableModels.get(child))) {
+                        bulkDeletableModels.put(cascadedModel.getKey(), false);
+                        changed = true;
+                        break;
+                    }
+                }
+            }
+        }
+
+        for (InternalDataDefinition dataDefinition : cascadedModels.keySet()) {
+            if (!bulkDeletableModels.containsKey(dataDefinition)) {
+                bulkDeletableModels.put(dataDefinition, true);
+            }
+        }
+    }
+
+    private boolean canDeleteInBulkOnItsOwn(final InternalDataDefinition dataDefinition) {
+        if (!dataDefinition.isEnabled() || dataDefinition.hasDeleteHooks() || dataDefinition.isPrioritizable()) {
+            return false;
+        }
+
+        for (FieldDefinition fieldDefinition : dataDefinition.getFields().values()) {
+            if (fieldDefinition.getType() instanceof ManyToManyType && fieldDefinition.isPersistent()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private Set<Long> getDeletedIds(final InternalDataDefinition dataDefinition) {
+        Set<Long> ids = deletedIds.get(dataDefinition);
+
+        if (ids == null) {
+            ids = Sets.newHashSet();
+            deletedIds.put(dataDefinition, ids);
+        }
+
+        return ids;
+    }
+
+    private InternalDataDefinition getDataDefinition(final CollectionFieldType fieldType) {
+        return (InternalDataDefinition) fieldType.getDataDefinition();
+    }
+
+    /**
+     * Bulk statements don't touch entities which are already loaded into the session, so deleted ones are evicted, otherwise
+     * the next flush could try to update them.
+     */
+    private void evictLoadedEntities(final InternalDataDefinition dataDefinition, final Set<Long> ids) {
+        for (Object entity : getLoadedEntities(dataDefinition)) {
+            if (ids.contains(entityService.getId(entity))) {
+                session.evict(entity);
+            }
+        }
+    }
+
+    private void clearJoinFieldOfLoadedEntities(final InternalDataDefinition dataDefinition, final String joinFieldName,
+            final Set<Long> parentIds) {
+        PersistenceContext persistenceContext = ((SessionImplementor) session).getPersistenceContext();
+
+        for (Object entity : getLoadedEntities(dataDefinition)) {
+            BeanAccessor beanAccessor = BeanAccessor.forClass(entity.getClass());
+            Object parent = beanAccessor.get(entity, joinFieldName);
+
+            if (parent == null || !parentIds.contains(entityService.getId(parent))) {
+                continue;
+            }
+
+            beanAccessor.set(entity, joinFieldName, null);
+
+            EntityEntry entityEntry = persistenceContext.getEntry(entity);
+
+            if (entityEntry != null && entityEntry.getLoadedState() != null) {
+                int index = entityEntry.getPersister().getEntityMetamodel().getPropertyIndex(joinFieldName);
+                entityEntry.getLoadedState()[index] = null;
+            }
+        }
+    }
+
+    private List<Object> getLoadedEntities(final InternalDataDefinition dataDefinition) {
+        List<Object> loadedEntities = Lists.newArrayList();
+
+        for (Object entity : ((SessionImplementor) session).getPersistenceContext().getEntitiesByKey().values()) {
+            if (dataDefinition.getClassForEntity().isInstance(entity)) {
+                loadedEntities.add(entity);
+            }
+        }
+
+        return loadedEntities;
+    }
+
+}
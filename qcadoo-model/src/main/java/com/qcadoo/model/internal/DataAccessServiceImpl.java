@@ -39,6 +39,7 @@ import com.qcadoo.model.api.FieldDefinition;
 import com.qcadoo.model.api.aop.Auditable;
 import com.qcadoo.model.api.aop.Monitorable;
 import com.qcadoo.model.api.search.SearchRestrictions;
+import com.qcadoo.model.api.search.ScrollableSearchResult;
 import com.qcadoo.model.api.search.SearchResult;
 import com.qcadoo.model.api.types.Cascadeable;
 import com.qcadoo.model.api.types.CollectionFieldType;
@@ -61,6 +62,7 @@ import com.qcadoo.model.internal.api.PriorityService;
 import com.qcadoo.model.internal.api.ValidationService;
 import com.qcadoo.model.internal.search.SearchCriteria;
 import com.qcadoo.model.internal.search.SearchQuery;
+import com.qcadoo.model.internal.search.ScrollableSearchResultImpl;
 import com.qcadoo.model.internal.search.SearchResultImpl;
 import com.qcadoo.model.internal.utils.EntitySignature;
 
@@ -83,9 +85,11 @@ import org.hibernate.exception.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.interceptor.TransactionAspectSupport;
 import static com.google.common.base.Preconditions.checkArgument;
@@ -99,6 +103,12 @@ public class DataAccessServiceImpl implements DataAccessService {
 
     private static final String L_DATA_DEFINITION_MUST_BE_GIVEN = "DataDefinition must be given";
 
+    private static final int DEFAULT_PROXY_ENTITY_BATCH_SIZE = 50;
+
+    private enum SaveMode {
+        VALIDATED, FAST, CHANGED_FIELDS
+    }
+
     @Autowired
     private DataDefinitionService dataDefinitionService;
 
@@ -119,6 +129,9 @@ public class DataAccessServiceImpl implements DataAccessService {
 
     @Autowired
     private TranslationService translationService;
+
+    @Value("${proxyEntityBatchSize:50}")
+    private int proxyEntityBatchSize = DEFAULT_PROXY_ENTITY_BATCH_SIZE;
     
     private static final Logger LOG = LoggerFactory.getLogger(DataAccessServiceImpl.class);
     
@@ -127,7 +140,15 @@ public class DataAccessServiceImpl implements DataAccessService {
     @Transactional
     @Monitorable
     public Entity fastSave(final InternalDataDefinition dataDefinition, final Entity genericEntity) {
-        return save(dataDefinition, genericEntity, true);
+        return save(dataDefinition, genericEntity, SaveMode.FAST);
+    }
+
+    @Auditable
+    @Override
+    @Transactional
+    @Monitorable
+    public Entity saveChanges(final InternalDataDefinition dataDefinition, final Entity genericEntity) {
+        return save(dataDefinition, genericEntity, SaveMode.CHANGED_FIELDS);
     }
     
     @Auditable
@@ -135,7 +156,7 @@ public class DataAccessServiceImpl implements DataAccessService {
     @Transactional
     @Monitorable
     public Entity save(final InternalDataDefinition dataDefinition, final Entity genericEntity) {
-        return save(dataDefinition, genericEntity, false);
+        return save(dataDefinition, genericEntity, SaveMode.VALIDATED);
     }
 
     @Override
@@ -152,7 +173,7 @@ public class DataAccessServiceImpl implements DataAccessService {
         return genericEntity;
     }
 
-    private Entity save(final InternalDataDefinition dataDefinition, final Entity genericEntity, boolean fast) {
+    private Entity save(final InternalDataDefinition dataDefinition, final Entity genericEntity, final SaveMode saveMode) {
         Set<Entity> newlySavedEntities = new HashSet<Entity>();
 
         Long previousVersion = null;
@@ -160,7 +181,16 @@ public class DataAccessServiceImpl implements DataAccessService {
             previousVersion = genericEntity.getLongField(VersionableConstants.VERSION_FIELD_NAME);
         }
 
-        Entity resultEntity = performSave(dataDefinition, genericEntity, new HashSet<Entity>(), newlySavedEntities, fast);
+        BelongsToReferenceResolver referenceResolver = BelongsToReferenceResolver.open(hibernateService);
+
+        Entity resultEntity;
+        try {
+            resultEntity = performSave(dataDefinition, genericEntity, new HashSet<Object>(), newlySavedEntities, saveMode);
+        } finally {
+            if (referenceResolver != null) {
+                referenceResolver.close();
+            }
+        }
         try {
             if (TransactionAspectSupport.currentTransactionStatus().isRollbackOnly()) {
                 resultEntity.setNotValid();
@@ -179,32 +209,38 @@ public class DataAccessServiceImpl implements DataAccessService {
     }
     @SuppressWarnings("unchecked")
     private Entity performSave(final InternalDataDefinition dataDefinition, final Entity genericEntity,
-            final Set<Entity> alreadySavedEntities, final Set<Entity> newlySavedEntities) {
-        return performSave(dataDefinition, genericEntity, alreadySavedEntities, newlySavedEntities, false);
+            final Set<Object> alreadySavedEntities, final Set<Entity> newlySavedEntities) {
+        return performSave(dataDefinition, genericEntity, alreadySavedEntities, newlySavedEntities, SaveMode.VALIDATED);
     }
 
     @SuppressWarnings("unchecked")
     private Entity performSave(final InternalDataDefinition dataDefinition, final Entity genericEntity,
-            final Set<Entity> alreadySavedEntities, final Set<Entity> newlySavedEntities, boolean fast) {
+            final Set<Object> alreadySavedEntities, final Set<Entity> newlySavedEntities, final SaveMode saveMode) {
 
         checkNotNull(dataDefinition, L_DATA_DEFINITION_MUST_BE_GIVEN);
         checkState(dataDefinition.isEnabled(), L_DATA_DEFINITION_BELONGS_TO_DISABLED_PLUGIN);
         checkNotNull(genericEntity, "Entity must be given");
 
-        if (alreadySavedEntities.contains(genericEntity)) {
+        if (alreadySavedEntities.contains(getSavedEntityKey(genericEntity))) {
             return genericEntity;
         }
         Entity genericEntityToSave = genericEntity.copy();
 
         Object existingDatabaseEntity = getExistingDatabaseEntity(dataDefinition, genericEntity);
 
+        boolean changedFieldsOnly = saveMode == SaveMode.CHANGED_FIELDS && existingDatabaseEntity != null;
+
         Entity existingGenericEntity = null;
 
-        if (existingDatabaseEntity != null) {
+        if (changedFieldsOnly) {
+            existingGenericEntity = LazyEntityFieldValues.createEntity(dataDefinition, existingDatabaseEntity, entityService);
+        } else if (existingDatabaseEntity != null) {
             existingGenericEntity = entityService.convertToGenericEntity(dataDefinition, existingDatabaseEntity);
         }
 
-        if(!fast){
+        if (changedFieldsOnly) {
+            validationService.validateChangedFields(dataDefinition, genericEntity, existingGenericEntity);
+        } else if (saveMode != SaveMode.FAST) {
             validationService.validateGenericEntity(dataDefinition, genericEntity, existingGenericEntity);
         }
 
@@ -228,7 +264,14 @@ public class DataAccessServiceImpl implements DataAccessService {
             hibernateService.getCurrentSession().flush();
         }
 
-        Entity savedEntity = entityService.convertToGenericEntity(dataDefinition, databaseEntity);
+        Entity savedEntity;
+
+        if (changedFieldsOnly) {
+            savedEntity = LazyEntityFieldValues.createEntity(dataDefinition, databaseEntity, entityService);
+        } else {
+            savedEntity = entityService.convertToGenericEntity(dataDefinition, databaseEntity);
+        }
+
         copyGlobalMessages(dataDefinition, savedEntity, genericEntity);
 
         for (Entry<String, FieldDefinition> fieldEntry : dataDefinition.getFields().entrySet()) {
@@ -274,10 +317,15 @@ public class DataAccessServiceImpl implements DataAccessService {
         }
 
         if (LOG.isDebugEnabled()) {
-            LOG.debug(savedEntity + " has been saved");
+            if (changedFieldsOnly) {
+                LOG.debug("Entity[" + dataDefinition + "][id=" + savedEntity.getId() + "] has been saved");
+            } else {
+                LOG.debug(savedEntity + " has been saved");
+            }
         }
 
-        alreadySavedEntities.add(savedEntity);
+        alreadySavedEntities.add(getSavedEntityKey(genericEntity));
+        alreadySavedEntities.add(getSavedEntityKey(savedEntity));
 
         if (genericEntity.getId() == null && savedEntity.getId() != null) {
             newlySavedEntities.add(savedEntity);
@@ -286,6 +334,15 @@ public class DataAccessServiceImpl implements DataAccessService {
         return savedEntity;
     }
 
+    private Object getSavedEntityKey(final Entity entity) {
+        // hashing a lazily loaded entity would read all of its fields, so it is identified by its signature instead
+        if (entity.getFields() instanceof LazyEntityFieldValues) {
+            return EntitySignature.of(entity);
+        }
+
+        return entity;
+    }
+
     private void logDeletionErrors(final Entity entity) {
         logEntityErrors(entity, entity + " hasn't been deleted, because of onDelete hook rejection");
     }
@@ -321,13 +378,18 @@ public class DataAccessServiceImpl implements DataAccessService {
         return entityService.convertToDatabaseEntity((InternalDataDefinition) entity.getDataDefinition(), entity, null);
     }
 
-    private List<Entity> saveHasManyEntities(final Set<Entity> alreadySavedEntities, final Set<Entity> newlySavedEntities,
+    private List<Entity> saveHasManyEntities(final Set<Object> alreadySavedEntities, final Set<Entity> newlySavedEntities,
             final String joinFieldName, final Entity parentEntity, final List<Entity> entities,
             final InternalDataDefinition dataDefinition) {
         List<Entity> savedEntities = new ArrayList<Entity>();
 
         for (Entity innerEntity : entities) {
             innerEntity.setField(joinFieldName, parentEntity.getId());
+        }
+
+        BelongsToReferenceResolver.collect(dataDefinition, entities);
+
+        for (Entity innerEntity : entities) {
             Entity savedInnerEntity = performSave(dataDefinition, innerEntity, alreadySavedEntities, newlySavedEntities);
             savedEntities.add(savedInnerEntity);
             if (!savedInnerEntity.isValid()) {
@@ -339,12 +401,14 @@ public class DataAccessServiceImpl implements DataAccessService {
     }
 
     @SuppressWarnings("unchecked")
-    private List<Entity> saveTreeEntities(final Set<Entity> alreadySavedEntities, final Set<Entity> newlySavedEntities,
+    private List<Entity> saveTreeEntities(final Set<Object> alreadySavedEntities, final Set<Entity> newlySavedEntities,
             final String joinFieldName, final Entity parentEntity, final List<Entity> entities,
             final InternalDataDefinition dataDefinition, final Long parentId) {
         List<Entity> savedEntities = new ArrayList<Entity>();
         int i = 0;
 
+        BelongsToReferenceResolver.collect(dataDefinition, entities);
+
         for (Entity innerEntity : entities) {
             innerEntity.setField(joinFieldName, parentEntity.getId());
             innerEntity.setField("parent", parentId);
@@ -708,8 +772,11 @@ public class DataAccessServiceImpl implements DataAccessService {
         checkState(dataDefinitionToDelete.isEnabled(), L_DATA_DEFINITION_BELONGS_TO_DISABLED_PLUGIN);
         checkState(entityIds.length > 0, "EntityIds must be given");
 
+        CascadeDeletionPlanner cascadeDeletionPlanner = createCascadeDeletionPlanner();
+
         for (Long entityId : entityIds) {
-            EntityOpResult result = deleteEntity(dataDefinitionToDelete, entityId);
+            EntityOpResult result = deleteEntity(dataDefinitionToDelete, entityId, false,
+                    Sets.<EntitySignature> newHashSet(), cascadeDeletionPlanner);
             if (!result.isSuccessfull()) {
                 return result;
             }
@@ -743,7 +810,9 @@ public class DataAccessServiceImpl implements DataAccessService {
         int totalNumberOfEntities = -1;
 
         if (searchQuery.hasFirstAndMaxResults()) {
-            totalNumberOfEntities = hibernateService.list(query).size();
+            if (searchQuery.isTotalNumberOfEntitiesRequired()) {
+                totalNumberOfEntities = getTotalNumberOfEntities(searchQuery, query);
+            }
             searchQuery.addFirstAndMaxResults(query);
         }
 
@@ -780,6 +849,19 @@ public class DataAccessServiceImpl implements DataAccessService {
         return getResultSet(searchQueryDataDefinition, totalNumberOfEntities, results);
     }
 
+    private int getTotalNumberOfEntities(final SearchQuery searchQuery, final Query query) {
+        Query countQuery = searchQuery.createCountQuery(hibernateService.getCurrentSession());
+
+        if (countQuery == null) {
+            return hibernateService.getTotalNumberOfEntities(query);
+        }
+
+        searchQuery.addParameters(countQuery);
+        searchQuery.addCacheable(countQuery);
+
+        return ((Number) countQuery.uniqueResult()).intValue();
+    }
+
     @Override
     @Transactional(readOnly = true)
     @Monitorable
@@ -814,6 +896,48 @@ public class DataAccessServiceImpl implements DataAccessService {
         return getResultSet(searchQueryDataDefinition, totalNumberOfEntities, results);
     }
 
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Monitorable
+    public ScrollableSearchResult scroll(final SearchQuery searchQuery, final int fetchSize) {
+        checkArgument(searchQuery != null, "SearchQuery must be given");
+        checkArgument(fetchSize > 0, "Fetch size must be greater than 0");
+
+        Query query = searchQuery.createQuery(hibernateService.getCurrentSession());
+        searchQuery.addParameters(query);
+        searchQuery.addFirstAndMaxResults(query);
+
+        InternalDataDefinition searchQueryDataDefinition = (InternalDataDefinition) searchQuery.getDataDefinition();
+
+        if (searchQueryDataDefinition == null) {
+            searchQueryDataDefinition = hibernateService.resolveDataDefinition(query);
+        }
+
+        return new ScrollableSearchResultImpl(hibernateService.scroll(query, fetchSize), searchQueryDataDefinition,
+                entityService, hibernateService.getCurrentSession(), fetchSize);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Monitorable
+    public ScrollableSearchResult scroll(final SearchCriteria searchCriteria, final int fetchSize) {
+        checkArgument(searchCriteria != null, "SearchCriteria must be given");
+        checkArgument(fetchSize > 0, "Fetch size must be greater than 0");
+
+        Criteria criteria = searchCriteria.createCriteria(hibernateService.getCurrentSession());
+        searchCriteria.addFirstAndMaxResults(criteria);
+        searchCriteria.addOrders(criteria);
+
+        InternalDataDefinition searchCriteriaDataDefinition = (InternalDataDefinition) searchCriteria.getDataDefinition();
+
+        if (searchCriteriaDataDefinition == null) {
+            searchCriteriaDataDefinition = hibernateService.resolveDataDefinition(criteria);
+        }
+
+        return new ScrollableSearchResultImpl(hibernateService.scroll(criteria, fetchSize), searchCriteriaDataDefinition,
+                entityService, hibernateService.getCurrentSession(), fetchSize);
+    }
+
     @Override
     public void moveTo(final InternalDataDefinition dataDefinition, final Long entityId, final int position) {
         checkState(position > 0, "Position must be greaten than 0");
@@ -845,6 +969,28 @@ public class DataAccessServiceImpl implements DataAccessService {
         logEntityInfo(dataDefinitionToMove, entityId, "has been prioritized");
     }
 
+    @Override
+    @Transactional
+    @Monitorable
+    public void reorder(final InternalDataDefinition dataDefinition, final List<Long> entityIds) {
+        InternalDataDefinition dataDefinitionToReorder = getDataDefinitionByMasterModel(dataDefinition);
+        checkNotNull(dataDefinitionToReorder, L_DATA_DEFINITION_MUST_BE_GIVEN);
+        checkState(dataDefinitionToReorder.isPrioritizable(), "Entity must be prioritizable");
+        checkState(dataDefinitionToReorder.isEnabled(), L_DATA_DEFINITION_BELONGS_TO_DISABLED_PLUGIN);
+        checkNotNull(entityIds, "EntityIds must be given");
+
+        if (entityIds.size() < 2) {
+            return;
+        }
+
+        priorityService.reorder(dataDefinitionToReorder, entityIds);
+
+        if (LOG.isInfoEnabled()) {
+            LOG.info(entityIds.size() + " entities " + dataDefinitionToReorder.getPluginIdentifier() + "."
+                    + dataDefinitionToReorder.getName() + " have been reordered");
+        }
+    }
+
     private Object getExistingDatabaseEntity(final InternalDataDefinition dataDefinition, final Entity entity) {
         Object existingDatabaseEntity = null;
 
@@ -858,16 +1004,16 @@ public class DataAccessServiceImpl implements DataAccessService {
     }
 
     private EntityOpResult deleteEntity(final InternalDataDefinition dataDefinition, final Long entityId) {
-        return deleteEntity(dataDefinition, entityId, Sets.<EntitySignature> newHashSet());
+        return deleteEntity(dataDefinition, entityId, false, Sets.<EntitySignature> newHashSet(),
+                createCascadeDeletionPlanner());
     }
 
-    private EntityOpResult deleteEntity(final InternalDataDefinition dataDefinition, final Long entityId,
-            final Set<EntitySignature> traversedEntities) {
-        return deleteEntity(dataDefinition, entityId, false, traversedEntities);
+    private CascadeDeletionPlanner createCascadeDeletionPlanner() {
+        return new CascadeDeletionPlanner(hibernateService.getCurrentSession(), entityService);
     }
 
     private EntityOpResult deleteEntity(final InternalDataDefinition dataDefinition, final Long entityId, final boolean testOnly,
-            final Set<EntitySignature> traversedEntities) {
+            final Set<EntitySignature> traversedEntities, final CascadeDeletionPlanner cascadeDeletionPlanner) {
 
         Object databaseEntity = getDatabaseEntity(dataDefinition, entityId);
 
@@ -876,7 +1022,7 @@ public class DataAccessServiceImpl implements DataAccessService {
             return new EntityOpResult(true, new EntityMessagesHolderImpl());
         }
 
-        Entity entity = get(dataDefinition, entityId);
+        Entity entity = entityService.convertToGenericEntity(dataDefinition, databaseEntity);
 
         if (!dataDefinition.callDeleteHook(entity)) {
             logDeletionErrors(entity);
@@ -887,14 +1033,27 @@ public class DataAccessServiceImpl implements DataAccessService {
 
         priorityService.deprioritizeEntity(dataDefinition, databaseEntity);
 
-        Map<String, FieldDefinition> fields = dataDefinition.getFields();
-        for (FieldDefinition fieldDefinition : fields.values()) {
-            if (fieldDefinition.getType() instanceof CollectionFieldType) {
-                CollectionFieldType collectionFieldType = (CollectionFieldType) fieldDefinition.getType();
+        cascadeDeletionPlanner.markAsDeleted(dataDefinition, entityId);
+
+        boolean deletedInBulk = false;
+
+        for (FieldDefinition fieldDefinition : CascadeDeletionPlanner.getCollectionFields(dataDefinition)) {
+            CollectionFieldType collectionFieldType = (CollectionFieldType) fieldDefinition.getType();
+
+            if (!testOnly && cascadeDeletionPlanner.canDeleteInBulk(collectionFieldType)) {
+                try {
+                    cascadeDeletionPlanner.deleteInBulk(collectionFieldType, Collections.singleton(entityId));
+                } catch (ConstraintViolationException e) {
+                    throw new IllegalStateException(getConstraintViolationMessage(entity), e);
+                }
+                deletedInBulk = true;
+            } else if (!testOnly && cascadeDeletionPlanner.canNullifyInBulk(collectionFieldType)) {
+                cascadeDeletionPlanner.nullifyInBulk(collectionFieldType, Collections.singleton(entityId));
+            } else {
                 @SuppressWarnings("unchecked")
                 Collection<Entity> children = (Collection<Entity>) entity.getField(fieldDefinition.getName());
                 EntityOpResult cascadeDeletionRes = performCascadeStrategy(entity, collectionFieldType, children,
-                        traversedEntities);
+                        traversedEntities, cascadeDeletionPlanner);
                 if (!cascadeDeletionRes.isSuccessfull()) {
                     return cascadeDeletionRes;
                 }
@@ -905,6 +1064,10 @@ public class DataAccessServiceImpl implements DataAccessService {
             logEntityInfo(dataDefinition, entityId, "may be cascade deleted");
         } else {
             try {
+                if (deletedInBulk) {
+                    // loaded collections still hold the children removed in bulk, Hibernate would cascade deletion to them
+                    hibernateService.getCurrentSession().evict(databaseEntity);
+                }
                 databaseEntity = getDatabaseEntity(dataDefinition, entityId);
                 if (databaseEntity != null) {
                     hibernateService.getCurrentSession().delete(databaseEntity);
@@ -919,7 +1082,8 @@ public class DataAccessServiceImpl implements DataAccessService {
     }
 
     private EntityOpResult performCascadeStrategy(final Entity entity, final FieldType fieldType,
-            final Collection<Entity> children, final Set<EntitySignature> traversedEntities) {
+            final Collection<Entity> children, final Set<EntitySignature> traversedEntities,
+            final CascadeDeletionPlanner cascadeDeletionPlanner) {
         if (children == null || children.isEmpty()) {
             return EntityOpResult.successfull();
         }
@@ -934,7 +1098,8 @@ public class DataAccessServiceImpl implements DataAccessService {
             }
             return EntityOpResult.successfull();
         } else if (Cascadeable.Cascade.DELETE.equals(cascade)) {
-            return performCascadeDelete(childDataDefinition, children, isManyToManyType, traversedEntities);
+            return performCascadeDelete(childDataDefinition, children, isManyToManyType, traversedEntities,
+                    cascadeDeletionPlanner);
         } else {
             throw new IllegalArgumentException(String.format("Unsupported cascade value '%s'", cascade));
         }
@@ -959,12 +1124,14 @@ public class DataAccessServiceImpl implements DataAccessService {
     }
 
     private EntityOpResult performCascadeDelete(final InternalDataDefinition childDataDefinition,
-            final Collection<Entity> children, final boolean testOnly, final Set<EntitySignature> traversedEntities) {
+            final Collection<Entity> children, final boolean testOnly, final Set<EntitySignature> traversedEntities,
+            final CascadeDeletionPlanner cascadeDeletionPlanner) {
         for (Entity child : children) {
             EntitySignature childSignature = EntitySignature.of(child);
             if (!traversedEntities.contains(childSignature)) {
                 traversedEntities.add(childSignature);
-                EntityOpResult result = deleteEntity(childDataDefinition, child.getId(), testOnly, traversedEntities);
+                EntityOpResult result = deleteEntity(childDataDefinition, child.getId(), testOnly, traversedEntities,
+                        cascadeDeletionPlanner);
                 if (!result.isSuccessfull()) {
                     return result;
                 }
@@ -992,8 +1159,20 @@ public class DataAccessServiceImpl implements DataAccessService {
             final List<?> results) {
         List<Entity> genericResults = new ArrayList<Entity>();
 
-        for (Object databaseEntity : results) {
-            genericResults.add(entityService.convertToGenericEntity(dataDefinition, databaseEntity));
+        ProxyEntityBatch proxyEntityBatch = null;
+
+        if (results.size() > 1) {
+            proxyEntityBatch = ProxyEntityBatch.open(proxyEntityBatchSize);
+        }
+
+        try {
+            for (Object databaseEntity : results) {
+                genericResults.add(entityService.convertToGenericEntity(dataDefinition, databaseEntity));
+            }
+        } finally {
+            if (proxyEntityBatch != null) {
+                proxyEntityBatch.close();
+            }
         }
 
         SearchResultImpl resultSet = new SearchResultImpl();
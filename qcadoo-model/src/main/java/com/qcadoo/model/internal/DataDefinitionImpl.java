@@ -31,6 +31,7 @@ import com.qcadoo.model.api.FieldDefinition;
 import com.qcadoo.model.api.search.SearchCriteriaBuilder;
 import com.qcadoo.model.api.search.SearchCriterion;
 import com.qcadoo.model.api.search.SearchQueryBuilder;
+import com.qcadoo.model.api.search.ScrollableSearchResult;
 import com.qcadoo.model.api.search.SearchResult;
 import com.qcadoo.model.internal.AbstractModelXmlConverter.HooksTag;
 import com.qcadoo.model.internal.api.DataAccessService;
@@ -90,6 +91,8 @@ public final class DataDefinitionImpl implements InternalDataDefinition {
 
     private MasterModel masterModel;
 
+    private Integer batchSize;
+
     public DataDefinitionImpl(final String pluginIdentifier, final String name, final DataAccessService dataAccessService) {
         this.pluginIdentifier = pluginIdentifier;
         this.name = name;
@@ -138,6 +141,15 @@ public final class DataDefinitionImpl implements InternalDataDefinition {
         return dataAccessService.fastSave(this, entity);
     }
 
+    @Override
+    public Entity saveChanges(final Entity entity) {
+        if (!this.equals(entity.getDataDefinition())) {
+            throw new IllegalStateException("Incompatible types");
+        }
+
+        return dataAccessService.saveChanges(this, entity);
+    }
+
     @Override
     public SearchQueryBuilder find(final String queryString) {
         checkArgument(Objects.nonNull(queryString), "HQL query string must be given");
@@ -183,6 +195,11 @@ public final class DataDefinitionImpl implements InternalDataDefinition {
         return dataAccessService.find(searchCriteria);
     }
 
+    @Override
+    public ScrollableSearchResult scroll(final SearchCriteria searchCriteria, final int fetchSize) {
+        return dataAccessService.scroll(searchCriteria, fetchSize);
+    }
+
     @Override
     public void move(final Long id, final int offset) {
         dataAccessService.move(this, id, offset);
@@ -193,6 +210,11 @@ public final class DataDefinitionImpl implements InternalDataDefinition {
         dataAccessService.moveTo(this, id, position);
     }
 
+    @Override
+    public void reorder(final List<Long> ids) {
+        dataAccessService.reorder(this, ids);
+    }
+
     @Override
     public List<Entity> activate(final Long... ids) {
         if (activable) {
@@ -368,6 +390,26 @@ public final class DataDefinitionImpl implements InternalDataDefinition {
         return callHooks(entity, getDeleteHooks());
     }
 
+    @Override
+    public boolean hasDeleteHooks() {
+        return hasEnabledHooks(getDeleteHooks());
+    }
+
+    @Override
+    public boolean hasUpdateHooks() {
+        return hasEnabledHooks(getUpdateHooks()) || hasEnabledHooks(getSaveHooks()) || hasEnabledHooks(getValidators());
+    }
+
+    private boolean hasEnabledHooks(final List<EntityHookDefinition> hooks) {
+        for (EntityHookDefinition hook : hooks) {
+            if (hook.isEnabled()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     private boolean callHooks(final Entity entity, final List<EntityHookDefinition> hooksToCall) {
         for (EntityHookDefinition hook : hooksToCall) {
             if (hook.isEnabled() && !hook.call(entity)) {
@@ -457,6 +499,15 @@ public final class DataDefinitionImpl implements InternalDataDefinition {
         this.versionable = versionable;
     }
 
+    @Override
+    public Integer getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(final Integer batchSize) {
+        this.batchSize = batchSize;
+    }
+
     private Class<?> loadClassForEntity() {
         try {
             return Thread.currentThread().getContextClassLoader().loadClass(getFullyQualifiedClassName());
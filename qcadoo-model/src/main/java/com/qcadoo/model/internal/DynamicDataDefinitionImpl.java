@@ -29,6 +29,7 @@ import com.qcadoo.model.api.FieldDefinition;
 import com.qcadoo.model.api.search.SearchCriteriaBuilder;
 import com.qcadoo.model.api.search.SearchCriterion;
 import com.qcadoo.model.api.search.SearchQueryBuilder;
+import com.qcadoo.model.api.search.ScrollableSearchResult;
 import com.qcadoo.model.api.search.SearchResult;
 import com.qcadoo.model.api.types.FieldType;
 import com.qcadoo.model.internal.api.EntityHookDefinition;
@@ -101,6 +102,11 @@ public class DynamicDataDefinitionImpl implements InternalDataDefinition {
         throw new UnsupportedOperationException("Cannot save entity for dynamic data definition");
     }
 
+    @Override
+    public Entity saveChanges(final Entity entity) {
+        throw new UnsupportedOperationException("Cannot save entity for dynamic data definition");
+    }
+
     @Override
     public SearchCriteriaBuilder find() {
         throw new UnsupportedOperationException(L_CANNOT_FIND_ENTITY_FOR_DYNAMIC_DATA_DEFINITION);
@@ -136,6 +142,11 @@ public class DynamicDataDefinitionImpl implements InternalDataDefinition {
         throw new UnsupportedOperationException("Cannot move entity for dynamic data definition");
     }
 
+    @Override
+    public void reorder(final List<Long> ids) {
+        throw new UnsupportedOperationException("Cannot move entity for dynamic data definition");
+    }
+
     @Override
     public Map<String, FieldDefinition> getFields() {
         return fields;
@@ -180,6 +191,11 @@ public class DynamicDataDefinitionImpl implements InternalDataDefinition {
         throw new UnsupportedOperationException(L_CANNOT_FIND_ENTITY_FOR_DYNAMIC_DATA_DEFINITION);
     }
 
+    @Override
+    public ScrollableSearchResult scroll(final SearchCriteria searchCriteria, final int fetchSize) {
+        throw new UnsupportedOperationException(L_CANNOT_FIND_ENTITY_FOR_DYNAMIC_DATA_DEFINITION);
+    }
+
     @Override
     public String getFullyQualifiedClassName() {
         throw new UnsupportedOperationException("Cannot get class for dynamic data definition");
@@ -245,6 +261,21 @@ public class DynamicDataDefinitionImpl implements InternalDataDefinition {
         return false;
     }
 
+    @Override
+    public boolean hasDeleteHooks() {
+        return false;
+    }
+
+    @Override
+    public boolean hasUpdateHooks() {
+        return false;
+    }
+
+    @Override
+    public Integer getBatchSize() {
+        return null;
+    }
+
     @Override
     public MasterModel getMasterModel() {
         return null;
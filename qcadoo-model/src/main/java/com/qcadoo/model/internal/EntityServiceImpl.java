@@ -38,7 +38,7 @@ import com.qcadoo.model.internal.api.HibernateService;
 import com.qcadoo.model.internal.api.InternalDataDefinition;
 import com.qcadoo.model.internal.api.InternalFieldDefinition;
 import com.qcadoo.model.internal.types.PasswordType;
-import org.apache.commons.beanutils.PropertyUtils;
+import com.qcadoo.model.internal.utils.BeanAccessor;
 import org.hibernate.proxy.HibernateProxy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -294,7 +294,7 @@ public final class EntityServiceImpl implements EntityService {
                 if (id == null) {
                     innerEntity = convertToGenericEntity(referencedDataDefinition, innerDatabaseEntity);
                 } else {
-                    innerEntity = new ProxyEntity(referencedDataDefinition, id);
+                    innerEntity = ProxyEntityBatch.createProxy(referencedDataDefinition, id);
                 }
                 genericEntities.add(innerEntity);
             }
@@ -338,7 +338,7 @@ public final class EntityServiceImpl implements EntityService {
                 return null;
             }
 
-            return new ProxyEntity(referencedDataDefinition, id);
+            return ProxyEntityBatch.createProxy(referencedDataDefinition, id);
         } else {
             Entity currentPerformer = performer;
             if (performer == null || performer.getId() == null && referencedDataDefinition.equals(performer.getDataDefinition())) {
@@ -350,7 +350,7 @@ public final class EntityServiceImpl implements EntityService {
 
     private void setField(final Object databaseEntity, final String fieldName, final Object value) {
         try {
-            PropertyUtils.setProperty(databaseEntity, fieldName, value);
+            BeanAccessor.forClass(databaseEntity.getClass()).set(databaseEntity, fieldName, value);
         } catch (Exception e) {
             throw new IllegalStateException("cannot set value of the property: " + databaseEntity.getClass().getSimpleName()
                     + ", " + fieldName, e);
@@ -359,7 +359,7 @@ public final class EntityServiceImpl implements EntityService {
 
     private Object getField(final Object databaseEntity, final String fieldName) {
         try {
-            return PropertyUtils.getProperty(databaseEntity, fieldName);
+            return BeanAccessor.forClass(databaseEntity.getClass()).get(databaseEntity, fieldName);
         } catch (Exception e) {
             throw new IllegalStateException("cannot get value of the property: " + databaseEntity.getClass().getSimpleName()
                     + ", " + fieldName, e);
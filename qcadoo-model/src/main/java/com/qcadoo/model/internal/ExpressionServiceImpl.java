@@ -23,6 +23,8 @@
  */
 package com.qcadoo.model.internal;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.qcadoo.localization.api.TranslationService;
 import com.qcadoo.model.api.Entity;
 import com.qcadoo.model.api.ExpressionService;
@@ -37,8 +39,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
 import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.SpelCompilerMode;
 import org.springframework.expression.spel.SpelEvaluationException;
 import org.springframework.expression.spel.SpelMessage;
+import org.springframework.expression.spel.SpelNode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.ast.VariableReference;
+import org.springframework.expression.spel.standard.SpelExpression;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.stereotype.Component;
@@ -69,6 +76,16 @@ public final class ExpressionServiceImpl implements ExpressionService {
 
     private static final String EVALUATION_ERROR_MESSAGE = "Error while calculating value of expression \"%s\" for \"%s\".";
 
+    private static final int EXPRESSIONS_CACHE_SIZE = 2000;
+
+    private static final Pattern TRANSLATION_KEY_PATTERN = Pattern.compile("\\@([a-zA-Z_0-9\\.]+)");
+
+    private static final ExpressionParser PARSER = new SpelExpressionParser(new SpelParserConfiguration(
+            SpelCompilerMode.MIXED, ExpressionServiceImpl.class.getClassLoader()));
+
+    private final Cache<String, ParsedExpression> expressionsCache = CacheBuilder.newBuilder()
+            .maximumSize(EXPRESSIONS_CACHE_SIZE).build();
+
     private static ExpressionService instance = null;
 
     @Autowired
@@ -130,15 +147,10 @@ public final class ExpressionServiceImpl implements ExpressionService {
     }
 
     private String evaluateExpression(final String expression, final Entity entity, final Locale locale) {
-        ExpressionParser parser = new SpelExpressionParser();
-        Expression exp = parser.parseExpression(expression);
-        int level = ENTITY_FLATTENING_DEPTH;
-        if (!expression.contains(".") && !expression.contains("[")) {
-            level = ENTITY_MIN_FLATTENING_DEPTH;
-        }
-        EvaluationContext evaluationContext = getEvaluationContext(entity, level, locale);
+        ParsedExpression parsedExpression = getParsedExpression(expression);
+        EvaluationContext evaluationContext = getEvaluationContext(entity, parsedExpression, locale);
         try {
-            String value = String.valueOf(exp.getValue(evaluationContext));
+            String value = String.valueOf(parsedExpression.getExpression().getValue(evaluationContext));
             if (LOG.isDebugEnabled()) {
                 LOG.debug(String.format(EVALUATION_RESULT_DEBUG_MESSAGE, expression, entity, value));
             }
@@ -152,10 +164,23 @@ public final class ExpressionServiceImpl implements ExpressionService {
         }
     }
 
-    private EvaluationContext getEvaluationContext(final Entity entity, final int level, final Locale locale) {
+    private ParsedExpression getParsedExpression(final String expression) {
+        ParsedExpression parsedExpression = expressionsCache.getIfPresent(expression);
+
+        if (parsedExpression == null) {
+            parsedExpression = new ParsedExpression(expression, PARSER.parseExpression(expression));
+            expressionsCache.put(expression, parsedExpression);
+        }
+
+        return parsedExpression;
+    }
+
+    private EvaluationContext getEvaluationContext(final Entity entity, final ParsedExpression parsedExpression,
+            final Locale locale) {
         EvaluationContext context = new StandardEvaluationContext();
         if (entity != null) {
-            Map<String, Object> values = getValuesForEntity(entity, locale, level);
+            Map<String, Object> values = getValuesForEntity(entity, locale, parsedExpression.getLevel(),
+                    parsedExpression.getVariables());
 
             for (Map.Entry<String, Object> entry : values.entrySet()) {
                 context.setVariable(entry.getKey(), entry.getValue());
@@ -177,7 +202,7 @@ public final class ExpressionServiceImpl implements ExpressionService {
             return expression;
         }
 
-        Matcher m = Pattern.compile("\\@([a-zA-Z_0-9\\.]+)").matcher(expression);
+        Matcher m = TRANSLATION_KEY_PATTERN.matcher(expression);
         StringBuilder sb = new StringBuilder();
 
         int i = 0;
@@ -198,6 +223,11 @@ public final class ExpressionServiceImpl implements ExpressionService {
     }
 
     private Map<String, Object> getValuesForEntity(final Entity entity, final Locale locale, final int level) {
+        return getValuesForEntity(entity, locale, level, null);
+    }
+
+    private Map<String, Object> getValuesForEntity(final Entity entity, final Locale locale, final int level,
+            final Set<String> fieldNames) {
         if (entity == null) {
             return null;
         }
@@ -206,11 +236,22 @@ public final class ExpressionServiceImpl implements ExpressionService {
         values.put("id", entity.getId());
 
         if (level == 0) {
-            values.putAll(entity.getFields());
+            if (fieldNames == null) {
+                values.putAll(entity.getFields());
+            } else {
+                for (String fieldName : fieldNames) {
+                    if (entity.getFields().containsKey(fieldName)) {
+                        values.put(fieldName, entity.getField(fieldName));
+                    }
+                }
+            }
             return values;
         }
 
         for (Map.Entry<String, Object> entry : entity.getFields().entrySet()) {
+            if (fieldNames != null && !fieldNames.contains(entry.getKey())) {
+                continue;
+            }
             if (entry.getValue() instanceof Collection) {
                 values.put(entry.getKey(), entry.getValue());
             } else {
@@ -241,4 +282,54 @@ public final class ExpressionServiceImpl implements ExpressionService {
         }
     }
 
+    private static final class ParsedExpression {
+
+        private final Expression expression;
+
+        private final Set<String> variables;
+
+        private final int level;
+
+        ParsedExpression(final String expressionString, final Expression expression) {
+            this.expression = expression;
+            this.variables = getVariables(expression);
+            if (expressionString.contains(".") || expressionString.contains("[")) {
+                this.level = ENTITY_FLATTENING_DEPTH;
+            } else {
+                this.level = ENTITY_MIN_FLATTENING_DEPTH;
+            }
+        }
+
+        private static Set<String> getVariables(final Expression expression) {
+            if (!(expression instanceof SpelExpression)) {
+                return null;
+            }
+            Set<String> variables = new HashSet<String>();
+            collectVariables(((SpelExpression) expression).getAST(), variables);
+            return variables;
+        }
+
+        private static void collectVariables(final SpelNode node, final Set<String> variables) {
+            if (node instanceof VariableReference) {
+                variables.add(node.toStringAST().substring(1));
+            }
+            for (int i = 0; i < node.getChildCount(); i++) {
+                collectVariables(node.getChild(i), variables);
+            }
+        }
+
+        public Expression getExpression() {
+            return expression;
+        }
+
+        public Set<String> getVariables() {
+            return variables;
+        }
+
+        public int getLevel() {
+            return level;
+        }
+
+    }
+
 }
@@ -36,6 +36,9 @@ import com.qcadoo.model.internal.types.StringType;
 import org.apache.commons.lang3.StringUtils;
 import org.hibernate.Criteria;
 import org.hibernate.Query;
+import org.hibernate.SQLQuery;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.SessionFactory;
 import org.hibernate.classic.Session;
 import org.hibernate.engine.SessionFactoryImplementor;
@@ -50,8 +53,10 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 @Service
 public class HibernateServiceImpl implements HibernateService {
@@ -69,6 +74,21 @@ public class HibernateServiceImpl implements HibernateService {
         return sessionFactory.getCurrentSession();
     }
 
+    @Override
+    public SQLQuery createSQLQuery(final String sql, final Map<String, ?> parameters) {
+        SQLQuery query = getCurrentSession().createSQLQuery(sql);
+
+        for (Map.Entry<String, ?> parameter : parameters.entrySet()) {
+            if (parameter.getValue() instanceof Collection) {
+                query.setParameterList(parameter.getKey(), (Collection<?>) parameter.getValue());
+            } else {
+                query.setParameter(parameter.getKey(), parameter.getValue());
+            }
+        }
+
+        return query;
+    }
+
     @Override
     public int getTotalNumberOfEntities(final Criteria criteria) {
         final CriteriaImpl criteriaImpl = (CriteriaImpl) criteria;
@@ -91,6 +111,21 @@ public class HibernateServiceImpl implements HibernateService {
                         translator.getQueryParameters().getPositionalParameterTypes()).uniqueResult()).intValue();
     }
 
+    @Override
+    public int getTotalNumberOfEntities(final Query query) {
+        // used for queries which can't be rewritten into "select count(*)", only the last row is hydrated
+        ScrollableResults results = query.scroll(ScrollMode.SCROLL_INSENSITIVE);
+
+        try {
+            if (results.last()) {
+                return results.getRowNumber() + 1;
+            }
+            return 0;
+        } finally {
+            results.close();
+        }
+    }
+
     @Override
     public InternalDataDefinition resolveDataDefinition(final Criteria criteria) {
         final CriteriaImpl criteriaImpl = (CriteriaImpl) criteria;
@@ -193,4 +228,14 @@ public class HibernateServiceImpl implements HibernateService {
         return criteria.list();
     }
 
+    @Override
+    public ScrollableResults scroll(final Query query, final int fetchSize) {
+        return query.setFetchSize(fetchSize).scroll(ScrollMode.FORWARD_ONLY);
+    }
+
+    @Override
+    public ScrollableResults scroll(final Criteria criteria, final int fetchSize) {
+        return criteria.setFetchSize(fetchSize).scroll(ScrollMode.FORWARD_ONLY);
+    }
+
 }
@@ -0,0 +1,198 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.model.internal;
+
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.hibernate.proxy.HibernateProxy;
+
+import com.google.common.collect.Maps;
+import com.qcadoo.model.api.Entity;
+import com.qcadoo.model.api.FieldDefinition;
+import com.qcadoo.model.api.types.BelongsToType;
+import com.qcadoo.model.api.types.ManyToManyType;
+import com.qcadoo.model.internal.api.EntityService;
+import com.qcadoo.model.internal.api.InternalDataDefinition;
+import com.qcadoo.model.internal.api.InternalFieldDefinition;
+import com.qcadoo.model.internal.utils.BeanAccessor;
+
+/**
+ * Fields of the database entity converted to generic values one by one, when they are read for the first time. Belongs to
+ * fields are returned as proxies and many to many fields as proxy lists, so reading them never loads referenced entities.
+ * Expressions and view hooks aren't evaluated.
+ * 
+ * Values are read from the database entity at the moment of the first access, so snapshot of the existing entity must be
+ * read before the database entity is overwritten with the saved values.
+ */
+final class LazyEntityFieldValues extends AbstractMap<String, Object> {
+
+    private final InternalDataDefinition dataDefinition;
+
+    private final Object databaseEntity;
+
+    private final EntityService entityService;
+
+    private final Map<String, Object> values = Maps.newHashMap();
+
+    private boolean complete;
+
+    private LazyEntityFieldValues(final InternalDataDefinition dataDefinition, final Object databaseEntity,
+            final EntityService entityService) {
+        this.dataDefinition = dataDefinition;
+        this.databaseEntity = databaseEntity;
+        this.entityService = entityService;
+    }
+
+    static Entity createEntity(final InternalDataDefinition dataDefinition, final Object databaseEntity,
+            final EntityService entityService) {
+        Entity entity = new DefaultEntity(dataDefinition, entityService.getId(databaseEntity), new LazyEntityFieldValues(
+                dataDefinition, databaseEntity, entityService));
+
+        if (dataDefinition.isActivable()) {
+            entity.setActive((Boolean) getRawValue(databaseEntity, EntityService.FIELD_ACTIVE));
+        }
+
+        return entity;
+    }
+
+    @Override
+    public Object get(final Object key) {
+        if (complete || values.containsKey(key)) {
+            return values.get(key);
+        }
+
+        FieldDefinition fieldDefinition = getReadableField(key);
+
+        if (fieldDefinition == null) {
+            return null;
+        }
+
+        Object value = convert(fieldDefinition);
+        values.put(fieldDefinition.getName(), value);
+
+        return value;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return values.containsKey(key) || (!complete && getReadableField(key) != null);
+    }
+
+    @Override
+    public Object put(final String key, final Object value) {
+        return values.put(key, value);
+    }
+
+    @Override
+    public Object remove(final Object key) {
+        loadAll();
+
+        return values.remove(key);
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        loadAll();
+
+        return values.entrySet();
+    }
+
+    private void loadAll() {
+        if (complete) {
+            return;
+        }
+
+        for (FieldDefinition fieldDefinition : dataDefinition.getFields().values()) {
+            if (isReadable(fieldDefinition) && !values.containsKey(fieldDefinition.getName())) {
+                values.put(fieldDefinition.getName(), convert(fieldDefinition));
+            }
+        }
+
+        if (dataDefinition.isPrioritizable() && !values.containsKey(dataDefinition.getPriorityField().getName())) {
+            values.put(dataDefinition.getPriorityField().getName(), convert(dataDefinition.getPriorityField()));
+        }
+
+        complete = true;
+    }
+
+    private FieldDefinition getReadableField(final Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+
+        FieldDefinition fieldDefinition = dataDefinition.getFields().get(key);
+
+        if (fieldDefinition != null) {
+            return isReadable(fieldDefinition) ? fieldDefinition : null;
+        }
+
+        if (dataDefinition.isPrioritizable() && dataDefinition.getPriorityField().getName().equals(key)) {
+            return dataDefinition.getPriorityField();
+        }
+
+        return null;
+    }
+
+    private boolean isReadable(final FieldDefinition fieldDefinition) {
+        return fieldDefinition.isPersistent() && ((InternalFieldDefinition) fieldDefinition).isEnabled();
+    }
+
+    private Object convert(final FieldDefinition fieldDefinition) {
+        if (fieldDefinition.getType() instanceof BelongsToType) {
+            Object value = getRawValue(databaseEntity, fieldDefinition.getName());
+
+            if (value == null) {
+                return null;
+            }
+
+            Long id;
+
+            if (value instanceof HibernateProxy) {
+                id = (Long) ((HibernateProxy) value).getHibernateLazyInitializer().getIdentifier();
+            } else {
+                id = entityService.getId(value);
+            }
+
+            if (id == null) {
+                return entityService.getField(databaseEntity, fieldDefinition);
+            }
+
+            return ProxyEntityBatch.createProxy(
+                    (InternalDataDefinition) ((BelongsToType) fieldDefinition.getType()).getDataDefinition(), id);
+        }
+
+        if (fieldDefinition.getType() instanceof ManyToManyType) {
+            return new ProxyList(fieldDefinition, entityService.getId(databaseEntity), null);
+        }
+
+        return entityService.getField(databaseEntity, fieldDefinition);
+    }
+
+    private static Object getRawValue(final Object databaseEntity, final String fieldName) {
+        return BeanAccessor.forClass(databaseEntity.getClass()).get(databaseEntity, fieldName);
+    }
+
+}
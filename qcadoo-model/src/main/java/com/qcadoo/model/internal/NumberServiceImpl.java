@@ -26,17 +26,14 @@ package com.qcadoo.model.internal;
 import java.math.BigDecimal;
 import java.math.MathContext;
 import java.math.RoundingMode;
-import java.text.DecimalFormat;
-import java.util.Locale;
-import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.stereotype.Component;
 
-import com.google.common.collect.Maps;
 import com.qcadoo.model.api.NumberService;
+import com.qcadoo.model.api.utils.FormattingUtils;
 
 @Component
 public final class NumberServiceImpl implements NumberService {
@@ -49,40 +46,6 @@ public final class NumberServiceImpl implements NumberService {
 
     public static final RoundingMode ROUNDING_MODE = RoundingMode.HALF_EVEN;
 
-    private static final Map<Locale, DecimalFormat> DECIMAL_FORMATS = Maps.newConcurrentMap();
-
-    private DecimalFormat getDecimalFormat() {
-        final Locale locale = LocaleContextHolder.getLocale();
-        DecimalFormat decimalFormat = DECIMAL_FORMATS.get(locale);
-        if (decimalFormat == null) {
-            decimalFormat = buildDecimalFormat(locale);
-            DECIMAL_FORMATS.put(locale, decimalFormat);
-        }
-        return decimalFormat;
-    }
-
-    private DecimalFormat getDecimalFormat(final int minimumFractionDigits) {
-        final Locale locale = LocaleContextHolder.getLocale();
-        DecimalFormat decimalFormat = buildDecimalFormat(locale, minimumFractionDigits);
-        return decimalFormat;
-    }
-
-    private DecimalFormat buildDecimalFormat(final Locale locale) {
-        final DecimalFormat decimalFormat = (DecimalFormat) DecimalFormat.getInstance(locale);
-        decimalFormat.setMinimumFractionDigits(MIN_PRECISION);
-        decimalFormat.setMaximumFractionDigits(MAX_PRECISION);
-        decimalFormat.setRoundingMode(ROUNDING_MODE);
-        return decimalFormat;
-    }
-
-    private DecimalFormat buildDecimalFormat(final Locale locale, final int minimumFractionDigits) {
-        final DecimalFormat decimalFormat = (DecimalFormat) DecimalFormat.getInstance(locale);
-        decimalFormat.setMinimumFractionDigits(minimumFractionDigits);
-        decimalFormat.setMaximumFractionDigits(MAX_PRECISION);
-        decimalFormat.setRoundingMode(ROUNDING_MODE);
-        return decimalFormat;
-    }
-
     @Override
     public MathContext getMathContext() {
         return MathContext.DECIMAL64;
@@ -92,7 +55,7 @@ public final class NumberServiceImpl implements NumberService {
     public String format(final Object obj) {
         String formattedNumber = null;
         if (obj != null) {
-            formattedNumber = getDecimalFormat().format(obj);
+            formattedNumber = FormattingUtils.formatDecimal(obj, LocaleContextHolder.getLocale(), MIN_PRECISION, MAX_PRECISION);
         }
         return formattedNumber;
     }
@@ -101,7 +64,8 @@ public final class NumberServiceImpl implements NumberService {
     public String formatWithMinimumFractionDigits(final Object obj, final int minimumFractionDigits) {
         String formattedNumber = null;
         if (obj != null) {
-            formattedNumber = getDecimalFormat(minimumFractionDigits).format(obj);
+            formattedNumber = FormattingUtils.formatDecimal(obj, LocaleContextHolder.getLocale(), minimumFractionDigits,
+                    MAX_PRECISION);
         }
         return formattedNumber;
     }
@@ -23,25 +23,39 @@
  */
 package com.qcadoo.model.internal;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
 
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.hibernate.Criteria;
+import org.hibernate.Query;
 import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
+import org.hibernate.engine.EntityEntry;
+import org.hibernate.engine.PersistenceContext;
+import org.hibernate.engine.SessionImplementor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.qcadoo.model.api.Entity;
 import com.qcadoo.model.api.FieldDefinition;
+import com.qcadoo.model.api.types.BelongsToType;
 import com.qcadoo.model.internal.api.EntityService;
 import com.qcadoo.model.internal.api.HibernateService;
 import com.qcadoo.model.internal.api.InternalDataDefinition;
 import com.qcadoo.model.internal.api.PriorityService;
 import com.qcadoo.model.internal.types.PriorityType;
+import com.qcadoo.model.internal.utils.BeanAccessor;
 
 @Service
 public final class PriorityServiceImpl implements PriorityService {
@@ -154,9 +168,136 @@ public final class PriorityServiceImpl implements PriorityService {
         return currentPriority + offset;
     }
 
+    @Override
+    public void reorder(final InternalDataDefinition dataDefinition, final List<Long> entityIds) {
+        FieldDefinition fieldDefinition = dataDefinition.getPriorityField();
+
+        Map<Long, Object> databaseEntities = getDatabaseEntities(dataDefinition, entityIds);
+        checkState(databaseEntities.size() == entityIds.size(), "Entities %s cannot be found or are duplicated", entityIds);
+
+        FieldDefinition scopeFieldDefinition = getScopeForPriority(fieldDefinition);
+        Set<Object> scopeValues = Sets.newHashSet();
+
+        List<Integer> priorities = Lists.newArrayListWithCapacity(entityIds.size());
+
+        for (Object databaseEntity : databaseEntities.values()) {
+            Integer priority = (Integer) entityService.getField(databaseEntity, fieldDefinition);
+            checkState(priority != null, "Entity[id=%s] has no priority", entityService.getId(databaseEntity));
+            priorities.add(priority);
+
+            if (scopeFieldDefinition != null) {
+                scopeValues.add(getScopeValue(scopeFieldDefinition, databaseEntity));
+            }
+        }
+
+        checkArgument(scopeValues.size() <= 1, "Entities %s do not belong to the same priority scope", entityIds);
+
+        Collections.sort(priorities);
+
+        for (int i = 0; i < entityIds.size(); i++) {
+            Object databaseEntity = databaseEntities.get(entityIds.get(i));
+
+            if (!priorities.get(i).equals(entityService.getField(databaseEntity, fieldDefinition))) {
+                entityService.setField(databaseEntity, fieldDefinition, priorities.get(i));
+                hibernateService.getCurrentSession().update(databaseEntity);
+            }
+        }
+    }
+
     @SuppressWarnings("unchecked")
+    private Map<Long, Object> getDatabaseEntities(final InternalDataDefinition dataDefinition, final List<Long> entityIds) {
+        List<Object> databaseEntities = hibernateService.getCurrentSession()
+                .createCriteria(dataDefinition.getClassForEntity()).add(Restrictions.in("id", entityIds)).list();
+
+        Map<Long, Object> databaseEntitiesById = Maps.newHashMap();
+
+        for (Object databaseEntity : databaseEntities) {
+            databaseEntitiesById.put(entityService.getId(databaseEntity), databaseEntity);
+        }
+
+        return databaseEntitiesById;
+    }
+
     private void changePriority(final InternalDataDefinition dataDefinition, final FieldDefinition fieldDefinition,
             final Object databaseEntity, final int fromPriority, final int toPriority, final int diff) {
+        if (dataDefinition.isVersionable()) {
+            // bulk update would bypass version increments, so versioned entities are still shifted one by one
+            changePriorityOfEachEntity(dataDefinition, fieldDefinition, databaseEntity, fromPriority, toPriority, diff);
+            return;
+        }
+
+        String priorityName = fieldDefinition.getName();
+        FieldDefinition scopeFieldDefinition = getScopeForPriority(fieldDefinition);
+        Object scopeValue = null;
+
+        StringBuilder hql = new StringBuilder();
+        hql.append("update ").append(dataDefinition.getClassForEntity().getName());
+        hql.append(" set ").append(priorityName).append(" = ").append(priorityName).append(" + :diff");
+        hql.append(" where ").append(priorityName).append(" between :fromPriority and :toPriority");
+
+        if (scopeFieldDefinition != null) {
+            scopeValue = getScopeValue(scopeFieldDefinition, databaseEntity);
+
+            if (scopeValue == null) {
+                return;
+            }
+
+            hql.append(" and ").append(getScopePath(scopeFieldDefinition)).append(" = :scope");
+        }
+
+        Query query = hibernateService.getCurrentSession().createQuery(hql.toString());
+        query.setInteger("diff", diff);
+        query.setInteger("fromPriority", fromPriority);
+        query.setInteger("toPriority", toPriority);
+
+        if (scopeValue != null) {
+            query.setParameter("scope", scopeValue);
+        }
+
+        query.executeUpdate();
+
+        changePriorityOfLoadedEntities(dataDefinition, fieldDefinition, scopeValue, fromPriority, toPriority, diff);
+    }
+
+    /**
+     * Bulk update doesn't touch entities which are already loaded into the session, so their priority (and the state which
+     * Hibernate uses for dirty checking) has to be shifted in place, otherwise the next flush would write stale values back.
+     */
+    private void changePriorityOfLoadedEntities(final InternalDataDefinition dataDefinition,
+            final FieldDefinition fieldDefinition, final Object scopeValue, final int fromPriority, final int toPriority,
+            final int diff) {
+        PersistenceContext persistenceContext = ((SessionImplementor) hibernateService.getCurrentSession())
+                .getPersistenceContext();
+        FieldDefinition scopeFieldDefinition = getScopeForPriority(fieldDefinition);
+
+        for (Object entity : Lists.newArrayList(persistenceContext.getEntitiesByKey().values())) {
+            if (!dataDefinition.getClassForEntity().isInstance(entity)) {
+                continue;
+            }
+
+            Integer priority = (Integer) entityService.getField(entity, fieldDefinition);
+
+            if (priority == null || priority < fromPriority || priority > toPriority) {
+                continue;
+            }
+            if (scopeFieldDefinition != null && !scopeValue.equals(getScopeValue(scopeFieldDefinition, entity))) {
+                continue;
+            }
+
+            entityService.setField(entity, fieldDefinition, priority + diff);
+
+            EntityEntry entityEntry = persistenceContext.getEntry(entity);
+
+            if (entityEntry != null && entityEntry.getLoadedState() != null) {
+                int index = entityEntry.getPersister().getEntityMetamodel().getPropertyIndex(fieldDefinition.getName());
+                entityEntry.getLoadedState()[index] = priority + diff;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void changePriorityOfEachEntity(final InternalDataDefinition dataDefinition, final FieldDefinition fieldDefinition,
+            final Object databaseEntity, final int fromPriority, final int toPriority, final int diff) {
         Criteria criteria = getCriteria(dataDefinition, fieldDefinition, databaseEntity).add(
                 Restrictions.ge(fieldDefinition.getName(), fromPriority)).add(
                 Restrictions.le(fieldDefinition.getName(), toPriority));
@@ -170,6 +311,22 @@ public final class PriorityServiceImpl implements PriorityService {
         }
     }
 
+    private String getScopePath(final FieldDefinition scopeFieldDefinition) {
+        if (scopeFieldDefinition.getType() instanceof BelongsToType) {
+            return scopeFieldDefinition.getName() + ".id";
+        }
+        return scopeFieldDefinition.getName();
+    }
+
+    private Object getScopeValue(final FieldDefinition scopeFieldDefinition, final Object databaseEntity) {
+        Object scopeValue = BeanAccessor.forClass(databaseEntity.getClass()).get(databaseEntity, scopeFieldDefinition.getName());
+
+        if (scopeValue != null && scopeFieldDefinition.getType() instanceof BelongsToType) {
+            return entityService.getId(scopeValue);
+        }
+        return scopeValue;
+    }
+
     private int getTotalNumberOfEntities(final InternalDataDefinition dataDefinition, final FieldDefinition fieldDefinition,
             final Object databaseEntity) {
         Criteria criteria = getCriteria(dataDefinition, fieldDefinition, databaseEntity).setProjection(Projections.rowCount());
@@ -27,6 +27,7 @@ import com.qcadoo.model.api.*;
 import com.qcadoo.model.api.validators.ErrorMessage;
 import com.qcadoo.model.internal.api.EntityAwareCopyPerformers;
 import com.qcadoo.model.internal.api.EntityAwareEqualsPerformers;
+import com.qcadoo.model.internal.api.InternalDataDefinition;
 import com.qcadoo.model.internal.api.PerformerEntitiesChain;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 
@@ -47,20 +48,36 @@ public final class ProxyEntity implements Entity, EntityAwareCopyPerformers, Ent
 
     private AtomicReference<Entity> entity = new AtomicReference<Entity>(null);
 
+    private final ProxyEntityBatch batch;
+
     public ProxyEntity(final DataDefinition dataDefinition, final Long id) {
+        this(dataDefinition, id, null);
+    }
+
+    ProxyEntity(final DataDefinition dataDefinition, final Long id, final ProxyEntityBatch batch) {
         checkNotNull(id, "missing id for proxied entity");
         this.dataDefinition = dataDefinition;
         this.id = id;
+        this.batch = batch;
     }
 
     private Entity getEntity() {
         if (entity.get() == null) {
-            entity.compareAndSet(null, dataDefinition.get(id));
+            if (batch != null) {
+                batch.load((InternalDataDefinition) dataDefinition, id);
+            }
+            if (entity.get() == null) {
+                entity.compareAndSet(null, dataDefinition.get(id));
+            }
             checkNotNull(entity.get(), "Proxy can't load entity");
         }
         return entity.get();
     }
 
+    void resolve(final Entity loadedEntity) {
+        entity.compareAndSet(null, loadedEntity);
+    }
+
     @Override
     public void setId(final Long id) {
         getEntity().setId(id);
@@ -0,0 +1,148 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.model.internal;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.qcadoo.model.api.Entity;
+import com.qcadoo.model.api.search.SearchRestrictions;
+import com.qcadoo.model.internal.api.InternalDataDefinition;
+
+/**
+ * Batch resolution context for lazy belongs-to references. Proxies created while the search result is being converted are
+ * registered here. The first access to one of them loads all pending entities of the same model using single "id in (...)"
+ * query, limited by the batch size of the model or by the default one.
+ */
+final class ProxyEntityBatch {
+
+    private static final ThreadLocal<ProxyEntityBatch> CURRENT = new ThreadLocal<ProxyEntityBatch>();
+
+    private final int defaultBatchSize;
+
+    private final Map<InternalDataDefinition, Map<Long, List<ProxyEntity>>> pendingProxies = new HashMap<InternalDataDefinition, Map<Long, List<ProxyEntity>>>();
+
+    private ProxyEntityBatch(final int defaultBatchSize) {
+        this.defaultBatchSize = defaultBatchSize;
+    }
+
+    /**
+     * Opens batch context for current thread, returns null if batching is disabled or the context is already opened.
+     */
+    static ProxyEntityBatch open(final int defaultBatchSize) {
+        if (defaultBatchSize <= 1 || CURRENT.get() != null) {
+            return null;
+        }
+
+        ProxyEntityBatch batch = new ProxyEntityBatch(defaultBatchSize);
+        CURRENT.set(batch);
+
+        return batch;
+    }
+
+    void close() {
+        CURRENT.remove();
+    }
+
+    static ProxyEntity createProxy(final InternalDataDefinition dataDefinition, final Long id) {
+        ProxyEntityBatch batch = CURRENT.get();
+
+        if (batch == null || id == null) {
+            return new ProxyEntity(dataDefinition, id);
+        }
+
+        ProxyEntity proxy = new ProxyEntity(dataDefinition, id, batch);
+        batch.register(dataDefinition, proxy);
+
+        return proxy;
+    }
+
+    private synchronized void register(final InternalDataDefinition dataDefinition, final ProxyEntity proxy) {
+        Map<Long, List<ProxyEntity>> proxiesById = pendingProxies.get(dataDefinition);
+
+        if (proxiesById == null) {
+            proxiesById = new LinkedHashMap<Long, List<ProxyEntity>>();
+            pendingProxies.put(dataDefinition, proxiesById);
+        }
+
+        List<ProxyEntity> proxies = proxiesById.get(proxy.getId());
+
+        if (proxies == null) {
+            proxies = new ArrayList<ProxyEntity>(1);
+            proxiesById.put(proxy.getId(), proxies);
+        }
+
+        proxies.add(proxy);
+    }
+
+    synchronized void load(final InternalDataDefinition dataDefinition, final Long id) {
+        Map<Long, List<ProxyEntity>> proxiesById = pendingProxies.get(dataDefinition);
+
+        if (proxiesById == null || !proxiesById.containsKey(id)) {
+            return;
+        }
+
+        int batchSize = defaultBatchSize;
+
+        if (dataDefinition.getBatchSize() != null) {
+            batchSize = dataDefinition.getBatchSize();
+        }
+
+        List<Long> ids = new ArrayList<Long>();
+        ids.add(id);
+
+        for (Long pendingId : proxiesById.keySet()) {
+            if (ids.size() >= batchSize) {
+                break;
+            }
+            if (!pendingId.equals(id)) {
+                ids.add(pendingId);
+            }
+        }
+
+        List<Entity> entities = dataDefinition.find().add(SearchRestrictions.in("id", ids)).list().getEntities();
+
+        for (Entity entity : entities) {
+            List<ProxyEntity> proxies = proxiesById.remove(entity.getId());
+
+            if (proxies == null) {
+                continue;
+            }
+
+            proxies.get(0).resolve(entity);
+
+            for (int i = 1; i < proxies.size(); i++) {
+                proxies.get(i).resolve(entity.copy());
+            }
+        }
+
+        for (Long loadedId : ids) {
+            proxiesById.remove(loadedId);
+        }
+    }
+
+}
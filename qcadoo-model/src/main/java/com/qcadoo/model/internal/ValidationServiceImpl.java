@@ -23,6 +23,7 @@
  */
 package com.qcadoo.model.internal;
 
+import com.google.common.collect.Sets;
 import com.qcadoo.model.api.DataDefinition;
 import com.qcadoo.model.api.Entity;
 import com.qcadoo.model.api.FieldDefinition;
@@ -36,8 +37,12 @@ import com.qcadoo.model.internal.types.PasswordType;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.math.BigDecimal;
+import java.util.Date;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
 
 @Service
 public final class ValidationServiceImpl implements ValidationService {
@@ -46,41 +51,100 @@ public final class ValidationServiceImpl implements ValidationService {
     public void validateGenericEntity(final InternalDataDefinition dataDefinition, final Entity genericEntity,
             final Entity existingGenericEntity) {
 
+        validate(dataDefinition, genericEntity, existingGenericEntity, null);
+    }
+
+    @Override
+    public void validateChangedFields(final InternalDataDefinition dataDefinition, final Entity genericEntity,
+            final Entity existingGenericEntity) {
+        if (existingGenericEntity == null) {
+            validate(dataDefinition, genericEntity, null, null);
+        } else {
+            validate(dataDefinition, genericEntity, existingGenericEntity, Sets.<String> newHashSet());
+        }
+    }
+
+    private void validate(final InternalDataDefinition dataDefinition, final Entity genericEntity,
+            final Entity existingGenericEntity, final Set<String> unchangedFields) {
         validateEntityAgainstVersion(existingGenericEntity, genericEntity, dataDefinition);
-        copyReadOnlyAndMissingFields(dataDefinition, genericEntity, existingGenericEntity);
-        parseFields(dataDefinition, genericEntity);
+        copyReadOnlyAndMissingFields(dataDefinition, genericEntity, existingGenericEntity, unchangedFields);
+        if (unchangedFields != null) {
+            copyUnchangedBelongsToFields(dataDefinition, genericEntity, existingGenericEntity, unchangedFields);
+        }
+        parseFields(dataDefinition, genericEntity, unchangedFields);
 
         if (genericEntity.getId() == null) {
             dataDefinition.callCreateHook(genericEntity);
-            parseAndValidateEntity(dataDefinition, genericEntity, existingGenericEntity);
+            parseAndValidateEntity(dataDefinition, genericEntity, existingGenericEntity, unchangedFields);
         } else {
-            parseAndValidateEntity(dataDefinition, genericEntity, existingGenericEntity);
+            parseAndValidateEntity(dataDefinition, genericEntity, existingGenericEntity, unchangedFields);
             dataDefinition.callUpdateHook(genericEntity);
         }
         dataDefinition.callSaveHook(genericEntity);
     }
 
     private void copyReadOnlyAndMissingFields(final InternalDataDefinition dataDefinition, final Entity genericEntity,
-            final Entity existingGenericEntity) {
+            final Entity existingGenericEntity, final Set<String> unchangedFields) {
         for (Map.Entry<String, FieldDefinition> field : dataDefinition.getFields().entrySet()) {
-            Object value = null;
-            if (existingGenericEntity != null) {
-                value = existingGenericEntity.getField(field.getKey());
-            }
             if (field.getValue().getType() instanceof PasswordType) {
                 continue;
             }
-            if (field.getValue().isReadOnly()) {
-                genericEntity.setField(field.getKey(), value);
+            if (field.getValue().isReadOnly()
+                    || (!genericEntity.getFields().containsKey(field.getKey()) && genericEntity.getId() != null)) {
+                genericEntity.setField(field.getKey(), getOldFieldValue(existingGenericEntity, field.getKey()));
+                if (unchangedFields != null) {
+                    unchangedFields.add(field.getKey());
+                }
+            }
+        }
+    }
+
+    private void copyUnchangedBelongsToFields(final InternalDataDefinition dataDefinition, final Entity genericEntity,
+            final Entity existingGenericEntity, final Set<String> unchangedFields) {
+        for (Entry<String, FieldDefinition> fieldDefinitionEntry : dataDefinition.getFields().entrySet()) {
+            final String fieldName = fieldDefinitionEntry.getKey();
+            if (!(fieldDefinitionEntry.getValue().getType() instanceof BelongsToType) || unchangedFields.contains(fieldName)) {
+                continue;
+            }
+            final Object fieldValue = trimAndNullIfEmpty(genericEntity.getField(fieldName));
+            final Object oldValue = existingGenericEntity.getField(fieldName);
+            final Long oldId = oldValue instanceof Entity ? ((Entity) oldValue).getId() : null;
+
+            if (fieldValue == null && oldValue == null) {
+                genericEntity.setField(fieldName, null);
+                unchangedFields.add(fieldName);
+            } else if (oldId != null && oldId.equals(getReferencedId(fieldValue))) {
+                if (!(fieldValue instanceof Entity)) {
+                    genericEntity.setField(fieldName, oldValue);
+                }
+                unchangedFields.add(fieldName);
             }
-            if (!genericEntity.getFields().containsKey(field.getKey()) && genericEntity.getId() != null) {
-                genericEntity.setField(field.getKey(), value);
+        }
+    }
+
+    private Long getReferencedId(final Object value) {
+        if (value instanceof Entity) {
+            return ((Entity) value).getId();
+        } else if (value instanceof Long) {
+            return (Long) value;
+        } else if (value instanceof Integer) {
+            return Long.valueOf((Integer) value);
+        } else if (value instanceof String) {
+            try {
+                return Long.valueOf((String) value);
+            } catch (NumberFormatException e) {
+                return null;
             }
         }
+        return null;
     }
 
-    private void parseFields(final InternalDataDefinition dataDefinition, final Entity genericEntity) {
+    private void parseFields(final InternalDataDefinition dataDefinition, final Entity genericEntity,
+            final Set<String> unchangedFields) {
         for (Entry<String, FieldDefinition> fieldDefinitionEntry : dataDefinition.getFields().entrySet()) {
+            if (unchangedFields != null && unchangedFields.contains(fieldDefinitionEntry.getKey())) {
+                continue;
+            }
             final InternalFieldDefinition fieldDefinition = (InternalFieldDefinition) fieldDefinitionEntry.getValue();
             final FieldType fieldType = fieldDefinition.getType();
             final Object fieldValue = genericEntity.getField(fieldDefinitionEntry.getKey());
@@ -122,21 +186,26 @@ public final class ValidationServiceImpl implements ValidationService {
 
             if (referencedEntityId != null) {
                 BelongsToType belongsToFieldType = (BelongsToType) fieldDefinition.getType();
-                referencedEntity = belongsToFieldType.getDataDefinition().get(referencedEntityId);
+                referencedEntity = BelongsToReferenceResolver.resolve(belongsToFieldType.getDataDefinition(),
+                        referencedEntityId);
             }
         }
         return referencedEntity;
     }
 
     private void parseAndValidateEntity(final InternalDataDefinition dataDefinition, final Entity genericEntity,
-            final Entity existingGenericEntity) {
+            final Entity existingGenericEntity, final Set<String> unchangedFields) {
         for (Entry<String, FieldDefinition> fieldDefinitionEntry : dataDefinition.getFields().entrySet()) {
             final String fieldName = fieldDefinitionEntry.getKey();
+            if (unchangedFields != null && unchangedFields.contains(fieldName)) {
+                continue;
+            }
             final Object newValue = genericEntity.getField(fieldName);
             final Object oldValue = getOldFieldValue(existingGenericEntity, fieldName);
             final InternalFieldDefinition fieldDefinition = (InternalFieldDefinition) fieldDefinitionEntry.getValue();
 
-            final Object validatedFieldValue = parseAndValidateField(fieldDefinition, oldValue, newValue, genericEntity);
+            final Object validatedFieldValue = parseAndValidateField(fieldDefinition, oldValue, newValue, genericEntity,
+                    unchangedFields != null);
             genericEntity.setField(fieldName, validatedFieldValue);
         }
 
@@ -166,13 +235,17 @@ public final class ValidationServiceImpl implements ValidationService {
     }
 
     private Object parseAndValidateField(final InternalFieldDefinition fieldDefinition, final Object oldValue,
-            final Object newValue, final Entity validatedEntity) {
+            final Object newValue, final Entity validatedEntity, final boolean skipUnchangedValue) {
         FieldType fieldType = fieldDefinition.getType();
         Object parsedValue;
         if (fieldType instanceof HasManyType || fieldType instanceof TreeType || fieldType instanceof ManyToManyType) {
             parsedValue = newValue;
         } else {
             parsedValue = parseFieldValue(fieldDefinition, trimAndNullIfEmpty(newValue), validatedEntity);
+            if (skipUnchangedValue && !(fieldType instanceof BelongsToType) && validatedEntity.isFieldValid(fieldDefinition.getName())
+                    && isUnchanged(parsedValue, oldValue)) {
+                return parsedValue;
+            }
         }
 
         if (validatedEntity.isFieldValid(fieldDefinition.getName())
@@ -183,6 +256,16 @@ public final class ValidationServiceImpl implements ValidationService {
         }
     }
 
+    private boolean isUnchanged(final Object newValue, final Object oldValue) {
+        if (newValue instanceof BigDecimal && oldValue instanceof BigDecimal) {
+            return ((BigDecimal) newValue).compareTo((BigDecimal) oldValue) == 0;
+        }
+        if (newValue instanceof Date && oldValue instanceof Date) {
+            return ((Date) newValue).getTime() == ((Date) oldValue).getTime();
+        }
+        return Objects.equals(newValue, oldValue);
+    }
+
     private Object trimAndNullIfEmpty(final Object value) {
         if (value instanceof String && !StringUtils.hasText((String) value)) {
             return null;
@@ -0,0 +1,139 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.model.internal.aop;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free log-linear histogram in the spirit of HdrHistogram. Values below 64 are counted exactly, bigger values are
+ * counted in 32 sub-buckets per power of two, so the relative error of the reported percentiles stays below ~3%, whatever
+ * the magnitude of the value.
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    private static final int LINEAR_BUCKET_COUNT = SUB_BUCKET_COUNT << 1;
+
+    private static final int LINEAR_BUCKET_BITS = SUB_BUCKET_BITS + 1;
+
+    private static final int BUCKET_COUNT = LINEAR_BUCKET_COUNT + (Long.SIZE - 1 - LINEAR_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder sum = new LongAdder();
+
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    void record(final long value) {
+        long nonNegativeValue = Math.max(value, 0);
+
+        buckets.incrementAndGet(getBucketIndex(nonNegativeValue));
+        count.increment();
+        sum.add(nonNegativeValue);
+        max.accumulate(nonNegativeValue);
+    }
+
+    long getCount() {
+        return count.sum();
+    }
+
+    long getMax() {
+        return max.get();
+    }
+
+    long getMean() {
+        long numberOfValues = count.sum();
+
+        if (numberOfValues == 0) {
+            return 0;
+        }
+
+        return sum.sum() / numberOfValues;
+    }
+
+    /**
+     * Returns the highest value which is equivalent (lies in the same bucket) to the value at given percentile.
+     * 
+     * @param percentile
+     *            percentile, between 0 and 100
+     * @return value at percentile
+     */
+    long getValueAtPercentile(final double percentile) {
+        long[] counts = new long[BUCKET_COUNT];
+        long numberOfValues = 0;
+
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+            numberOfValues += counts[i];
+        }
+
+        if (numberOfValues == 0) {
+            return 0;
+        }
+
+        long countAtPercentile = Math.max(1, (long) Math.ceil(numberOfValues * Math.min(percentile, 100.0) / 100.0));
+        long cumulativeCount = 0;
+
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            cumulativeCount += counts[i];
+
+            if (cumulativeCount >= countAtPercentile) {
+                return Math.min(getHighestEquivalentValue(i), getMax());
+            }
+        }
+
+        return getMax();
+    }
+
+    static int getBucketIndex(final long value) {
+        if (value < LINEAR_BUCKET_COUNT) {
+            return (int) value;
+        }
+
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) - SUB_BUCKET_COUNT;
+
+        return LINEAR_BUCKET_COUNT + (exponent - LINEAR_BUCKET_BITS) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    static long getHighestEquivalentValue(final int bucketIndex) {
+        if (bucketIndex < LINEAR_BUCKET_COUNT) {
+            return bucketIndex;
+        }
+
+        int exponent = LINEAR_BUCKET_BITS + (bucketIndex - LINEAR_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+        long subBucket = SUB_BUCKET_COUNT + (bucketIndex - LINEAR_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+        int shift = exponent - SUB_BUCKET_BITS;
+
+        return (subBucket << shift) + (1L << shift) - 1;
+    }
+
+}
@@ -23,44 +23,131 @@
  */
 package com.qcadoo.model.internal.aop;
 
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.qcadoo.model.api.DataDefinition;
 import com.qcadoo.model.api.aop.Monitorable;
+import com.qcadoo.model.api.aop.MonitoredCall;
+import com.qcadoo.model.api.aop.PerformanceProbe;
 
-/*
- * FIXME MAKU resolve problem with logging method's arguments + move this aspect outside core framework.
+/**
+ * Measures calls of the methods annotated with {@link Monitorable} and passes them to the registered
+ * {@link PerformanceProbe}s. Probes are kept in a static registry (filled by {@link PerformanceProbesRegistrar}), so the
+ * advice doesn't depend on being configured by Spring - calls made before the probes are registered just aren't measured.
  * 
- * Just only removing this aspect from META-INF/aop.xml will result in disabling it from Load-Time Weaving.
- * Because our problem lies in DataAccessService, which is weaved during build
- * I decided to hide this class from AspectJ compiler by removing @Aspect annotation.
- *
- * Unfortunately this prevent us from enabling @Monitorable annotations without recompiling whole qcadoo-model.
- * This the reason why I want move such tools into separate JAR, outside qcadoo core. 
- * Then We'll could use them as a "pluggable probes".
+ * This aspect is woven at compile time only: qcadoo-model weaves it into its own classes and modules with monitored methods
+ * use the qcadoo-model "monitoring-aspect" jar, which contains only this aspect, as an aspect library. It must not be listed in
+ * META-INF/aop.xml - load-time weaving would advise classes woven during build once again, so each call would be recorded twice.
+ * 
+ * Method signatures and data definition names are rendered once and cached, so a monitored call allocates nothing but the
+ * {@link MonitoredCall} passed to the probes, and nothing at all when there are no probes.
  */
-//@Aspect
-//@Configurable
+@Aspect
 public final class MonitorableAdvice {
 
-    private static final Logger PERFORMANCE_LOG = LoggerFactory.getLogger("PERFORMANCE");
+    private static final Logger LOG = LoggerFactory.getLogger(MonitorableAdvice.class);
+
+    private static final List<PerformanceProbe> PROBES = new CopyOnWriteArrayList<PerformanceProbe>();
+
+    private static final ConcurrentMap<JoinPoint.StaticPart, String> SIGNATURES = new ConcurrentHashMap<JoinPoint.StaticPart, String>();
+
+    private static final ConcurrentMap<String, ConcurrentMap<String, String>> DATA_DEFINITION_NAMES = new ConcurrentHashMap<String, ConcurrentMap<String, String>>();
+
+    static void registerProbe(final PerformanceProbe probe) {
+        PROBES.add(probe);
+    }
+
+    static void unregisterProbe(final PerformanceProbe probe) {
+        PROBES.remove(probe);
+    }
 
-    // @Around("@annotation(monitorable)")
+    @Around("execution(* *(..)) && @annotation(monitorable)")
     public Object doBasicProfiling(final ProceedingJoinPoint pjp, final Monitorable monitorable) throws Throwable {
-        long start = System.currentTimeMillis();
+        if (PROBES.isEmpty()) {
+            return pjp.proceed();
+        }
+
+        long start = System.nanoTime();
+        boolean failed = true;
 
         try {
-            return pjp.proceed();
+            Object result = pjp.proceed();
+            failed = false;
+            return result;
         } finally {
-            long end = System.currentTimeMillis();
-            long difference = end - start;
+            long duration = System.nanoTime() - start;
+
+            notifyProbes(new MonitoredCall(getSignature(pjp.getStaticPart()), getDataDefinition(pjp), duration,
+                    monitorable.threshold(), failed));
+        }
+    }
+
+    private void notifyProbes(final MonitoredCall call) {
+        for (PerformanceProbe probe : PROBES) {
+            try {
+                probe.onCall(call);
+            } catch (RuntimeException e) {
+                LOG.warn("Performance probe " + probe.getClass().getName() + " has failed", e);
+            }
+        }
+    }
+
+    private String getSignature(final JoinPoint.StaticPart staticPart) {
+        String signature = SIGNATURES.get(staticPart);
+
+        if (signature == null) {
+            signature = staticPart.getSignature().toShortString();
+            SIGNATURES.putIfAbsent(staticPart, signature);
+        }
+
+        return signature;
+    }
 
-            if (difference > monitorable.threshold() && PERFORMANCE_LOG.isWarnEnabled()) {
-                PERFORMANCE_LOG.warn("Call " + pjp.getSignature().toShortString() + " took " + difference + " ms ");
-            } else if (PERFORMANCE_LOG.isDebugEnabled()) {
-                PERFORMANCE_LOG.debug("Call " + pjp.getSignature().toShortString() + " took " + difference + " ms ");
+    private String getDataDefinition(final ProceedingJoinPoint pjp) {
+        for (Object arg : pjp.getArgs()) {
+            if (arg instanceof DataDefinition) {
+                return getName((DataDefinition) arg);
             }
         }
+
+        if (pjp.getThis() instanceof DataDefinition) {
+            return getName((DataDefinition) pjp.getThis());
+        }
+
+        return null;
     }
+
+    private String getName(final DataDefinition dataDefinition) {
+        String pluginIdentifier = dataDefinition.getPluginIdentifier();
+        String modelName = dataDefinition.getName();
+
+        if (pluginIdentifier == null || modelName == null) {
+            return pluginIdentifier + "." + modelName;
+        }
+
+        ConcurrentMap<String, String> names = DATA_DEFINITION_NAMES.get(pluginIdentifier);
+
+        if (names == null) {
+            names = DATA_DEFINITION_NAMES.computeIfAbsent(pluginIdentifier, k -> new ConcurrentHashMap<String, String>());
+        }
+
+        String name = names.get(modelName);
+
+        if (name == null) {
+            name = names.computeIfAbsent(modelName, k -> pluginIdentifier + "." + modelName);
+        }
+
+        return name;
+    }
+
 }
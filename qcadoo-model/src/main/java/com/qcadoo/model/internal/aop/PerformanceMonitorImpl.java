@@ -0,0 +1,221 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.model.internal.aop;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.qcadoo.model.api.aop.MonitoredCall;
+import com.qcadoo.model.api.aop.PerformanceMonitor;
+import com.qcadoo.model.api.aop.PerformanceProbe;
+import com.qcadoo.model.api.aop.PerformanceStatistics;
+
+@Service
+public class PerformanceMonitorImpl implements PerformanceMonitor, PerformanceProbe {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PerformanceMonitorImpl.class);
+
+    private static final Logger PERFORMANCE_LOG = LoggerFactory.getLogger("PERFORMANCE");
+
+    private static final String OBJECT_NAME = "com.qcadoo:type=PerformanceMonitor";
+
+    private final ConcurrentMap<String, MethodGroup> statistics = Maps.newConcurrentMap();
+
+    @Value("${performanceMonitor.slowCallThreshold:-1}")
+    private volatile long slowCallThreshold = -1;
+
+    private ObjectName objectName;
+
+    @PostConstruct
+    public void registerMBean() {
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+
+            if (mBeanServer.isRegistered(name)) {
+                LOG.warn("MBean " + OBJECT_NAME + " is already registered, performance monitor won't be available through JMX");
+                return;
+            }
+
+            mBeanServer.registerMBean(new StandardMBean(this, PerformanceMonitor.class, true), name);
+            objectName = name;
+        } catch (JMException e) {
+            LOG.warn("Cannot register MBean " + OBJECT_NAME, e);
+        }
+    }
+
+    @PreDestroy
+    public void unregisterMBean() {
+        if (objectName == null) {
+            return;
+        }
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException e) {
+            LOG.warn("Cannot unregister MBean " + OBJECT_NAME, e);
+        }
+    }
+
+    @Override
+    public void onCall(final MonitoredCall call) {
+        MethodGroup group = getGroup(call.getMethod());
+
+        group.total.record(call);
+
+        if (call.getDataDefinition() != null) {
+            group.getStatistics(call.getDataDefinition()).record(call);
+        }
+
+        logCall(call);
+    }
+
+    private void logCall(final MonitoredCall call) {
+        long threshold = slowCallThreshold < 0 ? call.getThreshold() : slowCallThreshold;
+        long duration = TimeUnit.NANOSECONDS.toMillis(call.getDurationInNanos());
+
+        if (duration > threshold && PERFORMANCE_LOG.isWarnEnabled()) {
+            PERFORMANCE_LOG.warn("Call " + call.getMethod() + " took " + duration + " ms ");
+        } else if (PERFORMANCE_LOG.isDebugEnabled()) {
+            PERFORMANCE_LOG.debug("Call " + call.getMethod() + " took " + duration + " ms ");
+        }
+    }
+
+    private MethodGroup getGroup(final String method) {
+        MethodGroup group = statistics.get(method);
+
+        if (group == null) {
+            group = statistics.computeIfAbsent(method, k -> new MethodGroup(method));
+        }
+
+        return group;
+    }
+
+    @Override
+    public List<PerformanceStatistics> getStatistics() {
+        List<PerformanceStatistics> snapshot = Lists.newArrayList();
+
+        for (MethodGroup group : new TreeMap<String, MethodGroup>(statistics).values()) {
+            snapshot.add(group.total.getSnapshot());
+
+            for (MethodStatistics methodStatistics : new TreeMap<String, MethodStatistics>(group.byDataDefinition).values()) {
+                snapshot.add(methodStatistics.getSnapshot());
+            }
+        }
+
+        return snapshot;
+    }
+
+    @Override
+    public void reset() {
+        statistics.clear();
+    }
+
+    @Override
+    public long getSlowCallThreshold() {
+        return slowCallThreshold;
+    }
+
+    @Override
+    public void setSlowCallThreshold(final long slowCallThreshold) {
+        this.slowCallThreshold = slowCallThreshold;
+    }
+
+    private static final class MethodGroup {
+
+        private final String method;
+
+        private final MethodStatistics total;
+
+        private final ConcurrentMap<String, MethodStatistics> byDataDefinition = Maps.newConcurrentMap();
+
+        MethodGroup(final String method) {
+            this.method = method;
+            this.total = new MethodStatistics(method, null);
+        }
+
+        MethodStatistics getStatistics(final String dataDefinition) {
+            MethodStatistics methodStatistics = byDataDefinition.get(dataDefinition);
+
+            if (methodStatistics == null) {
+                methodStatistics = byDataDefinition.computeIfAbsent(dataDefinition,
+                        k -> new MethodStatistics(method, dataDefinition));
+            }
+
+            return methodStatistics;
+        }
+
+    }
+
+    private static final class MethodStatistics {
+
+        private final String method;
+
+        private final String dataDefinition;
+
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        private final LongAdder errorCount = new LongAdder();
+
+        MethodStatistics(final String method, final String dataDefinition) {
+            this.method = method;
+            this.dataDefinition = dataDefinition;
+        }
+
+        void record(final MonitoredCall call) {
+            histogram.record(TimeUnit.NANOSECONDS.toMicros(call.getDurationInNanos()));
+
+            if (call.isFailed()) {
+                errorCount.increment();
+            }
+        }
+
+        PerformanceStatistics getSnapshot() {
+            return new PerformanceStatistics(method, dataDefinition, histogram.getCount(), errorCount.sum(),
+                    histogram.getMean(), histogram.getMax(), histogram.getValueAtPercentile(50),
+                    histogram.getValueAtPercentile(90), histogram.getValueAtPercentile(99),
+                    histogram.getValueAtPercentile(99.9));
+        }
+
+    }
+
+}
@@ -25,6 +25,7 @@ package com.qcadoo.model.internal.api;
 
 import com.qcadoo.model.api.Entity;
 import com.qcadoo.model.api.EntityOpResult;
+import com.qcadoo.model.api.search.ScrollableSearchResult;
 import com.qcadoo.model.api.search.SearchResult;
 import com.qcadoo.model.internal.DataDefinitionImpl;
 import com.qcadoo.model.internal.search.SearchCriteria;
@@ -76,6 +77,16 @@ public interface DataAccessService {
      */
     Entity fastSave(InternalDataDefinition dataDefinition, Entity entity);
 
+    /**
+     * Save the entity related with given data definition, parsing and validating only fields changed against the existing
+     * entity. Returned entity is converted lazily, without expressions and view hooks.
+     * 
+     * @param dataDefinition
+     * @param entity
+     * @return saved entity
+     */
+    Entity saveChanges(InternalDataDefinition dataDefinition, Entity entity);
+
     /**
      * Return the entity related with given data definition, by its id.
      * 
@@ -128,6 +139,24 @@ public interface DataAccessService {
      */
     SearchResult find(SearchQuery searchQuery);
 
+    /**
+     * Scroll through entities matching given search criteria, it requires the active transaction.
+     * 
+     * @param searchCriteria
+     * @param fetchSize
+     * @return scrollable result of search
+     */
+    ScrollableSearchResult scroll(SearchCriteria searchCriteria, int fetchSize);
+
+    /**
+     * Scroll through entities matching given search query, it requires the active transaction.
+     * 
+     * @param searchQuery
+     * @param fetchSize
+     * @return scrollable result of search
+     */
+    ScrollableSearchResult scroll(SearchQuery searchQuery, int fetchSize);
+
     /**
      * Move the prioritizable entity to the target position.
      * 
@@ -146,6 +175,14 @@ public interface DataAccessService {
      */
     void move(InternalDataDefinition dataDefinition, Long entityId, int offset);
 
+    /**
+     * Reorder the prioritizable entities, the entities will take their current positions in the given order.
+     * 
+     * @param dataDefinition
+     * @param entityIds
+     */
+    void reorder(InternalDataDefinition dataDefinition, List<Long> entityIds);
+
     /**
      * Convert given entity to database entity.
      * 
@@ -24,17 +24,24 @@
 package com.qcadoo.model.internal.api;
 
 import java.util.List;
+import java.util.Map;
 
 import org.hibernate.Criteria;
 import org.hibernate.Query;
+import org.hibernate.SQLQuery;
+import org.hibernate.ScrollableResults;
 import org.hibernate.classic.Session;
 
 public interface HibernateService {
 
     Session getCurrentSession();
 
+    SQLQuery createSQLQuery(String sql, Map<String, ?> parameters);
+
     int getTotalNumberOfEntities(Criteria criteria);
 
+    int getTotalNumberOfEntities(Query query);
+
     InternalDataDefinition resolveDataDefinition(Criteria criteria);
 
     InternalDataDefinition resolveDataDefinition(Query query);
@@ -43,4 +50,8 @@ public interface HibernateService {
 
     List<?> list(Criteria criteria);
 
+    ScrollableResults scroll(Query query, int fetchSize);
+
+    ScrollableResults scroll(Criteria criteria, int fetchSize);
+
 }
\ No newline at end of file
@@ -25,6 +25,7 @@ package com.qcadoo.model.internal.api;
 
 import com.qcadoo.model.api.DataDefinition;
 import com.qcadoo.model.api.Entity;
+import com.qcadoo.model.api.search.ScrollableSearchResult;
 import com.qcadoo.model.api.search.SearchResult;
 import com.qcadoo.model.internal.MasterModel;
 import com.qcadoo.model.internal.search.SearchCriteria;
@@ -43,6 +44,17 @@ public interface InternalDataDefinition extends DataDefinition {
      */
     SearchResult find(final SearchCriteria searchCriteria);
 
+    /**
+     * Scroll through endities for this data definition using given search criteria.
+     * 
+     * @param searchCriteria
+     *            search criteria
+     * @param fetchSize
+     *            number of rows fetched at once
+     * @return scrollable search result
+     */
+    ScrollableSearchResult scroll(final SearchCriteria searchCriteria, final int fetchSize);
+
     /**
      * Get fully qualified class name representing given data definition.
      * 
@@ -90,6 +102,20 @@ public interface InternalDataDefinition extends DataDefinition {
      */
     boolean callDeleteHook(Entity entity);
 
+    /**
+     * Return true if any enabled delete hook is defined for this data definition.
+     * 
+     * @return has delete hooks
+     */
+    boolean hasDeleteHooks();
+
+    /**
+     * Return true if any enabled update hook, save hook or entity validator is defined for this data definition.
+     * 
+     * @return has update hooks
+     */
+    boolean hasUpdateHooks();
+
     /**
      * Get class representing given data definition.
      * 
@@ -106,6 +132,14 @@ public interface InternalDataDefinition extends DataDefinition {
      */
     Object getInstanceForEntity();
 
+    /**
+     * Returns number of lazy belongs-to references to entities of this model which are resolved using single query, null means
+     * that the default batch size will be used.
+     * 
+     * @return batch size
+     */
+    Integer getBatchSize();
+
     /**
      * Return true if entity of given data definition can be deleted.
      * 
@@ -0,0 +1,55 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.model.internal.api;
+
+/**
+ * Persistent cache of artifacts generated from model.xml files (bean bytecode, hbm mappings), kept between application restarts.
+ * Keys should be derived from the content the artifact was generated from, see {@link ModelXmlResource#getContentHash()}.
+ */
+public interface ModelArtifactCache {
+
+    /**
+     * Returns cached artifact or null if there is no such artifact or cache is disabled.
+     * 
+     * @param kind
+     *            kind of artifact, i.e. "class" or "hbm"
+     * @param key
+     *            key of artifact
+     * @return artifact or null
+     */
+    byte[] get(String kind, String key);
+
+    /**
+     * Stores artifact. Failures are logged and ignored, cache never breaks model compilation.
+     * 
+     * @param kind
+     *            kind of artifact, i.e. "class" or "hbm"
+     * @param key
+     *            key of artifact
+     * @param artifact
+     *            artifact
+     */
+    void put(String kind, String key, byte[] artifact);
+
+}
@@ -0,0 +1,87 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.model.internal.api;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.springframework.core.io.ByteArrayResource;
+
+/**
+ * Merged model.xml of single model, serialized once by {@link ModelXmlResolver} and shared by all model converters. Besides the
+ * content, it carries the model's coordinates and a content hash used as a key of {@link ModelArtifactCache}.
+ */
+public final class ModelXmlResource extends ByteArrayResource {
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final String pluginIdentifier;
+
+    private final String modelName;
+
+    private final String contentHash;
+
+    public ModelXmlResource(final byte[] content, final String pluginIdentifier, final String modelName) {
+        super(content, "model " + pluginIdentifier + "." + modelName);
+        this.pluginIdentifier = pluginIdentifier;
+        this.modelName = modelName;
+        this.contentHash = hash(content);
+    }
+
+    public String getPluginIdentifier() {
+        return pluginIdentifier;
+    }
+
+    public String getModelName() {
+        return modelName;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * Returns hex encoded SHA-256 hash of given content.
+     * 
+     * @param content
+     *            content
+     * @return hash
+     */
+    public static String hash(final byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            char[] hex = new char[digest.length * 2];
+
+            for (int i = 0; i < digest.length; i++) {
+                hex[i * 2] = HEX_DIGITS[(digest[i] >> 4) & 0xF];
+                hex[i * 2 + 1] = HEX_DIGITS[digest[i] & 0xF];
+            }
+
+            return new String(hex);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+
+}
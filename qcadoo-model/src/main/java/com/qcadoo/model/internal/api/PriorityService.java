@@ -24,6 +24,7 @@
 package com.qcadoo.model.internal.api;
 
 import java.util.Comparator;
+import java.util.List;
 
 import com.qcadoo.model.api.Entity;
 
@@ -35,6 +36,8 @@ public interface PriorityService {
     void deprioritizeEntity(InternalDataDefinition dataDefinition, Object databaseEntity);
 
     void move(InternalDataDefinition dataDefinition, Object databaseEntity, int position, int offset);
+
+    void reorder(InternalDataDefinition dataDefinition, List<Long> entityIds);
     
     Comparator<Entity> getEntityPriorityComparator();
 
@@ -42,4 +42,18 @@ public interface ValidationService {
      */
     void validateGenericEntity(InternalDataDefinition dataDefinition, Entity genericEntity, Entity existingGenericEntity);
 
+    /**
+     * Parse, validate given entity and call model hooks, skipping fields which value is the same as in the existing entity.
+     * Unchanged belongs to fields aren't loaded again and field validators are called only for changed fields, so old values
+     * are read only for them. Entity validators and hooks are always called.
+     * 
+     * @param dataDefinition
+     *            model data definition for validated entity
+     * @param genericEntity
+     *            entity to be validated
+     * @param existingGenericEntity
+     *            existing entity, might be null if validated entity is currently created
+     */
+    void validateChangedFields(InternalDataDefinition dataDefinition, Entity genericEntity, Entity existingGenericEntity);
+
 }
\ No newline at end of file
@@ -0,0 +1,109 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.model.internal.artifactcache;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import com.qcadoo.model.internal.api.ModelArtifactCache;
+
+/**
+ * File based {@link ModelArtifactCache}, storing each artifact as &lt;modelArtifactCachePath&gt;/&lt;kind&gt;/&lt;key&gt;. Cache is
+ * disabled when modelArtifactCachePath property is empty.
+ */
+@Component
+public class ModelArtifactCacheImpl implements ModelArtifactCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ModelArtifactCacheImpl.class);
+
+    private File cacheDirectory;
+
+    @Value("${modelArtifactCachePath:}")
+    public void setCacheDirectory(final String cacheDirectory) {
+        if (StringUtils.hasText(cacheDirectory)) {
+            this.cacheDirectory = new File(cacheDirectory.trim());
+        } else {
+            this.cacheDirectory = null;
+        }
+    }
+
+    @Override
+    public byte[] get(final String kind, final String key) {
+        if (cacheDirectory == null) {
+            return null;
+        }
+
+        File artifact = getArtifactFile(kind, key);
+
+        if (!artifact.isFile()) {
+            return null;
+        }
+
+        try {
+            return Files.readAllBytes(artifact.toPath());
+        } catch (IOException e) {
+            LOG.warn("Cannot read cached model artifact " + artifact + ": " + e.getMessage());
+
+            return null;
+        }
+    }
+
+    @Override
+    public void put(final String kind, final String key, final byte[] artifact) {
+        if (cacheDirectory == null) {
+            return;
+        }
+
+        File artifactFile = getArtifactFile(kind, key);
+        File temporaryFile = null;
+
+        try {
+            Files.createDirectories(artifactFile.getParentFile().toPath());
+
+            temporaryFile = File.createTempFile(key, ".tmp", artifactFile.getParentFile());
+            Files.write(temporaryFile.toPath(), artifact);
+            Files.move(temporaryFile.toPath(), artifactFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.warn("Cannot cache model artifact " + artifactFile + ": " + e.getMessage());
+
+            if (temporaryFile != null && !temporaryFile.delete()) {
+                LOG.warn("Cannot delete " + temporaryFile);
+            }
+        }
+    }
+
+    private File getArtifactFile(final String kind, final String key) {
+        return new File(new File(cacheDirectory, kind), key);
+    }
+
+}
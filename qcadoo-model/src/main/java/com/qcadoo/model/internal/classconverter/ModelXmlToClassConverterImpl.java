@@ -25,6 +25,8 @@ package com.qcadoo.model.internal.classconverter;
 
 import com.qcadoo.model.constants.VersionableConstants;
 import com.qcadoo.model.internal.AbstractModelXmlConverter;
+import com.qcadoo.model.internal.api.ModelArtifactCache;
+import com.qcadoo.model.internal.api.ModelXmlResource;
 import com.qcadoo.model.internal.api.ModelXmlToClassConverter;
 import com.qcadoo.model.internal.utils.ClassNameUtils;
 import javassist.*;
@@ -32,15 +34,19 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.BeanClassLoaderAware;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
+import org.springframework.util.FileCopyUtils;
 
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 @Component
@@ -53,12 +59,17 @@ public final class ModelXmlToClassConverterImpl extends AbstractModelXmlConverte
 
     private static final String L_ERROR_WHILE_PARSING_MODEL_XML = "Error while parsing model.xml: ";
 
+    private static final String L_CLASS_ARTIFACT = "class-" + getGeneratorVersionHash();
+
     private static final Logger LOG = LoggerFactory.getLogger(ModelXmlToClassConverterImpl.class);
 
     private final ClassPool classPool = ClassPool.getDefault();
 
     private ClassLoader classLoader;
 
+    @Autowired(required = false)
+    private ModelArtifactCache modelArtifactCache;
+
     public ModelXmlToClassConverterImpl() {
         super();
         classPool.appendClassPath(new ClassClassPath(org.hibernate.collection.PersistentSet.class));
@@ -75,25 +86,13 @@ public final class ModelXmlToClassConverterImpl extends AbstractModelXmlConverte
     public Collection<Class<?>> convert(final Resource... resources) {
         Map<String, CtClass> ctClasses = new HashMap<String, CtClass>();
         Map<String, Class<?>> existingClasses = new HashMap<String, Class<?>>();
-
-        for (Resource resource : resources) {
-            if (resource.isReadable()) {
-                LOG.info("Getting existing classes from " + resource);
-                try {
-                    existingClasses.putAll(findExistingClasses(resource.getInputStream()));
-                } catch (XMLStreamException e) {
-                    throw new IllegalStateException(L_ERROR_WHILE_PARSING_MODEL_XML + e.getMessage(), e);
-                } catch (IOException e) {
-                    throw new IllegalStateException(L_ERROR_WHILE_PARSING_MODEL_XML + e.getMessage(), e);
-                }
-            }
-        }
+        Map<String, Resource> resourcesToDefine = new LinkedHashMap<String, Resource>();
 
         for (Resource resource : resources) {
             if (resource.isReadable()) {
                 LOG.info("Creating classes from " + resource);
                 try {
-                    ctClasses.putAll(createClasses(existingClasses, resource.getInputStream()));
+                    createClass(ctClasses, existingClasses, resourcesToDefine, resource);
                 } catch (XMLStreamException e) {
                     throw new IllegalStateException(L_ERROR_WHILE_PARSING_MODEL_XML + e.getMessage(), e);
                 } catch (IOException e) {
@@ -102,20 +101,18 @@ public final class ModelXmlToClassConverterImpl extends AbstractModelXmlConverte
             }
         }
 
-        for (Resource resource : resources) {
-            if (resource.isReadable()) {
-                LOG.info("Defining classes from " + resource + " to classes");
-                try {
-                    defineClasses(ctClasses, resource.getInputStream());
-                } catch (XMLStreamException e) {
-                    throw new IllegalStateException(L_ERROR_WHILE_PARSING_MODEL_XML + e.getMessage(), e);
-                } catch (ModelXmlCompilingException e) {
-                    throw new IllegalStateException(L_ERROR_WHILE_PARSING_MODEL_XML + e.getMessage(), e);
-                } catch (IOException e) {
-                    throw new IllegalStateException(L_ERROR_WHILE_PARSING_MODEL_XML + e.getMessage(), e);
-                } catch (NotFoundException e) {
-                    throw new IllegalStateException(L_ERROR_WHILE_PARSING_MODEL_XML + e.getMessage(), e);
-                }
+        for (Resource resource : resourcesToDefine.values()) {
+            LOG.info("Defining classes from " + resource + " to classes");
+            try {
+                defineClasses(ctClasses, resource.getInputStream());
+            } catch (XMLStreamException e) {
+                throw new IllegalStateException(L_ERROR_WHILE_PARSING_MODEL_XML + e.getMessage(), e);
+            } catch (ModelXmlCompilingException e) {
+                throw new IllegalStateException(L_ERROR_WHILE_PARSING_MODEL_XML + e.getMessage(), e);
+            } catch (IOException e) {
+                throw new IllegalStateException(L_ERROR_WHILE_PARSING_MODEL_XML + e.getMessage(), e);
+            } catch (NotFoundException e) {
+                throw new IllegalStateException(L_ERROR_WHILE_PARSING_MODEL_XML + e.getMessage(), e);
             }
         }
 
@@ -123,9 +120,17 @@ public final class ModelXmlToClassConverterImpl extends AbstractModelXmlConverte
 
         for (CtClass ctClass : ctClasses.values()) {
             try {
+                Resource resource = resourcesToDefine.get(ctClass.getName());
+
+                if (resource instanceof ModelXmlResource && modelArtifactCache != null) {
+                    modelArtifactCache.put(L_CLASS_ARTIFACT, ((ModelXmlResource) resource).getContentHash(), ctClass.toBytecode());
+                }
+
                 classes.add(ctClass.toClass(classLoader));
             } catch (CannotCompileException e) {
                 throw new IllegalStateException(L_ERROR_WHILE_PARSING_MODEL_XML + e.getMessage(), e);
+            } catch (IOException e) {
+                throw new IllegalStateException(L_ERROR_WHILE_PARSING_MODEL_XML + e.getMessage(), e);
             }
         }
 
@@ -134,49 +139,82 @@ public final class ModelXmlToClassConverterImpl extends AbstractModelXmlConverte
         return classes;
     }
 
-    private Map<String, Class<?>> findExistingClasses(final InputStream stream) throws XMLStreamException {
-        XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(stream);
-        Map<String, Class<?>> existingClasses = new HashMap<String, Class<?>>();
+    private void createClass(final Map<String, CtClass> ctClasses, final Map<String, Class<?>> existingClasses,
+            final Map<String, Resource> resourcesToDefine, final Resource resource) throws XMLStreamException, IOException {
+        String className = getClassName(resource);
 
-        while (reader.hasNext() && reader.next() > 0) {
-            if (isTagStarted(reader, TAG_MODEL)) {
-                String pluginIdentifier = getPluginIdentifier(reader);
-                String modelName = getStringAttribute(reader, L_NAME);
-                String className = ClassNameUtils.getFullyQualifiedClassName(pluginIdentifier, modelName);
+        if (className == null) {
+            return;
+        }
 
-                try {
-                    existingClasses.put(className, classLoader.loadClass(className));
-                    LOG.info("Class " + className + " already exists, skipping");
-                } catch (ClassNotFoundException e) {
-                    LOG.info("Class " + className + " not found, will be generated");
-                }
+        try {
+            existingClasses.put(className, classLoader.loadClass(className));
+            LOG.info("Class " + className + " already exists, skipping");
 
-                break;
+            return;
+        } catch (ClassNotFoundException e) {
+            LOG.info("Class " + className + " not found, will be generated");
+        }
+
+        byte[] bytecode = getCachedBytecode(resource);
+
+        if (bytecode == null) {
+            LOG.info("Creating class " + className);
+            ctClasses.put(className, classPool.makeClass(className));
+            resourcesToDefine.put(className, resource);
+        } else {
+            LOG.info("Loading class " + className + " from model artifact cache");
+            ctClasses.put(className, classPool.makeClass(new ByteArrayInputStream(bytecode)));
+        }
+    }
+
+    /**
+     * Cached classes are valid only for the code which generated them, so their kind is derived from the framework version,
+     * the javassist version and the content of this converter (framework version doesn't change between snapshot builds).
+     */
+    private static String getGeneratorVersionHash() {
+        Package converterPackage = ModelXmlToClassConverterImpl.class.getPackage();
+        String frameworkVersion = converterPackage == null ? null : converterPackage.getImplementationVersion();
+        InputStream converterClass = ModelXmlToClassConverterImpl.class
+                .getResourceAsStream(ModelXmlToClassConverterImpl.class.getSimpleName() + ".class");
+        String converterHash = null;
+
+        try {
+            if (converterClass != null) {
+                converterHash = ModelXmlResource.hash(FileCopyUtils.copyToByteArray(converterClass));
             }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read " + ModelXmlToClassConverterImpl.class.getName(), e);
         }
 
-        reader.close();
+        return ModelXmlResource.hash((frameworkVersion + "/" + CtClass.version + "/" + converterHash)
+                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    private byte[] getCachedBytecode(final Resource resource) {
+        if (resource instanceof ModelXmlResource && modelArtifactCache != null) {
+            return modelArtifactCache.get(L_CLASS_ARTIFACT, ((ModelXmlResource) resource).getContentHash());
+        }
 
-        return existingClasses;
+        return null;
     }
 
-    private Map<String, CtClass> createClasses(final Map<String, Class<?>> existingClasses, final InputStream stream)
-            throws XMLStreamException {
-        XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(stream);
-        Map<String, CtClass> ctClasses = new HashMap<String, CtClass>();
+    private String getClassName(final Resource resource) throws XMLStreamException, IOException {
+        if (resource instanceof ModelXmlResource) {
+            ModelXmlResource modelXmlResource = (ModelXmlResource) resource;
+
+            return ClassNameUtils.getFullyQualifiedClassName(modelXmlResource.getPluginIdentifier(),
+                    modelXmlResource.getModelName());
+        }
+
+        XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(resource.getInputStream());
+        String className = null;
 
         while (reader.hasNext() && reader.next() > 0) {
             if (isTagStarted(reader, TAG_MODEL)) {
                 String pluginIdentifier = getPluginIdentifier(reader);
                 String modelName = getStringAttribute(reader, L_NAME);
-                String className = ClassNameUtils.getFullyQualifiedClassName(pluginIdentifier, modelName);
-
-                if (existingClasses.containsKey(className)) {
-                    LOG.info("Class " + className + " already exists, skipping");
-                } else {
-                    LOG.info("Creating class " + className);
-                    ctClasses.put(className, classPool.makeClass(className));
-                }
+                className = ClassNameUtils.getFullyQualifiedClassName(pluginIdentifier, modelName);
 
                 break;
             }
@@ -184,7 +222,7 @@ public final class ModelXmlToClassConverterImpl extends AbstractModelXmlConverte
 
         reader.close();
 
-        return ctClasses;
+        return className;
     }
 
     private void defineClasses(final Map<String, CtClass> ctClasses, final InputStream stream) throws XMLStreamException,
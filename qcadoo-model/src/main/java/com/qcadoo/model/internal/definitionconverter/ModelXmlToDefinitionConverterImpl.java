@@ -267,6 +267,7 @@ public final class ModelXmlToDefinitionConverterImpl extends AbstractModelXmlCon
         dataDefinition.setActivable(getBooleanAttribute(reader, "activable", false));
         dataDefinition.setAuditable(getBooleanAttribute(reader, "auditable", false));
         dataDefinition.setSecureStrings(getBooleanAttribute(reader, "secureStrings", true));
+        dataDefinition.setBatchSize(getIntegerAttribute(reader, "batchSize"));
 
         if (dataDefinition.isAuditable()) {
             addAuditFields(dataDefinition);
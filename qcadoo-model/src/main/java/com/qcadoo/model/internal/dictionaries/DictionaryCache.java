@@ -0,0 +1,235 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.model.internal.dictionaries;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.google.common.collect.ImmutableSet;
+import com.qcadoo.model.api.DataDefinitionService;
+import com.qcadoo.model.api.Entity;
+import com.qcadoo.model.api.search.SearchOrders;
+import com.qcadoo.model.api.search.SearchRestrictions;
+import com.qcadoo.model.constants.DictionaryFields;
+import com.qcadoo.model.constants.DictionaryItemFields;
+import com.qcadoo.model.constants.QcadooModelConstants;
+import com.qcadoo.tenant.api.MultiTenantService;
+
+/**
+ * Cache of the dictionaries' snapshots, kept separately for every tenant. Snapshot is built from the database on the first
+ * lookup and replaced as a whole after the dictionary or its item is saved or deleted, so readers never lock. Invalidation is
+ * repeated after the transaction completes, so snapshot built concurrently from the not yet committed or rolled back data doesn't
+ * survive.
+ */
+@Service
+public class DictionaryCache {
+
+    private static final String ITEM_DICTIONARY_NAME_PATH = DictionaryItemFields.DICTIONARY + '.' + DictionaryFields.NAME;
+
+    private final ConcurrentMap<DictionaryKey, DictionarySnapshot> dictionaries = new ConcurrentHashMap<DictionaryKey, DictionarySnapshot>();
+
+    private final ConcurrentMap<Integer, Set<String>> activeDictionaryNames = new ConcurrentHashMap<Integer, Set<String>>();
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    @Autowired
+    private DataDefinitionService dataDefinitionService;
+
+    @Autowired
+    private MultiTenantService multiTenantService;
+
+    /**
+     * Returns snapshot of the dictionary with given name, empty one if such dictionary doesn't exist.
+     */
+    DictionarySnapshot get(final String dictionaryName) {
+        DictionaryKey key = new DictionaryKey(multiTenantService.getCurrentTenantId(), dictionaryName);
+        DictionarySnapshot dictionary = dictionaries.get(key);
+
+        if (Objects.nonNull(dictionary)) {
+            hits.incrementAndGet();
+
+            return dictionary;
+        }
+
+        misses.incrementAndGet();
+
+        long currentGeneration = generation.get();
+
+        dictionary = new DictionarySnapshot(dataDefinitionService
+                .get(QcadooModelConstants.PLUGIN_IDENTIFIER, QcadooModelConstants.MODEL_DICTIONARY_ITEM).find()
+                .createAlias(DictionaryItemFields.DICTIONARY, DictionaryItemFields.DICTIONARY)
+                .add(SearchRestrictions.eq(ITEM_DICTIONARY_NAME_PATH, dictionaryName))
+                .addOrder(SearchOrders.asc(DictionaryItemFields.NAME)).list().getEntities());
+
+        if (generation.get() == currentGeneration) {
+            dictionaries.putIfAbsent(key, dictionary);
+        }
+
+        return dictionary;
+    }
+
+    /**
+     * Returns names of the active dictionaries.
+     */
+    Set<String> getActiveDictionaryNames() {
+        Integer tenantId = multiTenantService.getCurrentTenantId();
+        Set<String> names = activeDictionaryNames.get(tenantId);
+
+        if (Objects.nonNull(names)) {
+            hits.incrementAndGet();
+
+            return names;
+        }
+
+        misses.incrementAndGet();
+
+        long currentGeneration = generation.get();
+
+        List<Entity> dictionaryEntities = dataDefinitionService
+                .get(QcadooModelConstants.PLUGIN_IDENTIFIER, QcadooModelConstants.MODEL_DICTIONARY).find()
+                .addOrder(SearchOrders.asc(DictionaryFields.NAME)).list().getEntities();
+        ImmutableSet.Builder<String> namesBuilder = ImmutableSet.builder();
+
+        for (Entity dictionary : dictionaryEntities) {
+            if ((Boolean) dictionary.getField(DictionaryFields.ACTIVE)) {
+                namesBuilder.add(dictionary.getStringField(DictionaryFields.NAME));
+            }
+        }
+
+        names = namesBuilder.build();
+
+        if (generation.get() == currentGeneration) {
+            activeDictionaryNames.putIfAbsent(tenantId, names);
+        }
+
+        return names;
+    }
+
+    /**
+     * Drops snapshot of the dictionary with given name, for example after its item change.
+     */
+    public void invalidate(final String dictionaryName) {
+        final DictionaryKey key = new DictionaryKey(multiTenantService.getCurrentTenantId(), dictionaryName);
+
+        removeDictionary(key);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+                @Override
+                public void afterCompletion(final int status) {
+                    removeDictionary(key);
+                }
+            });
+        }
+    }
+
+    /**
+     * Drops all snapshots of the current tenant, for example after the dictionary change.
+     */
+    public void invalidateAll() {
+        final Integer tenantId = multiTenantService.getCurrentTenantId();
+
+        removeTenant(tenantId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+                @Override
+                public void afterCompletion(final int status) {
+                    removeTenant(tenantId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Returns number of lookups served from the cache.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns number of lookups which had to read the database.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    private void removeDictionary(final DictionaryKey key) {
+        generation.incrementAndGet();
+        dictionaries.remove(key);
+    }
+
+    private void removeTenant(final Integer tenantId) {
+        generation.incrementAndGet();
+        dictionaries.keySet().removeIf(key -> key.tenantId == tenantId);
+        activeDictionaryNames.remove(tenantId);
+    }
+
+    private static final class DictionaryKey {
+
+        private final int tenantId;
+
+        private final String name;
+
+        private DictionaryKey(final int tenantId, final String name) {
+            this.tenantId = tenantId;
+            this.name = name;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof DictionaryKey)) {
+                return false;
+            }
+            DictionaryKey other = (DictionaryKey) obj;
+            return tenantId == other.tenantId && name.equals(other.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * tenantId + name.hashCode();
+        }
+
+    }
+
+}
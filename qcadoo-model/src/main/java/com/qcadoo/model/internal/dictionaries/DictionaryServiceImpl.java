@@ -27,8 +27,10 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static org.springframework.util.StringUtils.hasText;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -44,9 +46,7 @@ import com.qcadoo.model.api.DataDefinitionService;
 import com.qcadoo.model.api.Entity;
 import com.qcadoo.model.api.aop.Monitorable;
 import com.qcadoo.model.api.search.SearchCriteriaBuilder;
-import com.qcadoo.model.api.search.SearchOrders;
 import com.qcadoo.model.api.search.SearchRestrictions;
-import com.qcadoo.model.api.search.SearchResult;
 import com.qcadoo.model.constants.DictionaryFields;
 import com.qcadoo.model.constants.DictionaryItemFields;
 import com.qcadoo.model.constants.QcadooModelConstants;
@@ -61,21 +61,16 @@ public final class DictionaryServiceImpl implements InternalDictionaryService {
     @Autowired
     private DataDefinitionService dataDefinitionService;
 
+    @Autowired
+    private DictionaryCache dictionaryCache;
+
     @Override
     @Transactional(readOnly = true)
     @Monitorable
     public List<String> getKeys(final String dictionary) {
         checkArgument(hasText(dictionary), "dictionary name must be given");
 
-        List<Entity> items = createCriteriaForItemsFrom(dictionary).addOrder(SearchOrders.asc(DictionaryItemFields.NAME)).list()
-                .getEntities();
-        List<String> keys = new ArrayList<>();
-
-        for (Entity item : items) {
-            keys.add(item.getStringField(DictionaryItemFields.NAME));
-        }
-
-        return keys;
+        return new ArrayList<>(dictionaryCache.get(dictionary).getKeys());
     }
 
     @Override
@@ -84,15 +79,7 @@ public final class DictionaryServiceImpl implements InternalDictionaryService {
     public List<String> getActiveKeys(final String dictionary) {
         checkArgument(hasText(dictionary), "dictionary name must be given");
 
-        List<Entity> items = createCriteriaForItemsFrom(dictionary).add(SearchRestrictions.eq("active", true))
-                .addOrder(SearchOrders.asc(DictionaryItemFields.NAME)).list().getEntities();
-        List<String> keys = new ArrayList<>();
-
-        for (Entity item : items) {
-            keys.add(item.getStringField(DictionaryItemFields.NAME));
-        }
-
-        return keys;
+        return new ArrayList<>(dictionaryCache.get(dictionary).getActiveKeys());
     }
 
     @Override
@@ -101,17 +88,8 @@ public final class DictionaryServiceImpl implements InternalDictionaryService {
     public Map<String, String> getActiveValues(final String dictionary, final Locale locale) {
         checkArgument(hasText(dictionary), "dictionary name must be given");
 
-        List<Entity> items = createCriteriaForActiveItemsFrom(dictionary).addOrder(SearchOrders.asc(DictionaryItemFields.NAME))
-                .list().getEntities();
-
-        Map<String, String> values = new LinkedHashMap<>();
-
         // TODO MAKU translate dictionary values
-        for (Entity item : items) {
-            values.put(item.getStringField(DictionaryItemFields.NAME), item.getStringField(DictionaryItemFields.NAME));
-        }
-
-        return values;
+        return new LinkedHashMap<>(dictionaryCache.get(dictionary).getActiveValues());
     }
 
     @Override
@@ -120,16 +98,7 @@ public final class DictionaryServiceImpl implements InternalDictionaryService {
     public Map<String, String> getValues(final String dictionary, final Locale locale) {
         checkArgument(hasText(dictionary), "dictionary name must be given");
 
-        List<Entity> items = createCriteriaForItemsFrom(dictionary).addOrder(SearchOrders.asc(DictionaryItemFields.NAME))
-                .list().getEntities();
-
-        Map<String, String> values = new LinkedHashMap<>();
-
-        for (Entity item : items) {
-            values.put(item.getStringField(DictionaryItemFields.NAME), item.getStringField(DictionaryItemFields.NAME));
-        }
-
-        return values;
+        return new LinkedHashMap<>(dictionaryCache.get(dictionary).getValues());
     }
 
     @Override
@@ -138,44 +107,27 @@ public final class DictionaryServiceImpl implements InternalDictionaryService {
     public Map<String, String> getKeyValues(final String dictionary, final Locale locale) {
         checkArgument(hasText(dictionary), "dictionary name must be given");
 
-        List<Entity> items = createCriteriaForActiveItemsFrom(dictionary).addOrder(SearchOrders.asc(DictionaryItemFields.NAME))
-                .list().getEntities();
-
-        Map<String, String> values = new LinkedHashMap<>();
-
-        for (Entity item : items) {
-            values.put(item.getStringField(DictionaryItemFields.TECHNICAL_CODE), item.getStringField(DictionaryItemFields.NAME));
-        }
-
-        return values;
+        return new LinkedHashMap<>(dictionaryCache.get(dictionary).getActiveKeyValues());
     }
 
     @Override
     @Transactional(readOnly = true)
     @Monitorable
     public Set<String> getDictionaries() {
-        List<Entity> dictionaries = getDictionaryDataDefinition().find().addOrder(SearchOrders.asc(DictionaryFields.NAME)).list()
-                .getEntities();
-
-        Set<String> names = new HashSet<>();
-
-        for (Entity dictionary : dictionaries) {
-            if ((Boolean) dictionary.getField(DictionaryFields.ACTIVE)) {
-                names.add(dictionary.getStringField(DictionaryFields.NAME));
-            }
-        }
-
-        return names;
+        return new HashSet<>(dictionaryCache.getActiveDictionaryNames());
     }
 
     @Override
     @Transactional
     @Monitorable
     public void createIfNotExists(final String pluginIdentifier, final String name, final String... values) {
-        SearchResult serachResult = getDictionaryDataDefinition().find().add(SearchRestrictions.eq(DictionaryFields.NAME, name))
-                .list();
-        if (serachResult.getTotalNumberOfEntities() > 0) {
-            Entity dictionaryEntity = serachResult.getEntities().get(0);
+        if (dictionaryCache.getActiveDictionaryNames().contains(name)) {
+            return;
+        }
+
+        Entity dictionaryEntity = getDictionaryDataDefinition().find().add(SearchRestrictions.eq(DictionaryFields.NAME, name))
+                .setMaxResults(1).uniqueResult();
+        if (dictionaryEntity != null) {
             dictionaryEntity.setField(DictionaryFields.ACTIVE, true);
             getDictionaryDataDefinition().save(dictionaryEntity);
             return;
@@ -187,7 +139,7 @@ public final class DictionaryServiceImpl implements InternalDictionaryService {
         dictionary.setField(DictionaryFields.ACTIVE, true);
         dictionary = getDictionaryDataDefinition().save(dictionary);
 
-        for (String value : values) {
+        for (String value : new LinkedHashSet<>(Arrays.asList(values))) {
             Entity item = getItemDataDefinition().create();
             item.setField(DictionaryItemFields.DICTIONARY, dictionary);
             item.setField(DictionaryItemFields.DESCRIPTION, "");
@@ -206,25 +158,12 @@ public final class DictionaryServiceImpl implements InternalDictionaryService {
 
     @Override
     public Entity getItemEntity(final String dictionaryName, final String itemName) {
-        return createCriteriaForActiveItemsFrom(dictionaryName).add(SearchRestrictions.eq(DictionaryItemFields.NAME, itemName))
-                .setMaxResults(1).uniqueResult();
+        return dictionaryCache.get(dictionaryName).getActiveItem(itemName);
     }
 
     @Override
     public Entity getItemEntityByTechnicalCode(String dictionary, String technicalCode) {
-        return createCriteriaForActiveItemsFrom(dictionary).add(SearchRestrictions.eq(DictionaryItemFields.TECHNICAL_CODE, technicalCode))
-                .setMaxResults(1).uniqueResult();
-    }
-
-    private static final String ITEM_DICTIONARY_NAME_PATH = DictionaryItemFields.DICTIONARY + '.' + DictionaryFields.NAME;
-
-    private SearchCriteriaBuilder createCriteriaForActiveItemsFrom(final String dictionaryName) {
-        return createCriteriaForItemsFrom(dictionaryName).add(SearchRestrictions.eq(DictionaryItemFields.ACTIVE, true));
-    }
-
-    private SearchCriteriaBuilder createCriteriaForItemsFrom(final String dictionaryName) {
-        return getItemDataDefinition().find().createAlias(DictionaryItemFields.DICTIONARY, DictionaryItemFields.DICTIONARY)
-                .add(SearchRestrictions.eq(ITEM_DICTIONARY_NAME_PATH, dictionaryName));
+        return dictionaryCache.get(dictionary).getActiveItemByTechnicalCode(technicalCode);
     }
 
     private DataDefinition getDictionaryDataDefinition() {
@@ -0,0 +1,206 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.model.internal.dictionaries;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.qcadoo.model.api.DataDefinition;
+import com.qcadoo.model.api.Entity;
+import com.qcadoo.model.constants.DictionaryItemFields;
+import com.qcadoo.model.internal.DefaultEntity;
+import com.qcadoo.model.internal.ProxyEntity;
+
+/**
+ * Immutable state of the single dictionary, built from its items sorted by name. Item entities are kept as field values only,
+ * every lookup gets its own entity with belongs to fields as lazy proxies. Items with collection fields, added to the dictionary
+ * item model by other plugins, are read again by id.
+ */
+final class DictionarySnapshot {
+
+    private final List<String> keys;
+
+    private final List<String> activeKeys;
+
+    private final Map<String, String> values;
+
+    private final Map<String, String> activeValues;
+
+    private final Map<String, String> activeKeyValues;
+
+    private final Map<String, ItemSnapshot> activeItemsByName;
+
+    private final Map<String, ItemSnapshot> activeItemsByTechnicalCode;
+
+    DictionarySnapshot(final List<Entity> items) {
+        List<String> keysBuilder = Lists.newArrayListWithCapacity(items.size());
+        List<String> activeKeysBuilder = Lists.newArrayListWithCapacity(items.size());
+        Map<String, String> valuesBuilder = new LinkedHashMap<>();
+        Map<String, String> activeValuesBuilder = new LinkedHashMap<>();
+        Map<String, String> activeKeyValuesBuilder = new LinkedHashMap<>();
+        Map<String, ItemSnapshot> activeItemsByNameBuilder = new HashMap<>();
+        Map<String, ItemSnapshot> activeItemsByTechnicalCodeBuilder = new HashMap<>();
+
+        for (Entity item : items) {
+            String name = item.getStringField(DictionaryItemFields.NAME);
+
+            keysBuilder.add(name);
+            valuesBuilder.put(name, name);
+
+            if (item.isActive()) {
+                String technicalCode = item.getStringField(DictionaryItemFields.TECHNICAL_CODE);
+                ItemSnapshot itemSnapshot = new ItemSnapshot(item);
+
+                activeKeysBuilder.add(name);
+                activeValuesBuilder.put(name, name);
+                activeKeyValuesBuilder.put(technicalCode, name);
+                activeItemsByNameBuilder.putIfAbsent(name, itemSnapshot);
+
+                if (technicalCode != null) {
+                    activeItemsByTechnicalCodeBuilder.putIfAbsent(technicalCode, itemSnapshot);
+                }
+            }
+        }
+
+        keys = Collections.unmodifiableList(keysBuilder);
+        activeKeys = Collections.unmodifiableList(activeKeysBuilder);
+        values = Collections.unmodifiableMap(valuesBuilder);
+        activeValues = Collections.unmodifiableMap(activeValuesBuilder);
+        activeKeyValues = Collections.unmodifiableMap(activeKeyValuesBuilder);
+        activeItemsByName = ImmutableMap.copyOf(activeItemsByNameBuilder);
+        activeItemsByTechnicalCode = ImmutableMap.copyOf(activeItemsByTechnicalCodeBuilder);
+    }
+
+    List<String> getKeys() {
+        return keys;
+    }
+
+    List<String> getActiveKeys() {
+        return activeKeys;
+    }
+
+    Map<String, String> getValues() {
+        return values;
+    }
+
+    Map<String, String> getActiveValues() {
+        return activeValues;
+    }
+
+    Map<String, String> getActiveKeyValues() {
+        return activeKeyValues;
+    }
+
+    Entity getActiveItem(final String name) {
+        ItemSnapshot item = activeItemsByName.get(name);
+
+        return item == null ? null : item.toEntity();
+    }
+
+    Entity getActiveItemByTechnicalCode(final String technicalCode) {
+        ItemSnapshot item = activeItemsByTechnicalCode.get(technicalCode);
+
+        return item == null ? null : item.toEntity();
+    }
+
+    private static final class ItemSnapshot {
+
+        private final DataDefinition dataDefinition;
+
+        private final Long id;
+
+        private final List<Map.Entry<String, Object>> fields;
+
+        private final boolean detached;
+
+        private ItemSnapshot(final Entity item) {
+            dataDefinition = item.getDataDefinition();
+            id = item.getId();
+
+            ImmutableList.Builder<Map.Entry<String, Object>> fieldsBuilder = ImmutableList.builder();
+            boolean withoutCollections = true;
+
+            for (Map.Entry<String, Object> field : item.getFields().entrySet()) {
+                Object value = field.getValue();
+
+                if (value instanceof Collection) {
+                    withoutCollections = false;
+                } else if (value instanceof Entity && Objects.nonNull(((Entity) value).getId())) {
+                    Entity belongsToEntity = (Entity) value;
+                    value = new EntityReference(belongsToEntity.getDataDefinition(), belongsToEntity.getId());
+                }
+
+                fieldsBuilder.add(Maps.immutableEntry(field.getKey(), value));
+            }
+
+            fields = fieldsBuilder.build();
+            detached = withoutCollections;
+        }
+
+        private Entity toEntity() {
+            if (!detached) {
+                return dataDefinition.get(id);
+            }
+
+            Entity entity = new DefaultEntity(dataDefinition, id);
+
+            for (Map.Entry<String, Object> field : fields) {
+                Object value = field.getValue();
+
+                if (value instanceof EntityReference) {
+                    EntityReference reference = (EntityReference) value;
+                    value = new ProxyEntity(reference.dataDefinition, reference.id);
+                }
+
+                entity.setField(field.getKey(), value);
+            }
+
+            return entity;
+        }
+
+    }
+
+    private static final class EntityReference {
+
+        private final DataDefinition dataDefinition;
+
+        private final Long id;
+
+        private EntityReference(final DataDefinition dataDefinition, final Long id) {
+            this.dataDefinition = dataDefinition;
+            this.id = id;
+        }
+
+    }
+
+}
@@ -0,0 +1,57 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.model.internal.dictionaries.hooks;
+
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.qcadoo.model.api.DataDefinition;
+import com.qcadoo.model.api.Entity;
+import com.qcadoo.model.constants.DictionaryFields;
+import com.qcadoo.model.constants.DictionaryItemFields;
+import com.qcadoo.model.internal.dictionaries.DictionaryCache;
+
+@Service
+public class DictionaryCacheHooks {
+
+    @Autowired
+    private DictionaryCache dictionaryCache;
+
+    public void invalidateDictionaries(final DataDefinition dictionaryDD, final Entity dictionary) {
+        dictionaryCache.invalidateAll();
+    }
+
+    public void invalidateDictionary(final DataDefinition dictionaryItemDD, final Entity dictionaryItem) {
+        Entity dictionary = dictionaryItem.getBelongsToField(DictionaryItemFields.DICTIONARY);
+
+        if (Objects.isNull(dictionary) || Objects.isNull(dictionary.getStringField(DictionaryFields.NAME))) {
+            dictionaryCache.invalidateAll();
+        } else {
+            dictionaryCache.invalidate(dictionary.getStringField(DictionaryFields.NAME));
+        }
+    }
+
+}
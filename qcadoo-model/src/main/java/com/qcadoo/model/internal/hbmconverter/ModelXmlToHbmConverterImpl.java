@@ -26,11 +26,11 @@ package com.qcadoo.model.internal.hbmconverter;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.InputStream;
+import java.util.Arrays;
 
 import javax.annotation.PostConstruct;
-import javax.xml.transform.Transformer;
+import javax.xml.transform.Templates;
 import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
@@ -39,13 +39,17 @@ import javax.xml.transform.stream.StreamSource;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
+import org.springframework.util.FileCopyUtils;
 
 import com.qcadoo.model.internal.api.Constants;
+import com.qcadoo.model.internal.api.ModelArtifactCache;
+import com.qcadoo.model.internal.api.ModelXmlResource;
 import com.qcadoo.model.internal.api.ModelXmlToHbmConverter;
 
 @Component
@@ -56,9 +60,15 @@ public class ModelXmlToHbmConverterImpl implements ModelXmlToHbmConverter {
     @Value("${hibernateDialect}")
     private String hibernateDialect;
 
+    @Autowired(required = false)
+    private ModelArtifactCache modelArtifactCache;
+
     private Resource xsl;
 
-    private Transformer transformer;
+    // thread safe, unlike Transformer - every conversion gets its own transformer
+    private Templates templates;
+
+    private String hbmArtifact;
 
     @PostConstruct
     public final void init() {
@@ -67,7 +77,9 @@ public class ModelXmlToHbmConverterImpl implements ModelXmlToHbmConverter {
             throw new IllegalStateException("Failed to read " + xsl.getFilename());
         }
         try {
-            transformer = TransformerFactory.newInstance().newTransformer(new StreamSource(xsl.getInputStream()));
+            byte[] xslContent = readContent(xsl);
+            templates = TransformerFactory.newInstance().newTemplates(new StreamSource(new ByteArrayInputStream(xslContent)));
+            hbmArtifact = "hbm-" + ModelXmlResource.hash(xslContent);
         } catch (TransformerConfigurationException e) {
             throw new IllegalStateException("Failed to initialize xsl transformer", e);
         } catch (IOException e) {
@@ -85,23 +97,37 @@ public class ModelXmlToHbmConverterImpl implements ModelXmlToHbmConverter {
 
     @Override
     public Resource[] convert(final Resource... resources) {
-        List<Resource> hbms = new ArrayList<Resource>();
+        return Arrays.stream(resources).parallel().filter(Resource::isReadable).map(this::convert).toArray(Resource[]::new);
+    }
 
-        for (Resource resource : resources) {
-            if (resource.isReadable()) {
-                LOG.info("Converting " + resource + " to hbm.xml");
+    private Resource convert(final Resource resource) {
+        byte[] hbm = getCachedHbm(resource);
 
-                byte[] hbm = getHbm(resource);
+        if (hbm == null) {
+            LOG.info("Converting " + resource + " to hbm.xml");
 
-                if (LOG.isDebugEnabled()) {
-                    LOG.debug(new String(hbm));
-                }
+            hbm = getHbm(resource);
 
-                hbms.add(new InputStreamResource(new ByteArrayInputStream(hbm)));
+            if (resource instanceof ModelXmlResource && modelArtifactCache != null) {
+                modelArtifactCache.put(hbmArtifact, ((ModelXmlResource) resource).getContentHash(), hbm);
             }
+        } else {
+            LOG.info("Loading hbm.xml of " + resource + " from model artifact cache");
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(new String(hbm));
         }
 
-        return hbms.toArray(new Resource[hbms.size()]);
+        return new InputStreamResource(new ByteArrayInputStream(hbm));
+    }
+
+    private byte[] getCachedHbm(final Resource resource) {
+        if (resource instanceof ModelXmlResource && modelArtifactCache != null) {
+            return modelArtifactCache.get(hbmArtifact, ((ModelXmlResource) resource).getContentHash());
+        }
+
+        return null;
     }
 
     private byte[] getHbm(final Resource resource) {
@@ -116,7 +142,18 @@ public class ModelXmlToHbmConverterImpl implements ModelXmlToHbmConverter {
 
     protected byte[] transform(final Resource resource) throws TransformerException, IOException {
         ByteArrayOutputStream hbm = new ByteArrayOutputStream();
-        transformer.transform(new StreamSource(resource.getInputStream()), new StreamResult(hbm));
+        templates.newTransformer().transform(new StreamSource(resource.getInputStream()), new StreamResult(hbm));
         return hbm.toByteArray();
     }
+
+    private byte[] readContent(final Resource resource) throws IOException {
+        InputStream inputStream = resource.getInputStream();
+
+        try {
+            return FileCopyUtils.copyToByteArray(inputStream);
+        } finally {
+            inputStream.close();
+        }
+    }
+
 }
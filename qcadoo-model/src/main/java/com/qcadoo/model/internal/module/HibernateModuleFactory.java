@@ -23,6 +23,9 @@
  */
 package com.qcadoo.model.internal.module;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 import org.jdom.Element;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.Resource;
@@ -55,13 +58,28 @@ public class HibernateModuleFactory extends ModuleFactory<ModelModule> {
     public void postInit() {
         Resource[] resources = modelXmlResolver.getResources();
 
+        // hbm mappings don't depend on generated classes, transform them while classes are compiled
+        CompletableFuture<Resource[]> hbms = CompletableFuture.supplyAsync(() -> modelXmlToHbmConverter.convert(resources));
+
         modelXmlToClassConverter.convert(resources);
 
-        sessionFactoryBean.initialize(modelXmlToHbmConverter.convert(resources));
+        sessionFactoryBean.initialize(join(hbms));
 
         modelXmlToDefinitionConverter.convert(resources);
     }
 
+    private Resource[] join(final CompletableFuture<Resource[]> hbms) {
+        try {
+            return hbms.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw e;
+        }
+    }
+
     @Override
     protected ModelModule parseElement(final String pluginIdentifier, final Element element) {
         throw new IllegalStateException("Cannot create hibernate module");
@@ -37,11 +37,11 @@ import org.jdom.Document;
 import org.jdom.Element;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 
 import com.qcadoo.model.internal.api.ModelXmlResolver;
+import com.qcadoo.model.internal.api.ModelXmlResource;
 import com.qcadoo.model.internal.module.ModelXmlHolder;
 import com.qcadoo.model.internal.utils.JdomUtils;
 
@@ -68,7 +68,8 @@ public final class ModelXmlResolverImpl implements ModelXmlResolver, ModelXmlHol
             if (LOG.isDebugEnabled()) {
                 LOG.debug(new String(out));
             }
-            resources.add(new ByteArrayResource(out));
+            Element model = document.getRootElement();
+            resources.add(new ModelXmlResource(out, model.getAttributeValue("plugin"), model.getAttributeValue("name")));
         }
 
         documents.clear();
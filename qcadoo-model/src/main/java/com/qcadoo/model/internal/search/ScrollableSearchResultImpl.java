@@ -0,0 +1,176 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.model.internal.search;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.hibernate.ScrollableResults;
+import org.hibernate.classic.Session;
+import org.hibernate.engine.SessionImplementor;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.qcadoo.model.api.Entity;
+import com.qcadoo.model.api.FieldDefinition;
+import com.qcadoo.model.api.search.ScrollableSearchResult;
+import com.qcadoo.model.api.types.BelongsToType;
+import com.qcadoo.model.internal.api.EntityService;
+import com.qcadoo.model.internal.api.InternalDataDefinition;
+
+public final class ScrollableSearchResultImpl implements ScrollableSearchResult {
+
+    private final ScrollableResults results;
+
+    private final InternalDataDefinition dataDefinition;
+
+    private final EntityService entityService;
+
+    private final Session session;
+
+    private final int fetchSize;
+
+    private final Set<Object> entitiesManagedBefore;
+
+    private final List<Object> loadedEntities;
+
+    private Boolean nextAvailable = null;
+
+    private int position = 0;
+
+    private boolean closed = false;
+
+    public ScrollableSearchResultImpl(final ScrollableResults results, final InternalDataDefinition dataDefinition,
+            final EntityService entityService, final Session session, final int fetchSize) {
+        this.results = results;
+        this.dataDefinition = dataDefinition;
+        this.entityService = entityService;
+        this.session = session;
+        this.fetchSize = fetchSize;
+        this.entitiesManagedBefore = getManagedEntities(session);
+        this.loadedEntities = Lists.newArrayListWithCapacity(fetchSize);
+    }
+
+    private static Set<Object> getManagedEntities(final Session session) {
+        Set<Object> managedEntities = Sets.newIdentityHashSet();
+
+        if (session instanceof SessionImplementor) {
+            managedEntities.addAll(((SessionImplementor) session).getPersistenceContext().getEntitiesByKey().values());
+        }
+
+        return managedEntities;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (closed) {
+            return false;
+        }
+        if (nextAvailable == null) {
+            nextAvailable = results.next();
+
+            if (!nextAvailable) {
+                close();
+            }
+        }
+        return nextAvailable;
+    }
+
+    @Override
+    public Entity next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        nextAvailable = null;
+
+        Object[] row = results.get();
+        Entity entity;
+
+        if (row.length == 1) {
+            entity = entityService.convertToGenericEntity(dataDefinition, row[0]);
+        } else {
+            entity = convertProjectionRow(row);
+        }
+
+        for (Object column : row) {
+            if (column != null && !entitiesManagedBefore.contains(column)) {
+                loadedEntities.add(column);
+            }
+        }
+
+        if (++position % fetchSize == 0) {
+            evictLoadedEntities();
+        }
+
+        return entity;
+    }
+
+    private Entity convertProjectionRow(final Object[] row) {
+        Entity entity = dataDefinition.create();
+        Iterator<FieldDefinition> fieldDefinitions = dataDefinition.getFields().values().iterator();
+
+        for (Object column : row) {
+            FieldDefinition fieldDefinition = fieldDefinitions.next();
+            Object value = column;
+
+            if (value != null && fieldDefinition.getType() instanceof BelongsToType) {
+                InternalDataDefinition referencedDataDefinition = (InternalDataDefinition) ((BelongsToType) fieldDefinition
+                        .getType()).getDataDefinition();
+                value = entityService.convertToGenericEntity(referencedDataDefinition, value);
+            }
+
+            entity.setField(fieldDefinition.getName(), value);
+        }
+
+        return entity;
+    }
+
+    private void evictLoadedEntities() {
+        for (Object loadedEntity : loadedEntities) {
+            if (session.contains(loadedEntity)) {
+                session.evict(loadedEntity);
+            }
+        }
+
+        loadedEntities.clear();
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Scrollable search result is read only");
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            loadedEntities.clear();
+            results.close();
+        }
+    }
+
+}
@@ -26,6 +26,7 @@ package com.qcadoo.model.internal.search;
 import com.qcadoo.model.api.DataDefinition;
 import com.qcadoo.model.api.Entity;
 import com.qcadoo.model.api.search.JoinType;
+import com.qcadoo.model.api.search.ScrollableSearchResult;
 import com.qcadoo.model.api.search.SearchCriteriaBuilder;
 import com.qcadoo.model.api.search.SearchCriterion;
 import com.qcadoo.model.api.search.SearchOrder;
@@ -103,6 +104,16 @@ public final class SearchCriteriaImpl implements SearchCriteriaBuilder, SearchCr
         return ((InternalDataDefinition) sourceDataDefinition).find(this);
     }
 
+    @Override
+    public ScrollableSearchResult scroll() {
+        return scroll(ScrollableSearchResult.DEFAULT_FETCH_SIZE);
+    }
+
+    @Override
+    public ScrollableSearchResult scroll(final int fetchSize) {
+        return ((InternalDataDefinition) sourceDataDefinition).scroll(this, fetchSize);
+    }
+
     @Override
     public Entity uniqueResult() {
         SearchResult results = list();
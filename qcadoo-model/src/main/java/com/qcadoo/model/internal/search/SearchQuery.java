@@ -41,4 +41,12 @@ public interface SearchQuery extends SearchQueryBuilder {
 
     boolean hasFirstAndMaxResults();
 
+    /**
+     * Creates "select count(*)" query over the same "from" and "where" sections, or null if the query can't be safely rewritten
+     * (i.e. it uses distinct, grouping, projections or fetch joins).
+     */
+    Query createCountQuery(Session session);
+
+    boolean isTotalNumberOfEntitiesRequired();
+
 }
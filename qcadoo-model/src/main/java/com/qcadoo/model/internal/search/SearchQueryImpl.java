@@ -25,6 +25,7 @@ package com.qcadoo.model.internal.search;
 
 import com.qcadoo.model.api.DataDefinition;
 import com.qcadoo.model.api.Entity;
+import com.qcadoo.model.api.search.ScrollableSearchResult;
 import com.qcadoo.model.api.search.SearchQueryBuilder;
 import com.qcadoo.model.api.search.SearchResult;
 import com.qcadoo.model.internal.api.DataAccessService;
@@ -43,6 +44,12 @@ import java.util.regex.Pattern;
 
 public class SearchQueryImpl implements SearchQuery {
 
+    private static final Pattern SELECT_ALIAS_PATTERN = Pattern.compile(
+            "select\\s+[a-zA-Z_][a-zA-Z0-9_]*(\\s+as\\s+[a-zA-Z_][a-zA-Z0-9_]*)?", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern NOT_COUNTABLE_PATTERN = Pattern.compile("\\b(distinct|fetch|group\\s+by|having|union)\\b",
+            Pattern.CASE_INSENSITIVE);
+
     private final Pattern pattern = Pattern.compile("#([a-zA-Z0-9]+)_([a-zA-Z0-9]+)");
 
     private final Map<String, String> strings = new HashMap<String, String>();
@@ -81,6 +88,8 @@ public class SearchQueryImpl implements SearchQuery {
 
     private final String queryString;
 
+    private final String countQueryString;
+
     private InternalDataDefinition mainDataDefinition = null;
 
     private int maxResults;
@@ -89,11 +98,70 @@ public class SearchQueryImpl implements SearchQuery {
 
     private boolean cacheable = false;
 
+    private boolean totalNumberOfEntitiesRequired = true;
+
     public SearchQueryImpl(final InternalDataDefinition dataDefinition, final DataAccessService dataAccessService,
             final String queryString) {
         this.sourceDataDefinition = dataDefinition;
         this.dataAccessService = dataAccessService;
         this.queryString = prepareDataDefinitions(prepareQuery(queryString));
+        this.countQueryString = prepareCountQuery(this.queryString);
+    }
+
+    private String prepareCountQuery(final String queryString) {
+        if (NOT_COUNTABLE_PATTERN.matcher(queryString).find()) {
+            return null;
+        }
+
+        int fromIndex = indexOfTopLevelKeyword(queryString, "from", 0);
+
+        if (fromIndex < 0) {
+            return null;
+        }
+
+        String selectSection = queryString.substring(0, fromIndex).trim();
+
+        if (StringUtils.hasText(selectSection) && !SELECT_ALIAS_PATTERN.matcher(selectSection).matches()) {
+            return null;
+        }
+
+        String fromSection = queryString.substring(fromIndex);
+
+        int orderIndex = indexOfTopLevelKeyword(fromSection, "order", 0);
+
+        if (orderIndex >= 0) {
+            fromSection = fromSection.substring(0, orderIndex);
+        }
+
+        return "select count(*) " + fromSection.trim();
+    }
+
+    private static int indexOfTopLevelKeyword(final String queryString, final String keyword, final int fromIndex) {
+        int depth = 0;
+        boolean quoted = false;
+
+        for (int i = fromIndex; i < queryString.length(); i++) {
+            char c = queryString.charAt(i);
+
+            if (c == '\'') {
+                quoted = !quoted;
+            } else if (quoted) {
+                continue;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (depth == 0 && queryString.regionMatches(true, i, keyword, 0, keyword.length())
+                    && isWordBoundary(queryString, i - 1) && isWordBoundary(queryString, i + keyword.length())) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private static boolean isWordBoundary(final String queryString, final int index) {
+        return index < 0 || index >= queryString.length() || !Character.isJavaIdentifierPart(queryString.charAt(index));
     }
 
     private String prepareDataDefinitions(final String queryString) {
@@ -139,6 +207,16 @@ public class SearchQueryImpl implements SearchQuery {
         return dataAccessService.find(this);
     }
 
+    @Override
+    public ScrollableSearchResult scroll() {
+        return scroll(ScrollableSearchResult.DEFAULT_FETCH_SIZE);
+    }
+
+    @Override
+    public ScrollableSearchResult scroll(final int fetchSize) {
+        return dataAccessService.scroll(this, fetchSize);
+    }
+
     @Override
     public Entity uniqueResult() {
         SearchResult results = list();
@@ -162,6 +240,17 @@ public class SearchQueryImpl implements SearchQuery {
         query.setCacheable(cacheable);
     }
 
+    @Override
+    public SearchQueryBuilder withoutTotalCount() {
+        this.totalNumberOfEntitiesRequired = false;
+        return this;
+    }
+
+    @Override
+    public boolean isTotalNumberOfEntitiesRequired() {
+        return totalNumberOfEntitiesRequired;
+    }
+
     @Override
     public SearchQueryBuilder setMaxResults(final int maxResults) {
         this.maxResults = maxResults;
@@ -286,6 +375,14 @@ public class SearchQueryImpl implements SearchQuery {
         return session.createQuery(queryString);
     }
 
+    @Override
+    public Query createCountQuery(final Session session) {
+        if (countQueryString == null) {
+            return null;
+        }
+        return session.createQuery(countQueryString);
+    }
+
     @Override
     public void addParameters(final Query query) {
         for (Map.Entry<String, String> parameter : strings.entrySet()) {
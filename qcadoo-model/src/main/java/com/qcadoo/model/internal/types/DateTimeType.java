@@ -23,16 +23,13 @@
  */
 package com.qcadoo.model.internal.types;
 
-import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Locale;
 
 import org.joda.time.DateTime;
-import org.joda.time.format.DateTimeFormat;
-import org.joda.time.format.DateTimeFormatter;
 
-import com.qcadoo.localization.api.utils.DateUtils;
 import com.qcadoo.model.api.FieldDefinition;
+import com.qcadoo.model.api.utils.FormattingUtils;
 import com.qcadoo.model.internal.api.ValueAndError;
 
 public final class DateTimeType extends AbstractFieldType {
@@ -56,8 +53,7 @@ public final class DateTimeType extends AbstractFieldType {
             return ValueAndError.withoutError(value);
         }
         try {
-            DateTimeFormatter fmt = DateTimeFormat.forPattern(DateUtils.L_DATE_TIME_FORMAT);
-            DateTime dt = fmt.parseDateTime(String.valueOf(value));
+            DateTime dt = FormattingUtils.parseDateTime(String.valueOf(value));
             int year = dt.getYear();
             if (year < 1500 || year > 2500) {
                 return ValueAndError.withError("qcadooView.validate.field.error.invalidDateTimeFormat");
@@ -70,7 +66,7 @@ public final class DateTimeType extends AbstractFieldType {
 
     @Override
     public String toString(final Object value, final Locale locale) {
-        return new SimpleDateFormat(DateUtils.L_DATE_TIME_FORMAT, locale).format((Date) value);
+        return FormattingUtils.formatDateTime((Date) value);
     }
 
     @Override
@@ -24,8 +24,6 @@
 package com.qcadoo.model.internal.types;
 
 import java.math.BigDecimal;
-import java.text.DecimalFormat;
-import java.text.NumberFormat;
 import java.text.ParsePosition;
 import java.util.Collection;
 import java.util.Locale;
@@ -34,6 +32,7 @@ import java.util.Set;
 import com.google.common.collect.Sets;
 import com.qcadoo.model.api.FieldDefinition;
 import com.qcadoo.model.api.NumberService;
+import com.qcadoo.model.api.utils.FormattingUtils;
 import com.qcadoo.model.internal.NumberServiceImpl;
 import com.qcadoo.model.internal.api.DefaultValidatorsProvider;
 import com.qcadoo.model.internal.api.FieldHookDefinition;
@@ -80,15 +79,11 @@ public final class DecimalType extends AbstractFieldType implements DefaultValid
         if(value instanceof String){
             return (String) value;
         }
-        NumberFormat format = null;
-        if (locale == null) {
-            format = NumberFormat.getNumberInstance();
-        } else {
-            format = NumberFormat.getNumberInstance(locale);
+        Locale formatLocale = locale;
+        if (formatLocale == null) {
+            formatLocale = Locale.getDefault(Locale.Category.FORMAT);
         }
-
-        format.setMaximumFractionDigits(getMaxFractionDigits(value));
-        return format.format(value);
+        return FormattingUtils.formatDecimal(value, formatLocale, 0, getMaxFractionDigits(value));
     }
 
     private int getMaxFractionDigits(final Object value) {
@@ -102,9 +97,7 @@ public final class DecimalType extends AbstractFieldType implements DefaultValid
     public Object fromString(final String value, final Locale locale) {
         ParsePosition parsePosition = new ParsePosition(0);
         String trimedValue = value.replaceAll(" ", "");
-        DecimalFormat formatter = (DecimalFormat) NumberFormat.getNumberInstance(locale);
-        formatter.setParseBigDecimal(true);
-        Object parsedValue = formatter.parseObject(trimedValue, parsePosition);
+        Object parsedValue = FormattingUtils.parseDecimal(trimedValue, locale, parsePosition);
 
         if (parsePosition.getIndex() == trimedValue.length()) {
             return parsedValue;
@@ -26,12 +26,12 @@ package com.qcadoo.model.internal.types;
 import com.google.common.collect.Lists;
 import com.qcadoo.model.api.FieldDefinition;
 import com.qcadoo.model.api.NumberService;
+import com.qcadoo.model.api.utils.FormattingUtils;
 import com.qcadoo.model.internal.api.DefaultValidatorsProvider;
 import com.qcadoo.model.internal.api.FieldHookDefinition;
 import com.qcadoo.model.internal.api.ValueAndError;
 import com.qcadoo.model.internal.validators.UnscaledValueValidator;
 
-import java.text.NumberFormat;
 import java.text.ParsePosition;
 import java.util.Collection;
 import java.util.Collections;
@@ -70,14 +70,14 @@ public final class LongType extends AbstractFieldType implements DefaultValidato
         if(value instanceof Long){
             v = ((Long)value).intValue();
         }
-        return NumberFormat.getIntegerInstance(locale).format(v);
+        return FormattingUtils.formatInteger(v, locale);
     }
 
     @Override
     public Object fromString(final String value, final Locale locale) {
         ParsePosition parsePosition = new ParsePosition(0);
         String trimedValue = value.replace(" ", "");
-        Object parsedValue = NumberFormat.getIntegerInstance(locale).parse(trimedValue, parsePosition);
+        Object parsedValue = FormattingUtils.parseInteger(trimedValue, locale, parsePosition);
         if (parsePosition.getIndex() == trimedValue.length()) {
             if(parsedValue instanceof Integer){
                 parsedValue = ((Integer)parsedValue).longValue();
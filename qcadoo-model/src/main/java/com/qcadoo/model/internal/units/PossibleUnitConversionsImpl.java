@@ -69,6 +69,15 @@ public final class PossibleUnitConversionsImpl implements InternalPossibleUnitCo
         this.targetUnitToIsInteger = Maps.newHashMap();
     }
 
+    public PossibleUnitConversionsImpl(final String unitFrom, final NumberService numberService,
+            final DataDefinition unitConversionItemDD, DictionaryService dictionaryService,
+            final Map<String, BigDecimal> targetUnitToFactor, final Map<String, Boolean> targetUnitToIsInteger) {
+        this(unitFrom, numberService, unitConversionItemDD, dictionaryService);
+
+        this.targetUnitToFactor.putAll(targetUnitToFactor);
+        this.targetUnitToIsInteger.putAll(targetUnitToIsInteger);
+    }
+
     @Override
     public void addConversion(final UnitConversion unitConversion) {
         Preconditions.checkArgument(unitFrom.equals(unitConversion.getUnitFrom()), "Wrong source unit!");
@@ -0,0 +1,165 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.model.internal.units;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.qcadoo.model.api.Entity;
+import com.qcadoo.model.api.units.UnitConversion;
+
+/**
+ * Immutable graph of the global unit conversions. Every unit keeps the list of conversions from or to it, conversions reachable
+ * from the given unit are computed once and reused until the graph is replaced.
+ */
+final class UnitConversionGraph {
+
+    private final MathContext mathContext;
+
+    private final Map<String, List<UnitConversion>> conversionsByUnit;
+
+    private final Map<String, Boolean> integerUnits;
+
+    private final ConcurrentMap<List<String>, Map<String, BigDecimal>> reachableConversions = new ConcurrentHashMap<List<String>, Map<String, BigDecimal>>();
+
+    UnitConversionGraph(final Collection<UnitConversion> unitConversions, final Map<String, Boolean> integerUnits,
+            final MathContext mathContext) {
+        this.mathContext = mathContext;
+        this.integerUnits = ImmutableMap.copyOf(integerUnits);
+
+        Map<String, ImmutableList.Builder<UnitConversion>> conversionsByUnitBuilder = new LinkedHashMap<>();
+
+        for (UnitConversion unitConversion : unitConversions) {
+            conversionsByUnitBuilder.computeIfAbsent(unitConversion.getUnitFrom(), unit -> ImmutableList.builder()).add(
+                    unitConversion);
+            conversionsByUnitBuilder.computeIfAbsent(unitConversion.getUnitTo(), unit -> ImmutableList.builder()).add(
+                    unitConversion);
+        }
+
+        this.conversionsByUnit = ImmutableMap.copyOf(Maps.transformValues(conversionsByUnitBuilder,
+                ImmutableList.Builder::build));
+    }
+
+    /**
+     * Returns integer flags of the graph's units, units missing in the units dictionary are left out.
+     */
+    Map<String, Boolean> getIntegerUnits() {
+        return integerUnits;
+    }
+
+    /**
+     * Returns ratios of conversions from the given unit which can be composed using only conversions from or to the domain unit.
+     */
+    Map<String, BigDecimal> getReachableConversions(final String unit, final String domainUnit) {
+        return reachableConversions.computeIfAbsent(ImmutableList.of(unit, domainUnit),
+                key -> traverse(unit, conversionsByUnit.getOrDefault(domainUnit, Collections.emptyList()), mathContext));
+    }
+
+    static Set<UnitConversion> convertEntities(final List<Entity> unitConversionItems, final MathContext mathContext) {
+        Set<UnitConversion> unitConversions = new LinkedHashSet<>();
+
+        for (Entity unitConversionItem : unitConversionItems) {
+            unitConversions.add(UnitConversionImpl.build(unitConversionItem, mathContext));
+        }
+
+        return unitConversions;
+    }
+
+    /**
+     * Walks the domain depth first, starting from the given unit. Every conversion of the domain is used at most once, by the first
+     * visited unit it leads from or to, and the first ratio found for the target unit wins.
+     */
+    static Map<String, BigDecimal> traverse(final String unit, final Collection<UnitConversion> domain,
+            final MathContext mathContext) {
+        Preconditions.checkNotNull(unit);
+
+        List<UnitConversion> conversions = Lists.newArrayList(new LinkedHashSet<>(domain));
+        Map<String, List<Integer>> conversionIndexesByUnit = new LinkedHashMap<>();
+
+        for (int index = 0; index < conversions.size(); index++) {
+            UnitConversion unitConversion = conversions.get(index);
+
+            conversionIndexesByUnit.computeIfAbsent(unitConversion.getUnitFrom(), key -> Lists.newArrayList()).add(index);
+            conversionIndexesByUnit.computeIfAbsent(unitConversion.getUnitTo(), key -> Lists.newArrayList()).add(index);
+        }
+
+        Map<String, BigDecimal> targetUnitToRatio = new LinkedHashMap<>();
+
+        traverse(UnitConversionImpl.build(unit, mathContext), conversions, conversionIndexesByUnit,
+                new boolean[conversions.size()], targetUnitToRatio);
+
+        return Collections.unmodifiableMap(targetUnitToRatio);
+    }
+
+    private static void traverse(final UnitConversion parent, final List<UnitConversion> conversions,
+            final Map<String, List<Integer>> conversionIndexesByUnit, final boolean[] used,
+            final Map<String, BigDecimal> targetUnitToRatio) {
+        String unit = parent.getUnitTo();
+        List<Integer> conversionIndexes = conversionIndexesByUnit.get(unit);
+
+        if (Objects.isNull(conversionIndexes)) {
+            return;
+        }
+
+        Set<UnitConversion> matchingConversions = new LinkedHashSet<>();
+
+        for (Integer index : conversionIndexes) {
+            if (!used[index]) {
+                used[index] = true;
+
+                UnitConversion unitConversion = conversions.get(index);
+
+                if (unit.equals(unitConversion.getUnitFrom())) {
+                    matchingConversions.add(unitConversion);
+                } else {
+                    matchingConversions.add(unitConversion.reverse());
+                }
+            }
+        }
+
+        for (UnitConversion matchingConversion : matchingConversions) {
+            UnitConversion generatedConversion = parent.merge(matchingConversion);
+
+            targetUnitToRatio.putIfAbsent(generatedConversion.getUnitTo(), generatedConversion.getRatio());
+
+            traverse(generatedConversion, conversions, conversionIndexesByUnit, used, targetUnitToRatio);
+        }
+    }
+
+}
@@ -0,0 +1,144 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.model.internal.units;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.google.common.collect.Maps;
+import com.qcadoo.model.api.DictionaryService;
+import com.qcadoo.model.api.Entity;
+import com.qcadoo.model.api.NumberService;
+import com.qcadoo.model.api.units.UnitConversion;
+import com.qcadoo.model.api.units.UnitConversionModelService;
+import com.qcadoo.model.constants.DictionaryItemFields;
+import com.qcadoo.model.constants.QcadooModelConstants;
+import com.qcadoo.tenant.api.MultiTenantService;
+
+/**
+ * Keeps the global unit conversion graph of every tenant. Graph is built with a single query on the first use and dropped after
+ * any global conversion or unit changes, invalidation is repeated after the transaction completes, so graph built concurrently
+ * from the not yet committed or rolled back data doesn't survive.
+ */
+@Service
+public class UnitConversionGraphCache {
+
+    private final ConcurrentMap<Integer, UnitConversionGraph> graphs = new ConcurrentHashMap<Integer, UnitConversionGraph>();
+
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    private UnitConversionModelService unitConversionModelService;
+
+    @Autowired
+    private DictionaryService dictionaryService;
+
+    @Autowired
+    private NumberService numberService;
+
+    @Autowired
+    private MultiTenantService multiTenantService;
+
+    UnitConversionGraph get() {
+        Integer tenantId = multiTenantService.getCurrentTenantId();
+        UnitConversionGraph graph = graphs.get(tenantId);
+
+        if (Objects.nonNull(graph)) {
+            return graph;
+        }
+
+        long currentGeneration = generation.get();
+
+        graph = build();
+
+        if (generation.get() == currentGeneration) {
+            UnitConversionGraph existingGraph = graphs.putIfAbsent(tenantId, graph);
+
+            if (Objects.nonNull(existingGraph)) {
+                return existingGraph;
+            }
+        }
+
+        return graph;
+    }
+
+    /**
+     * Drops graph of the current tenant.
+     */
+    public void invalidate() {
+        final Integer tenantId = multiTenantService.getCurrentTenantId();
+
+        removeGraph(tenantId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+                @Override
+                public void afterCompletion(final int status) {
+                    removeGraph(tenantId);
+                }
+            });
+        }
+    }
+
+    private void removeGraph(final Integer tenantId) {
+        generation.incrementAndGet();
+        graphs.remove(tenantId);
+    }
+
+    private UnitConversionGraph build() {
+        Set<UnitConversion> unitConversions = UnitConversionGraph.convertEntities(unitConversionModelService.findAll(),
+                numberService.getMathContext());
+        Map<String, Boolean> integerUnits = Maps.newHashMap();
+
+        for (UnitConversion unitConversion : unitConversions) {
+            resolveIntegerUnit(integerUnits, unitConversion.getUnitFrom());
+            resolveIntegerUnit(integerUnits, unitConversion.getUnitTo());
+        }
+
+        return new UnitConversionGraph(unitConversions, integerUnits, numberService.getMathContext());
+    }
+
+    private void resolveIntegerUnit(final Map<String, Boolean> integerUnits, final String unit) {
+        if (Objects.isNull(unit) || integerUnits.containsKey(unit)) {
+            return;
+        }
+
+        Entity unitItem = dictionaryService.getItemEntity(QcadooModelConstants.DICTIONARY_UNITS, unit);
+
+        if (Objects.nonNull(unitItem)) {
+            integerUnits.put(unit, unitItem.getBooleanField(DictionaryItemFields.IS_INTEGER));
+        }
+    }
+
+}
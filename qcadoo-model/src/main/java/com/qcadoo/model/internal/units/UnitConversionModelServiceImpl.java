@@ -63,6 +63,14 @@ public class UnitConversionModelServiceImpl implements UnitConversionModelServic
         return searchCriteriaBuilder.list().getEntities();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<Entity> findAll() {
+        final SearchCriteriaBuilder searchCriteriaBuilder = getDataDefinition().find();
+        ONLY_GLOBAL_CONVERSION_RESTRICTION.addRestriction(searchCriteriaBuilder);
+        return searchCriteriaBuilder.list().getEntities();
+    }
+
     @Override
     public DataDefinition getDataDefinition() {
         return dataDefinitionService.get(QcadooModelConstants.PLUGIN_IDENTIFIER, QcadooModelConstants.MODEL_UNIT_CONVERSION_ITEM);
@@ -24,9 +24,7 @@
 package com.qcadoo.model.internal.units;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.Sets;
 import com.qcadoo.model.api.DictionaryService;
-import com.qcadoo.model.api.Entity;
 import com.qcadoo.model.api.NumberService;
 import com.qcadoo.model.api.search.CustomRestriction;
 import com.qcadoo.model.api.units.PossibleUnitConversions;
@@ -34,11 +32,9 @@ import com.qcadoo.model.api.units.UnitConversion;
 import com.qcadoo.model.api.units.UnitConversionModelService;
 import com.qcadoo.model.api.units.UnitConversionService;
 
-import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
 import java.util.Set;
 
 @Service
@@ -47,6 +43,9 @@ public final class UnitConversionServiceImpl implements UnitConversionService {
     @Autowired
     private UnitConversionModelService unitConversionModelService;
 
+    @Autowired
+    private UnitConversionGraphCache unitConversionGraphCache;
+
     @Autowired
     private NumberService numberService;
 
@@ -55,59 +54,25 @@ public final class UnitConversionServiceImpl implements UnitConversionService {
 
     @Override
     public PossibleUnitConversions getPossibleConversions(final String unit) {
-        return getPossibleConversions(unit, unitConversionModelService.find(unit));
+        return getPossibleConversions(unit, unit);
     }
 
     @Override
     public PossibleUnitConversions getPossibleConversions(final String unit, final String additionalUnit) {
-        return getPossibleConversions(unit, unitConversionModelService.find(additionalUnit));
+        Preconditions.checkNotNull(unit);
+        final UnitConversionGraph graph = unitConversionGraphCache.get();
+        return new PossibleUnitConversionsImpl(unit, numberService, unitConversionModelService.getDataDefinition(),
+                dictionaryService, graph.getReachableConversions(unit, additionalUnit), graph.getIntegerUnits());
     }
 
     @Override
     public PossibleUnitConversions getPossibleConversions(final String unit, final CustomRestriction customRestriction) {
-        return getPossibleConversions(unit, unitConversionModelService.find(unit, customRestriction));
-    }
-
-    private PossibleUnitConversions getPossibleConversions(final String unit, final List<Entity> matchingDomain) {
         Preconditions.checkNotNull(unit);
-        final InternalPossibleUnitConversions possibleUnitConversions = new PossibleUnitConversionsImpl(unit, numberService,
-                unitConversionModelService.getDataDefinition(), dictionaryService);
-        final UnitConversion root = UnitConversionImpl.build(unit, numberService.getMathContext());
-        traverse(possibleUnitConversions, root, convertEntities(matchingDomain));
-        return possibleUnitConversions;
-    }
-
-    private void traverse(final InternalPossibleUnitConversions possibleUnitConversions, final UnitConversion parent,
-            final Set<UnitConversion> domain) {
-        for (final UnitConversion unitConversion : findMatchingConversions(parent.getUnitTo(), domain)) {
-            final UnitConversion generatedConversion = parent.merge(unitConversion);
-            possibleUnitConversions.addConversion(generatedConversion);
-            traverse(possibleUnitConversions, generatedConversion, domain);
-        }
-    }
-
-    private Set<UnitConversion> findMatchingConversions(final String unitToFind, final Set<UnitConversion> domain) {
-        Preconditions.checkArgument(StringUtils.isNotEmpty(unitToFind));
-        final Set<UnitConversion> matchingConversions = Sets.newHashSet();
-        for (final UnitConversion unitConversion : Sets.newHashSet(domain)) {
-            if (unitToFind.equals(unitConversion.getUnitFrom())) {
-                matchingConversions.add(unitConversion);
-                domain.remove(unitConversion);
-            } else if (unitToFind.equals(unitConversion.getUnitTo())) {
-                matchingConversions.add(unitConversion.reverse());
-                domain.remove(unitConversion);
-            }
-        }
-        return matchingConversions;
+        final Set<UnitConversion> matchingDomain = UnitConversionGraph.convertEntities(
+                unitConversionModelService.find(unit, customRestriction), numberService.getMathContext());
+        return new PossibleUnitConversionsImpl(unit, numberService, unitConversionModelService.getDataDefinition(),
+                dictionaryService, UnitConversionGraph.traverse(unit, matchingDomain, numberService.getMathContext()),
+                unitConversionGraphCache.get().getIntegerUnits());
     }
 
-    private Set<UnitConversion> convertEntities(final List<Entity> unitConversionItems) {
-        final Set<UnitConversion> unitConversions = Sets.newHashSet();
-        for (final Entity unitConversionItem : unitConversionItems) {
-            unitConversions.add(UnitConversionImpl.build(unitConversionItem, numberService.getMathContext()));
-        }
-        return unitConversions;
-    }
-
-
 }
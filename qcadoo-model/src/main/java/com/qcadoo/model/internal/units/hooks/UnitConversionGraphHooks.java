@@ -0,0 +1,54 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.model.internal.units.hooks;
+
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.qcadoo.model.api.DataDefinition;
+import com.qcadoo.model.api.Entity;
+import com.qcadoo.model.constants.UnitConversionItemFields;
+import com.qcadoo.model.internal.units.UnitConversionGraphCache;
+
+@Service
+public class UnitConversionGraphHooks {
+
+    @Autowired
+    private UnitConversionGraphCache unitConversionGraphCache;
+
+    public void invalidateGlobalConversions(final DataDefinition unitConversionItemDD, final Entity unitConversionItem) {
+        // existing item could have been global before this change, so only new non-global items can't affect the graph
+        if (Objects.nonNull(unitConversionItem.getId())
+                || Objects.nonNull(unitConversionItem.getField(UnitConversionItemFields.GLOBAL_UNIT_CONVERSIONS_AGGREGATE))) {
+            unitConversionGraphCache.invalidate();
+        }
+    }
+
+    public void invalidateUnits(final DataDefinition dictionaryItemDD, final Entity dictionaryItem) {
+        unitConversionGraphCache.invalidate();
+    }
+
+}
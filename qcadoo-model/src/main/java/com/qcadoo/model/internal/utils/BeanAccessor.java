@@ -0,0 +1,123 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.model.internal.utils;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Fast access to the properties of model beans. Getters and setters of the bean class are resolved once into method handles,
+ * so reading and writing fields doesn't require reflective introspection on each call.
+ */
+public final class BeanAccessor {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private static final ClassValue<BeanAccessor> ACCESSORS = new ClassValue<BeanAccessor>() {
+
+        @Override
+        protected BeanAccessor computeValue(final Class<?> beanClass) {
+            return new BeanAccessor(beanClass);
+        }
+
+    };
+
+    private final Class<?> beanClass;
+
+    private final Map<String, MethodHandle> getters = new HashMap<String, MethodHandle>();
+
+    private final Map<String, MethodHandle> setters = new HashMap<String, MethodHandle>();
+
+    public static BeanAccessor forClass(final Class<?> beanClass) {
+        return ACCESSORS.get(beanClass);
+    }
+
+    private BeanAccessor(final Class<?> beanClass) {
+        this.beanClass = beanClass;
+
+        try {
+            for (PropertyDescriptor propertyDescriptor : Introspector.getBeanInfo(beanClass).getPropertyDescriptors()) {
+                if (propertyDescriptor.getReadMethod() != null) {
+                    getters.put(propertyDescriptor.getName(), unreflect(propertyDescriptor.getReadMethod(), GETTER_TYPE));
+                }
+                if (propertyDescriptor.getWriteMethod() != null) {
+                    setters.put(propertyDescriptor.getName(), unreflect(propertyDescriptor.getWriteMethod(), SETTER_TYPE));
+                }
+            }
+        } catch (IntrospectionException e) {
+            throw new IllegalStateException("cannot introspect class: " + beanClass.getName(), e);
+        }
+    }
+
+    private MethodHandle unreflect(final Method method, final MethodType methodType) {
+        try {
+            method.setAccessible(true);
+            return MethodHandles.lookup().unreflect(method).asType(methodType);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("cannot access method: " + beanClass.getName() + "." + method.getName(), e);
+        }
+    }
+
+    public Object get(final Object bean, final String propertyName) {
+        MethodHandle getter = getters.get(propertyName);
+
+        if (getter == null) {
+            throw new IllegalStateException("Unknown property '" + propertyName + "' on class " + beanClass.getName());
+        }
+
+        try {
+            return (Object) getter.invokeExact(bean);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("cannot get value of the property: " + beanClass.getName() + ", " + propertyName, e);
+        }
+    }
+
+    public void set(final Object bean, final String propertyName, final Object value) {
+        MethodHandle setter = setters.get(propertyName);
+
+        if (setter == null) {
+            throw new IllegalStateException("Unknown property '" + propertyName + "' on class " + beanClass.getName());
+        }
+
+        try {
+            setter.invokeExact(bean, value);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("cannot set value of the property: " + beanClass.getName() + ", " + propertyName, e);
+        }
+    }
+
+}
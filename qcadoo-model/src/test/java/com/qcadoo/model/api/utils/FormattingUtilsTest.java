@@ -0,0 +1,128 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.model.api.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigDecimal;
+import java.text.DecimalFormat;
+import java.text.NumberFormat;
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+
+import org.junit.Test;
+
+import com.qcadoo.localization.api.utils.DateUtils;
+
+public class FormattingUtilsTest {
+
+    @Test
+    public final void shouldFormatDatesLikeSimpleDateFormat() {
+        for (int year : new int[] { 1550, 1899, 1970, 2016, 2499 }) {
+            // given
+            Calendar calendar = Calendar.getInstance();
+            calendar.set(year, Calendar.MARCH, 7, 13, 5, 9);
+            Date date = calendar.getTime();
+
+            // when
+            String formattedDate = FormattingUtils.formatDate(date);
+            String formattedDateTime = FormattingUtils.formatDateTime(date);
+
+            // then
+            assertEquals(new SimpleDateFormat(DateUtils.L_DATE_FORMAT).format(date), formattedDate);
+            assertEquals(new SimpleDateFormat(DateUtils.L_DATE_TIME_FORMAT).format(date), formattedDateTime);
+        }
+    }
+
+    @Test
+    public final void shouldFormatAndParseNumbersLikeNewNumberFormat() {
+        for (Locale locale : new Locale[] { new Locale("pl"), Locale.ENGLISH, Locale.GERMANY, Locale.FRANCE }) {
+            for (String number : new String[] { "0", "-0.5", "1234.56789", "-98765432.1", "0.00001", "12345678901234.12345" }) {
+                // given
+                BigDecimal value = new BigDecimal(number);
+                DecimalFormat decimalFormat = (DecimalFormat) NumberFormat.getNumberInstance(locale);
+                decimalFormat.setMinimumFractionDigits(1);
+                decimalFormat.setMaximumFractionDigits(3);
+                DecimalFormat decimalParser = (DecimalFormat) NumberFormat.getNumberInstance(locale);
+                decimalParser.setParseBigDecimal(true);
+
+                // when
+                String formattedDecimal = FormattingUtils.formatDecimal(value, locale, 1, 3);
+                String formattedInteger = FormattingUtils.formatInteger(value.longValue(), locale);
+                Object parsedDecimal = FormattingUtils.parseDecimal(formattedDecimal, locale, new ParsePosition(0));
+
+                // then
+                assertEquals(decimalFormat.format(value), formattedDecimal);
+                assertEquals(NumberFormat.getIntegerInstance(locale).format(value.longValue()), formattedInteger);
+                assertEquals(decimalParser.parseObject(formattedDecimal, new ParsePosition(0)), parsedDecimal);
+            }
+        }
+    }
+
+    @Test
+    public final void shouldNotLeakFractionDigitsBetweenFormats() {
+        // given
+        BigDecimal value = new BigDecimal("1234.56789");
+
+        // when
+        String withTwoDigits = FormattingUtils.formatDecimal(value, Locale.ENGLISH, 2, 2);
+        String withFiveDigits = FormattingUtils.formatDecimal(value, Locale.ENGLISH, 0, 5);
+        String withNegativeMaximum = FormattingUtils.formatDecimal(value, Locale.ENGLISH, 0, -3);
+
+        // then
+        assertEquals("1,234.57", withTwoDigits);
+        assertEquals("1,234.56789", withFiveDigits);
+        assertEquals("1,235", withNegativeMaximum);
+    }
+
+    @Test
+    public final void shouldParseDecimalAsBigDecimal() {
+        // given
+        ParsePosition parsePosition = new ParsePosition(0);
+
+        // when
+        Object result = FormattingUtils.parseDecimal("1234,500", new Locale("pl"), parsePosition);
+
+        // then
+        assertEquals(new BigDecimal("1234.500"), result);
+        assertEquals(8, parsePosition.getIndex());
+    }
+
+    @Test
+    public final void shouldParseIntegerOnly() {
+        // given
+        ParsePosition parsePosition = new ParsePosition(0);
+
+        // when
+        Number result = FormattingUtils.parseInteger("12.5", Locale.ENGLISH, parsePosition);
+
+        // then
+        assertEquals(12L, result);
+        assertEquals(2, parsePosition.getIndex());
+    }
+
+}
@@ -0,0 +1,232 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.model.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.Criteria;
+import org.hibernate.classic.Session;
+import org.hibernate.criterion.Criterion;
+import org.hibernate.criterion.Projection;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.qcadoo.model.api.Entity;
+import com.qcadoo.model.api.FieldDefinition;
+import com.qcadoo.model.api.types.BelongsToType;
+import com.qcadoo.model.beans.sample.SampleParentDatabaseObject;
+import com.qcadoo.model.beans.sample.SampleSimpleDatabaseObject;
+import com.qcadoo.model.internal.api.HibernateService;
+import com.qcadoo.model.internal.api.InternalDataDefinition;
+
+public class BelongsToReferenceResolverTest {
+
+    private static final int ENTITIES = 1000;
+
+    private static final int UNITS = 10;
+
+    private final InternalDataDefinition dataDefinition = mock(InternalDataDefinition.class);
+
+    private final InternalDataDefinition productDataDefinition = mock(InternalDataDefinition.class);
+
+    private final InternalDataDefinition unitDataDefinition = mock(InternalDataDefinition.class);
+
+    private final HibernateService hibernateService = mock(HibernateService.class);
+
+    private final Session session = mock(Session.class);
+
+    private final Criteria productCriteria = mock(Criteria.class);
+
+    private final Criteria unitCriteria = mock(Criteria.class);
+
+    private List<Entity> entities;
+
+    private BelongsToReferenceResolver resolver;
+
+    @Before
+    public void init() {
+        Map<String, FieldDefinition> fields = Maps.newLinkedHashMap();
+        fields.put("product", mockBelongsToField("product", productDataDefinition));
+        fields.put("unit", mockBelongsToField("unit", unitDataDefinition));
+        given(dataDefinition.getFields()).willReturn(fields);
+
+        doReturn(SampleSimpleDatabaseObject.class).when(productDataDefinition).getClassForEntity();
+        doReturn(SampleParentDatabaseObject.class).when(unitDataDefinition).getClassForEntity();
+
+        given(hibernateService.getCurrentSession()).willReturn(session);
+        given(session.createCriteria(SampleSimpleDatabaseObject.class)).willReturn(productCriteria);
+        given(session.createCriteria(SampleParentDatabaseObject.class)).willReturn(unitCriteria);
+        stubCriteria(productCriteria, ids(ENTITIES));
+        stubCriteria(unitCriteria, ids(UNITS));
+
+        entities = Lists.newArrayList();
+
+        for (int i = 1; i <= ENTITIES; i++) {
+            Entity entity = new DefaultEntity(dataDefinition);
+            entity.setField("product", Long.valueOf(i));
+            entity.setField("unit", String.valueOf(i % UNITS + 1));
+            entities.add(entity);
+        }
+    }
+
+    @After
+    public void close() {
+        if (resolver != null) {
+            resolver.close();
+        }
+    }
+
+    @Test
+    public void shouldLoadEveryReferenceSeparatelyOutsideOfContext() throws Exception {
+        // when
+        resolveAll();
+
+        // then
+        verify(productDataDefinition, times(ENTITIES)).get(anyLong());
+        verify(unitDataDefinition, times(ENTITIES)).get(anyLong());
+        verify(session, never()).createCriteria(any(Class.class));
+    }
+
+    @Test
+    public void shouldCheckCollectedReferencesUsingSingleQueryPerModel() throws Exception {
+        // given
+        resolver = BelongsToReferenceResolver.open(hibernateService);
+        BelongsToReferenceResolver.collect(dataDefinition, entities);
+
+        // when
+        List<Entity> products = resolveAll();
+
+        // then
+        verify(productCriteria, times(1)).list();
+        verify(unitCriteria, times(1)).list();
+        verify(productDataDefinition, never()).get(anyLong());
+        verify(unitDataDefinition, never()).get(anyLong());
+
+        assertTrue(products.get(0) instanceof ProxyEntity);
+        assertEquals(Long.valueOf(1L), products.get(0).getId());
+        assertEquals(Long.valueOf(ENTITIES), products.get(ENTITIES - 1).getId());
+    }
+
+    @Test
+    public void shouldLoadReferenceSeparatelyIfItWasNotFound() throws Exception {
+        // given
+        stubCriteria(productCriteria, ids(ENTITIES - 1));
+        resolver = BelongsToReferenceResolver.open(hibernateService);
+        BelongsToReferenceResolver.collect(dataDefinition, entities);
+
+        // when
+        List<Entity> products = resolveAll();
+
+        // then
+        verify(productCriteria, times(1)).list();
+        verify(productDataDefinition, times(1)).get(Long.valueOf(ENTITIES));
+        assertNull(products.get(ENTITIES - 1));
+    }
+
+    @Test
+    public void shouldSplitQueryForManyReferences() throws Exception {
+        // given
+        Entity entity = new DefaultEntity(dataDefinition);
+        entity.setField("product", Long.valueOf(ENTITIES + 1));
+        entities.add(entity);
+        resolver = BelongsToReferenceResolver.open(hibernateService);
+        BelongsToReferenceResolver.collect(dataDefinition, entities);
+
+        // when
+        BelongsToReferenceResolver.resolve(productDataDefinition, 1L);
+
+        // then
+        verify(productCriteria, times(2)).list();
+    }
+
+    @Test
+    public void shouldNotCollectSingleEntity() throws Exception {
+        // given
+        resolver = BelongsToReferenceResolver.open(hibernateService);
+        BelongsToReferenceResolver.collect(dataDefinition, Collections.singletonList(entities.get(0)));
+
+        // when
+        BelongsToReferenceResolver.resolve(productDataDefinition, 1L);
+
+        // then
+        verify(session, never()).createCriteria(any(Class.class));
+        verify(productDataDefinition, times(1)).get(1L);
+    }
+
+    private List<Entity> resolveAll() {
+        List<Entity> products = Lists.newArrayList();
+
+        for (Entity entity : entities) {
+            products.add(BelongsToReferenceResolver.resolve(productDataDefinition, (Long) entity.getField("product")));
+            BelongsToReferenceResolver.resolve(unitDataDefinition, Long.valueOf((String) entity.getField("unit")));
+        }
+
+        return products;
+    }
+
+    private FieldDefinition mockBelongsToField(final String name, final InternalDataDefinition referencedDataDefinition) {
+        BelongsToType belongsToType = mock(BelongsToType.class);
+        given(belongsToType.getDataDefinition()).willReturn(referencedDataDefinition);
+
+        FieldDefinition fieldDefinition = mock(FieldDefinition.class);
+        given(fieldDefinition.getName()).willReturn(name);
+        given(fieldDefinition.getType()).willReturn(belongsToType);
+
+        return fieldDefinition;
+    }
+
+    private void stubCriteria(final Criteria criteria, final List<Long> existingIds) {
+        given(criteria.add(any(Criterion.class))).willReturn(criteria);
+        given(criteria.setProjection(any(Projection.class))).willReturn(criteria);
+        given(criteria.list()).willReturn(existingIds);
+    }
+
+    private List<Long> ids(final int count) {
+        List<Long> ids = Lists.newArrayList();
+
+        for (long id = 1; id <= count; id++) {
+            ids.add(id);
+        }
+
+        return ids;
+    }
+
+}
@@ -24,23 +24,54 @@
 package com.qcadoo.model.internal;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.qcadoo.model.api.Entity;
 import com.qcadoo.model.api.types.HasManyType;
 import com.qcadoo.model.beans.sample.SampleParentDatabaseObject;
 import com.qcadoo.model.beans.sample.SampleSimpleDatabaseObject;
+import com.qcadoo.model.beans.sample.SampleTreeDatabaseObject;
+import com.qcadoo.model.internal.api.EntityHookDefinition;
 import com.qcadoo.model.internal.types.HasManyEntitiesType;
 import org.hibernate.Criteria;
+import org.hibernate.Query;
+import org.hibernate.engine.PersistenceContext;
+import org.hibernate.engine.SessionImplementor;
+import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 public class DataAccessServiceDeleteTest extends DataAccessTest {
 
+    private final Query query = mock(Query.class);
+
+    private final PersistenceContext persistenceContext = mock(PersistenceContext.class);
+
+    private final Map<Object, Object> entitiesInSession = Maps.newHashMap();
+
+    @Before
+    public void initSession() {
+        given(session.createQuery(anyString())).willReturn(query);
+        given(((SessionImplementor) session).getPersistenceContext()).willReturn(persistenceContext);
+        given(persistenceContext.getEntitiesByKey()).willReturn(entitiesInSession);
+    }
+
     @Test
     public void shouldProperlyDelete() throws Exception {
         // given
@@ -79,6 +110,36 @@ public class DataAccessServiceDeleteTest extends DataAccessTest {
         parentFieldDefinitionHasMany.withType(new HasManyEntitiesType("simple", "entity", "belongsTo",
                 HasManyType.Cascade.NULLIFY, false, dataDefinitionService));
         parentDataDefinition.withField(parentFieldDefinitionHasMany);
+        entitiesInSession.put(1L, simpleDatabaseObject);
+
+        given(session.get(SampleParentDatabaseObject.class, 1L)).willReturn(parentDatabaseEntity);
+
+        // when
+        parentDataDefinition.delete(1L);
+
+        // then
+        verify(session).createQuery(
+                "update " + SampleSimpleDatabaseObject.class.getName()
+                        + " set belongsTo = null where belongsTo.id in (:ids)");
+        verify(query).executeUpdate();
+        verify(session, never()).save(simpleDatabaseObject);
+        verify(session).delete(parentDatabaseEntity);
+        assertNull(simpleDatabaseObject.getBelongsTo());
+    }
+
+    @Test
+    public void shouldNullifyChildrenOneByOneIfTheyHaveUpdateHooks() throws Exception {
+        // given
+        SampleParentDatabaseObject parentDatabaseEntity = new SampleParentDatabaseObject(1L);
+        parentDatabaseEntity.setName("Mr X");
+        final SampleSimpleDatabaseObject simpleDatabaseObject = new SampleSimpleDatabaseObject(1L);
+        simpleDatabaseObject.setName("Mr T");
+        simpleDatabaseObject.setAge(66);
+        simpleDatabaseObject.setBelongsTo(parentDatabaseEntity);
+        parentFieldDefinitionHasMany.withType(new HasManyEntitiesType("simple", "entity", "belongsTo",
+                HasManyType.Cascade.NULLIFY, false, dataDefinitionService));
+        parentDataDefinition.withField(parentFieldDefinitionHasMany);
+        dataDefinition.addUpdateHook(mockHook());
 
         given(session.get(SampleParentDatabaseObject.class, 1L)).willReturn(parentDatabaseEntity);
         given(hibernateService.getTotalNumberOfEntities(Mockito.any(Criteria.class))).willReturn(1);
@@ -105,4 +166,138 @@ public class DataAccessServiceDeleteTest extends DataAccessTest {
         verify(session).delete(parentDatabaseEntity);
     }
 
+    @Test
+    public void shouldDeleteChildrenInBulk() throws Exception {
+        // given
+        SampleParentDatabaseObject parentDatabaseEntity = new SampleParentDatabaseObject(1L);
+        SampleSimpleDatabaseObject loadedChild = new SampleSimpleDatabaseObject(2L);
+        entitiesInSession.put(2L, loadedChild);
+
+        Query childrenQuery = mock(Query.class);
+        given(childrenQuery.list()).willReturn(Lists.<Object> newArrayList(2L, 3L));
+        given(
+                session.createQuery("select id from " + SampleSimpleDatabaseObject.class.getName()
+                        + " where belongsTo.id in (:ids)")).willReturn(childrenQuery);
+        given(session.get(SampleParentDatabaseObject.class, 1L)).willReturn(parentDatabaseEntity);
+
+        // when
+        parentDataDefinition.delete(1L);
+
+        // then
+        verify(childrenQuery).setParameterList("ids", Lists.newArrayList(1L));
+        verify(session).createQuery("delete from " + SampleSimpleDatabaseObject.class.getName() + " where id in (:ids)");
+        verify(query).setParameterList("ids", Lists.newArrayList(2L, 3L));
+        verify(session).evict(loadedChild);
+        verify(session).evict(parentDatabaseEntity);
+        verify(session).delete(parentDatabaseEntity);
+    }
+
+    @Test
+    public void shouldDeleteSelfReferencingChildrenInBulkStartingFromLeaves() throws Exception {
+        // given
+        final int numberOfNodes = 2500;
+        SampleParentDatabaseObject parentDatabaseEntity = new SampleParentDatabaseObject(1L);
+        final Map<Long, Long> nodeParents = Maps.newLinkedHashMap();
+
+        for (long id = 1; id <= numberOfNodes; id++) {
+            nodeParents.put(id, id == 1 ? null : id / 2);
+        }
+
+        Query nodesQuery = mock(Query.class);
+        given(nodesQuery.list()).willReturn(Lists.<Object> newArrayList(nodeParents.keySet()));
+        given(
+                session.createQuery("select id from " + SampleTreeDatabaseObject.class.getName()
+                        + " where owner.id in (:ids)")).willReturn(nodesQuery);
+
+        final Query parentsQuery = mock(Query.class);
+        final List<Collection<Long>> parentsQueryIds = Lists.newArrayList();
+        given(parentsQuery.setParameterList(Mockito.eq("ids"), Mockito.anyCollection())).willAnswer(new Answer<Query>() {
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public Query answer(final InvocationOnMock invocation) throws Throwable {
+                parentsQueryIds.add((Collection<Long>) invocation.getArguments()[1]);
+                return parentsQuery;
+            }
+        });
+        given(parentsQuery.list()).willAnswer(new Answer<List<Object>>() {
+
+            @Override
+            public List<Object> answer(final InvocationOnMock invocation) throws Throwable {
+                List<Object> rows = Lists.newArrayList();
+
+                for (Long id : parentsQueryIds.get(parentsQueryIds.size() - 1)) {
+                    if (nodeParents.get(id) != null) {
+                        rows.add(new Object[] { id, nodeParents.get(id) });
+                    }
+                }
+
+                return rows;
+            }
+        });
+        given(
+                session.createQuery("select id, parent.id from " + SampleTreeDatabaseObject.class.getName()
+                        + " where id in (:ids) and parent is not null")).willReturn(parentsQuery);
+
+        Query deleteQuery = mock(Query.class);
+        given(session.createQuery("delete from " + SampleTreeDatabaseObject.class.getName() + " where id in (:ids)"))
+                .willReturn(deleteQuery);
+        given(session.get(SampleParentDatabaseObject.class, 1L)).willReturn(parentDatabaseEntity);
+
+        // when
+        parentDataDefinition.delete(1L);
+
+        // then
+        ArgumentCaptor<Collection> deletedIds = ArgumentCaptor.forClass(Collection.class);
+        verify(deleteQuery, times(3)).setParameterList(Mockito.eq("ids"), deletedIds.capture());
+
+        Map<Long, Integer> deletingStatements = Maps.newHashMap();
+
+        for (int i = 0; i < deletedIds.getAllValues().size(); i++) {
+            for (Object id : deletedIds.getAllValues().get(i)) {
+                deletingStatements.put((Long) id, i);
+            }
+        }
+
+        assertEquals(numberOfNodes, deletingStatements.size());
+
+        for (Map.Entry<Long, Long> nodeParent : nodeParents.entrySet()) {
+            if (nodeParent.getValue() != null) {
+                assertTrue(deletingStatements.get(nodeParent.getKey()) <= deletingStatements.get(nodeParent.getValue()));
+            }
+        }
+
+        verify(session).delete(parentDatabaseEntity);
+    }
+
+    @Test
+    public void shouldDeleteChildrenOneByOneIfTheyHaveDeleteHooks() throws Exception {
+        // given
+        SampleParentDatabaseObject parentDatabaseEntity = new SampleParentDatabaseObject(1L);
+        SampleSimpleDatabaseObject simpleDatabaseObject = new SampleSimpleDatabaseObject(2L);
+        simpleDatabaseObject.setBelongsTo(parentDatabaseEntity);
+        dataDefinition.addDeleteHook(mockHook());
+
+        given(session.get(SampleParentDatabaseObject.class, 1L)).willReturn(parentDatabaseEntity);
+        given(session.get(SampleSimpleDatabaseObject.class, 2L)).willReturn(simpleDatabaseObject);
+        given(hibernateService.getTotalNumberOfEntities(Mockito.any(Criteria.class))).willReturn(1);
+        given(hibernateService.list(Mockito.any(Criteria.class))).willReturn((List) Lists.newArrayList(simpleDatabaseObject));
+
+        // when
+        parentDataDefinition.delete(1L);
+
+        // then
+        verify(session, never()).createQuery(
+                "delete from " + SampleSimpleDatabaseObject.class.getName() + " where id in (:ids)");
+        verify(session).delete(simpleDatabaseObject);
+        verify(session).delete(parentDatabaseEntity);
+    }
+
+    private EntityHookDefinition mockHook() {
+        EntityHookDefinition hook = mock(EntityHookDefinition.class);
+        given(hook.isEnabled()).willReturn(true);
+        given(hook.call(Mockito.any(Entity.class))).willReturn(true);
+        return hook;
+    }
+
 }
@@ -27,12 +27,14 @@ import static junit.framework.Assert.assertFalse;
 import static junit.framework.Assert.assertTrue;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
+import java.lang.reflect.Field;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -104,6 +106,28 @@ public final class DataAccessServiceSaveTest extends DataAccessTest {
         assertTrue(entity.isValid());
     }
 
+    @Test
+    public void shouldNotLoadUnchangedFieldsOfEntitySavedWithChanges() throws Exception {
+        // given
+        Entity entity = new DefaultEntity(dataDefinition, 1L);
+        entity.setField("name", "Mr T");
+
+        SampleSimpleDatabaseObject existingDatabaseObject = new SampleSimpleDatabaseObject();
+        existingDatabaseObject.setId(1L);
+        existingDatabaseObject.setName("Mr X");
+        existingDatabaseObject.setAge(33);
+
+        given(session.get(any(Class.class), Matchers.anyInt())).willReturn(existingDatabaseObject);
+
+        // when
+        entity = dataDefinition.saveChanges(entity);
+
+        // then
+        assertTrue(entity.isValid());
+        assertFalse(isLoadedCompletely(entity));
+        assertEquals("Mr T", entity.getStringField("name"));
+    }
+
     @Test
     public void shouldFailIfFieldTypeIsNotValid() throws Exception {
         // given
@@ -177,6 +201,38 @@ public final class DataAccessServiceSaveTest extends DataAccessTest {
         verify(session, times(1)).delete(existingChildToDelete);
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    public void shouldSaveEqualCopyOfEntityOnlyOnce() throws Exception {
+        // given
+        Entity child = new DefaultEntity(dataDefinition);
+
+        for (String fieldName : dataDefinition.getFields().keySet()) {
+            child.setField(fieldName, null);
+        }
+
+        child.setField("name", "Mr T");
+        child.setField("age", 66);
+
+        Entity childCopy = child.copy();
+
+        Entity parent = new DefaultEntity(parentDataDefinition);
+        parent.setField("entities", Arrays.asList(child, childCopy));
+
+        // when
+        Entity entity = parentDataDefinition.save(parent);
+
+        // then
+        assertTrue(entity.isValid());
+
+        List<Entity> entities = (List<Entity>) entity.getField("entities");
+
+        assertEquals(2, entities.size());
+        assertSame(childCopy, entities.get(1));
+
+        verify(session, times(2)).save(Mockito.any());
+    }
+
     @Test
     public void shouldNotSaveEntityListField() throws Exception {
         // given
@@ -295,4 +351,12 @@ public final class DataAccessServiceSaveTest extends DataAccessTest {
         verify(onCreateHook, times(1)).call(Mockito.any(Entity.class));
     }
 
+    private boolean isLoadedCompletely(final Entity entity) throws Exception {
+        // read without ReflectionTestUtils, its debug logging would print (and thus load) all the values
+        Field complete = LazyEntityFieldValues.class.getDeclaredField("complete");
+        complete.setAccessible(true);
+
+        return complete.getBoolean(entity.getFields());
+    }
+
 }
@@ -0,0 +1,159 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.model.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.text.DecimalFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.i18n.LocaleContextHolder;
+
+import com.google.common.collect.Lists;
+
+public class NumberServiceImplTest {
+
+    private static final int THREADS = 8;
+
+    private static final int VALUES_PER_THREAD = 20000;
+
+    private static final Locale[] LOCALES = new Locale[] { Locale.ENGLISH, new Locale("pl"), Locale.GERMAN, Locale.FRENCH };
+
+    private NumberServiceImpl numberService;
+
+    @Before
+    public final void init() {
+        numberService = new NumberServiceImpl();
+    }
+
+    @After
+    public final void tearDown() {
+        LocaleContextHolder.resetLocaleContext();
+    }
+
+    @Test
+    public final void shouldFormatNumberUsingLocaleFromContext() {
+        // given
+        LocaleContextHolder.setLocale(Locale.ENGLISH);
+
+        // when
+        String result = numberService.format(new BigDecimal("1234.5"));
+
+        // then
+        assertEquals("1,234.50", result);
+    }
+
+    @Test
+    public final void shouldFormatWithMinimumFractionDigits() {
+        // given
+        LocaleContextHolder.setLocale(new Locale("pl"));
+
+        // when
+        String result = numberService.formatWithMinimumFractionDigits(new BigDecimal("0.5"), 3);
+
+        // then
+        assertEquals("0,500", result);
+    }
+
+    @Test
+    public final void shouldReturnNullForNullValue() {
+        // when
+        String result = numberService.format(null);
+
+        // then
+        assertNull(result);
+    }
+
+    @Test
+    public final void shouldFormatConsistentlyWhenCalledFromManyThreads() throws Exception {
+        // given
+        final CountDownLatch start = new CountDownLatch(1);
+        final Queue<String> mismatches = new ConcurrentLinkedQueue<String>();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> results = Lists.newArrayList();
+
+        for (int thread = 0; thread < THREADS; thread++) {
+            final int seed = thread;
+            results.add(executor.submit(new Callable<Void>() {
+
+                @Override
+                public Void call() throws Exception {
+                    Locale locale = LOCALES[seed % LOCALES.length];
+                    LocaleContextHolder.setLocale(locale);
+                    DecimalFormat expectedFormat = buildExpectedFormat(locale);
+                    Random random = new Random(seed);
+
+                    start.await();
+
+                    for (int i = 0; i < VALUES_PER_THREAD; i++) {
+                        BigDecimal value = BigDecimal.valueOf(random.nextLong() % 1000000000L, random.nextInt(8));
+                        String expected = expectedFormat.format(value);
+                        String actual = numberService.format(value);
+                        if (!expected.equals(actual)) {
+                            mismatches.add(value + " in " + locale + ": expected " + expected + " but was " + actual);
+                        }
+                    }
+                    return null;
+                }
+
+            }));
+        }
+
+        // when
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get();
+        }
+        executor.shutdown();
+
+        // then
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertTrue(mismatches.size() + " corrupted values, e.g. " + mismatches.peek(), mismatches.isEmpty());
+    }
+
+    private DecimalFormat buildExpectedFormat(final Locale locale) {
+        DecimalFormat decimalFormat = (DecimalFormat) DecimalFormat.getInstance(locale);
+        decimalFormat.setMinimumFractionDigits(NumberServiceImpl.DEFAULT_MIN_FRACTION_DIGITS_IN_DECIMAL);
+        decimalFormat.setMaximumFractionDigits(NumberServiceImpl.MAX_PRECISION);
+        decimalFormat.setRoundingMode(NumberServiceImpl.ROUNDING_MODE);
+        return decimalFormat;
+    }
+
+}
@@ -27,24 +27,43 @@ import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertTrue;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.springframework.util.Assert.notNull;
 
+import java.util.Map;
+
+import org.hibernate.Query;
+import org.hibernate.engine.PersistenceContext;
+import org.hibernate.engine.SessionImplementor;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Matchers;
 import org.mockito.Mockito;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.qcadoo.model.api.Entity;
+import com.qcadoo.model.beans.sample.SampleParentDatabaseObject;
 import com.qcadoo.model.beans.sample.SampleSimpleDatabaseObject;
 
 public class PriorityTest extends DataAccessTest {
 
+    private final Query query = mock(Query.class);
+
+    private final PersistenceContext persistenceContext = mock(PersistenceContext.class);
+
+    private final Map<Object, Object> entitiesInSession = Maps.newHashMap();
+
     @Before
     public void init() {
         dataDefinition.addPriorityField(fieldDefinitionPriority);
+
+        given(session.createQuery(anyString())).willReturn(query);
+        given(((SessionImplementor) session).getPersistenceContext()).willReturn(persistenceContext);
+        given(persistenceContext.getEntitiesByKey()).willReturn(entitiesInSession);
     }
 
     @Test
@@ -78,26 +97,39 @@ public class PriorityTest extends DataAccessTest {
     @Test
     public void shouldChangeEntitiesWithPriorityGreaterThatDeleted() throws Exception {
         // given
+        SampleParentDatabaseObject parentDatabaseObject = new SampleParentDatabaseObject(1L);
+
         SampleSimpleDatabaseObject existingDatabaseObject = new SampleSimpleDatabaseObject(1L);
         existingDatabaseObject.setPriority(11);
+        existingDatabaseObject.setBelongsTo(parentDatabaseObject);
 
         SampleSimpleDatabaseObject otherDatabaseObject = new SampleSimpleDatabaseObject(2L);
         otherDatabaseObject.setPriority(12);
+        otherDatabaseObject.setBelongsTo(parentDatabaseObject);
 
         given(session.get(SampleSimpleDatabaseObject.class, 1L)).willReturn(existingDatabaseObject);
-        given(criteria.list()).willReturn(Lists.newArrayList(otherDatabaseObject));
+        entitiesInSession.put(2L, otherDatabaseObject);
 
         // when
         dataDefinition.delete(1L);
 
         // then
-        SampleSimpleDatabaseObject updatedDatabaseObject = new SampleSimpleDatabaseObject(2L);
-        updatedDatabaseObject.setPriority(11);
-
-        verify(session).update(updatedDatabaseObject);
+        verify(session).createQuery(
+                "update " + SampleSimpleDatabaseObject.class.getName()
+                        + " set priority = priority + :diff where priority between :fromPriority and :toPriority"
+                        + " and belongsTo.id = :scope");
+        verify(query).setParameter("scope", 1L);
+        verify(query).setInteger("diff", -1);
+        verify(query).setInteger("fromPriority", 12);
+        verify(query).setInteger("toPriority", Integer.MAX_VALUE);
+        verify(query).executeUpdate();
+        verify(session, never()).update(any(SampleSimpleDatabaseObject.class));
+
+        assertEquals(Integer.valueOf(11), otherDatabaseObject.getPriority());
 
         SampleSimpleDatabaseObject deletedDatabaseObject = new SampleSimpleDatabaseObject(1L);
         deletedDatabaseObject.setPriority(11);
+        deletedDatabaseObject.setBelongsTo(parentDatabaseObject);
 
         verify(session).delete(deletedDatabaseObject);
     }
@@ -105,15 +137,19 @@ public class PriorityTest extends DataAccessTest {
     @Test
     public void shouldChangeEntitiesBetweenCurrentAndTargetPriorityWhileMoving() throws Exception {
         // given
+        SampleParentDatabaseObject parentDatabaseObject = new SampleParentDatabaseObject(1L);
+
         SampleSimpleDatabaseObject existingDatabaseObject = new SampleSimpleDatabaseObject(1L);
         existingDatabaseObject.setPriority(5);
+        existingDatabaseObject.setBelongsTo(parentDatabaseObject);
 
         SampleSimpleDatabaseObject otherDatabaseObject = new SampleSimpleDatabaseObject(2L);
         otherDatabaseObject.setPriority(6);
+        otherDatabaseObject.setBelongsTo(parentDatabaseObject);
 
         given(session.get(any(Class.class), Matchers.anyInt())).willReturn(existingDatabaseObject);
         given(criteria.uniqueResult()).willReturn(6);
-        given(criteria.list()).willReturn(Lists.newArrayList(otherDatabaseObject));
+        entitiesInSession.put(2L, otherDatabaseObject);
 
         // when
         dataDefinition.move(1L, 1);
@@ -121,27 +157,34 @@ public class PriorityTest extends DataAccessTest {
         // then
         SampleSimpleDatabaseObject movedDatabaseObject = new SampleSimpleDatabaseObject(1L);
         movedDatabaseObject.setPriority(6);
+        movedDatabaseObject.setBelongsTo(parentDatabaseObject);
 
         verify(session).update(movedDatabaseObject);
 
-        SampleSimpleDatabaseObject updatedDatabaseObject = new SampleSimpleDatabaseObject(2L);
-        updatedDatabaseObject.setPriority(5);
+        verify(query).setInteger("diff", -1);
+        verify(query).setInteger("fromPriority", 6);
+        verify(query).setInteger("toPriority", 6);
+        verify(query).executeUpdate();
 
-        verify(session).update(updatedDatabaseObject);
+        assertEquals(Integer.valueOf(5), otherDatabaseObject.getPriority());
     }
 
     @Test
     public void shouldChangeEntitiesBetweenCurrentAndTargetPriorityWhileMovingTo() throws Exception {
         // given
+        SampleParentDatabaseObject parentDatabaseObject = new SampleParentDatabaseObject(1L);
+
         SampleSimpleDatabaseObject existingDatabaseObject = new SampleSimpleDatabaseObject(1L);
         existingDatabaseObject.setPriority(5);
+        existingDatabaseObject.setBelongsTo(parentDatabaseObject);
 
         SampleSimpleDatabaseObject otherDatabaseObject = new SampleSimpleDatabaseObject(2L);
         otherDatabaseObject.setPriority(6);
+        otherDatabaseObject.setBelongsTo(parentDatabaseObject);
 
         given(session.get(any(Class.class), Matchers.anyInt())).willReturn(existingDatabaseObject);
         given(criteria.uniqueResult()).willReturn(6);
-        given(criteria.list()).willReturn(Lists.newArrayList(otherDatabaseObject));
+        entitiesInSession.put(2L, otherDatabaseObject);
 
         // when
         dataDefinition.moveTo(1L, 6);
@@ -149,13 +192,16 @@ public class PriorityTest extends DataAccessTest {
         // then
         SampleSimpleDatabaseObject movedDatabaseObject = new SampleSimpleDatabaseObject(1L);
         movedDatabaseObject.setPriority(6);
+        movedDatabaseObject.setBelongsTo(parentDatabaseObject);
 
         verify(session).update(movedDatabaseObject);
 
-        SampleSimpleDatabaseObject updatedDatabaseObject = new SampleSimpleDatabaseObject(2L);
-        updatedDatabaseObject.setPriority(5);
+        verify(query).setInteger("diff", -1);
+        verify(query).setInteger("fromPriority", 6);
+        verify(query).setInteger("toPriority", 6);
+        verify(query).executeUpdate();
 
-        verify(session).update(updatedDatabaseObject);
+        assertEquals(Integer.valueOf(5), otherDatabaseObject.getPriority());
     }
 
     @Test(expected = IllegalStateException.class)
@@ -238,4 +284,41 @@ public class PriorityTest extends DataAccessTest {
 
         verify(session).update(movedDatabaseObject);
     }
+
+    @Test
+    public void shouldReorderEntitiesUsingTheirCurrentPriorities() throws Exception {
+        // given
+        SampleSimpleDatabaseObject firstDatabaseObject = new SampleSimpleDatabaseObject(1L);
+        firstDatabaseObject.setPriority(2);
+
+        SampleSimpleDatabaseObject secondDatabaseObject = new SampleSimpleDatabaseObject(2L);
+        secondDatabaseObject.setPriority(4);
+
+        SampleSimpleDatabaseObject thirdDatabaseObject = new SampleSimpleDatabaseObject(3L);
+        thirdDatabaseObject.setPriority(7);
+
+        given(criteria.list()).willReturn(Lists.newArrayList(firstDatabaseObject, secondDatabaseObject, thirdDatabaseObject));
+
+        // when
+        dataDefinition.reorder(Lists.newArrayList(3L, 1L, 2L));
+
+        // then
+        assertEquals(Integer.valueOf(2), thirdDatabaseObject.getPriority());
+        assertEquals(Integer.valueOf(4), firstDatabaseObject.getPriority());
+        assertEquals(Integer.valueOf(7), secondDatabaseObject.getPriority());
+
+        verify(session, never()).createQuery(anyString());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotReorderMissingEntities() throws Exception {
+        // given
+        SampleSimpleDatabaseObject firstDatabaseObject = new SampleSimpleDatabaseObject(1L);
+        firstDatabaseObject.setPriority(1);
+
+        given(criteria.list()).willReturn(Lists.newArrayList(firstDatabaseObject));
+
+        // when
+        dataDefinition.reorder(Lists.newArrayList(1L, 2L));
+    }
 }
@@ -0,0 +1,135 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.model.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.qcadoo.model.api.Entity;
+import com.qcadoo.model.api.search.SearchCriteriaBuilder;
+import com.qcadoo.model.api.search.SearchCriterion;
+import com.qcadoo.model.api.search.SearchResult;
+import com.qcadoo.model.internal.api.InternalDataDefinition;
+
+public class ProxyEntityBatchTest {
+
+    private final InternalDataDefinition dataDefinition = mock(InternalDataDefinition.class);
+
+    private final SearchCriteriaBuilder searchCriteriaBuilder = mock(SearchCriteriaBuilder.class);
+
+    private final SearchResult searchResult = mock(SearchResult.class);
+
+    private ProxyEntityBatch batch;
+
+    @Before
+    public void init() {
+        given(dataDefinition.find()).willReturn(searchCriteriaBuilder);
+        given(searchCriteriaBuilder.add(any(SearchCriterion.class))).willReturn(searchCriteriaBuilder);
+        given(searchCriteriaBuilder.list()).willReturn(searchResult);
+
+        batch = ProxyEntityBatch.open(10);
+    }
+
+    @After
+    public void close() {
+        if (batch != null) {
+            batch.close();
+        }
+    }
+
+    @Test
+    public void shouldLoadAllPendingProxiesUsingSingleQuery() throws Exception {
+        // given
+        Entity firstEntity = new DefaultEntity(dataDefinition, 1L);
+        firstEntity.setField("name", "first");
+        Entity secondEntity = new DefaultEntity(dataDefinition, 2L);
+        secondEntity.setField("name", "second");
+        given(searchResult.getEntities()).willReturn(Lists.newArrayList(firstEntity, secondEntity));
+
+        ProxyEntity firstProxy = ProxyEntityBatch.createProxy(dataDefinition, 1L);
+        ProxyEntity secondProxy = ProxyEntityBatch.createProxy(dataDefinition, 2L);
+        ProxyEntity duplicatedProxy = ProxyEntityBatch.createProxy(dataDefinition, 1L);
+        batch.close();
+
+        // when
+        String firstName = firstProxy.getStringField("name");
+        String secondName = secondProxy.getStringField("name");
+        String duplicatedName = duplicatedProxy.getStringField("name");
+
+        // then
+        assertEquals("first", firstName);
+        assertEquals("second", secondName);
+        assertEquals("first", duplicatedName);
+        verify(searchCriteriaBuilder, times(1)).list();
+        verify(dataDefinition, never()).get(anyLong());
+    }
+
+    @Test
+    public void shouldFallbackToSingleGetWhenEntityWasNotFoundInBatch() throws Exception {
+        // given
+        Entity entity = new DefaultEntity(dataDefinition, 1L);
+        given(searchResult.getEntities()).willReturn(Lists.<Entity> newArrayList());
+        given(dataDefinition.get(1L)).willReturn(entity);
+
+        ProxyEntity proxy = ProxyEntityBatch.createProxy(dataDefinition, 1L);
+        batch.close();
+
+        // when
+        Long id = proxy.getId();
+        proxy.getFields();
+
+        // then
+        assertEquals(Long.valueOf(1L), id);
+        verify(dataDefinition, times(1)).get(1L);
+    }
+
+    @Test
+    public void shouldNotBatchOutsideOfContext() throws Exception {
+        // given
+        batch.close();
+        batch = null;
+        given(dataDefinition.get(1L)).willReturn(new DefaultEntity(dataDefinition, 1L));
+
+        ProxyEntity proxy = ProxyEntityBatch.createProxy(dataDefinition, 1L);
+
+        // when
+        proxy.getFields();
+
+        // then
+        verify(dataDefinition, never()).find();
+        verify(dataDefinition, times(1)).get(1L);
+    }
+
+}
@@ -24,6 +24,7 @@
 package com.qcadoo.model.internal;
 
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -40,6 +41,7 @@ import com.google.common.collect.Maps;
 import com.qcadoo.model.api.DataDefinition;
 import com.qcadoo.model.api.Entity;
 import com.qcadoo.model.api.FieldDefinition;
+import com.qcadoo.model.api.types.BelongsToType;
 import com.qcadoo.model.api.types.FieldType;
 import com.qcadoo.model.internal.api.InternalDataDefinition;
 import com.qcadoo.model.internal.api.InternalFieldDefinition;
@@ -192,6 +194,84 @@ public class ValidationServiceImplTest {
         verify(someFieldDefinition, times(1)).callValidators(genericEntity, null, someFieldNewValue);
     }
 
+    @Test
+    public final void shouldNotCallFieldCustomValidatorForUnchangedValueWhenValidatingChangedFields() {
+        // given
+        final String someFieldName = "someField";
+        final String someFieldValue = "someFieldValue";
+        InternalFieldDefinition someFieldDefinition = mockFieldDefinition(someFieldName, new StringType());
+        Map<String, FieldDefinition> fieldsMap = Maps.newHashMap();
+        fieldsMap.put(someFieldName, someFieldDefinition);
+        stubFieldDefinitions(dataDefinition, fieldsMap);
+
+        when(genericEntity.getId()).thenReturn(1L);
+        when(genericEntity.getFields()).thenReturn(Collections.<String, Object> singletonMap(someFieldName, someFieldValue));
+        when(genericEntity.getField(someFieldName)).thenReturn(someFieldValue);
+        when(genericEntity.isFieldValid(someFieldName)).thenReturn(true);
+        when(existingGenericEntity.getField(someFieldName)).thenReturn(someFieldValue);
+
+        // when
+        validationService.validateChangedFields(dataDefinition, genericEntity, existingGenericEntity);
+
+        // then
+        verify(someFieldDefinition, never()).callValidators(Mockito.any(Entity.class), Mockito.any(), Mockito.any());
+        verify(dataDefinition).callUpdateHook(genericEntity);
+        verify(dataDefinition).callSaveHook(genericEntity);
+    }
+
+    @Test
+    public final void shouldCallFieldCustomValidatorForChangedValueWhenValidatingChangedFields() {
+        // given
+        final String someFieldName = "someField";
+        final String someFieldOldValue = "someFieldValue";
+        final String someFieldNewValue = "someFieldValueAfterUpdate";
+        InternalFieldDefinition someFieldDefinition = mockFieldDefinition(someFieldName, new StringType());
+        Map<String, FieldDefinition> fieldsMap = Maps.newHashMap();
+        fieldsMap.put(someFieldName, someFieldDefinition);
+        stubFieldDefinitions(dataDefinition, fieldsMap);
+
+        when(genericEntity.getId()).thenReturn(1L);
+        when(genericEntity.getFields()).thenReturn(Collections.<String, Object> singletonMap(someFieldName, someFieldNewValue));
+        when(genericEntity.getField(someFieldName)).thenReturn(someFieldNewValue);
+        when(genericEntity.isFieldValid(someFieldName)).thenReturn(true);
+        when(existingGenericEntity.getField(someFieldName)).thenReturn(someFieldOldValue);
+
+        // when
+        validationService.validateChangedFields(dataDefinition, genericEntity, existingGenericEntity);
+
+        // then
+        verify(someFieldDefinition, times(1)).callValidators(genericEntity, someFieldOldValue, someFieldNewValue);
+    }
+
+    @Test
+    public final void shouldNotLoadUnchangedBelongsToFieldWhenValidatingChangedFields() {
+        // given
+        final String belongsToFieldName = "parent";
+        DataDefinition referencedDataDefinition = mock(DataDefinition.class);
+        BelongsToType belongsToType = mock(BelongsToType.class);
+        when(belongsToType.getDataDefinition()).thenReturn(referencedDataDefinition);
+        InternalFieldDefinition belongsToFieldDefinition = mockFieldDefinition(belongsToFieldName, belongsToType);
+        Map<String, FieldDefinition> fieldsMap = Maps.newHashMap();
+        fieldsMap.put(belongsToFieldName, belongsToFieldDefinition);
+        stubFieldDefinitions(dataDefinition, fieldsMap);
+
+        Entity existingParent = mock(Entity.class);
+        when(existingParent.getId()).thenReturn(5L);
+
+        when(genericEntity.getId()).thenReturn(1L);
+        when(genericEntity.getFields()).thenReturn(Collections.<String, Object> singletonMap(belongsToFieldName, 5L));
+        when(genericEntity.getField(belongsToFieldName)).thenReturn(5L);
+        when(existingGenericEntity.getField(belongsToFieldName)).thenReturn(existingParent);
+
+        // when
+        validationService.validateChangedFields(dataDefinition, genericEntity, existingGenericEntity);
+
+        // then
+        verify(genericEntity).setField(belongsToFieldName, existingParent);
+        verify(referencedDataDefinition, never()).get(Mockito.anyLong());
+        verify(belongsToFieldDefinition, never()).callValidators(Mockito.any(Entity.class), Mockito.any(), Mockito.any());
+    }
+
     private InternalFieldDefinition mockFieldDefinition(final String name, final FieldType type) {
         InternalFieldDefinition fieldDefinition = mock(InternalFieldDefinition.class);
         when(fieldDefinition.getName()).thenReturn(name);
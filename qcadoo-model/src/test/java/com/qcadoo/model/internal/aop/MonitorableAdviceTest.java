@@ -0,0 +1,116 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.model.internal.aop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.qcadoo.model.api.DataDefinition;
+import com.qcadoo.model.api.aop.MonitoredCall;
+import com.qcadoo.model.api.aop.PerformanceProbe;
+import com.qcadoo.model.internal.DataDefinitionServiceImpl;
+
+public class MonitorableAdviceTest {
+
+    private final List<MonitoredCall> calls = new CopyOnWriteArrayList<MonitoredCall>();
+
+    private final PerformanceProbe probe = new PerformanceProbe() {
+
+        @Override
+        public void onCall(final MonitoredCall call) {
+            calls.add(call);
+        }
+
+    };
+
+    private DataDefinitionServiceImpl dataDefinitionService;
+
+    private DataDefinition dataDefinition;
+
+    @Before
+    public final void init() {
+        dataDefinitionService = new DataDefinitionServiceImpl();
+
+        dataDefinition = mock(DataDefinition.class);
+        given(dataDefinition.getPluginIdentifier()).willReturn("plugin");
+        given(dataDefinition.getName()).willReturn("product");
+
+        MonitorableAdvice.registerProbe(probe);
+    }
+
+    @After
+    public final void destroy() {
+        MonitorableAdvice.unregisterProbe(probe);
+    }
+
+    @Test
+    public final void shouldRecordMonitoredCallExactlyOnce() throws Exception {
+        // when
+        dataDefinitionService.save(dataDefinition);
+
+        // then
+        assertEquals(1, calls.size());
+        assertEquals("DataDefinitionServiceImpl.save(..)", calls.get(0).getMethod());
+        assertEquals("plugin.product", calls.get(0).getDataDefinition());
+        assertFalse(calls.get(0).isFailed());
+    }
+
+    @Test
+    public final void shouldRecordFailedCallExactlyOnce() throws Exception {
+        // when
+        try {
+            dataDefinitionService.get("plugin", "missing");
+        } catch (NullPointerException e) {
+            // expected
+        }
+
+        // then
+        assertEquals(1, calls.size());
+        assertEquals("DataDefinitionServiceImpl.get(..)", calls.get(0).getMethod());
+        assertTrue(calls.get(0).isFailed());
+    }
+
+    @Test
+    public final void shouldNotRecordCallsWithoutProbes() throws Exception {
+        // given
+        MonitorableAdvice.unregisterProbe(probe);
+
+        // when
+        dataDefinitionService.list();
+
+        // then
+        assertTrue(calls.isEmpty());
+    }
+
+}
@@ -0,0 +1,136 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.model.internal.aop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.qcadoo.model.api.aop.MonitoredCall;
+import com.qcadoo.model.api.aop.PerformanceStatistics;
+
+public class PerformanceMonitorImplTest {
+
+    private PerformanceMonitorImpl performanceMonitor;
+
+    @Before
+    public final void init() {
+        performanceMonitor = new PerformanceMonitorImpl();
+    }
+
+    @Test
+    public final void shouldCollectStatisticsPerMethodAndDataDefinition() throws Exception {
+        // given
+        performanceMonitor.onCall(createCall("DataAccessServiceImpl.save(..)", "plugin.product", 10, false));
+        performanceMonitor.onCall(createCall("DataAccessServiceImpl.save(..)", "plugin.order", 20, true));
+        performanceMonitor.onCall(createCall("CrudController.performEvent(..)", null, 30, false));
+
+        // when
+        List<PerformanceStatistics> statistics = performanceMonitor.getStatistics();
+
+        // then
+        assertEquals(4, statistics.size());
+
+        PerformanceStatistics crudStatistics = statistics.get(0);
+        assertEquals("CrudController.performEvent(..)", crudStatistics.getMethod());
+        assertNull(crudStatistics.getDataDefinition());
+        assertEquals(1, crudStatistics.getCount());
+
+        PerformanceStatistics saveStatistics = statistics.get(1);
+        assertEquals("DataAccessServiceImpl.save(..)", saveStatistics.getMethod());
+        assertNull(saveStatistics.getDataDefinition());
+        assertEquals(2, saveStatistics.getCount());
+        assertEquals(1, saveStatistics.getErrorCount());
+
+        PerformanceStatistics orderSaveStatistics = statistics.get(2);
+        assertEquals("plugin.order", orderSaveStatistics.getDataDefinition());
+        assertEquals(1, orderSaveStatistics.getCount());
+        assertEquals(1, orderSaveStatistics.getErrorCount());
+
+        PerformanceStatistics productSaveStatistics = statistics.get(3);
+        assertEquals("plugin.product", productSaveStatistics.getDataDefinition());
+        assertEquals(1, productSaveStatistics.getCount());
+        assertEquals(0, productSaveStatistics.getErrorCount());
+    }
+
+    @Test
+    public final void shouldComputePercentilesWithBoundedRelativeError() throws Exception {
+        // given
+        for (int i = 1; i <= 1000; i++) {
+            performanceMonitor.onCall(createCall("DataAccessServiceImpl.find(..)", null, i, false));
+        }
+
+        // when
+        PerformanceStatistics statistics = performanceMonitor.getStatistics().get(0);
+
+        // then
+        assertEquals(1000, statistics.getCount());
+        assertEquals(1000000, statistics.getMax());
+        assertEquals(500500, statistics.getMean());
+        assertWithinRelativeError(500000, statistics.getMedian());
+        assertWithinRelativeError(900000, statistics.getPercentile90());
+        assertWithinRelativeError(990000, statistics.getPercentile99());
+        assertWithinRelativeError(999000, statistics.getPercentile999());
+    }
+
+    @Test
+    public final void shouldRemoveStatisticsOnReset() throws Exception {
+        // given
+        performanceMonitor.onCall(createCall("DataAccessServiceImpl.get(..)", "plugin.product", 1, false));
+
+        // when
+        performanceMonitor.reset();
+
+        // then
+        assertTrue(performanceMonitor.getStatistics().isEmpty());
+    }
+
+    @Test
+    public final void shouldMapEveryValueToBucketContainingIt() throws Exception {
+        for (long value : new long[] { 0, 1, 63, 64, 65, 127, 128, 1000, 123456789L, Long.MAX_VALUE }) {
+            // when
+            int bucketIndex = LatencyHistogram.getBucketIndex(value);
+
+            // then
+            assertTrue(LatencyHistogram.getHighestEquivalentValue(bucketIndex) >= value);
+            assertTrue(bucketIndex == 0 || LatencyHistogram.getHighestEquivalentValue(bucketIndex - 1) < value);
+        }
+    }
+
+    private void assertWithinRelativeError(final long expected, final long actual) {
+        assertTrue("expected ~" + expected + " but was " + actual, Math.abs(actual - expected) <= expected * 0.035);
+    }
+
+    private MonitoredCall createCall(final String method, final String dataDefinition, final long durationInMillis,
+            final boolean failed) {
+        return new MonitoredCall(method, dataDefinition, TimeUnit.MILLISECONDS.toNanos(durationInMillis), 100, failed);
+    }
+
+}
@@ -0,0 +1,99 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.model.internal.artifactcache;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ModelArtifactCacheImplTest {
+
+    private static final String KIND = "class-4f2a";
+
+    private static final String KEY = "0123abcd";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private ModelArtifactCacheImpl modelArtifactCache;
+
+    @Before
+    public final void init() {
+        modelArtifactCache = new ModelArtifactCacheImpl();
+        modelArtifactCache.setCacheDirectory(temporaryFolder.getRoot().getAbsolutePath());
+    }
+
+    @Test
+    public final void shouldReturnStoredArtifact() {
+        // given
+        byte[] artifact = new byte[] { 1, 2, 3 };
+
+        // when
+        modelArtifactCache.put(KIND, KEY, artifact);
+
+        // then
+        assertArrayEquals(artifact, modelArtifactCache.get(KIND, KEY));
+    }
+
+    @Test
+    public final void shouldReturnNullForMissingArtifact() {
+        // given
+        modelArtifactCache.put(KIND, KEY, new byte[] { 1 });
+
+        // when
+        byte[] artifact = modelArtifactCache.get("hbm-v1", KEY);
+
+        // then
+        assertNull(artifact);
+    }
+
+    @Test
+    public final void shouldReplaceStoredArtifact() {
+        // given
+        modelArtifactCache.put(KIND, KEY, new byte[] { 1 });
+
+        // when
+        modelArtifactCache.put(KIND, KEY, new byte[] { 2 });
+
+        // then
+        assertArrayEquals(new byte[] { 2 }, modelArtifactCache.get(KIND, KEY));
+    }
+
+    @Test
+    public final void shouldIgnoreArtifactsIfCacheIsDisabled() {
+        // given
+        modelArtifactCache.setCacheDirectory("");
+
+        // when
+        modelArtifactCache.put(KIND, KEY, new byte[] { 1 });
+
+        // then
+        assertNull(modelArtifactCache.get(KIND, KEY));
+    }
+
+}
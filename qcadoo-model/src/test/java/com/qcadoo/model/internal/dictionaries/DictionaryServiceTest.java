@@ -25,38 +25,61 @@ package com.qcadoo.model.internal.dictionaries;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import static org.junit.matchers.JUnitMatchers.hasItems;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.Mockito;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import com.qcadoo.model.TransactionMockAwareTest;
+import com.qcadoo.model.api.DataDefinition;
 import com.qcadoo.model.api.DataDefinitionService;
 import com.qcadoo.model.api.DictionaryService;
 import com.qcadoo.model.api.Entity;
+import com.qcadoo.model.api.search.SearchCriteriaBuilder;
 import com.qcadoo.model.api.search.SearchOrders;
 import com.qcadoo.model.api.search.SearchRestrictions;
+import com.qcadoo.model.api.search.SearchResult;
 import com.qcadoo.model.internal.DefaultEntity;
+import com.qcadoo.model.internal.api.InternalDictionaryService;
+import com.qcadoo.tenant.api.MultiTenantService;
 
 public class DictionaryServiceTest extends TransactionMockAwareTest {
 
     private final DataDefinitionService dataDefinitionService = mock(DataDefinitionService.class, RETURNS_DEEP_STUBS);
 
+    private final MultiTenantService multiTenantService = mock(MultiTenantService.class);
+
     private DictionaryService dictionaryService = null;
 
+    private DictionaryCache dictionaryCache = null;
+
     @Before
     public void init() {
+        dictionaryCache = new DictionaryCache();
+        ReflectionTestUtils.setField(dictionaryCache, "dataDefinitionService", dataDefinitionService);
+        ReflectionTestUtils.setField(dictionaryCache, "multiTenantService", multiTenantService);
+
         dictionaryService = new DictionaryServiceImpl();
         ReflectionTestUtils.setField(dictionaryService, "dataDefinitionService", dataDefinitionService);
+        ReflectionTestUtils.setField(dictionaryService, "dictionaryCache", dictionaryCache);
     }
 
     @Test
@@ -96,8 +119,8 @@ public class DictionaryServiceTest extends TransactionMockAwareTest {
 
         given(
                 dataDefinitionService.get("qcadooModel", "dictionaryItem").find().createAlias("dictionary", "dictionary")
-                        .add(SearchRestrictions.eq("dictionary.name", "dict")).add(SearchRestrictions.eq("active", true))
-                        .addOrder(SearchOrders.asc("name")).list().getEntities()).willReturn(newArrayList(item1, item3, item2));
+                        .add(SearchRestrictions.eq("dictionary.name", "dict")).addOrder(SearchOrders.asc("name")).list()
+                        .getEntities()).willReturn(newArrayList(item1, item3, item2));
 
         // when
         Map<String, String> values = dictionaryService.getActiveValues("dict", Locale.ENGLISH);
@@ -109,6 +132,138 @@ public class DictionaryServiceTest extends TransactionMockAwareTest {
         assertThat(values.get("ccc"), equalTo("ccc"));
     }
 
+    @Test
+    public void shouldSkipInactiveItemsInActiveValues() throws Exception {
+        // given
+        Entity item1 = new DefaultEntity(null);
+        item1.setField("name", "aaa");
+        Entity item2 = new DefaultEntity(null);
+        item2.setField("name", "bbb");
+        item2.setActive(false);
+
+        givenItemsOf("dict", item1, item2);
+
+        // when
+        Map<String, String> activeValues = dictionaryService.getActiveValues("dict", Locale.ENGLISH);
+        List<String> keys = dictionaryService.getKeys("dict");
+
+        // then
+        assertEquals(newArrayList("aaa"), newArrayList(activeValues.keySet()));
+        assertEquals(newArrayList("aaa", "bbb"), keys);
+    }
+
+    @Test
+    public void shouldReadDictionaryItemsOnlyOnce() throws Exception {
+        // given
+        Entity item = new DefaultEntity(null);
+        item.setField("name", "aaa");
+
+        SearchCriteriaBuilder criteria = givenItemsOf("dict", item);
+
+        // when
+        dictionaryService.getKeys("dict");
+        dictionaryService.getValues("dict", Locale.ENGLISH);
+        dictionaryService.getActiveKeys("dict");
+
+        // then
+        verify(criteria, times(1)).list();
+        assertEquals(1L, dictionaryCache.getMisses());
+        assertEquals(2L, dictionaryCache.getHits());
+    }
+
+    @Test
+    public void shouldReadDictionaryItemsAgainAfterInvalidation() throws Exception {
+        // given
+        Entity item = new DefaultEntity(null);
+        item.setField("name", "aaa");
+
+        SearchCriteriaBuilder criteria = givenItemsOf("dict", item);
+
+        dictionaryService.getKeys("dict");
+
+        // when
+        dictionaryCache.invalidate("dict");
+        dictionaryService.getKeys("dict");
+
+        // then
+        verify(criteria, times(2)).list();
+        assertEquals(2L, dictionaryCache.getMisses());
+    }
+
+    @Test
+    public void shouldKeepDictionariesOfTenantsSeparately() throws Exception {
+        // given
+        Entity item = new DefaultEntity(null);
+        item.setField("name", "aaa");
+
+        SearchCriteriaBuilder criteria = givenItemsOf("dict", item);
+
+        given(multiTenantService.getCurrentTenantId()).willReturn(1);
+        dictionaryService.getKeys("dict");
+
+        // when
+        given(multiTenantService.getCurrentTenantId()).willReturn(2);
+        dictionaryService.getKeys("dict");
+
+        // then
+        verify(criteria, times(2)).list();
+    }
+
+    @Test
+    public void shouldReturnItemEntityFromSnapshot() throws Exception {
+        // given
+        DataDefinition itemDataDefinition = mock(DataDefinition.class);
+        DataDefinition dictionaryDataDefinition = mock(DataDefinition.class);
+
+        Entity item = new DefaultEntity(itemDataDefinition, 7L);
+        item.setField("name", "aaa");
+        item.setField("isInteger", true);
+        item.setField("dictionary", new DefaultEntity(dictionaryDataDefinition, 3L));
+
+        givenItemsOf("dict", item);
+
+        // when
+        Entity firstItemEntity = dictionaryService.getItemEntity("dict", "aaa");
+        Entity secondItemEntity = dictionaryService.getItemEntity("dict", "aaa");
+
+        // then
+        assertNotSame(firstItemEntity, secondItemEntity);
+        assertEquals(Long.valueOf(7L), firstItemEntity.getId());
+        assertTrue(firstItemEntity.getBooleanField("isInteger"));
+        assertEquals(Long.valueOf(3L), ((Entity) firstItemEntity.getField("dictionary")).getId());
+        assertNull(dictionaryService.getItemEntity("dict", "bbb"));
+    }
+
+    @Test
+    public void shouldNotSaveAlreadyActiveDictionary() throws Exception {
+        // given
+        Entity dict = new DefaultEntity(null);
+        dict.setField("name", "dict");
+        dict.setField("active", true);
+
+        given(dataDefinitionService.get("qcadooModel", "dictionary").find().addOrder(SearchOrders.asc("name")).list()
+                .getEntities()).willReturn(newArrayList(dict));
+
+        // when
+        ((InternalDictionaryService) dictionaryService).createIfNotExists("plugin", "dict");
+
+        // then
+        verify(dataDefinitionService.get("qcadooModel", "dictionary"), never()).save(Mockito.any(Entity.class));
+    }
+
+    private SearchCriteriaBuilder givenItemsOf(final String dictionary, final Entity... items) {
+        SearchCriteriaBuilder criteria = mock(SearchCriteriaBuilder.class);
+        SearchResult searchResult = mock(SearchResult.class);
+
+        given(dataDefinitionService.get("qcadooModel", "dictionaryItem").find().createAlias("dictionary", "dictionary")
+                .add(SearchRestrictions.eq("dictionary.name", dictionary)).addOrder(SearchOrders.asc("name"))).willReturn(
+                criteria);
+        given(criteria.list()).willReturn(searchResult);
+        given(searchResult.getEntities()).willReturn(newArrayList(items));
+
+        return criteria;
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void shouldThrownAnExceptionIfDictionaryNameIsNull() throws Exception {
         // when
@@ -0,0 +1,175 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.model.internal.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.withSettings;
+
+import java.util.NoSuchElementException;
+
+import org.hibernate.ScrollableResults;
+import org.hibernate.classic.Session;
+import org.hibernate.engine.PersistenceContext;
+import org.hibernate.engine.SessionImplementor;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.qcadoo.model.api.Entity;
+import com.qcadoo.model.api.types.BelongsToType;
+import com.qcadoo.model.internal.DynamicDataDefinitionImpl;
+import com.qcadoo.model.internal.api.EntityService;
+import com.qcadoo.model.internal.api.InternalDataDefinition;
+import com.qcadoo.model.internal.types.IntegerType;
+
+public class ScrollableSearchResultImplTest {
+
+    private final ScrollableResults results = mock(ScrollableResults.class);
+
+    private final InternalDataDefinition dataDefinition = mock(InternalDataDefinition.class);
+
+    private final EntityService entityService = mock(EntityService.class);
+
+    private final Session session = mock(Session.class, withSettings().extraInterfaces(SessionImplementor.class));
+
+    private final PersistenceContext persistenceContext = mock(PersistenceContext.class);
+
+    @Before
+    public void init() {
+        given(((SessionImplementor) session).getPersistenceContext()).willReturn(persistenceContext);
+        given(persistenceContext.getEntitiesByKey()).willReturn(ImmutableMap.of());
+        given(session.contains(any())).willReturn(true);
+    }
+
+    @Test
+    public void shouldConvertRowsLazilyAndEvictLoadedRowsAfterEachBatch() throws Exception {
+        // given
+        Object firstDatabaseEntity = new Object();
+        Object secondDatabaseEntity = new Object();
+        Object thirdDatabaseEntity = new Object();
+        Entity firstEntity = mock(Entity.class);
+        Entity secondEntity = mock(Entity.class);
+        Entity thirdEntity = mock(Entity.class);
+
+        given(results.next()).willReturn(true, true, true, false);
+        given(results.get()).willReturn(new Object[] { firstDatabaseEntity }, new Object[] { secondDatabaseEntity },
+                new Object[] { thirdDatabaseEntity });
+        given(entityService.convertToGenericEntity(dataDefinition, firstDatabaseEntity)).willReturn(firstEntity);
+        given(entityService.convertToGenericEntity(dataDefinition, secondDatabaseEntity)).willReturn(secondEntity);
+        given(entityService.convertToGenericEntity(dataDefinition, thirdDatabaseEntity)).willReturn(thirdEntity);
+
+        ScrollableSearchResultImpl searchResult = new ScrollableSearchResultImpl(results, dataDefinition, entityService,
+                session, 2);
+
+        // when & then
+        assertTrue(searchResult.hasNext());
+        assertSame(firstEntity, searchResult.next());
+        assertSame(secondEntity, searchResult.next());
+        verify(session).evict(firstDatabaseEntity);
+        verify(session).evict(secondDatabaseEntity);
+        assertSame(thirdEntity, searchResult.next());
+        assertFalse(searchResult.hasNext());
+        assertFalse(searchResult.hasNext());
+        verify(session, never()).evict(thirdDatabaseEntity);
+        verify(session, never()).clear();
+        verify(session, never()).flush();
+        verify(results, times(1)).close();
+    }
+
+    @Test
+    public void shouldNotEvictEntitiesManagedBeforeScrolling() throws Exception {
+        // given
+        Object managedDatabaseEntity = new Object();
+        Object loadedDatabaseEntity = new Object();
+
+        given(persistenceContext.getEntitiesByKey()).willReturn(ImmutableMap.of("managedEntityKey", managedDatabaseEntity));
+        given(results.next()).willReturn(true, true, false);
+        given(results.get()).willReturn(new Object[] { managedDatabaseEntity }, new Object[] { loadedDatabaseEntity });
+
+        ScrollableSearchResultImpl searchResult = new ScrollableSearchResultImpl(results, dataDefinition, entityService,
+                session, 2);
+
+        // when
+        searchResult.next();
+        searchResult.next();
+
+        // then
+        verify(session, never()).evict(managedDatabaseEntity);
+        verify(session).evict(loadedDatabaseEntity);
+    }
+
+    @Test
+    public void shouldMapProjectionRowColumnsToFields() throws Exception {
+        // given
+        InternalDataDefinition referencedDataDefinition = mock(InternalDataDefinition.class);
+        BelongsToType belongsToType = mock(BelongsToType.class);
+        given(belongsToType.getDataDefinition()).willReturn(referencedDataDefinition);
+
+        DynamicDataDefinitionImpl projectionDataDefinition = new DynamicDataDefinitionImpl();
+        projectionDataDefinition.addField("product", belongsToType);
+        projectionDataDefinition.addField("quantity", new IntegerType());
+
+        Object productDatabaseEntity = new Object();
+        Entity product = mock(Entity.class);
+        given(entityService.convertToGenericEntity(referencedDataDefinition, productDatabaseEntity)).willReturn(product);
+
+        Object[] row = new Object[] { productDatabaseEntity, 7 };
+
+        given(results.next()).willReturn(true, false);
+        given(results.get()).willReturn(row);
+
+        ScrollableSearchResultImpl searchResult = new ScrollableSearchResultImpl(results, projectionDataDefinition,
+                entityService, session, 2);
+
+        // when
+        Entity entity = searchResult.next();
+
+        // then
+        assertSame(product, entity.getField("product"));
+        assertEquals(7, entity.getField("quantity"));
+        verify(entityService, never()).convertToGenericEntity(projectionDataDefinition, (Object) row);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void shouldFailWhenThereAreNoMoreRows() throws Exception {
+        // given
+        given(results.next()).willReturn(false);
+
+        ScrollableSearchResultImpl searchResult = new ScrollableSearchResultImpl(results, dataDefinition, entityService,
+                session, 2);
+
+        // when
+        searchResult.next();
+    }
+
+}
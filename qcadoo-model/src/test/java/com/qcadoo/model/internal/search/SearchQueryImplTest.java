@@ -0,0 +1,103 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.model.internal.search;
+
+import static org.junit.Assert.assertNull;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import org.hibernate.classic.Session;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.qcadoo.model.internal.api.DataAccessService;
+import com.qcadoo.model.internal.api.InternalDataDefinition;
+
+public class SearchQueryImplTest {
+
+    private static final String CLASS_NAME = "com.qcadoo.model.beans.products.ProductsProduct";
+
+    private final DataAccessService dataAccessService = mock(DataAccessService.class);
+
+    private final InternalDataDefinition dataDefinition = mock(InternalDataDefinition.class);
+
+    private final Session session = mock(Session.class);
+
+    @Before
+    public void init() {
+        given(dataDefinition.getPluginIdentifier()).willReturn("products");
+        given(dataDefinition.getName()).willReturn("product");
+        given(dataDefinition.getFullyQualifiedClassName()).willReturn(CLASS_NAME);
+        given(dataAccessService.getDataDefinition("products", "product")).willReturn(dataDefinition);
+    }
+
+    @Test
+    public void shouldCreateCountQueryForWhereSection() throws Exception {
+        // given
+        SearchQuery searchQuery = new SearchQueryImpl(dataDefinition, dataAccessService, "where name = :name");
+
+        // when
+        searchQuery.createCountQuery(session);
+
+        // then
+        verify(session).createQuery("select count(*) from " + CLASS_NAME + " where name = :name");
+    }
+
+    @Test
+    public void shouldCreateCountQueryWithoutOrderSection() throws Exception {
+        // given
+        SearchQuery searchQuery = new SearchQueryImpl(dataDefinition, dataAccessService,
+                "select p from #products_product as p where p.id in (select c.id from #products_product c order by c.id) "
+                        + "order by p.name asc");
+
+        // when
+        searchQuery.createCountQuery(session);
+
+        // then
+        verify(session).createQuery(
+                "select count(*) from " + CLASS_NAME + " as p where p.id in (select c.id from " + CLASS_NAME
+                        + " c order by c.id)");
+    }
+
+    @Test
+    public void shouldNotCreateCountQueryForProjections() throws Exception {
+        // given
+        SearchQuery distinctQuery = new SearchQueryImpl(dataDefinition, dataAccessService,
+                "select distinct p.name as name from #products_product as p");
+        SearchQuery projectionQuery = new SearchQueryImpl(dataDefinition, dataAccessService,
+                "select p, upper(p.name) from #products_product as p");
+        SearchQuery groupQuery = new SearchQueryImpl(dataDefinition, dataAccessService,
+                "select p.name as name from #products_product as p group by p.name");
+        SearchQuery fetchQuery = new SearchQueryImpl(dataDefinition, dataAccessService,
+                "from #products_product as p left join fetch p.components");
+
+        // when & then
+        assertNull(distinctQuery.createCountQuery(session));
+        assertNull(projectionQuery.createCountQuery(session));
+        assertNull(groupQuery.createCountQuery(session));
+        assertNull(fetchQuery.createCountQuery(session));
+    }
+
+}
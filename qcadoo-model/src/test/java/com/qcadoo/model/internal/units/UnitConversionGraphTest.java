@@ -0,0 +1,230 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.model.internal.units;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.qcadoo.model.api.Entity;
+import com.qcadoo.model.api.units.UnitConversion;
+import com.qcadoo.model.constants.UnitConversionItemFields;
+import com.qcadoo.model.internal.DefaultEntity;
+
+public class UnitConversionGraphTest {
+
+    private static final MathContext MATH_CONTEXT = MathContext.DECIMAL64;
+
+    private static final int UNITS_NUMBER = 200;
+
+    @Test
+    public final void shouldFindDirectAndReversedConversions() {
+        // given
+        UnitConversionGraph graph = buildGraph(Lists.newArrayList(conversion("m", "10", "dm"), conversion("km", "1000", "m"),
+                conversion("dm", "10", "cm")));
+
+        // when
+        Map<String, BigDecimal> conversions = graph.getReachableConversions("m", "m");
+
+        // then
+        assertEquals(Sets.newHashSet("dm", "km"), conversions.keySet());
+        assertEquals(0, new BigDecimal("10").compareTo(conversions.get("dm")));
+        assertEquals(0, new BigDecimal("0.001").compareTo(conversions.get("km")));
+    }
+
+    @Test
+    public final void shouldFindConversionsThroughAdditionalUnit() {
+        // given
+        UnitConversionGraph graph = buildGraph(Lists.newArrayList(conversion("m", "10", "dm"), conversion("dm", "10", "cm"),
+                conversion("cm", "10", "mm")));
+
+        // when
+        Map<String, BigDecimal> conversions = graph.getReachableConversions("m", "dm");
+
+        // then
+        assertEquals(Sets.newHashSet("dm", "cm"), conversions.keySet());
+        assertEquals(0, new BigDecimal("100").compareTo(conversions.get("cm")));
+    }
+
+    @Test
+    public final void shouldReuseComputedConversions() {
+        // given
+        UnitConversionGraph graph = buildGraph(Lists.newArrayList(conversion("m", "10", "dm")));
+
+        // when
+        Map<String, BigDecimal> firstConversions = graph.getReachableConversions("m", "m");
+        Map<String, BigDecimal> secondConversions = graph.getReachableConversions("m", "m");
+
+        // then
+        assertSame(firstConversions, secondConversions);
+    }
+
+    @Test
+    public final void shouldReturnEmptyConversionsForUnknownUnit() {
+        // given
+        UnitConversionGraph graph = buildGraph(Lists.newArrayList(conversion("m", "10", "dm")));
+
+        // when
+        Map<String, BigDecimal> conversions = graph.getReachableConversions("kg", "kg");
+
+        // then
+        assertTrue(conversions.isEmpty());
+    }
+
+    @Test
+    public final void shouldMatchPreviousTraversalForEveryUnitOfLargeGraph() {
+        // given
+        List<UnitConversion> unitConversions = buildRandomConversions(new Random(20L), true);
+        UnitConversionGraph graph = buildGraph(unitConversions);
+
+        for (int unitIndex = 0; unitIndex < UNITS_NUMBER; unitIndex++) {
+            String unit = unit(unitIndex);
+            String additionalUnit = unit((unitIndex * 7 + 3) % UNITS_NUMBER);
+
+            // when
+            Map<String, BigDecimal> conversions = graph.getReachableConversions(unit, unit);
+            Map<String, BigDecimal> additionalUnitConversions = graph.getReachableConversions(unit, additionalUnit);
+
+            // then
+            assertEquals(previousTraversal(unit, conversionsOf(unitConversions, unit)), conversions);
+            assertEquals(previousTraversal(unit, conversionsOf(unitConversions, additionalUnit)), additionalUnitConversions);
+        }
+    }
+
+    @Test
+    public final void shouldMatchPreviousTraversalForWholeTreeDomain() {
+        // given
+        List<UnitConversion> unitConversions = buildRandomConversions(new Random(30L), false);
+
+        for (int unitIndex = 0; unitIndex < UNITS_NUMBER; unitIndex += 10) {
+            String unit = unit(unitIndex);
+
+            // when
+            Map<String, BigDecimal> conversions = UnitConversionGraph.traverse(unit, unitConversions, MATH_CONTEXT);
+
+            // then
+            assertEquals(previousTraversal(unit, Sets.newHashSet(unitConversions)), conversions);
+        }
+    }
+
+    private UnitConversionGraph buildGraph(final List<UnitConversion> unitConversions) {
+        return new UnitConversionGraph(unitConversions, Collections.<String, Boolean> emptyMap(), MATH_CONTEXT);
+    }
+
+    private List<UnitConversion> buildRandomConversions(final Random random, final boolean withCycles) {
+        List<UnitConversion> unitConversions = Lists.newArrayList();
+        Set<Set<String>> connectedUnits = Sets.newHashSet();
+
+        for (int unitIndex = 1; unitIndex < UNITS_NUMBER; unitIndex++) {
+            String otherUnit = unit(random.nextInt(unitIndex));
+
+            connectedUnits.add(Sets.newHashSet(unit(unitIndex), otherUnit));
+            unitConversions.add(conversion(unit(unitIndex), String.valueOf(random.nextInt(999) + 1), otherUnit));
+        }
+
+        for (int conversionIndex = 0; withCycles && conversionIndex < UNITS_NUMBER * 2; conversionIndex++) {
+            String unitFrom = unit(random.nextInt(UNITS_NUMBER));
+            String unitTo = unit(random.nextInt(UNITS_NUMBER));
+
+            if (!unitFrom.equals(unitTo) && connectedUnits.add(Sets.newHashSet(unitFrom, unitTo))) {
+                unitConversions.add(conversion(unitFrom, random.nextInt(999) + 1 + "." + random.nextInt(1000), unitTo));
+            }
+        }
+
+        return unitConversions;
+    }
+
+    private Set<UnitConversion> conversionsOf(final List<UnitConversion> unitConversions, final String unit) {
+        Set<UnitConversion> matchingConversions = Sets.newHashSet();
+
+        for (UnitConversion unitConversion : unitConversions) {
+            if (unit.equals(unitConversion.getUnitFrom()) || unit.equals(unitConversion.getUnitTo())) {
+                matchingConversions.add(unitConversion);
+            }
+        }
+
+        return matchingConversions;
+    }
+
+    private String unit(final int unitIndex) {
+        return "unit" + unitIndex;
+    }
+
+    private UnitConversion conversion(final String unitFrom, final String quantityTo, final String unitTo) {
+        Entity unitConversionItem = new DefaultEntity(null);
+        unitConversionItem.setField(UnitConversionItemFields.UNIT_FROM, unitFrom);
+        unitConversionItem.setField(UnitConversionItemFields.QUANTITY_FROM, BigDecimal.ONE);
+        unitConversionItem.setField(UnitConversionItemFields.UNIT_TO, unitTo);
+        unitConversionItem.setField(UnitConversionItemFields.QUANTITY_TO, new BigDecimal(quantityTo));
+
+        return UnitConversionImpl.build(unitConversionItem, MATH_CONTEXT);
+    }
+
+    private Map<String, BigDecimal> previousTraversal(final String unit, final Set<UnitConversion> domain) {
+        Map<String, BigDecimal> targetUnitToRatio = Maps.newHashMap();
+
+        previousTraversal(targetUnitToRatio, UnitConversionImpl.build(unit, MATH_CONTEXT), domain);
+
+        return targetUnitToRatio;
+    }
+
+    private void previousTraversal(final Map<String, BigDecimal> targetUnitToRatio, final UnitConversion parent,
+            final Set<UnitConversion> domain) {
+        for (UnitConversion unitConversion : previousMatchingConversions(parent.getUnitTo(), domain)) {
+            UnitConversion generatedConversion = parent.merge(unitConversion);
+            targetUnitToRatio.putIfAbsent(generatedConversion.getUnitTo(), generatedConversion.getRatio());
+            previousTraversal(targetUnitToRatio, generatedConversion, domain);
+        }
+    }
+
+    private Set<UnitConversion> previousMatchingConversions(final String unitToFind, final Set<UnitConversion> domain) {
+        Set<UnitConversion> matchingConversions = Sets.newHashSet();
+
+        for (UnitConversion unitConversion : Sets.newHashSet(domain)) {
+            if (unitToFind.equals(unitConversion.getUnitFrom())) {
+                matchingConversions.add(unitConversion);
+                domain.remove(unitConversion);
+            } else if (unitToFind.equals(unitConversion.getUnitTo())) {
+                matchingConversions.add(unitConversion.reverse());
+                domain.remove(unitConversion);
+            }
+        }
+
+        return matchingConversions;
+    }
+
+}
@@ -50,6 +50,7 @@ import com.qcadoo.model.api.NumberService;
 import com.qcadoo.model.api.units.PossibleUnitConversions;
 import com.qcadoo.model.api.units.UnitConversionModelService;
 import com.qcadoo.model.constants.UnitConversionItemFields;
+import com.qcadoo.tenant.api.MultiTenantService;
 
 public class UnitConversionServiceImplTest {
 
@@ -77,10 +78,18 @@ public class UnitConversionServiceImplTest {
         ReflectionTestUtils.setField(unitConversionService, "numberService", numberService);
         ReflectionTestUtils.setField(unitConversionService, "unitConversionModelService", unitConversionModelService);
         ReflectionTestUtils.setField(unitConversionService, "dictionaryService", dictionaryService);
+
+        final UnitConversionGraphCache unitConversionGraphCache = new UnitConversionGraphCache();
+        ReflectionTestUtils.setField(unitConversionGraphCache, "numberService", numberService);
+        ReflectionTestUtils.setField(unitConversionGraphCache, "unitConversionModelService", unitConversionModelService);
+        ReflectionTestUtils.setField(unitConversionGraphCache, "dictionaryService", dictionaryService);
+        ReflectionTestUtils.setField(unitConversionGraphCache, "multiTenantService", mock(MultiTenantService.class));
+        ReflectionTestUtils.setField(unitConversionService, "unitConversionGraphCache", unitConversionGraphCache);
     }
 
     private void stubGetAll(final List<Entity> unitConversionItems) {
         given(unitConversionModelService.find(Mockito.anyString())).willReturn(unitConversionItems);
+        given(unitConversionModelService.findAll()).willReturn(unitConversionItems);
     }
 
     private Entity mockUnitConversionItem(final BigDecimal quantityFrom, final String unitFrom, final BigDecimal quantityTo,
@@ -0,0 +1,105 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.model.internal.units.hooks;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.qcadoo.model.api.DataDefinition;
+import com.qcadoo.model.api.Entity;
+import com.qcadoo.model.constants.UnitConversionItemFields;
+import com.qcadoo.model.internal.units.UnitConversionGraphCache;
+
+public class UnitConversionGraphHooksTest {
+
+    private UnitConversionGraphHooks unitConversionGraphHooks;
+
+    @Mock
+    private UnitConversionGraphCache unitConversionGraphCache;
+
+    @Mock
+    private DataDefinition unitConversionItemDD;
+
+    @Mock
+    private Entity unitConversionItem;
+
+    @Mock
+    private Entity globalUnitConversionsAggregate;
+
+    @Before
+    public final void init() {
+        MockitoAnnotations.initMocks(this);
+
+        unitConversionGraphHooks = new UnitConversionGraphHooks();
+        ReflectionTestUtils.setField(unitConversionGraphHooks, "unitConversionGraphCache", unitConversionGraphCache);
+    }
+
+    @Test
+    public final void shouldInvalidateGraphWhenGlobalConversionIsCreated() {
+        // given
+        given(unitConversionItem.getId()).willReturn(null);
+        given(unitConversionItem.getField(UnitConversionItemFields.GLOBAL_UNIT_CONVERSIONS_AGGREGATE)).willReturn(
+                globalUnitConversionsAggregate);
+
+        // when
+        unitConversionGraphHooks.invalidateGlobalConversions(unitConversionItemDD, unitConversionItem);
+
+        // then
+        verify(unitConversionGraphCache).invalidate();
+    }
+
+    @Test
+    public final void shouldInvalidateGraphWhenExistingConversionIsNoLongerGlobal() {
+        // given
+        given(unitConversionItem.getId()).willReturn(1L);
+        given(unitConversionItem.getField(UnitConversionItemFields.GLOBAL_UNIT_CONVERSIONS_AGGREGATE)).willReturn(null);
+
+        // when
+        unitConversionGraphHooks.invalidateGlobalConversions(unitConversionItemDD, unitConversionItem);
+
+        // then
+        verify(unitConversionGraphCache).invalidate();
+    }
+
+    @Test
+    public final void shouldNotInvalidateGraphWhenNewConversionIsNotGlobal() {
+        // given
+        given(unitConversionItem.getId()).willReturn(null);
+        given(unitConversionItem.getField(UnitConversionItemFields.GLOBAL_UNIT_CONVERSIONS_AGGREGATE)).willReturn(null);
+
+        // when
+        unitConversionGraphHooks.invalidateGlobalConversions(unitConversionItemDD, unitConversionItem);
+
+        // then
+        verify(unitConversionGraphCache, never()).invalidate();
+    }
+
+}
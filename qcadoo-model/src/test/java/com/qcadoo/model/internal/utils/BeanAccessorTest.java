@@ -0,0 +1,140 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.model.internal.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtField;
+import javassist.CtNewMethod;
+
+import org.apache.commons.beanutils.PropertyUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+
+import com.qcadoo.model.beans.sample.SampleSimpleDatabaseObject;
+
+public class BeanAccessorTest {
+
+    private static final int L_NUMBER_OF_FIELDS = 30;
+
+    private static final Class<?>[] L_FIELD_TYPES = { String.class, Integer.class, BigDecimal.class, Date.class, Boolean.class,
+            Long.class };
+
+    @Test
+    public void shouldGetAndSetProperties() throws Exception {
+        // given
+        SampleSimpleDatabaseObject databaseObject = new SampleSimpleDatabaseObject(1L);
+        BeanAccessor beanAccessor = BeanAccessor.forClass(SampleSimpleDatabaseObject.class);
+
+        // when
+        beanAccessor.set(databaseObject, "name", "Mr T");
+        beanAccessor.set(databaseObject, "age", 33);
+
+        // then
+        assertEquals(Long.valueOf(1L), beanAccessor.get(databaseObject, "id"));
+        assertEquals("Mr T", databaseObject.getName());
+        assertEquals(Integer.valueOf(33), beanAccessor.get(databaseObject, "age"));
+    }
+
+    @Test
+    public void shouldReuseAccessorForClass() throws Exception {
+        // when & then
+        assertSame(BeanAccessor.forClass(SampleSimpleDatabaseObject.class),
+                BeanAccessor.forClass(SampleSimpleDatabaseObject.class));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldFailForUnknownProperty() throws Exception {
+        // when
+        BeanAccessor.forClass(SampleSimpleDatabaseObject.class).get(new SampleSimpleDatabaseObject(), "unknown");
+    }
+
+    @Test
+    public void shouldReadAndWriteGeneratedBeanLikePropertyUtils() throws Exception {
+        // given
+        Class<?> beanClass = generateBeanClass();
+        Object writtenByPropertyUtils = beanClass.newInstance();
+        Object writtenByBeanAccessor = beanClass.newInstance();
+        BeanAccessor beanAccessor = BeanAccessor.forClass(beanClass);
+
+        // when
+        for (int i = 0; i < L_NUMBER_OF_FIELDS; i++) {
+            PropertyUtils.setProperty(writtenByPropertyUtils, fieldName(i), fieldValue(i));
+            beanAccessor.set(writtenByBeanAccessor, fieldName(i), fieldValue(i));
+        }
+
+        // then
+        for (int i = 0; i < L_NUMBER_OF_FIELDS; i++) {
+            assertEquals(fieldValue(i), beanAccessor.get(writtenByPropertyUtils, fieldName(i)));
+            assertEquals(fieldValue(i), PropertyUtils.getProperty(writtenByBeanAccessor, fieldName(i)));
+        }
+    }
+
+    private Class<?> generateBeanClass() throws Exception {
+        ClassPool classPool = new ClassPool(true);
+        CtClass ctClass = classPool.makeClass("com.qcadoo.model.beans.sample.SampleGeneratedDatabaseObject");
+
+        for (int i = 0; i < L_NUMBER_OF_FIELDS; i++) {
+            String name = fieldName(i);
+            String clazz = L_FIELD_TYPES[i % L_FIELD_TYPES.length].getName();
+
+            ctClass.addField(CtField.make("private " + clazz + " " + name + ";", ctClass));
+            ctClass.addMethod(CtNewMethod.make("public " + clazz + " get" + StringUtils.capitalize(name) + "() { return " + name
+                    + "; }", ctClass));
+            ctClass.addMethod(CtNewMethod.make("public void set" + StringUtils.capitalize(name) + "(" + clazz + " " + name
+                    + ") { this." + name + " = " + name + "; }", ctClass));
+        }
+
+        return ctClass.toClass(new ClassLoader(getClass().getClassLoader()) {
+        }, null);
+    }
+
+    private String fieldName(final int index) {
+        return "field" + index;
+    }
+
+    private Object fieldValue(final int index) {
+        switch (index % L_FIELD_TYPES.length) {
+            case 0:
+                return "value" + index;
+            case 1:
+                return Integer.valueOf(index);
+            case 2:
+                return new BigDecimal(index + ".25");
+            case 3:
+                return new Date(index * 1000L);
+            case 4:
+                return index % 4 == 0;
+            default:
+                return Long.valueOf(index * 1000L);
+        }
+    }
+
+}
@@ -29,6 +29,8 @@ import static org.mockito.BDDMockito.given;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.util.ReflectionTestUtils.setField;
 
 import java.util.Locale;
@@ -171,4 +173,24 @@ public class ExpressionUtilTest {
         assertEquals("P1", value);
     }
 
+    @Test
+    public void shouldConvertOnlyFieldsReferencedByExpression() throws Exception {
+        // given
+        DataDefinition dataDefinition = mock(DataDefinition.class, RETURNS_DEEP_STUBS);
+        Entity entity = new DefaultEntity(dataDefinition, 1L);
+        entity.setField("name", "Mr T");
+        entity.setField("age", 33);
+
+        given(dataDefinition.getField(eq("name")).getType().toString(eq("Mr T"), eq(Locale.ENGLISH))).willReturn("Mr X");
+
+        // when
+        String firstValue = expressionService.getValue(entity, "#name.toUpperCase()", Locale.ENGLISH);
+        String secondValue = expressionService.getValue(entity, "#name.toUpperCase()", Locale.ENGLISH);
+
+        // then
+        assertEquals("MR X", firstValue);
+        assertEquals("MR X", secondValue);
+        verify(dataDefinition, never()).getField("age");
+    }
+
 }
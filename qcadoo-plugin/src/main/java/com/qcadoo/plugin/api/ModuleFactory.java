@@ -52,6 +52,18 @@ public abstract class ModuleFactory<T extends Module> {
         // empty
     }
 
+    /**
+     * Returns true if modules of this factory can be initialized, enabled and disabled on startup concurrently for plugins which
+     * don't depend on each other. It's used only when parallel module initialization is turned on, factories which register modules
+     * in thread unsafe or order sensitive structures must return false.
+     * 
+     * @return true if modules can be initialized concurrently
+     * @since 1.5
+     */
+    public boolean isParallelizable() {
+        return false;
+    }
+
     /**
      * Parses descriptor and creates instance of {@link Module}.
      * 
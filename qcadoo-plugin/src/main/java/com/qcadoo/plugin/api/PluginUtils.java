@@ -59,6 +59,18 @@ public final class PluginUtils {
         return PluginUtilsService.isEnabled(pluginIdentifier);
     }
 
+    /**
+     * Returns counter incremented on every state change of any plugin. Caches built from plugin dependent data can keep the value
+     * read before building and treat themselves as stale once it changes.
+     * 
+     * @since 1.5
+     * 
+     * @return state version
+     */
+    public static long getStateVersion() {
+        return PluginUtilsService.getStateVersion();
+    }
+
     /**
      * Returns true if plugin is enabled or enabling.
      * 
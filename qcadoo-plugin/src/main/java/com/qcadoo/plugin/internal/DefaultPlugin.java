@@ -25,9 +25,11 @@ package com.qcadoo.plugin.internal;
 
 import com.qcadoo.plugin.api.*;
 import com.qcadoo.plugin.internal.api.InternalPlugin;
+import com.qcadoo.plugin.internal.api.PluginStateSnapshot;
 import com.qcadoo.tenant.api.MultiTenantUtil;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.qcadoo.plugin.api.PluginState.*;
 import static java.util.Collections.*;
@@ -52,7 +54,9 @@ public final class DefaultPlugin implements InternalPlugin {
 
     private final String fileName;
 
-    private PluginState state;
+    private volatile PluginState state;
+
+    private static final AtomicLong STATE_VERSION = new AtomicLong();
 
     private DefaultPlugin(final String identifier, final String fileName, final boolean system, final Version version,
             final List<ModuleFactory<?>> factories, final Map<ModuleFactory<?>, List<Module>> modulesByFactories,
@@ -93,7 +97,7 @@ public final class DefaultPlugin implements InternalPlugin {
         }
 
         if (hasState(UNKNOWN)) {
-            state = targetState;
+            setState(targetState);
 
             return;
         }
@@ -101,7 +105,7 @@ public final class DefaultPlugin implements InternalPlugin {
         Plugin thisPlugin = this;
 
         if (ENABLED.equals(targetState)) {
-            state = targetState;
+            setState(targetState);
 
             for (final ModuleFactory<?> factory : factories) {
                 List<Module> modules = modulesByFactories.get(factory);
@@ -132,13 +136,18 @@ public final class DefaultPlugin implements InternalPlugin {
                 }
             }
 
-            state = targetState;
+            setState(targetState);
         } else {
-            state = targetState;
+            setState(targetState);
         }
 
     }
 
+    private void setState(final PluginState targetState) {
+        state = targetState;
+        STATE_VERSION.incrementAndGet();
+    }
+
     private boolean isTransitionPossible(final PluginState from, final PluginState to) {
         if (from == null || to == null || to.equals(UNKNOWN) || to.equals(from)) {
             return false;
@@ -304,6 +313,15 @@ public final class DefaultPlugin implements InternalPlugin {
         return version;
     }
 
+    /**
+     * Returns counter incremented on every state change of any plugin, used to detect stale {@link PluginStateSnapshot}s.
+     * 
+     * @return state version
+     */
+    public static long getStateVersion() {
+        return STATE_VERSION.get();
+    }
+
     @Override
     public PluginState getState() {
         return state;
@@ -30,6 +30,7 @@ import org.springframework.stereotype.Service;
 
 import com.qcadoo.plugin.api.Plugin;
 import com.qcadoo.plugin.api.PluginStateResolver;
+import com.qcadoo.plugin.internal.stateresolver.InternalPluginStateResolver;
 
 /**
  * Utils to checking plugin's state.
@@ -81,6 +82,41 @@ public class PluginUtilsService {
         return instance.pluginStateResolver.isEnabled(pluginIdentifier);
     }
 
+    /**
+     * Returns true if all given plugins are enabled. If available, the precomputed mask is tested against current plugin state
+     * snapshot instead of looking up each plugin separately.
+     * 
+     * @param pluginIdentifiers
+     *            plugins' identifiers
+     * @param requiredMask
+     *            mask of the same plugins, created using {@link com.qcadoo.plugin.internal.api.PluginSlots#maskOf(String...)}
+     * @return true if all enabled
+     */
+    public static boolean areEnabled(final String[] pluginIdentifiers, final long[] requiredMask) {
+        PluginStateResolver pluginStateResolver = instance.pluginStateResolver;
+
+        if (pluginStateResolver instanceof InternalPluginStateResolver) {
+            return ((InternalPluginStateResolver) pluginStateResolver).areEnabled(pluginIdentifiers, requiredMask);
+        }
+
+        for (String pluginIdentifier : pluginIdentifiers) {
+            if (!pluginStateResolver.isEnabled(pluginIdentifier)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns counter incremented on every state change of any plugin.
+     * 
+     * @return state version
+     */
+    public static long getStateVersion() {
+        return DefaultPlugin.getStateVersion();
+    }
+
     /**
      * Returns true if plugin is enabled or enabling.
      * 
@@ -24,8 +24,8 @@
 package com.qcadoo.plugin.internal.accessor;
 
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -42,6 +42,7 @@ import com.qcadoo.model.beans.qcadooPlugin.QcadooPluginPlugin;
 import com.qcadoo.plugin.api.Plugin;
 import com.qcadoo.plugin.api.PluginState;
 import com.qcadoo.plugin.api.Version;
+import com.qcadoo.plugin.internal.DefaultPlugin;
 import com.qcadoo.plugin.internal.PluginUtilsService;
 import com.qcadoo.plugin.internal.api.InternalPlugin;
 import com.qcadoo.plugin.internal.api.InternalPluginAccessor;
@@ -49,6 +50,7 @@ import com.qcadoo.plugin.internal.api.ModuleFactoryAccessor;
 import com.qcadoo.plugin.internal.api.PluginDao;
 import com.qcadoo.plugin.internal.api.PluginDependencyManager;
 import com.qcadoo.plugin.internal.api.PluginDescriptorParser;
+import com.qcadoo.plugin.internal.api.PluginStateSnapshot;
 import com.qcadoo.plugin.internal.stateresolver.InternalPluginStateResolver;
 import com.qcadoo.tenant.api.MultiTenantUtil;
 
@@ -80,13 +82,15 @@ public class DefaultPluginAccessor implements InternalPluginAccessor, Applicatio
     @SuppressWarnings("unused")
     private MultiTenantUtil multiTenantUtil;
 
-    private final Map<String, Plugin> plugins = new HashMap<String, Plugin>();
+    private final Object snapshotLock = new Object();
+
+    private volatile PluginStateSnapshot snapshot = PluginStateSnapshot.EMPTY;
 
     private volatile boolean alreadyInitialized;
 
     @Override
     public Plugin getEnabledPlugin(final String identifier) {
-        Plugin plugin = plugins.get(identifier);
+        Plugin plugin = getStateSnapshot().getPlugin(identifier);
 
         if (plugin == null) {
             return null;
@@ -102,7 +106,7 @@ public class DefaultPluginAccessor implements InternalPluginAccessor, Applicatio
     public Collection<Plugin> getSystemPlugins() {
         Set<Plugin> systemPlugins = new HashSet<Plugin>();
 
-        for (Plugin plugin : plugins.values()) {
+        for (Plugin plugin : getStateSnapshot().getPlugins()) {
             if (plugin.isSystemPlugin()) {
                 systemPlugins.add(plugin);
             }
@@ -115,7 +119,7 @@ public class DefaultPluginAccessor implements InternalPluginAccessor, Applicatio
     public Collection<Plugin> getEnabledPlugins() {
         Set<Plugin> enabledPlugins = new HashSet<Plugin>();
 
-        for (Plugin plugin : plugins.values()) {
+        for (Plugin plugin : getStateSnapshot().getPlugins()) {
             if (plugin.hasState(PluginState.ENABLED)) {
                 enabledPlugins.add(plugin);
             }
@@ -126,12 +130,47 @@ public class DefaultPluginAccessor implements InternalPluginAccessor, Applicatio
 
     @Override
     public Plugin getPlugin(final String identifier) {
-        return plugins.get(identifier);
+        return getStateSnapshot().getPlugin(identifier);
     }
 
     @Override
     public Collection<Plugin> getPlugins() {
-        return plugins.values();
+        return getStateSnapshot().getPlugins();
+    }
+
+    @Override
+    public PluginStateSnapshot getStateSnapshot() {
+        PluginStateSnapshot currentSnapshot = snapshot;
+
+        if (currentSnapshot.getStateVersion() == DefaultPlugin.getStateVersion()) {
+            return currentSnapshot;
+        }
+
+        synchronized (snapshotLock) {
+            if (snapshot.getStateVersion() == DefaultPlugin.getStateVersion()) {
+                return snapshot;
+            }
+
+            return publishSnapshot(snapshot.getPluginsByIdentifiers());
+        }
+    }
+
+    private PluginStateSnapshot publishSnapshot(final Map<String, Plugin> plugins) {
+        long stateVersion = DefaultPlugin.getStateVersion();
+
+        PluginStateSnapshot newSnapshot = PluginStateSnapshot.of(plugins, stateVersion);
+        snapshot = newSnapshot;
+
+        return newSnapshot;
+    }
+
+    private void putPlugin(final Plugin plugin) {
+        synchronized (snapshotLock) {
+            Map<String, Plugin> plugins = new LinkedHashMap<String, Plugin>(snapshot.getPluginsByIdentifiers());
+            plugins.put(plugin.getIdentifier(), plugin);
+
+            publishSnapshot(plugins);
+        }
     }
 
     public void init() {
@@ -166,7 +205,7 @@ public class DefaultPluginAccessor implements InternalPluginAccessor, Applicatio
 
             LOG.info("Registering plugin " + plugin);
 
-            plugins.put(plugin.getIdentifier(), plugin);
+            putPlugin(plugin);
         }
         for (QcadooPluginPlugin databasePlugin : pluginsFromDatabase) {
             if (databasePlugin.getState().equals(PluginState.TEMPORARY.toString())) {
@@ -186,7 +225,7 @@ public class DefaultPluginAccessor implements InternalPluginAccessor, Applicatio
         }
         Set<InternalPlugin> temporaryPlugins = pluginDescriptorParser.getTemporaryPlugins();
         for (InternalPlugin plugin : temporaryPlugins) {
-            plugins.put(plugin.getIdentifier(), plugin);
+            putPlugin(plugin);
         }
         LOG.info("Plugin Framework initialized in " + (System.currentTimeMillis() - time) + "ms");
     }
@@ -210,6 +249,8 @@ public class DefaultPluginAccessor implements InternalPluginAccessor, Applicatio
 
         long time = System.currentTimeMillis();
 
+        Map<String, Plugin> plugins = getStateSnapshot().getPluginsByIdentifiers();
+
         List<Plugin> sortedPlugins = pluginDependencyManager.sortPluginsInDependencyOrder(plugins.values(), plugins);
 
         moduleFactoryAccessor.init(sortedPlugins);
@@ -246,12 +287,17 @@ public class DefaultPluginAccessor implements InternalPluginAccessor, Applicatio
 
     @Override
     public void savePlugin(final Plugin plugin) {
-        plugins.put(plugin.getIdentifier(), plugin);
+        putPlugin(plugin);
     }
 
     @Override
     public void removePlugin(final Plugin plugin) {
-        plugins.remove(plugin.getIdentifier());
+        synchronized (snapshotLock) {
+            Map<String, Plugin> plugins = new LinkedHashMap<String, Plugin>(snapshot.getPluginsByIdentifiers());
+            plugins.remove(plugin.getIdentifier());
+
+            publishSnapshot(plugins);
+        }
     }
 
 }
@@ -23,17 +23,24 @@
  */
 package com.qcadoo.plugin.internal.aop;
 
-import static com.qcadoo.plugin.api.PluginUtils.isEnabled;
+import java.util.concurrent.ConcurrentMap;
 
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 
+import com.google.common.collect.MapMaker;
 import com.qcadoo.plugin.api.RunIfEnabled;
+import com.qcadoo.plugin.internal.PluginUtilsService;
+import com.qcadoo.plugin.internal.api.PluginSlots;
 
 @Aspect
 public class RunIfEnabledAspect {
 
+    // weak keys are compared by identity, woven sites keep their annotation instance
+    private final ConcurrentMap<RunIfEnabled, RequiredPlugins> requiredPluginsByAnnotation = new MapMaker().weakKeys()
+            .makeMap();
+
     @Around("(execution(* *(..)) || (adviceexecution() && !args(org.aspectj.lang.ProceedingJoinPoint, ..))) && @annotation(annotation)")
     public Object runMethodIfEnabledAdvice(final ProceedingJoinPoint pjp, final RunIfEnabled annotation) throws Throwable {
         return runIfEnabled(pjp, null, annotation);
@@ -59,7 +66,7 @@ public class RunIfEnabledAspect {
     private Object runIfEnabled(final ProceedingJoinPoint pjp, final ProceedingJoinPoint innerPjp, final RunIfEnabled annotation)
             throws Throwable {
         Object result = null;
-        if (pluginsAreEnabled(annotation.value())) {
+        if (pluginsAreEnabled(annotation)) {
             result = pjp.proceed();
         } else if (innerPjp != null) {
             result = innerPjp.proceed();
@@ -67,12 +74,28 @@ public class RunIfEnabledAspect {
         return result;
     }
 
-    private boolean pluginsAreEnabled(final String[] pluginIdentifiers) {
-        for (String pluginIdentifier : pluginIdentifiers) {
-            if (!isEnabled(pluginIdentifier)) {
-                return false;
-            }
+    private boolean pluginsAreEnabled(final RunIfEnabled annotation) {
+        RequiredPlugins requiredPlugins = requiredPluginsByAnnotation.get(annotation);
+
+        if (requiredPlugins == null) {
+            requiredPlugins = new RequiredPlugins(annotation.value());
+            requiredPluginsByAnnotation.put(annotation, requiredPlugins);
         }
-        return true;
+
+        return PluginUtilsService.areEnabled(requiredPlugins.identifiers, requiredPlugins.mask);
     }
+
+    private static final class RequiredPlugins {
+
+        private final String[] identifiers;
+
+        private final long[] mask;
+
+        private RequiredPlugins(final String[] identifiers) {
+            this.identifiers = identifiers;
+            this.mask = PluginSlots.maskOf(identifiers);
+        }
+
+    }
+
 }
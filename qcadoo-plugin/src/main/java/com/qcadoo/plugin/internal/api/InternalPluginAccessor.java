@@ -32,4 +32,11 @@ public interface InternalPluginAccessor extends PluginAccessor {
 
     void removePlugin(Plugin plugin);
 
+    /**
+     * Returns current, immutable snapshot of registered plugins and their states.
+     * 
+     * @return snapshot
+     */
+    PluginStateSnapshot getStateSnapshot();
+
 }
@@ -0,0 +1,95 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.plugin.internal.api;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Process-wide registry assigning each plugin identifier a stable, dense integer slot. Slots are never reused, so masks built
+ * from them (see {@link #maskOf(String...)}) stay valid for the lifetime of the application, also across plugin reinstalls.
+ */
+public final class PluginSlots {
+
+    private static final AtomicReference<ImmutableMap<String, Integer>> SLOTS = new AtomicReference<>(
+            ImmutableMap.<String, Integer> of());
+
+    private PluginSlots() {
+    }
+
+    /**
+     * Returns slot of given plugin identifier, assigning a new one if identifier has not been seen yet.
+     * 
+     * @param pluginIdentifier
+     *            plugin's identifier
+     * @return slot
+     */
+    public static int slotOf(final String pluginIdentifier) {
+        Integer slot = SLOTS.get().get(pluginIdentifier);
+
+        if (slot != null) {
+            return slot;
+        }
+
+        synchronized (SLOTS) {
+            Map<String, Integer> slots = SLOTS.get();
+            slot = slots.get(pluginIdentifier);
+
+            if (slot == null) {
+                slot = slots.size();
+                SLOTS.set(ImmutableMap.<String, Integer> builder().putAll(slots).put(pluginIdentifier, slot).build());
+            }
+
+            return slot;
+        }
+    }
+
+    /**
+     * Returns bit mask with slots of all given plugin identifiers set.
+     * 
+     * @param pluginIdentifiers
+     *            plugins' identifiers
+     * @return bit mask, one bit per slot
+     */
+    public static long[] maskOf(final String... pluginIdentifiers) {
+        long[] mask = new long[0];
+
+        for (String pluginIdentifier : pluginIdentifiers) {
+            int slot = slotOf(pluginIdentifier);
+
+            if ((slot >> 6) >= mask.length) {
+                long[] grown = new long[(slot >> 6) + 1];
+                System.arraycopy(mask, 0, grown, 0, mask.length);
+                mask = grown;
+            }
+
+            mask[slot >> 6] |= 1L << slot;
+        }
+
+        return mask;
+    }
+
+}
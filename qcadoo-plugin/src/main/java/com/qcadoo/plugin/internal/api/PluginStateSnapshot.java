@@ -0,0 +1,137 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.plugin.internal.api;
+
+import java.util.Collection;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableMap;
+import com.qcadoo.plugin.api.Plugin;
+import com.qcadoo.plugin.api.PluginState;
+
+/**
+ * Immutable view of registered plugins together with a bit mask of these being enabled, indexed by {@link PluginSlots} slots.
+ * New instances are published on every registration change or plugin state change, readers never see partially updated state.
+ */
+public final class PluginStateSnapshot {
+
+    public static final PluginStateSnapshot EMPTY = new PluginStateSnapshot(ImmutableMap.<String, Plugin> of(), new long[0], -1L);
+
+    private final ImmutableMap<String, Plugin> plugins;
+
+    private final long[] enabledMask;
+
+    private final long stateVersion;
+
+    private PluginStateSnapshot(final ImmutableMap<String, Plugin> plugins, final long[] enabledMask, final long stateVersion) {
+        this.plugins = plugins;
+        this.enabledMask = enabledMask;
+        this.stateVersion = stateVersion;
+    }
+
+    /**
+     * Creates snapshot of given plugins, taking their current states.
+     * 
+     * @param plugins
+     *            plugins by identifiers
+     * @param stateVersion
+     *            version of plugins' states, read before calling this method
+     * @return snapshot
+     */
+    public static PluginStateSnapshot of(final Map<String, Plugin> plugins, final long stateVersion) {
+        ImmutableMap<String, Plugin> pluginsCopy = ImmutableMap.copyOf(plugins);
+        long[] enabledMask = new long[0];
+
+        for (Map.Entry<String, Plugin> pluginEntry : pluginsCopy.entrySet()) {
+            if (!pluginEntry.getValue().hasState(PluginState.ENABLED)) {
+                continue;
+            }
+
+            int slot = PluginSlots.slotOf(pluginEntry.getKey());
+
+            if ((slot >> 6) >= enabledMask.length) {
+                long[] grown = new long[(slot >> 6) + 1];
+                System.arraycopy(enabledMask, 0, grown, 0, enabledMask.length);
+                enabledMask = grown;
+            }
+
+            enabledMask[slot >> 6] |= 1L << slot;
+        }
+
+        return new PluginStateSnapshot(pluginsCopy, enabledMask, stateVersion);
+    }
+
+    public ImmutableMap<String, Plugin> getPluginsByIdentifiers() {
+        return plugins;
+    }
+
+    public Collection<Plugin> getPlugins() {
+        return plugins.values();
+    }
+
+    public Plugin getPlugin(final String identifier) {
+        return plugins.get(identifier);
+    }
+
+    public long getStateVersion() {
+        return stateVersion;
+    }
+
+    /**
+     * Returns true if plugin with given identifier was enabled when snapshot was taken.
+     * 
+     * @param pluginIdentifier
+     *            plugin's identifier
+     * @return true if enabled
+     */
+    public boolean isEnabled(final String pluginIdentifier) {
+        if (!plugins.containsKey(pluginIdentifier)) {
+            return false;
+        }
+
+        int slot = PluginSlots.slotOf(pluginIdentifier);
+
+        return (slot >> 6) < enabledMask.length && (enabledMask[slot >> 6] & (1L << slot)) != 0L;
+    }
+
+    /**
+     * Returns true if all plugins from given mask were enabled when snapshot was taken.
+     * 
+     * @param requiredMask
+     *            mask created using {@link PluginSlots#maskOf(String...)}
+     * @return true if all enabled
+     */
+    public boolean isEnabled(final long[] requiredMask) {
+        for (int i = 0; i < requiredMask.length; i++) {
+            long enabledWord = i < enabledMask.length ? enabledMask[i] : 0L;
+
+            if ((requiredMask[i] & ~enabledWord) != 0L) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+}
@@ -24,14 +24,32 @@
 package com.qcadoo.plugin.internal.module;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.qcadoo.plugin.api.Module;
 import com.qcadoo.plugin.api.ModuleFactory;
 import com.qcadoo.plugin.api.Plugin;
+import com.qcadoo.plugin.api.PluginDependencyInformation;
 import com.qcadoo.plugin.api.PluginState;
 import com.qcadoo.plugin.api.PluginUtils;
 import com.qcadoo.plugin.internal.api.InternalPlugin;
@@ -41,27 +59,54 @@ import com.qcadoo.tenant.api.MultiTenantUtil;
 
 public class DefaultModuleFactoryAccessor implements ModuleFactoryAccessor {
 
+    private static final Logger LOG = LoggerFactory.getLogger(DefaultModuleFactoryAccessor.class);
+
     protected final Map<String, ModuleFactory<?>> moduleFactoryRegistry = new LinkedHashMap<>();
 
+    private boolean parallelInitialization;
+
+    private int parallelInitializationThreads = Runtime.getRuntime().availableProcessors();
+
     @Override
     public void init(final List<Plugin> pluginsToInitialize) {
+        StartupTimings timings = new StartupTimings();
+        ExecutorService executor = createExecutor();
+
+        try {
+            init(pluginsToInitialize, executor, timings);
+        } finally {
+            if (executor != null) {
+                executor.shutdown();
+            }
+        }
+
+        timings.log();
+    }
+
+    private void init(final List<Plugin> pluginsToInitialize, final ExecutorService executor, final StartupTimings timings) {
         for (ModuleFactory<?> moduleFactory : moduleFactoryRegistry.values()) {
+            long startTime = System.nanoTime();
+
             moduleFactory.preInit();
 
-            for (Plugin plugin : pluginsToInitialize) {
+            forEachPlugin(moduleFactory, pluginsToInitialize, false, executor, timings, plugin -> {
                 for (Module module : ((InternalPlugin) plugin).getModules(moduleFactory)) {
                     module.init();
                 }
-            }
+            });
 
             moduleFactory.postInit();
+
+            timings.addFactoryTime(moduleFactory, startTime);
         }
 
         List<ModuleFactory<?>> factories = new ArrayList<ModuleFactory<?>>(moduleFactoryRegistry.values());
         List<Plugin> plugins = new ArrayList<Plugin>(pluginsToInitialize);
 
         for (ModuleFactory<?> moduleFactory : factories) {
-            for (final Plugin plugin : plugins) {
+            long startTime = System.nanoTime();
+
+            forEachPlugin(moduleFactory, plugins, false, executor, timings, plugin -> {
                 List<Module> modules = ((InternalPlugin) plugin).getModules(moduleFactory);
 
                 for (final Module module : modules) {
@@ -78,15 +123,18 @@ public class DefaultModuleFactoryAccessor implements ModuleFactoryAccessor {
                         });
                     }
                 }
-            }
+            });
+
+            timings.addFactoryTime(moduleFactory, startTime);
         }
 
         Collections.reverse(factories);
         Collections.reverse(plugins);
 
         for (ModuleFactory<?> moduleFactory : factories) {
-            for (final Plugin plugin : plugins) {
+            long startTime = System.nanoTime();
 
+            forEachPlugin(moduleFactory, plugins, true, executor, timings, plugin -> {
                 List<Module> modules = ((InternalPlugin) plugin).getModules(moduleFactory);
                 Collections.reverse(modules);
 
@@ -104,10 +152,122 @@ public class DefaultModuleFactoryAccessor implements ModuleFactoryAccessor {
                         });
                     }
                 }
+            });
+
+            timings.addFactoryTime(moduleFactory, startTime);
+        }
+    }
+
+    private ExecutorService createExecutor() {
+        if (!parallelInitialization || parallelInitializationThreads < 2) {
+            return null;
+        }
+
+        LOG.info("Parallel module initialization is enabled, using " + parallelInitializationThreads + " threads");
+
+        final AtomicInteger threadNumber = new AtomicInteger();
+
+        return Executors.newFixedThreadPool(parallelInitializationThreads, new ThreadFactory() {
+
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                Thread thread = new Thread(runnable, "module-init-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+
+        });
+    }
+
+    /**
+     * Invokes callback for every plugin. Plugins are processed one after another in given order, unless executor is given and
+     * factory is parallelizable - then the callback for plugin waits only for its dependencies (or dependent plugins, if plugins
+     * are in reversed order) and independent plugins are processed concurrently.
+     */
+    private void forEachPlugin(final ModuleFactory<?> moduleFactory, final List<Plugin> plugins, final boolean reversed,
+            final ExecutorService executor, final StartupTimings timings, final Consumer<Plugin> callback) {
+        if (executor == null || !moduleFactory.isParallelizable()) {
+            for (Plugin plugin : plugins) {
+                invoke(plugin, timings, callback);
+            }
+
+            return;
+        }
+
+        Map<String, Set<String>> predecessors = getPredecessors(plugins, reversed);
+        Map<String, CompletableFuture<Void>> futures = new HashMap<String, CompletableFuture<Void>>();
+
+        for (final Plugin plugin : plugins) {
+            List<CompletableFuture<Void>> predecessorFutures = new ArrayList<CompletableFuture<Void>>();
+
+            for (String predecessor : predecessors.get(plugin.getIdentifier())) {
+                if (futures.containsKey(predecessor)) {
+                    predecessorFutures.add(futures.get(predecessor));
+                }
+            }
+
+            CompletableFuture<Void> future = CompletableFuture.allOf(
+                    predecessorFutures.toArray(new CompletableFuture<?>[predecessorFutures.size()])).thenRunAsync(
+                    () -> invoke(plugin, timings, callback), executor);
+
+            futures.put(plugin.getIdentifier(), future);
+        }
+
+        try {
+            CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[futures.size()])).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
             }
+
+            throw e;
         }
     }
 
+    private Map<String, Set<String>> getPredecessors(final Collection<Plugin> plugins, final boolean reversed) {
+        Map<String, Set<String>> predecessors = new HashMap<String, Set<String>>();
+
+        for (Plugin plugin : plugins) {
+            predecessors.put(plugin.getIdentifier(), new HashSet<String>());
+        }
+
+        for (Plugin plugin : plugins) {
+            for (PluginDependencyInformation dependency : plugin.getRequiredPlugins()) {
+                if (!predecessors.containsKey(dependency.getIdentifier())) {
+                    continue;
+                }
+
+                if (reversed) {
+                    predecessors.get(dependency.getIdentifier()).add(plugin.getIdentifier());
+                } else {
+                    predecessors.get(plugin.getIdentifier()).add(dependency.getIdentifier());
+                }
+            }
+        }
+
+        return predecessors;
+    }
+
+    private void invoke(final Plugin plugin, final StartupTimings timings, final Consumer<Plugin> callback) {
+        long startTime = System.nanoTime();
+
+        try {
+            callback.accept(plugin);
+        } finally {
+            timings.addPluginTime(plugin, startTime);
+        }
+    }
+
+    public void setParallelInitialization(final boolean parallelInitialization) {
+        this.parallelInitialization = parallelInitialization;
+    }
+
+    public void setParallelInitializationThreads(final int parallelInitializationThreads) {
+        this.parallelInitializationThreads = parallelInitializationThreads;
+    }
+
     @Override
     public void multiTenantEnable(final int tenantId, final Plugin plugin) {
         List<ModuleFactory<?>> factories = new ArrayList<ModuleFactory<?>>(moduleFactoryRegistry.values());
@@ -175,4 +335,54 @@ public class DefaultModuleFactoryAccessor implements ModuleFactoryAccessor {
         }
     }
 
+    private static final class StartupTimings {
+
+        private final Map<String, AtomicLong> factoryTimes = new LinkedHashMap<String, AtomicLong>();
+
+        private final Map<String, AtomicLong> pluginTimes = new ConcurrentHashMap<String, AtomicLong>();
+
+        private void addFactoryTime(final ModuleFactory<?> moduleFactory, final long startTime) {
+            add(factoryTimes, String.valueOf(moduleFactory.getIdentifier()), startTime);
+        }
+
+        private void addPluginTime(final Plugin plugin, final long startTime) {
+            add(pluginTimes, String.valueOf(plugin.getIdentifier()), startTime);
+        }
+
+        private void add(final Map<String, AtomicLong> times, final String key, final long startTime) {
+            long time = System.nanoTime() - startTime;
+            AtomicLong total = times.get(key);
+
+            if (total == null) {
+                times.putIfAbsent(key, new AtomicLong());
+                total = times.get(key);
+            }
+
+            total.addAndGet(time);
+        }
+
+        private void log() {
+            if (!LOG.isInfoEnabled()) {
+                return;
+            }
+
+            for (Map.Entry<String, AtomicLong> factoryTime : factoryTimes.entrySet()) {
+                LOG.info("Modules " + factoryTime.getKey() + " initialized in " + toMillis(factoryTime.getValue()) + "ms");
+            }
+
+            List<Map.Entry<String, AtomicLong>> sortedPluginTimes = new ArrayList<Map.Entry<String, AtomicLong>>(
+                    pluginTimes.entrySet());
+            Collections.sort(sortedPluginTimes, (first, second) -> Long.compare(second.getValue().get(), first.getValue().get()));
+
+            for (Map.Entry<String, AtomicLong> pluginTime : sortedPluginTimes) {
+                LOG.info("Modules of plugin " + pluginTime.getKey() + " initialized in " + toMillis(pluginTime.getValue()) + "ms");
+            }
+        }
+
+        private long toMillis(final AtomicLong nanos) {
+            return TimeUnit.NANOSECONDS.toMillis(nanos.get());
+        }
+
+    }
+
 }
@@ -29,6 +29,7 @@ import com.google.common.base.Preconditions;
 import com.qcadoo.plugin.api.Plugin;
 import com.qcadoo.plugin.api.PluginAccessor;
 import com.qcadoo.plugin.api.PluginState;
+import com.qcadoo.plugin.internal.api.InternalPluginAccessor;
 
 @Service
 public class DefaultPluginStateResolver implements InternalPluginStateResolver {
@@ -42,9 +43,28 @@ public class DefaultPluginStateResolver implements InternalPluginStateResolver {
 
     @Override
     public boolean isEnabled(final String pluginIdentifier) {
+        if (pluginAccessor instanceof InternalPluginAccessor) {
+            return ((InternalPluginAccessor) pluginAccessor).getStateSnapshot().isEnabled(pluginIdentifier);
+        }
+
         return isEnabled(getPlugin(pluginIdentifier));
     }
 
+    @Override
+    public boolean areEnabled(final String[] pluginIdentifiers, final long[] requiredMask) {
+        if (pluginAccessor instanceof InternalPluginAccessor) {
+            return ((InternalPluginAccessor) pluginAccessor).getStateSnapshot().isEnabled(requiredMask);
+        }
+
+        for (String pluginIdentifier : pluginIdentifiers) {
+            if (!isEnabled(pluginIdentifier)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
     @Override
     public boolean isEnabled(final Plugin plugin) {
         return plugin != null && PluginState.ENABLED.equals(plugin.getState());
@@ -30,4 +30,15 @@ public interface InternalPluginStateResolver extends PluginStateResolver {
 
     void setPluginAccessor(final PluginAccessor pluginAccessor);
 
+    /**
+     * Returns true if all given plugins are enabled.
+     * 
+     * @param pluginIdentifiers
+     *            plugins' identifiers
+     * @param requiredMask
+     *            mask of the same plugins, created using {@link com.qcadoo.plugin.internal.api.PluginSlots#maskOf(String...)}
+     * @return true if all enabled
+     */
+    boolean areEnabled(final String[] pluginIdentifiers, final long[] requiredMask);
+
 }
@@ -0,0 +1,119 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.plugin.internal.api;
+
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.qcadoo.plugin.api.Plugin;
+import com.qcadoo.plugin.api.PluginState;
+
+public class PluginStateSnapshotTest {
+
+    private static final String ENABLED_PLUGIN = "snapshotEnabledPlugin";
+
+    private static final String SECOND_ENABLED_PLUGIN = "snapshotSecondEnabledPlugin";
+
+    private static final String DISABLED_PLUGIN = "snapshotDisabledPlugin";
+
+    private static final String UNKNOWN_PLUGIN = "snapshotUnknownPlugin";
+
+    private Map<String, Plugin> plugins;
+
+    @Before
+    public final void init() {
+        plugins = ImmutableMap.of(ENABLED_PLUGIN, mockPlugin(PluginState.ENABLED), SECOND_ENABLED_PLUGIN,
+                mockPlugin(PluginState.ENABLED), DISABLED_PLUGIN, mockPlugin(PluginState.DISABLED));
+    }
+
+    private Plugin mockPlugin(final PluginState state) {
+        Plugin plugin = mock(Plugin.class);
+        given(plugin.getState()).willReturn(state);
+        given(plugin.hasState(state)).willReturn(true);
+        return plugin;
+    }
+
+    @Test
+    public final void shouldReturnStateOfSinglePlugin() {
+        // when
+        PluginStateSnapshot snapshot = PluginStateSnapshot.of(plugins, 1L);
+
+        // then
+        assertTrue(snapshot.isEnabled(ENABLED_PLUGIN));
+        assertFalse(snapshot.isEnabled(DISABLED_PLUGIN));
+        assertFalse(snapshot.isEnabled(UNKNOWN_PLUGIN));
+    }
+
+    @Test
+    public final void shouldRequireAllPluginsFromMaskToBeEnabled() {
+        // when
+        PluginStateSnapshot snapshot = PluginStateSnapshot.of(plugins, 1L);
+
+        // then
+        assertTrue(snapshot.isEnabled(PluginSlots.maskOf(ENABLED_PLUGIN, SECOND_ENABLED_PLUGIN)));
+        assertFalse(snapshot.isEnabled(PluginSlots.maskOf(ENABLED_PLUGIN, DISABLED_PLUGIN)));
+        assertFalse(snapshot.isEnabled(PluginSlots.maskOf(UNKNOWN_PLUGIN)));
+        assertTrue(snapshot.isEnabled(PluginSlots.maskOf()));
+    }
+
+    @Test
+    public final void shouldNotChangeAfterPluginsMapChanges() {
+        // given
+        Map<String, Plugin> mutablePlugins = new HashMap<String, Plugin>(plugins);
+        PluginStateSnapshot snapshot = PluginStateSnapshot.of(mutablePlugins, 1L);
+
+        // when
+        mutablePlugins.remove(ENABLED_PLUGIN);
+
+        // then
+        assertTrue(snapshot.isEnabled(ENABLED_PLUGIN));
+    }
+
+    @Test
+    public final void shouldHandleSlotsBeyondFirstMaskWord() {
+        // given
+        for (int i = 0; i < 70; i++) {
+            PluginSlots.slotOf("snapshotFillerPlugin" + i);
+        }
+        String latePlugin = "snapshotLatePlugin";
+
+        // when
+        PluginStateSnapshot snapshot = PluginStateSnapshot.of(ImmutableMap.of(latePlugin, mockPlugin(PluginState.ENABLED)), 1L);
+
+        // then
+        assertTrue(snapshot.isEnabled(latePlugin));
+        assertTrue(snapshot.isEnabled(PluginSlots.maskOf(latePlugin)));
+        assertFalse(snapshot.isEnabled(PluginSlots.maskOf(latePlugin, "snapshotFillerPlugin0")));
+    }
+
+}
@@ -24,6 +24,7 @@
 package com.qcadoo.plugin.internal.module;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Sets.newHashSet;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
@@ -32,14 +33,17 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import org.jdom.Element;
 import org.junit.Assert;
 import org.junit.Test;
 import org.mockito.InOrder;
+import org.mockito.Mockito;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import com.qcadoo.plugin.api.Module;
 import com.qcadoo.plugin.api.ModuleFactory;
 import com.qcadoo.plugin.api.Plugin;
+import com.qcadoo.plugin.api.PluginDependencyInformation;
 import com.qcadoo.plugin.api.PluginState;
 import com.qcadoo.plugin.api.PluginStateResolver;
 import com.qcadoo.plugin.internal.PluginUtilsService;
@@ -49,6 +53,25 @@ import com.qcadoo.tenant.internal.DefaultMultiTenantService;
 
 public class ModuleFactoryAccessorTest {
 
+    private static final class ParallelizableModuleFactory extends ModuleFactory<Module> {
+
+        @Override
+        public boolean isParallelizable() {
+            return true;
+        }
+
+        @Override
+        protected Module parseElement(final String pluginIdentifier, final Element element) {
+            return null;
+        }
+
+        @Override
+        public String getIdentifier() {
+            return "parallelizable";
+        }
+
+    }
+
     @Test
     public void shouldCallInitOnAllModuleFactories() throws Exception {
         // given
@@ -120,6 +143,57 @@ public class ModuleFactoryAccessorTest {
         inOrder.verify(module111).multiTenantDisableOnStartup();
     }
 
+    @Test
+    public void shouldInitDependentPluginsAfterTheirDependenciesInParallelMode() throws Exception {
+        // given
+        MultiTenantUtil multiTenantUtil = new MultiTenantUtil();
+        ReflectionTestUtils.setField(multiTenantUtil, "multiTenantService", new DefaultMultiTenantService());
+        multiTenantUtil.init();
+
+        ModuleFactory<?> moduleFactory = new ParallelizableModuleFactory();
+
+        DefaultModuleFactoryAccessor moduleFactoryAccessor = new DefaultModuleFactoryAccessor();
+        moduleFactoryAccessor.setModuleFactories(Collections.<ModuleFactory<?>> singletonList(moduleFactory));
+        moduleFactoryAccessor.setParallelInitialization(true);
+        moduleFactoryAccessor.setParallelInitializationThreads(4);
+
+        InternalPlugin plugin1 = mock(InternalPlugin.class);
+        Module module1 = mock(Module.class);
+        given(plugin1.getModules(moduleFactory)).willReturn(newArrayList(module1));
+        given(plugin1.hasState(PluginState.ENABLED)).willReturn(true);
+        given(plugin1.getIdentifier()).willReturn("plugin1");
+
+        InternalPlugin plugin2 = mock(InternalPlugin.class);
+        Module module2 = mock(Module.class);
+        given(plugin2.getModules(moduleFactory)).willReturn(newArrayList(module2));
+        given(plugin2.hasState(PluginState.ENABLED)).willReturn(true);
+        given(plugin2.getIdentifier()).willReturn("plugin2");
+        given(plugin2.getRequiredPlugins()).willReturn(newHashSet(new PluginDependencyInformation("plugin1")));
+
+        InternalPlugin plugin3 = mock(InternalPlugin.class);
+        Module module3 = mock(Module.class);
+        given(plugin3.getModules(moduleFactory)).willReturn(newArrayList(module3));
+        given(plugin3.hasState(PluginState.ENABLED)).willReturn(false);
+        given(plugin3.getIdentifier()).willReturn("plugin3");
+        given(plugin3.getRequiredPlugins()).willReturn(newHashSet(new PluginDependencyInformation("plugin2")));
+
+        List<Plugin> plugins = newArrayList(plugin1, plugin2, plugin3);
+
+        // when
+        moduleFactoryAccessor.init(plugins);
+
+        // then
+        InOrder inOrder = inOrder(module1, module2);
+        inOrder.verify(module1).init();
+        inOrder.verify(module2).init();
+        inOrder.verify(module1).enableOnStartup();
+        inOrder.verify(module2).enableOnStartup();
+
+        Mockito.verify(module3).init();
+        Mockito.verify(module3).disableOnStartup();
+        Mockito.verify(module1, Mockito.never()).disableOnStartup();
+    }
+
     @Test
     public void shouldReturnModuleFactory() throws Exception {
         // given
@@ -1,10 +1,39 @@
 package com.qcadoo.plugins.qcadooExport.api;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+import com.qcadoo.view.api.components.GridComponent;
+
 public interface ExportToCsv {
 
     File createExportFile(List<String> columns, List<String> columnNames, List<Map<String, String>> rows, String gridName);
+
+    /**
+     * Creates export file with rows of given grid. Default implementation collects all the rows and passes them to
+     * {@link #createExportFile(List, List, List, String)}, implementations should override it to write rows as they are read.
+     * Rows are read through a database cursor, so it has to be called within a transaction.
+     * 
+     * @param columns
+     *            exported columns
+     * @param columnNames
+     *            names of the exported columns
+     * @param grid
+     *            exported grid
+     * @return created file
+     */
+    default File createExportFile(final List<String> columns, final List<String> columnNames, final GridComponent grid) {
+        List<Map<String, String>> rows = new ArrayList<>();
+
+        if (grid.getSelectedEntitiesIds().isEmpty()) {
+            grid.exportColumnValuesOfAllRecords(columns, rows::add);
+        } else {
+            grid.exportColumnValuesOfSelectedRecords(columns, rows::add);
+        }
+
+        return createExportFile(columns, columnNames, rows, grid.getName());
+    }
+
 }
@@ -0,0 +1,30 @@
+package com.qcadoo.plugins.qcadooExport.api.helpers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.qcadoo.view.api.components.GridComponent;
+
+@Service
+public class ExportToFileRowsHelper {
+
+    @Transactional(readOnly = true)
+    public <T> T doInReadOnlyTransaction(final Supplier<T> export) {
+        return export.get();
+    }
+
+    @Transactional(readOnly = true)
+    public void exportRows(final GridComponent grid, final List<String> columns, final Consumer<Map<String, String>> rowConsumer) {
+        if (grid.getSelectedEntitiesIds().isEmpty()) {
+            grid.exportColumnValuesOfAllRecords(columns, rowConsumer);
+        } else {
+            grid.exportColumnValuesOfSelectedRecords(columns, rowConsumer);
+        }
+    }
+
+}
@@ -2,6 +2,8 @@ package com.qcadoo.plugins.qcadooExport.api.services;
 
 import com.qcadoo.model.api.file.FileService;
 import com.qcadoo.plugins.qcadooExport.api.ExportToCsv;
+import com.qcadoo.plugins.qcadooExport.api.helpers.ExportToFileRowsHelper;
+import com.qcadoo.view.api.components.GridComponent;
 import org.apache.commons.io.IOUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -24,8 +26,31 @@ public class ExportToCsvService implements ExportToCsv {
     @Autowired
     private FileService fileService;
 
+    @Autowired
+    private ExportToFileRowsHelper exportToFileRowsHelper;
+
     public File createExportFile(List<String> columns, List<String> columnNames, List<Map<String, String>> rows,
             String gridName) {
+        return createExportFile(columnNames, gridName, bufferedWriter -> {
+            for (Map<String, String> row : rows) {
+                addCsvTableCells(bufferedWriter, row, columns);
+            }
+        });
+    }
+
+    public File createExportFile(List<String> columns, List<String> columnNames, GridComponent grid) {
+        return createExportFile(columnNames, grid.getName(), bufferedWriter -> {
+            exportToFileRowsHelper.exportRows(grid, columns, row -> {
+                try {
+                    addCsvTableCells(bufferedWriter, row, columns);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        });
+    }
+
+    private File createExportFile(final List<String> columnNames, final String gridName, final CsvRowsWriter rowsWriter) {
         String date = DateFormat.getDateInstance().format(new Date());
         File file = fileService.createExportFile("export_" + gridName + "_" + date + ".csv");
 
@@ -52,34 +77,34 @@ public class ExportToCsvService implements ExportToCsv {
 
             bufferedWriter.append("\n");
 
-            addCsvTableCells(bufferedWriter, rows, columns);
+            rowsWriter.write(bufferedWriter);
 
             bufferedWriter.flush();
         } catch (IOException e) {
             throw new IllegalStateException(e.getMessage(), e);
+        } catch (UncheckedIOException e) {
+            throw new IllegalStateException(e.getCause().getMessage(), e.getCause());
         } finally {
             IOUtils.closeQuietly(bufferedWriter);
         }
         return file;
     }
 
-    private void addCsvTableCells(final BufferedWriter bufferedWriter, final List<Map<String, String>> rows,
+    private void addCsvTableCells(final BufferedWriter bufferedWriter, final Map<String, String> row,
             final List<String> columns) throws IOException {
-        for (Map<String, String> row : rows) {
-            boolean firstValue = true;
+        boolean firstValue = true;
 
-            for (String column : columns) {
-                if (firstValue) {
-                    firstValue = false;
-                } else {
-                    bufferedWriter.append(exportedCsvSeparator);
-                }
-
-                bufferedWriter.append("\"").append(normalizeString(row.get(column))).append("\"");
+        for (String column : columns) {
+            if (firstValue) {
+                firstValue = false;
+            } else {
+                bufferedWriter.append(exportedCsvSeparator);
             }
 
-            bufferedWriter.append("\n");
+            bufferedWriter.append("\"").append(normalizeString(row.get(column))).append("\"");
         }
+
+        bufferedWriter.append("\n");
     }
 
     private String normalizeString(final String string) {
@@ -89,4 +114,12 @@ public class ExportToCsvService implements ExportToCsv {
             return "";
         }
     }
+
+    @FunctionalInterface
+    private interface CsvRowsWriter {
+
+        void write(BufferedWriter bufferedWriter) throws IOException;
+
+    }
+
 }
@@ -30,6 +30,7 @@ import com.qcadoo.model.api.file.FileService;
 import com.qcadoo.plugins.qcadooExport.api.ExportToCsv;
 import com.qcadoo.plugins.qcadooExport.api.ExportToCsvColumns;
 import com.qcadoo.plugins.qcadooExport.api.helpers.ExportToFileColumnsHelper;
+import com.qcadoo.plugins.qcadooExport.api.helpers.ExportToFileRowsHelper;
 import com.qcadoo.view.api.ViewDefinitionState;
 import com.qcadoo.view.api.components.GridComponent;
 import com.qcadoo.view.api.crud.CrudService;
@@ -45,7 +46,6 @@ import org.springframework.web.bind.annotation.*;
 import java.io.File;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 
 @Controller
 public class ExportToCsvController {
@@ -66,6 +66,9 @@ public class ExportToCsvController {
     @Autowired
     private ExportToFileColumnsHelper<ExportToCsvColumns> exportToFileColumnsHelper;
 
+    @Autowired
+    private ExportToFileRowsHelper exportToFileRowsHelper;
+
     @Autowired
     private ExportToCsv exportToCsv;
 
@@ -77,8 +80,6 @@ public class ExportToCsvController {
             @RequestHeader("User-Agent") final String userAgent) {
 
         try {
-            changeMaxResults(body);
-
             ViewDefinitionState state = crudService.invokeEvent(pluginIdentifier, viewName, body, locale);
 
             GridComponent grid = (GridComponent) state.getComponentByReference(QcadooViewConstants.L_GRID);
@@ -93,15 +94,9 @@ public class ExportToCsvController {
             List<String> columns = getColumns(grid);
             List<String> columnNames = getColumnNames(grid, columns);
 
-            List<Map<String, String>> rows;
-
-            if (grid.getSelectedEntitiesIds().isEmpty()) {
-                rows = grid.getColumnValuesOfAllRecords();
-            } else {
-                rows = grid.getColumnValuesOfSelectedRecords();
-            }
-
-            File file = exportToCsv.createExportFile(columns, columnNames, rows, grid.getName());
+            GridComponent exportedGrid = grid;
+            File file = exportToFileRowsHelper.doInReadOnlyTransaction(
+                    () -> exportToCsv.createExportFile(columns, columnNames, exportedGrid));
 
             boolean openInNewWindow = !StringUtils.isNoneBlank(userAgent) || (!userAgent.contains("Chrome") && !userAgent.contains("Safari"))
                     || userAgent.contains("Edge");
@@ -132,27 +127,4 @@ public class ExportToCsvController {
         return columnNames;
     }
 
-    private void changeMaxResults(final JSONObject json) throws JSONException {
-        JSONObject component = getComponent(json, getComponentName(json));
-
-        component.getJSONObject("content").put("firstEntity", 0);
-        component.getJSONObject("content").put("maxEntities", Integer.MAX_VALUE);
-    }
-
-    private JSONObject getComponent(final JSONObject json, final String componentName) throws JSONException {
-        String[] path = componentName.split("\\.");
-
-        JSONObject component = json;
-
-        for (String p : path) {
-            component = component.getJSONObject("components").getJSONObject(p);
-        }
-
-        return component;
-    }
-
-    private String getComponentName(final JSONObject body) throws JSONException {
-        return body.getJSONObject("event").getString("component");
-    }
-
 }
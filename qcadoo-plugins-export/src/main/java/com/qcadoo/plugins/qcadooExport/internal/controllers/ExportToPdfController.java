@@ -36,6 +36,7 @@ import com.qcadoo.model.api.aop.Monitorable;
 import com.qcadoo.model.api.file.FileService;
 import com.qcadoo.plugins.qcadooExport.api.ExportToPdfColumns;
 import com.qcadoo.plugins.qcadooExport.api.helpers.ExportToFileColumnsHelper;
+import com.qcadoo.plugins.qcadooExport.api.helpers.ExportToFileRowsHelper;
 import com.qcadoo.report.api.FontUtils;
 import com.qcadoo.report.api.FooterResolver;
 import com.qcadoo.report.api.pdf.PdfHelper;
@@ -61,6 +62,7 @@ import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.function.Consumer;
 
 @Controller
 public class ExportToPdfController {
@@ -69,6 +71,8 @@ public class ExportToPdfController {
 
     private static final String L_PLUGIN_IDENTIFIER_VARIABLE = "pluginIdentifier";
 
+    private static final int L_ROWS_PER_TABLE_CHUNK = 500;
+
     private static final String L_CONTROLLER_PATH = "exportToPdf/{" + L_PLUGIN_IDENTIFIER_VARIABLE + "}/{" + L_VIEW_NAME_VARIABLE
             + "}";
 
@@ -93,6 +97,9 @@ public class ExportToPdfController {
     @Autowired
     private ExportToFileColumnsHelper<ExportToPdfColumns> exportToFileColumnsHelper;
 
+    @Autowired
+    private ExportToFileRowsHelper exportToFileRowsHelper;
+
     @Monitorable(threshold = 500)
     @ResponseBody
     @RequestMapping(value = { L_CONTROLLER_PATH }, method = RequestMethod.POST)
@@ -101,8 +108,6 @@ public class ExportToPdfController {
             @RequestHeader("User-Agent") final String userAgent) {
 
         try {
-            changeMaxResults(body);
-
             ViewDefinitionState state = crudService.invokeEvent(pluginIdentifier, viewName, body, locale);
 
             GridComponent grid = (GridComponent) state.getComponentByReference(QcadooViewConstants.L_GRID);
@@ -142,16 +147,11 @@ public class ExportToPdfController {
             List<String> columnNames = getColumnNames(grid, columns);
 
             PdfPTable pdfTable = pdfHelper.createTableWithHeader(columnNames.size(), columnNames, false);
+            pdfTable.setComplete(false);
 
-            List<Map<String, String>> rows;
+            addPdfTableCells(document, pdfTable, grid, columns);
 
-            if (grid.getSelectedEntitiesIds().isEmpty()) {
-                rows = grid.getColumnValuesOfAllRecords();
-            } else {
-                rows = grid.getColumnValuesOfSelectedRecords();
-            }
-
-            addPdfTableCells(pdfTable, rows, columns, viewName);
+            pdfTable.setComplete(true);
 
             document.add(pdfTable);
             document.close();
@@ -185,36 +185,44 @@ public class ExportToPdfController {
         return columnNames;
     }
 
-    private void addPdfTableCells(final PdfPTable pdfTable, final List<Map<String, String>> rows, final List<String> columns,
-            final String viewName) {
-        rows.forEach(row -> {
-            columns.forEach(column -> {
-                pdfTable.addCell(new Phrase(row.get(column), FontUtils.getDejavuRegular7Dark()));
-            });
-        });
+    private void addPdfTableCells(final Document document, final PdfPTable pdfTable, final GridComponent grid,
+            final List<String> columns) {
+        exportToFileRowsHelper.exportRows(grid, columns, new PdfTableRowsWriter(document, pdfTable, columns));
     }
 
-    private void changeMaxResults(final JSONObject json) throws JSONException {
-        JSONObject component = getComponent(json, getComponentName(json));
+    private static final class PdfTableRowsWriter implements Consumer<Map<String, String>> {
 
-        component.getJSONObject("content").put("firstEntity", 0);
-        component.getJSONObject("content").put("maxEntities", Integer.MAX_VALUE);
-    }
+        private final Document document;
 
-    private JSONObject getComponent(final JSONObject json, final String componentName) throws JSONException {
-        String[] path = componentName.split("\\.");
+        private final PdfPTable pdfTable;
 
-        JSONObject component = json;
+        private final List<String> columns;
 
-        for (String p : path) {
-            component = component.getJSONObject("components").getJSONObject(p);
+        private int numberOfRows;
+
+        private PdfTableRowsWriter(final Document document, final PdfPTable pdfTable, final List<String> columns) {
+            this.document = document;
+            this.pdfTable = pdfTable;
+            this.columns = columns;
         }
 
-        return component;
-    }
+        @Override
+        public void accept(final Map<String, String> row) {
+            for (String column : columns) {
+                pdfTable.addCell(new Phrase(row.get(column), FontUtils.getDejavuRegular7Dark()));
+            }
+
+            numberOfRows++;
+
+            if (numberOfRows % L_ROWS_PER_TABLE_CHUNK == 0) {
+                try {
+                    document.add(pdfTable);
+                } catch (DocumentException e) {
+                    throw new IllegalStateException(e.getMessage(), e);
+                }
+            }
+        }
 
-    private String getComponentName(final JSONObject body) throws JSONException {
-        return body.getJSONObject("event").getString("component");
     }
 
 }
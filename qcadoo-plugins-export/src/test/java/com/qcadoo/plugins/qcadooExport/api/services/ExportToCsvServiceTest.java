@@ -0,0 +1,202 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.plugins.qcadooExport.api.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.qcadoo.model.api.file.FileService;
+import com.qcadoo.plugins.qcadooExport.api.ExportToCsv;
+import com.qcadoo.plugins.qcadooExport.api.helpers.ExportToFileRowsHelper;
+import com.qcadoo.view.api.components.GridComponent;
+
+public class ExportToCsvServiceTest {
+
+    private static final List<String> L_COLUMNS = Arrays.asList("number", "name");
+
+    private static final List<String> L_COLUMN_NAMES = Arrays.asList("Number", "Name");
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private ExportToCsvService exportToCsvService;
+
+    @Mock
+    private FileService fileService;
+
+    @Mock
+    private GridComponent grid;
+
+    private File file;
+
+    @Before
+    public void init() throws IOException {
+        MockitoAnnotations.initMocks(this);
+
+        file = temporaryFolder.newFile("export.csv");
+
+        given(fileService.createExportFile(anyString())).willReturn(file);
+        given(grid.getName()).willReturn("grid");
+        given(grid.getSelectedEntitiesIds()).willReturn(Collections.<Long> emptySet());
+
+        exportToCsvService = new ExportToCsvService();
+
+        ReflectionTestUtils.setField(exportToCsvService, "exportedCsvSeparator", ",");
+        ReflectionTestUtils.setField(exportToCsvService, "fileService", fileService);
+        ReflectionTestUtils.setField(exportToCsvService, "exportToFileRowsHelper", new ExportToFileRowsHelper());
+    }
+
+    @Test
+    public void shouldWriteAllStreamedRowsInOrder() throws IOException {
+        // given
+        doAnswer(new RowsAnswer(1000)).when(grid).exportColumnValuesOfAllRecords(anyListOf(String.class),
+                anyConsumer());
+
+        // when
+        exportToCsvService.createExportFile(L_COLUMNS, L_COLUMN_NAMES, grid);
+
+        // then
+        List<String> lines = readLines();
+
+        assertEquals(1001, lines.size());
+        assertEquals("\"Number\",\"Name\"", lines.get(0));
+
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("\"N" + i + "\",\"Product " + i + "\"", lines.get(i + 1));
+        }
+
+        verify(grid, never()).getColumnValuesOfAllRecords();
+        verify(grid, never()).getColumnValuesOfSelectedRecords();
+    }
+
+    @Test
+    public void shouldWriteOnlySelectedRows() throws IOException {
+        // given
+        given(grid.getSelectedEntitiesIds()).willReturn(Sets.newHashSet(1L, 2L));
+        doAnswer(new RowsAnswer(2)).when(grid).exportColumnValuesOfSelectedRecords(anyListOf(String.class), anyConsumer());
+
+        // when
+        exportToCsvService.createExportFile(L_COLUMNS, L_COLUMN_NAMES, grid);
+
+        // then
+        assertEquals(Arrays.asList("\"Number\",\"Name\"", "\"N0\",\"Product 0\"", "\"N1\",\"Product 1\""), readLines());
+
+        verify(grid, never()).exportColumnValuesOfAllRecords(anyListOf(String.class), anyConsumer());
+    }
+
+    @Test
+    public void shouldCollectStreamedRowsForImplementationsWithoutStreaming() {
+        // given
+        doAnswer(new RowsAnswer(3)).when(grid).exportColumnValuesOfAllRecords(anyListOf(String.class), anyConsumer());
+
+        List<Map<String, String>> exportedRows = Lists.newArrayList();
+
+        ExportToCsv exportToCsv = new ExportToCsv() {
+
+            @Override
+            public File createExportFile(final List<String> columns, final List<String> columnNames,
+                    final List<Map<String, String>> rows, final String gridName) {
+                exportedRows.addAll(rows);
+
+                return file;
+            }
+
+        };
+
+        // when
+        exportToCsv.createExportFile(L_COLUMNS, L_COLUMN_NAMES, grid);
+
+        // then
+        assertEquals(3, exportedRows.size());
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals("N" + i, exportedRows.get(i).get("number"));
+        }
+
+        verify(grid, never()).getColumnValuesOfAllRecords();
+    }
+
+    private List<String> readLines() throws IOException {
+        String content = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+
+        // skip the byte order mark
+        return Arrays.asList(content.substring(1).split("\n"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Consumer<Map<String, String>> anyConsumer() {
+        return org.mockito.Matchers.any(Consumer.class);
+    }
+
+    private static final class RowsAnswer implements Answer<Void> {
+
+        private final int numberOfRows;
+
+        private RowsAnswer(final int numberOfRows) {
+            this.numberOfRows = numberOfRows;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Void answer(final InvocationOnMock invocation) throws Throwable {
+            Consumer<Map<String, String>> rowConsumer = (Consumer<Map<String, String>>) invocation.getArguments()[1];
+
+            for (int i = 0; i < numberOfRows; i++) {
+                rowConsumer.accept(ImmutableMap.of("number", "N" + i, "name", "Product " + i));
+            }
+
+            return null;
+        }
+
+    }
+
+}
@@ -0,0 +1,191 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.plugins.qcadooExport.internal.controllers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.google.common.collect.ImmutableMap;
+import com.lowagie.text.Phrase;
+import com.lowagie.text.pdf.PdfPTable;
+import com.lowagie.text.pdf.PdfReader;
+import com.qcadoo.localization.api.TranslationService;
+import com.qcadoo.model.api.file.FileService;
+import com.qcadoo.plugins.qcadooExport.api.ExportToPdfColumns;
+import com.qcadoo.plugins.qcadooExport.api.helpers.ExportToFileColumnsHelper;
+import com.qcadoo.plugins.qcadooExport.api.helpers.ExportToFileRowsHelper;
+import com.qcadoo.report.api.Footer;
+import com.qcadoo.report.api.FontUtils;
+import com.qcadoo.report.api.FooterResolver;
+import com.qcadoo.report.api.pdf.PdfHelper;
+import com.qcadoo.view.api.ViewDefinitionState;
+import com.qcadoo.view.api.components.GridComponent;
+import com.qcadoo.view.api.crud.CrudService;
+import com.qcadoo.view.constants.QcadooViewConstants;
+
+public class ExportToPdfControllerTest {
+
+    private static final List<String> L_COLUMNS = Arrays.asList("number", "name");
+
+    private static final int L_NUMBER_OF_ROWS = 1201;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private ExportToPdfController exportToPdfController;
+
+    @Mock
+    private CrudService crudService;
+
+    @Mock
+    private FileService fileService;
+
+    @Mock
+    private TranslationService translationService;
+
+    @Mock
+    private PdfHelper pdfHelper;
+
+    @Mock
+    private FooterResolver footerResolver;
+
+    @Mock
+    private ExportToFileColumnsHelper<ExportToPdfColumns> exportToFileColumnsHelper;
+
+    @Mock
+    private ViewDefinitionState state;
+
+    @Mock
+    private GridComponent grid;
+
+    private File file;
+
+    private PdfPTable pdfTable;
+
+    @Before
+    public void init() throws Exception {
+        MockitoAnnotations.initMocks(this);
+
+        FontUtils.prepare();
+
+        file = temporaryFolder.newFile("export.pdf");
+        pdfTable = spy(new PdfPTable(L_COLUMNS.size()));
+
+        given(crudService.invokeEvent(eq("plugin"), eq("view"), any(JSONObject.class), eq(Locale.ENGLISH))).willReturn(state);
+        given(state.getComponentByReference(QcadooViewConstants.L_GRID)).willReturn(grid);
+        given(fileService.createExportFile(anyString())).willReturn(file);
+        given(fileService.getUrl(anyString())).willReturn("url");
+        given(footerResolver.resolveFooter(Locale.ENGLISH)).willReturn(new Footer());
+        given(translationService.translate(anyString(), eq(Locale.ENGLISH))).willReturn("title");
+        given(exportToFileColumnsHelper.getColumns(grid, ExportToPdfColumns.class)).willReturn(L_COLUMNS);
+        given(pdfHelper.createTableWithHeader(eq(L_COLUMNS.size()), anyListOf(String.class), eq(false))).willReturn(pdfTable);
+
+        given(grid.getName()).willReturn("grid");
+        given(grid.getColumnNames()).willReturn(ImmutableMap.of("number", "Number", "name", "Name"));
+        given(grid.getSelectedEntitiesIds()).willReturn(Collections.<Long> emptySet());
+
+        exportToPdfController = new ExportToPdfController();
+
+        ReflectionTestUtils.setField(exportToPdfController, "crudService", crudService);
+        ReflectionTestUtils.setField(exportToPdfController, "fileService", fileService);
+        ReflectionTestUtils.setField(exportToPdfController, "translationService", translationService);
+        ReflectionTestUtils.setField(exportToPdfController, "pdfHelper", pdfHelper);
+        ReflectionTestUtils.setField(exportToPdfController, "footerResolver", footerResolver);
+        ReflectionTestUtils.setField(exportToPdfController, "exportToFileColumnsHelper", exportToFileColumnsHelper);
+        ReflectionTestUtils.setField(exportToPdfController, "exportToFileRowsHelper", new ExportToFileRowsHelper());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldAddAllStreamedRowsToTableInOrder() throws Exception {
+        // given
+        doAnswer(new Answer<Void>() {
+
+            @Override
+            public Void answer(final InvocationOnMock invocation) throws Throwable {
+                Consumer<Map<String, String>> rowConsumer = (Consumer<Map<String, String>>) invocation.getArguments()[1];
+
+                for (int i = 0; i < L_NUMBER_OF_ROWS; i++) {
+                    rowConsumer.accept(ImmutableMap.of("number", "N" + i, "name", "Product " + i));
+                }
+
+                return null;
+            }
+
+        }).when(grid).exportColumnValuesOfAllRecords(anyListOf(String.class), any(Consumer.class));
+
+        // when
+        exportToPdfController.generatePdf("plugin", "view", new JSONObject(), Locale.ENGLISH, "Chrome");
+
+        // then
+        ArgumentCaptor<Phrase> cells = ArgumentCaptor.forClass(Phrase.class);
+        verify(pdfTable, atLeastOnce()).addCell(cells.capture());
+
+        List<Phrase> addedCells = cells.getAllValues();
+
+        assertEquals(L_NUMBER_OF_ROWS * L_COLUMNS.size(), addedCells.size());
+
+        for (int i = 0; i < L_NUMBER_OF_ROWS; i++) {
+            assertEquals("N" + i, addedCells.get(2 * i).getContent());
+            assertEquals("Product " + i, addedCells.get(2 * i + 1).getContent());
+        }
+
+        assertTrue(pdfTable.isComplete());
+        assertTrue(new PdfReader(file.getAbsolutePath()).getNumberOfPages() > 1);
+
+        verify(grid, never()).getColumnValuesOfAllRecords();
+        verify(state).redirectTo("url?clean", false, false);
+    }
+
+}
@@ -44,6 +44,11 @@ public class ReportTemplateModuleFactory extends ModuleFactory<ReportTemplateMod
                 reportTemplateService);
     }
 
+    @Override
+    public boolean isParallelizable() {
+        return true;
+    }
+
     @Override
     public String getIdentifier() {
         return "report-template";
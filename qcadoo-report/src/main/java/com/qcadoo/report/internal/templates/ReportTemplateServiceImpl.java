@@ -23,8 +23,8 @@
  */
 package com.qcadoo.report.internal.templates;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import net.sf.jasperreports.engine.JasperReport;
 
@@ -33,7 +33,7 @@ import org.springframework.stereotype.Service;
 @Service
 public class ReportTemplateServiceImpl implements ReportTemplateService {
 
-    final Map<String, JasperReport> teplates = new HashMap<String, JasperReport>();
+    final Map<String, JasperReport> teplates = new ConcurrentHashMap<String, JasperReport>();
 
     @Override
     public JasperReport getTemplate(final String plugin, final String name) {
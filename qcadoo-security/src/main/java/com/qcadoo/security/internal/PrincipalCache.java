@@ -0,0 +1,219 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.security.internal;
+
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import com.google.common.collect.Sets;
+import com.qcadoo.model.api.DataDefinitionService;
+import com.qcadoo.model.api.Entity;
+import com.qcadoo.model.api.search.SearchRestrictions;
+import com.qcadoo.security.constants.GroupFields;
+import com.qcadoo.security.constants.QcadooSecurityConstants;
+import com.qcadoo.security.constants.RoleFields;
+import com.qcadoo.security.constants.UserFields;
+import com.qcadoo.security.internal.api.PrincipalSnapshot;
+import com.qcadoo.tenant.api.MultiTenantService;
+
+/**
+ * Cache of the principal snapshot. Snapshot is kept in the HTTP session of the authenticated user (or pinned to the current
+ * thread outside of the request) and it is resolved from the database again when:
+ * <ul>
+ * <li>the user logs in again - snapshot is bound to the {@link Authentication} it was resolved for,</li>
+ * <li>it is older than principalSnapshotTimeToLive seconds - that's how changes made on other nodes reach this one,</li>
+ * <li>any user or group is changed on this node.</li>
+ * </ul>
+ */
+@Service
+public class PrincipalCache {
+
+    private static final String L_SESSION_ATTRIBUTE = PrincipalCache.class.getName() + ".principal";
+
+    private static final long DEFAULT_TIME_TO_LIVE = 60;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private final ThreadLocal<CachedPrincipal> pinnedPrincipal = new ThreadLocal<CachedPrincipal>();
+
+    @Value("${principalSnapshotTimeToLive:60}")
+    private long timeToLive = DEFAULT_TIME_TO_LIVE;
+
+    @Autowired
+    private DataDefinitionService dataDefinitionService;
+
+    @Autowired
+    private MultiTenantService multiTenantService;
+
+    /**
+     * Returns snapshot of the current tenant's user with given login or null if such user doesn't exist.
+     */
+    public PrincipalSnapshot get(final String login) {
+        if (Objects.isNull(login)) {
+            return null;
+        }
+
+        int tenantId = multiTenantService.getCurrentTenantId();
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        long currentGeneration = generation.get();
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        CachedPrincipal cached = getCachedPrincipal(requestAttributes);
+
+        if (Objects.nonNull(cached) && cached.isValid(tenantId, login, authentication, currentGeneration)) {
+            return cached.principal;
+        }
+
+        PrincipalSnapshot principal = resolve(login);
+
+        if (Objects.isNull(principal)) {
+            return null;
+        }
+
+        setCachedPrincipal(requestAttributes, new CachedPrincipal(tenantId, login, authentication, principal, currentGeneration,
+                System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(timeToLive)));
+
+        return principal;
+    }
+
+    /**
+     * Drops snapshots after the user with given id is changed. Snapshots are kept per session, so all of them are resolved
+     * again. If transaction is active, they are dropped once again after the commit, so snapshot resolved concurrently from
+     * the not yet committed data doesn't survive.
+     */
+    public void invalidate(final Long userId) {
+        if (Objects.isNull(userId)) {
+            return;
+        }
+
+        invalidateAll();
+    }
+
+    /**
+     * Drops all snapshots, for example after the group or its roles change.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+                @Override
+                public void afterCommit() {
+                    generation.incrementAndGet();
+                }
+            });
+        }
+    }
+
+    private CachedPrincipal getCachedPrincipal(final RequestAttributes requestAttributes) {
+        if (Objects.isNull(requestAttributes)) {
+            return pinnedPrincipal.get();
+        }
+
+        Object cached = requestAttributes.getAttribute(L_SESSION_ATTRIBUTE, RequestAttributes.SCOPE_SESSION);
+
+        return cached instanceof CachedPrincipal ? (CachedPrincipal) cached : null;
+    }
+
+    private void setCachedPrincipal(final RequestAttributes requestAttributes, final CachedPrincipal cached) {
+        if (Objects.isNull(requestAttributes)) {
+            pinnedPrincipal.set(cached);
+        } else {
+            requestAttributes.setAttribute(L_SESSION_ATTRIBUTE, cached, RequestAttributes.SCOPE_SESSION);
+        }
+    }
+
+    private PrincipalSnapshot resolve(final String login) {
+        Entity user = dataDefinitionService.get(QcadooSecurityConstants.PLUGIN_IDENTIFIER, QcadooSecurityConstants.MODEL_USER)
+                .find().add(SearchRestrictions.eq(UserFields.USER_NAME, login)).setMaxResults(1).uniqueResult();
+
+        if (Objects.isNull(user)) {
+            return null;
+        }
+
+        Entity group = user.getBelongsToField(UserFields.GROUP);
+        Set<String> roles = Sets.newHashSet();
+        Long groupId = null;
+        String groupIdentifier = null;
+
+        if (Objects.nonNull(group)) {
+            groupId = group.getId();
+            groupIdentifier = group.getStringField(GroupFields.IDENTIFIER);
+
+            for (Entity role : group.getManyToManyField(GroupFields.ROLES)) {
+                roles.add(role.getStringField(RoleFields.IDENTIFIER));
+            }
+        }
+
+        return new PrincipalSnapshot(user.getId(), user.getStringField(UserFields.USER_NAME), groupId, groupIdentifier, roles);
+    }
+
+    private static final class CachedPrincipal implements Serializable {
+
+        private static final long serialVersionUID = 4211566427326617043L;
+
+        private final int tenantId;
+
+        private final String login;
+
+        private final Authentication authentication;
+
+        private final PrincipalSnapshot principal;
+
+        private final long generation;
+
+        private final long expiresAt;
+
+        private CachedPrincipal(final int tenantId, final String login, final Authentication authentication,
+                final PrincipalSnapshot principal, final long generation, final long expiresAt) {
+            this.tenantId = tenantId;
+            this.login = login;
+            this.authentication = authentication;
+            this.principal = principal;
+            this.generation = generation;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isValid(final int currentTenantId, final String currentLogin,
+                final Authentication currentAuthentication, final long currentGeneration) {
+            return generation == currentGeneration && tenantId == currentTenantId && login.equals(currentLogin)
+                    && authentication == currentAuthentication && System.currentTimeMillis() < expiresAt;
+        }
+
+    }
+
+}
@@ -35,6 +35,7 @@ import com.qcadoo.security.api.SecurityRole;
 import com.qcadoo.security.api.SecurityRolesService;
 import com.qcadoo.security.constants.*;
 import com.qcadoo.security.internal.api.InternalSecurityService;
+import com.qcadoo.security.internal.api.PrincipalSnapshot;
 import com.qcadoo.security.internal.api.QcadooUser;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -83,6 +84,9 @@ public class SecurityServiceImpl implements InternalSecurityService, UserDetails
     @Autowired
     private LoginAttemptService loginAttemptService;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
     @Autowired(required = false)
     private HttpServletRequest request;
 
@@ -170,10 +174,9 @@ public class SecurityServiceImpl implements InternalSecurityService, UserDetails
             return null;
         }
 
-        String userName = authentication.getName();
-        Entity user = getUserEntity(userName);
+        PrincipalSnapshot principal = principalCache.get(authentication.getName());
 
-        return user.getStringField(UserFields.USER_NAME);
+        return Objects.isNull(principal) ? null : principal.getLogin();
     }
 
     @Override
@@ -181,9 +184,7 @@ public class SecurityServiceImpl implements InternalSecurityService, UserDetails
         String userName = getCurrentUserName();
 
         if (Objects.isNull(userName)) {
-            Entity user = getAndCheckUserEntity(L_QCADOO_BOT);
-
-            userName = user.getStringField(UserFields.USER_NAME);
+            userName = getAndCheckPrincipal(L_QCADOO_BOT).getLogin();
         }
 
         return userName;
@@ -199,10 +200,9 @@ public class SecurityServiceImpl implements InternalSecurityService, UserDetails
             return null;
         }
 
-        String userName = authentication.getName();
-        Entity user = getUserEntity(userName);
+        PrincipalSnapshot principal = principalCache.get(authentication.getName());
 
-        return user.getId();
+        return Objects.isNull(principal) ? null : principal.getId();
     }
 
     @Override
@@ -210,14 +210,22 @@ public class SecurityServiceImpl implements InternalSecurityService, UserDetails
         Long userId = getCurrentUserId();
 
         if (Objects.isNull(userId)) {
-            Entity user = getAndCheckUserEntity(L_QCADOO_BOT);
-
-            userId = user.getId();
+            userId = getAndCheckPrincipal(L_QCADOO_BOT).getId();
         }
 
         return userId;
     }
 
+    private PrincipalSnapshot getAndCheckPrincipal(final String userName) {
+        PrincipalSnapshot principal = principalCache.get(userName);
+
+        if (Objects.isNull(principal)) {
+            throw new UsernameNotFoundException("Username " + userName + " not found");
+        }
+
+        return principal;
+    }
+
     @Override
     @Monitorable
     public UserDetails loadUserByUsername(final String userName) {
@@ -330,13 +338,9 @@ public class SecurityServiceImpl implements InternalSecurityService, UserDetails
     public boolean hasCurrentUserRole(final String targetRoleIdentifier) {
         checkNotNull(targetRoleIdentifier, L_TARGET_ROLE_IDENTIFIER_MUST_BE_GIVEN);
 
-        Entity user = getUserEntity(getCurrentUserName());
-        Entity group = user.getBelongsToField(UserFields.GROUP);
+        PrincipalSnapshot principal = principalCache.get(getCurrentUserName());
 
-        return getGroupDD().find().createAlias(GroupFields.ROLES, GroupFields.ROLES, JoinType.LEFT)
-                .add(SearchRestrictions.eq("id", group.getId()))
-                .add(SearchRestrictions.eq(GroupFields.ROLES + "." + RoleFields.IDENTIFIER, targetRoleIdentifier))
-                .list().getTotalNumberOfEntities() > 0;
+        return Objects.nonNull(principal) && principal.hasRole(targetRoleIdentifier);
     }
 
     private DataDefinition getPersistentTokenDD() {
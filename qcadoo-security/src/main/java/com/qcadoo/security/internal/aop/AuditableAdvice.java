@@ -45,12 +45,15 @@ public class AuditableAdvice {
     public void auditEntity(final InternalDataDefinition dataDefinition, final Entity genericEntity) {
 
         if (genericEntity.getDataDefinition().isAuditable()) {
+            Date now = new Date();
+            String currentUserName = securityService.getCurrentUserName();
+
             if (genericEntity.getId() == null) {
-                genericEntity.setField("createDate", new Date());
-                genericEntity.setField("createUser", securityService.getCurrentUserName());
+                genericEntity.setField("createDate", now);
+                genericEntity.setField("createUser", currentUserName);
             }
-            genericEntity.setField("updateDate", new Date());
-            genericEntity.setField("updateUser", securityService.getCurrentUserName());
+            genericEntity.setField("updateDate", now);
+            genericEntity.setField("updateUser", currentUserName);
         }
     }
 }
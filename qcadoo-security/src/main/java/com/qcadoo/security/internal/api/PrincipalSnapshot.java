@@ -0,0 +1,81 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.security.internal.api;
+
+import java.io.Serializable;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Immutable snapshot of the authenticated user, resolved once and reused by all current user lookups.
+ */
+public final class PrincipalSnapshot implements Serializable {
+
+    private static final long serialVersionUID = -6129384551093628617L;
+
+    private final Long id;
+
+    private final String login;
+
+    private final Long groupId;
+
+    private final String groupIdentifier;
+
+    private final Set<String> roles;
+
+    public PrincipalSnapshot(final Long id, final String login, final Long groupId, final String groupIdentifier,
+            final Set<String> roles) {
+        this.id = id;
+        this.login = login;
+        this.groupId = groupId;
+        this.groupIdentifier = groupIdentifier;
+        this.roles = ImmutableSet.copyOf(roles);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getLogin() {
+        return login;
+    }
+
+    public Long getGroupId() {
+        return groupId;
+    }
+
+    public String getGroupIdentifier() {
+        return groupIdentifier;
+    }
+
+    public Set<String> getRoles() {
+        return roles;
+    }
+
+    public boolean hasRole(final String roleIdentifier) {
+        return roles.contains(roleIdentifier);
+    }
+
+}
@@ -30,6 +30,7 @@ import com.qcadoo.model.api.Entity;
 import com.qcadoo.security.api.SecurityService;
 import com.qcadoo.security.constants.GroupFields;
 import com.qcadoo.security.constants.UserFields;
+import com.qcadoo.security.internal.PrincipalCache;
 import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -76,6 +77,9 @@ public class UserModelHooks {
     @Autowired
     private TranslationService translationService;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
     public boolean preventSelfDeletion(final DataDefinition userDD, final Entity user) {
         if (ObjectUtils.equals(securityService.getCurrentUserId(), user.getId())) {
             user.addGlobalError(L_SELF_DELETION_ERROR);
@@ -92,6 +96,14 @@ public class UserModelHooks {
         return true;
     }
 
+    public void invalidatePrincipal(final DataDefinition userDD, final Entity user) {
+        principalCache.invalidate(user.getId());
+    }
+
+    public void invalidatePrincipals(final DataDefinition groupDD, final Entity group) {
+        principalCache.invalidateAll();
+    }
+
     public void setDefaultNames(final DataDefinition userDD, final Entity user) {
         replaceByUserNameIfBlank(user, UserFields.FIRST_NAME);
         replaceByUserNameIfBlank(user, UserFields.LAST_NAME);
@@ -23,9 +23,12 @@
  */
 package com.qcadoo.security.internal.role;
 
+import java.util.BitSet;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.hierarchicalroles.RoleHierarchy;
@@ -35,15 +38,30 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
 import com.qcadoo.security.api.SecurityRole;
 
+/**
+ * Each registered role gets a dense index. Roles reachable through the role hierarchy are computed once per distinct set of
+ * granted authorities and kept as a bit set, so access check is a single bit test. The last bit set is also memoized per thread
+ * together with the authorities collection of the authentication it was computed for, which skips even the cache lookup for
+ * repeated checks of the same user. Adding a role drops all computed bit sets.
+ */
 @Service
 public class InternalSecurityRolesServiceImpl implements InternalSecurityRolesService {
 
 	@Autowired
 	private RoleHierarchy roleHierarchy;
 
-	private final Map<String, SecurityRole> roles = new HashMap<String, SecurityRole>();
+	private final Map<String, SecurityRole> roles = new ConcurrentHashMap<String, SecurityRole>();
+
+	private final Map<String, Integer> roleIndexes = new ConcurrentHashMap<String, Integer>();
+
+	private final ConcurrentMap<Set<String>, BitSet> reachableRoles = new ConcurrentHashMap<Set<String>, BitSet>();
+
+	private final ThreadLocal<ReachableRoles> lastReachableRoles = new ThreadLocal<ReachableRoles>();
+
+	private volatile int generation;
 
 	@Override
 	public SecurityRole getRoleByIdentifier(final String roleIdentifier) {
@@ -51,8 +69,15 @@ public class InternalSecurityRolesServiceImpl implements InternalSecurityRolesSe
 	}
 
 	@Override
-	public void addRole(final SecurityRole role) {
+	public synchronized void addRole(final SecurityRole role) {
 		roles.put(role.getRoleIdentifier(), role);
+
+		if (!roleIndexes.containsKey(role.getRoleIdentifier())) {
+			roleIndexes.put(role.getRoleIdentifier(), roleIndexes.size());
+		}
+
+		generation++;
+		reachableRoles.clear();
 	}
 
 	@Override
@@ -79,8 +104,61 @@ public class InternalSecurityRolesServiceImpl implements InternalSecurityRolesSe
 			return true;
 		}
 
-		Collection<? extends GrantedAuthority> reachableAuthorities = roleHierarchy
-		        .getReachableGrantedAuthorities(userAuthentication.getAuthorities());
+		Integer targetRoleIndex = roleIndexes.get(targetRole.getRoleIdentifier());
+
+		if (targetRoleIndex == null) {
+			return canAccessByHierarchy(userAuthentication.getAuthorities(), targetRole);
+		}
+
+		return getReachableRoles(userAuthentication.getAuthorities()).get(targetRoleIndex);
+	}
+
+	private BitSet getReachableRoles(final Collection<? extends GrantedAuthority> authorities) {
+		int currentGeneration = generation;
+		ReachableRoles last = lastReachableRoles.get();
+
+		if (last != null && last.authorities == authorities && last.generation == currentGeneration) {
+			return last.roles;
+		}
+
+		ImmutableSet.Builder<String> authorityIdentifiers = ImmutableSet.builder();
+
+		for (GrantedAuthority grantedAuthority : authorities) {
+			authorityIdentifiers.add(grantedAuthority.getAuthority());
+		}
+
+		Set<String> key = authorityIdentifiers.build();
+		BitSet roleBits = reachableRoles.get(key);
+
+		if (roleBits == null) {
+			roleBits = computeReachableRoles(authorities);
+
+			if (currentGeneration == generation) {
+				reachableRoles.putIfAbsent(key, roleBits);
+			}
+		}
+
+		lastReachableRoles.set(new ReachableRoles(authorities, roleBits, currentGeneration));
+
+		return roleBits;
+	}
+
+	private BitSet computeReachableRoles(final Collection<? extends GrantedAuthority> authorities) {
+		BitSet roleBits = new BitSet(roleIndexes.size());
+
+		for (GrantedAuthority grantedAuthority : roleHierarchy.getReachableGrantedAuthorities(authorities)) {
+			Integer index = roleIndexes.get(grantedAuthority.getAuthority());
+
+			if (index != null) {
+				roleBits.set(index);
+			}
+		}
+
+		return roleBits;
+	}
+
+	private boolean canAccessByHierarchy(final Collection<? extends GrantedAuthority> authorities, final SecurityRole targetRole) {
+		Collection<? extends GrantedAuthority> reachableAuthorities = roleHierarchy.getReachableGrantedAuthorities(authorities);
 
 		for (GrantedAuthority grantedAuthority : reachableAuthorities) {
 			if (grantedAuthority.getAuthority().equals(targetRole.getRoleIdentifier())) {
@@ -91,4 +169,20 @@ public class InternalSecurityRolesServiceImpl implements InternalSecurityRolesSe
 		return false;
 	}
 
+	private static final class ReachableRoles {
+
+		private final Collection<? extends GrantedAuthority> authorities;
+
+		private final BitSet roles;
+
+		private final int generation;
+
+		private ReachableRoles(final Collection<? extends GrantedAuthority> authorities, final BitSet roles, final int generation) {
+			this.authorities = authorities;
+			this.roles = roles;
+			this.generation = generation;
+		}
+
+	}
+
 }
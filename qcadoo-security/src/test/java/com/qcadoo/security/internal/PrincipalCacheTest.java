@@ -0,0 +1,269 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.security.internal;
+
+import static com.qcadoo.testing.model.EntityTestUtils.stubId;
+import static com.qcadoo.testing.model.EntityTestUtils.stubStringField;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.google.common.collect.Lists;
+import com.qcadoo.model.api.DataDefinition;
+import com.qcadoo.model.api.DataDefinitionService;
+import com.qcadoo.model.api.Entity;
+import com.qcadoo.model.api.search.SearchCriteriaBuilder;
+import com.qcadoo.model.api.search.SearchCriterion;
+import com.qcadoo.security.constants.GroupFields;
+import com.qcadoo.security.constants.QcadooSecurityConstants;
+import com.qcadoo.security.constants.RoleFields;
+import com.qcadoo.security.constants.UserFields;
+import com.qcadoo.security.internal.api.PrincipalSnapshot;
+import com.qcadoo.tenant.api.MultiTenantService;
+
+public class PrincipalCacheTest {
+
+    private static final String L_LOGIN = "admin";
+
+    private static final int L_TENANT_ID = 1;
+
+    private static final int L_OTHER_TENANT_ID = 2;
+
+    private PrincipalCache principalCache;
+
+    @Mock
+    private DataDefinitionService dataDefinitionService;
+
+    @Mock
+    private MultiTenantService multiTenantService;
+
+    @Mock
+    private DataDefinition userDD;
+
+    @Mock
+    private SearchCriteriaBuilder searchCriteriaBuilder;
+
+    @Mock
+    private Entity user;
+
+    @Mock
+    private Entity group;
+
+    @Mock
+    private Entity role;
+
+    @Mock
+    private Entity otherTenantUser;
+
+    @After
+    public void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Before
+    public void init() {
+        MockitoAnnotations.initMocks(this);
+
+        principalCache = new PrincipalCache();
+        ReflectionTestUtils.setField(principalCache, "dataDefinitionService", dataDefinitionService);
+        ReflectionTestUtils.setField(principalCache, "multiTenantService", multiTenantService);
+
+        given(multiTenantService.getCurrentTenantId()).willReturn(L_TENANT_ID);
+
+        given(dataDefinitionService.get(QcadooSecurityConstants.PLUGIN_IDENTIFIER, QcadooSecurityConstants.MODEL_USER))
+                .willReturn(userDD);
+        given(userDD.find()).willReturn(searchCriteriaBuilder);
+        given(searchCriteriaBuilder.add(any(SearchCriterion.class))).willReturn(searchCriteriaBuilder);
+        given(searchCriteriaBuilder.setMaxResults(anyInt())).willReturn(searchCriteriaBuilder);
+        given(searchCriteriaBuilder.uniqueResult()).willReturn(user);
+
+        stubId(user, 1L);
+        stubStringField(user, UserFields.USER_NAME, L_LOGIN);
+        given(user.getBelongsToField(UserFields.GROUP)).willReturn(group);
+        stubId(group, 2L);
+        stubStringField(group, GroupFields.IDENTIFIER, "superAdmin");
+        given(group.getManyToManyField(GroupFields.ROLES)).willReturn(Lists.newArrayList(role));
+        stubStringField(role, RoleFields.IDENTIFIER, "ROLE_SUPERADMIN");
+
+        stubId(otherTenantUser, 7L);
+        stubStringField(otherTenantUser, UserFields.USER_NAME, L_LOGIN);
+    }
+
+    @Test
+    public void shouldResolvePrincipalOnce() {
+        // when
+        PrincipalSnapshot first = principalCache.get(L_LOGIN);
+        PrincipalSnapshot second = principalCache.get(L_LOGIN);
+
+        // then
+        assertSame(first, second);
+        assertEquals(Long.valueOf(1L), first.getId());
+        assertEquals(L_LOGIN, first.getLogin());
+        assertEquals(Long.valueOf(2L), first.getGroupId());
+        assertTrue(first.hasRole("ROLE_SUPERADMIN"));
+        assertFalse(first.hasRole("ROLE_ADMIN"));
+        verify(searchCriteriaBuilder, times(1)).uniqueResult();
+    }
+
+    @Test
+    public void shouldResolvePrincipalAgainAfterUserInvalidation() {
+        // given
+        principalCache.get(L_LOGIN);
+
+        // when
+        principalCache.invalidate(1L);
+        principalCache.get(L_LOGIN);
+
+        // then
+        verify(searchCriteriaBuilder, times(2)).uniqueResult();
+    }
+
+    @Test
+    public void shouldResolvePrincipalAgainAfterGroupInvalidation() {
+        // given
+        principalCache.get(L_LOGIN);
+
+        // when
+        principalCache.invalidateAll();
+        principalCache.get(L_LOGIN);
+
+        // then
+        verify(searchCriteriaBuilder, times(2)).uniqueResult();
+    }
+
+    @Test
+    public void shouldNotCacheMissingUser() {
+        // given
+        given(searchCriteriaBuilder.uniqueResult()).willReturn(null);
+
+        // when
+        PrincipalSnapshot first = principalCache.get(L_LOGIN);
+        PrincipalSnapshot second = principalCache.get(L_LOGIN);
+
+        // then
+        assertNull(first);
+        assertNull(second);
+        verify(searchCriteriaBuilder, times(2)).uniqueResult();
+    }
+
+    @Test
+    public void shouldResolvePrincipalAgainForOtherTenant() {
+        // given
+        PrincipalSnapshot first = principalCache.get(L_LOGIN);
+
+        given(multiTenantService.getCurrentTenantId()).willReturn(L_OTHER_TENANT_ID);
+        given(searchCriteriaBuilder.uniqueResult()).willReturn(otherTenantUser);
+
+        // when
+        PrincipalSnapshot second = principalCache.get(L_LOGIN);
+
+        // then
+        assertNotSame(first, second);
+        assertEquals(Long.valueOf(7L), second.getId());
+        assertFalse(second.hasRole("ROLE_SUPERADMIN"));
+        verify(searchCriteriaBuilder, times(2)).uniqueResult();
+    }
+
+    @Test
+    public void shouldResolvePrincipalAgainAfterLogin() {
+        // given
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(L_LOGIN, "first"));
+
+        principalCache.get(L_LOGIN);
+        principalCache.get(L_LOGIN);
+
+        // when
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(L_LOGIN, "second"));
+
+        principalCache.get(L_LOGIN);
+
+        // then
+        verify(searchCriteriaBuilder, times(2)).uniqueResult();
+    }
+
+    @Test
+    public void shouldResolvePrincipalAgainAfterTimeToLive() {
+        // given
+        ReflectionTestUtils.setField(principalCache, "timeToLive", 0L);
+
+        // when
+        principalCache.get(L_LOGIN);
+        principalCache.get(L_LOGIN);
+
+        // then
+        verify(searchCriteriaBuilder, times(2)).uniqueResult();
+    }
+
+    @Test
+    public void shouldKeepPrincipalInSession() {
+        // given
+        MockHttpSession session = new MockHttpSession();
+        MockHttpSession otherSession = new MockHttpSession();
+
+        // when
+        PrincipalSnapshot first = getInRequest(session);
+        PrincipalSnapshot second = getInRequest(session);
+        PrincipalSnapshot third = getInRequest(otherSession);
+
+        // then
+        assertSame(first, second);
+        assertNotSame(first, third);
+        verify(searchCriteriaBuilder, times(2)).uniqueResult();
+    }
+
+    private PrincipalSnapshot getInRequest(final MockHttpSession session) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setSession(session);
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        try {
+            return principalCache.get(L_LOGIN);
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+}
@@ -0,0 +1,171 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.security.internal.role;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.access.hierarchicalroles.RoleHierarchyImpl;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+public class InternalSecurityRolesServiceImplTest {
+
+    private static final String L_ROLE_SUPERADMIN = "ROLE_SUPERADMIN";
+
+    private static final String L_ROLE_ADMIN = "ROLE_ADMIN";
+
+    private static final String L_ROLE_USER = "ROLE_USER";
+
+    private static final String L_ROLE_PLANNING = "ROLE_PLANNING";
+
+    private static final int L_NUMBER_OF_ROLES = 100;
+
+    private InternalSecurityRolesServiceImpl securityRolesService;
+
+    @Before
+    public final void init() {
+        RoleHierarchyImpl roleHierarchy = new RoleHierarchyImpl();
+        roleHierarchy.setHierarchy(L_ROLE_SUPERADMIN + " > " + L_ROLE_ADMIN + " " + L_ROLE_ADMIN + " > " + L_ROLE_USER + " "
+                + L_ROLE_ADMIN + " > " + L_ROLE_PLANNING);
+
+        securityRolesService = new InternalSecurityRolesServiceImpl();
+        ReflectionTestUtils.setField(securityRolesService, "roleHierarchy", roleHierarchy);
+
+        securityRolesService.addRole(new SimpleSecurityRole(L_ROLE_SUPERADMIN, true));
+        securityRolesService.addRole(new SimpleSecurityRole(L_ROLE_ADMIN, true));
+        securityRolesService.addRole(new SimpleSecurityRole(L_ROLE_USER, true));
+    }
+
+    @Test
+    public final void shouldAccessRolesReachableThroughHierarchy() {
+        // given
+        Authentication authentication = authenticate(L_ROLE_SUPERADMIN);
+
+        // when & then
+        assertTrue(canAccess(authentication, L_ROLE_SUPERADMIN));
+        assertTrue(canAccess(authentication, L_ROLE_ADMIN));
+        assertTrue(canAccess(authentication, L_ROLE_USER));
+    }
+
+    @Test
+    public final void shouldNotAccessRolesAboveGrantedOne() {
+        // given
+        Authentication authentication = authenticate(L_ROLE_USER);
+
+        // when & then
+        assertTrue(canAccess(authentication, L_ROLE_USER));
+        assertFalse(canAccess(authentication, L_ROLE_ADMIN));
+        assertFalse(canAccess(authentication, L_ROLE_SUPERADMIN));
+    }
+
+    @Test
+    public final void shouldGiveSameResultForDifferentAuthenticationsWithSameAuthorities() {
+        // given
+        Authentication admin = authenticate(L_ROLE_ADMIN);
+        Authentication user = authenticate(L_ROLE_USER);
+        Authentication otherAdmin = authenticate(L_ROLE_ADMIN);
+
+        // when & then
+        assertTrue(canAccess(admin, L_ROLE_USER));
+        assertFalse(canAccess(user, L_ROLE_ADMIN));
+        assertTrue(canAccess(otherAdmin, L_ROLE_ADMIN));
+        assertFalse(canAccess(otherAdmin, L_ROLE_SUPERADMIN));
+    }
+
+    @Test
+    public final void shouldAccessRoleAddedAfterReachableRolesWereComputed() {
+        // given
+        Authentication authentication = authenticate(L_ROLE_ADMIN);
+        SimpleSecurityRole planningRole = new SimpleSecurityRole(L_ROLE_PLANNING, true);
+
+        // when
+        boolean accessBeforeRegistration = securityRolesService.canAccess(authentication, planningRole);
+        assertTrue(canAccess(authentication, L_ROLE_USER));
+        securityRolesService.addRole(planningRole);
+
+        // then
+        assertTrue(accessBeforeRegistration);
+        assertTrue(canAccess(authentication, L_ROLE_PLANNING));
+        assertFalse(canAccess(authentication, L_ROLE_SUPERADMIN));
+    }
+
+    @Test
+    public final void shouldGiveSameResultAsRoleHierarchyForEveryRole() {
+        // given
+        StringBuilder hierarchy = new StringBuilder();
+
+        for (int i = 0; i < L_NUMBER_OF_ROLES; i++) {
+            for (int child = 2 * i + 1; child <= 2 * i + 2 && child < L_NUMBER_OF_ROLES; child++) {
+                hierarchy.append("ROLE_").append(i).append(" > ROLE_").append(child).append(' ');
+            }
+        }
+
+        RoleHierarchyImpl roleHierarchy = new RoleHierarchyImpl();
+        roleHierarchy.setHierarchy(hierarchy.toString());
+
+        securityRolesService = new InternalSecurityRolesServiceImpl();
+        ReflectionTestUtils.setField(securityRolesService, "roleHierarchy", roleHierarchy);
+
+        for (int i = 0; i < L_NUMBER_OF_ROLES; i++) {
+            securityRolesService.addRole(new SimpleSecurityRole("ROLE_" + i, true));
+        }
+
+        // when & then
+        for (int granted = 0; granted < L_NUMBER_OF_ROLES; granted++) {
+            Authentication authentication = authenticate("ROLE_" + granted);
+            Set<String> reachableRoles = Sets.newHashSet();
+
+            for (GrantedAuthority authority : roleHierarchy.getReachableGrantedAuthorities(authentication.getAuthorities())) {
+                reachableRoles.add(authority.getAuthority());
+            }
+
+            for (int target = 0; target < L_NUMBER_OF_ROLES; target++) {
+                assertEquals("ROLE_" + granted + " accessing ROLE_" + target, reachableRoles.contains("ROLE_" + target),
+                        canAccess(authentication, "ROLE_" + target));
+            }
+        }
+    }
+
+    private boolean canAccess(final Authentication authentication, final String roleIdentifier) {
+        return securityRolesService.canAccess(authentication, securityRolesService.getRoleByIdentifier(roleIdentifier));
+    }
+
+    private Authentication authenticate(final String roleIdentifier) {
+        return new UsernamePasswordAuthenticationToken("user", "password", Lists.newArrayList(new SimpleGrantedAuthority(
+                roleIdentifier)));
+    }
+
+}
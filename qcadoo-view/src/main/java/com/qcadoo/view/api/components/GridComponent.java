@@ -26,13 +26,16 @@ package com.qcadoo.view.api.components;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import com.qcadoo.model.api.Entity;
 import com.qcadoo.model.api.search.CustomRestriction;
 import com.qcadoo.view.api.ComponentState;
+import com.qcadoo.view.api.components.grid.GridComponentFilterSQL;
 import com.qcadoo.view.api.components.grid.GridComponentMultiSearchFilter;
 import com.qcadoo.view.api.components.lookup.FilterValueHolder;
 import com.qcadoo.view.internal.components.grid.GridComponentColumn;
+import com.qcadoo.view.internal.components.grid.GridComponentFilterException;
 import com.qcadoo.view.internal.components.grid.PredefinedFilter;
 
 /**
@@ -108,6 +111,31 @@ public interface GridComponent extends ComponentState {
      */
     List<Map<String, String>> getColumnValuesOfSelectedRecords();
 
+    /**
+     * Passes column values of all records of the current grid to the consumer, one record at a time. Records are read through
+     * a scrollable cursor, using grid's filters and order, so they are never loaded into memory all at once. Must be called
+     * within a transaction.
+     * 
+     * @param columns
+     *            names of the columns to convert
+     * @param rowConsumer
+     *            consumer of column values of the single record
+     * @since 1.5
+     */
+    void exportColumnValuesOfAllRecords(List<String> columns, Consumer<Map<String, String>> rowConsumer);
+
+    /**
+     * Passes column values of selected records of the current grid to the consumer, one record at a time.
+     * 
+     * @param columns
+     *            names of the columns to convert
+     * @param rowConsumer
+     *            consumer of column values of the single record
+     * @see #exportColumnValuesOfAllRecords(List, Consumer)
+     * @since 1.5
+     */
+    void exportColumnValuesOfSelectedRecords(List<String> columns, Consumer<Map<String, String>> rowConsumer);
+
     /**
      * Adds restriction to this grid
      * 
@@ -164,4 +192,16 @@ public interface GridComponent extends ComponentState {
     GridComponentMultiSearchFilter getMultiSearchFilter();
 
     void removeFilterForField(String field);
+
+    /**
+     * Builds SQL condition for current filters and multi search filter, with filter values passed as named parameters.
+     *
+     * @param table
+     *            alias of filtered table
+     * @return SQL condition with its parameters
+     * @throws GridComponentFilterException
+     *             if filter value is incorrect
+     * @since 1.5
+     */
+    GridComponentFilterSQL getFilterSQL(String table) throws GridComponentFilterException;
 }
\ No newline at end of file
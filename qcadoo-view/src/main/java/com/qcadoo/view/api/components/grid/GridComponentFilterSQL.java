@@ -0,0 +1,66 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.view.api.components.grid;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * SQL condition built from grid filters. Filter values are passed as named parameters instead of being inlined, so the SQL text
+ * depends only on filtered columns and operators and can be reused by statement and plan caches.
+ * 
+ * @since 1.5
+ */
+public final class GridComponentFilterSQL {
+
+    private final String sql;
+
+    private final Map<String, Object> parameters;
+
+    public GridComponentFilterSQL(final String sql, final Map<String, Object> parameters) {
+        this.sql = sql;
+        this.parameters = Collections.unmodifiableMap(new LinkedHashMap<String, Object>(parameters));
+    }
+
+    /**
+     * Returns SQL condition with named parameters' placeholders.
+     * 
+     * @return SQL condition
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * Returns values of named parameters used in {@link #getSql()}, in order of their appearance. Values of IN conditions are
+     * collections and have to be bound as parameter lists.
+     * 
+     * @return parameters' values by names
+     */
+    public Map<String, Object> getParameters() {
+        return parameters;
+    }
+
+}
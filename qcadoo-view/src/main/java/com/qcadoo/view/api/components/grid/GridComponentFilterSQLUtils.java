@@ -29,9 +29,13 @@ import java.math.BigDecimal;
 import java.text.ParseException;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.TreeMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -51,11 +55,53 @@ import com.qcadoo.view.internal.components.grid.GridComponentMultiSearchFilterRu
 
 public final class GridComponentFilterSQLUtils {
 
+    private static final String L_FILTER_PARAMETER_PREFIX = "gridFilter_";
+
+    private static final String L_MULTI_SEARCH_FILTER_PARAMETER_PREFIX = "gridMultiSearchFilter_";
+
+    private static final Pattern FIELD_EXPRESSION_PATTERN = Pattern
+            .compile("#(\\w+)(\\['(\\w+)'\\])?([[?]?.[get|getStringField|getBooleanField|getDecimalField|getIntegerField|getDateField|getBelongsToField]\\('\\w+'\\)]*)");
+
     private GridComponentFilterSQLUtils() {
     }
 
     public static String addFilters(final Map<String, String> filters, final Map<String, GridComponentColumn> columns,
             String table, final DataDefinition dataDefinition) throws GridComponentFilterException {
+        return addFilters(filters, columns, table, dataDefinition, FilterParameters.INLINE);
+    }
+
+    /**
+     * Builds SQL condition for given filters like {@link #addFilters(Map, Map, String, DataDefinition)}, but with filter values
+     * passed as named parameters, so filters differing only in values give the same SQL text. Values of columns with unknown
+     * type are still inlined.
+     * 
+     * @since 1.5
+     * 
+     * @param filters
+     *            filters' values by columns' names
+     * @param columns
+     *            grid's columns
+     * @param table
+     *            alias of filtered table
+     * @param dataDefinition
+     *            data definition of filtered table
+     * @return SQL condition with its parameters
+     * @throws GridComponentFilterException
+     *             if filter value is incorrect
+     */
+    public static GridComponentFilterSQL addParameterizedFilters(final Map<String, String> filters,
+            final Map<String, GridComponentColumn> columns, final String table, final DataDefinition dataDefinition)
+            throws GridComponentFilterException {
+        FilterParameters parameters = new FilterParameters(L_FILTER_PARAMETER_PREFIX);
+
+        String sql = addFilters(new TreeMap<String, String>(filters), columns, table, dataDefinition, parameters);
+
+        return new GridComponentFilterSQL(sql, parameters.getValues());
+    }
+
+    private static String addFilters(final Map<String, String> filters, final Map<String, GridComponentColumn> columns,
+            final String table, final DataDefinition dataDefinition, final FilterParameters parameters)
+            throws GridComponentFilterException {
         StringBuilder filterQuery = new StringBuilder(" 1=1 ");
 
         for (Entry<String, String> filter : filters.entrySet()) {
@@ -73,18 +119,18 @@ public final class GridComponentFilterSQLUtils {
                     }
 
                     if (fieldDefinition != null && String.class.isAssignableFrom(fieldDefinition.getType().getType())) {
-                        addStringFilter(table, filterQuery, filterValue, field);
+                        addStringFilter(table, filterQuery, filterValue, field, parameters);
                     } else if (fieldDefinition != null && Boolean.class.isAssignableFrom(fieldDefinition.getType().getType())) {
-                        addSimpleFilter(table, filterQuery, filterValue, field, "1".equals(filterValue.getValue()));
+                        addSimpleFilter(table, filterQuery, filterValue, field, "1".equals(filterValue.getValue()), parameters);
                     } else if (fieldDefinition != null && Date.class.isAssignableFrom(fieldDefinition.getType().getType())) {
-                        addDateFilter(table, filterQuery, filterValue, field);
+                        addDateFilter(table, filterQuery, filterValue, field, parameters);
                     } else if (fieldDefinition != null
                             && BigDecimal.class.isAssignableFrom(fieldDefinition.getType().getType())) {
-                        addDecimalFilter(table, filterQuery, filterValue, field);
+                        addDecimalFilter(table, filterQuery, filterValue, field, parameters);
                     } else if (fieldDefinition != null && Integer.class.isAssignableFrom(fieldDefinition.getType().getType())) {
-                        addIntegerFilter(table, filterQuery, filterValue, field);
+                        addIntegerFilter(table, filterQuery, filterValue, field, parameters);
                     } else {
-                        addSimpleFilter(table, filterQuery, filterValue, field, filterValue.getValue());
+                        addSimpleFilter(table, filterQuery, filterValue, field, filterValue.getValue(), FilterParameters.INLINE);
                     }
                 } catch (ParseException pe) {
                     throw new GridComponentFilterException(filter.getValue());
@@ -98,9 +144,51 @@ public final class GridComponentFilterSQLUtils {
     public static String addMultiSearchFilter(GridComponentMultiSearchFilter multiSearchFilter,
             Map<String, GridComponentColumn> columns, String table, DataDefinition dataDefinition)
             throws GridComponentFilterException {
+        return addMultiSearchFilter(multiSearchFilter, multiSearchFilter.getRules(), columns, table, dataDefinition,
+                FilterParameters.INLINE);
+    }
+
+    /**
+     * Builds SQL condition for given multi search filter like
+     * {@link #addMultiSearchFilter(GridComponentMultiSearchFilter, Map, String, DataDefinition)}, but with filter values passed
+     * as named parameters, so filters differing only in values give the same SQL text. Values of columns with unknown type are
+     * still inlined.
+     * 
+     * @since 1.5
+     * 
+     * @param multiSearchFilter
+     *            multi search filter
+     * @param columns
+     *            grid's columns
+     * @param table
+     *            alias of filtered table
+     * @param dataDefinition
+     *            data definition of filtered table
+     * @return SQL condition with its parameters
+     * @throws GridComponentFilterException
+     *             if filter value is incorrect
+     */
+    public static GridComponentFilterSQL addParameterizedMultiSearchFilter(
+            final GridComponentMultiSearchFilter multiSearchFilter, final Map<String, GridComponentColumn> columns,
+            final String table, final DataDefinition dataDefinition) throws GridComponentFilterException {
+        FilterParameters parameters = new FilterParameters(L_MULTI_SEARCH_FILTER_PARAMETER_PREFIX);
+
+        List<GridComponentMultiSearchFilterRule> rules = Lists.newArrayList(multiSearchFilter.getRules());
+        rules.sort(Comparator.comparing(GridComponentMultiSearchFilterRule::getField).thenComparing(
+                GridComponentMultiSearchFilterRule::getFilterOperator));
+
+        String sql = addMultiSearchFilter(multiSearchFilter, rules, columns, table, dataDefinition, parameters);
+
+        return new GridComponentFilterSQL(sql, parameters.getValues());
+    }
+
+    private static String addMultiSearchFilter(final GridComponentMultiSearchFilter multiSearchFilter,
+            final Collection<GridComponentMultiSearchFilterRule> rules, final Map<String, GridComponentColumn> columns,
+            final String table, final DataDefinition dataDefinition, final FilterParameters parameters)
+            throws GridComponentFilterException {
         StringBuilder filterQuery = new StringBuilder(" 1=1 ");
 
-        for (GridComponentMultiSearchFilterRule rule : multiSearchFilter.getRules()) {
+        for (GridComponentMultiSearchFilterRule rule : rules) {
             String field = getFieldNameByColumnName(columns, rule.getField());
 
             if (field != null) {
@@ -122,19 +210,24 @@ public final class GridComponentFilterSQLUtils {
                     }
 
                     if (fieldDefinition != null && String.class.isAssignableFrom(fieldDefinition.getType().getType())) {
-                        filterQuery.append(createStringCriterion(table, rule.getFilterOperator(), rule.getData(), field));
+                        filterQuery.append(createStringCriterion(table, rule.getFilterOperator(), rule.getData(), field,
+                                parameters));
                     } else if (fieldDefinition != null && Boolean.class.isAssignableFrom(fieldDefinition.getType().getType())) {
-                        filterQuery.append(
-                                createSimpleCriterion(table, rule.getFilterOperator(), "1".equals(rule.getData()), field));
+                        filterQuery.append(createSimpleCriterion(table, rule.getFilterOperator(), "1".equals(rule.getData()),
+                                field, parameters));
                     } else if (fieldDefinition != null && Date.class.isAssignableFrom(fieldDefinition.getType().getType())) {
-                        filterQuery.append(createDateCriterion(table, rule.getFilterOperator(), rule.getData(), field));
+                        filterQuery.append(createDateCriterion(table, rule.getFilterOperator(), rule.getData(), field,
+                                parameters));
                     } else if (fieldDefinition != null
                             && BigDecimal.class.isAssignableFrom(fieldDefinition.getType().getType())) {
-                        filterQuery.append(createDecimalCriterion(table, rule.getFilterOperator(), rule.getData(), field));
+                        filterQuery.append(createDecimalCriterion(table, rule.getFilterOperator(), rule.getData(), field,
+                                parameters));
                     } else if (fieldDefinition != null && Integer.class.isAssignableFrom(fieldDefinition.getType().getType())) {
-                        filterQuery.append(createIntegerCriterion(table, rule.getFilterOperator(), rule.getData(), field));
+                        filterQuery.append(createIntegerCriterion(table, rule.getFilterOperator(), rule.getData(), field,
+                                parameters));
                     } else {
-                        filterQuery.append(createSimpleCriterion(table, rule.getFilterOperator(), rule.getData(), field));
+                        filterQuery.append(createSimpleCriterion(table, rule.getFilterOperator(), rule.getData(), field,
+                                FilterParameters.INLINE));
                     }
 
                 } catch (Exception pe) {
@@ -150,7 +243,7 @@ public final class GridComponentFilterSQLUtils {
     }
 
     private static String createSimpleCriterion(String table, GridComponentFilterOperator filterOperator, Object data,
-            String field) {
+            String field, final FilterParameters parameters) {
         if (!field.contains(".")) {
             field = table + "." + field;
         }
@@ -159,17 +252,17 @@ public final class GridComponentFilterSQLUtils {
             case CN:
             case BW:
             case EW:
-                return field + " = '" + data + "' ";
+                return field + " = " + parameters.bind(data) + " ";
             case NE:
-                return field + " <> '" + data + "' ";
+                return field + " <> " + parameters.bind(data) + " ";
             case GT:
-                return field + " > '" + data + "' ";
+                return field + " > " + parameters.bind(data) + " ";
             case GE:
-                return field + " >= '" + data + "' ";
+                return field + " >= " + parameters.bind(data) + " ";
             case LT:
-                return field + " < '" + data + "' ";
+                return field + " < " + parameters.bind(data) + " ";
             case LE:
-                return field + " <= '" + data + "' ";
+                return field + " <= " + parameters.bind(data) + " ";
             case ISNULL:
                 return field + " IS NULL ";
             case IN:
@@ -185,7 +278,7 @@ public final class GridComponentFilterSQLUtils {
     }
 
     private static String createIntegerCriterion(String table, GridComponentFilterOperator filterOperator, String data,
-            String field) throws GridComponentFilterException {
+            String field, final FilterParameters parameters) throws GridComponentFilterException {
         try {
             final Object value;
             if (filterOperator == GridComponentFilterOperator.IN) {
@@ -200,14 +293,14 @@ public final class GridComponentFilterSQLUtils {
                 value = Integer.valueOf(data);
             }
 
-            return createSimpleCriterion(table, filterOperator, value, field);
+            return createSimpleCriterion(table, filterOperator, value, field, parameters);
         } catch (NumberFormatException nfe) {
             throw new GridComponentFilterException(data, nfe);
         }
     }
 
     private static String createDecimalCriterion(String table, GridComponentFilterOperator filterOperator, String data,
-            String field) throws GridComponentFilterException {
+            String field, final FilterParameters parameters) throws GridComponentFilterException {
         try {
             final Object value;
             if (filterOperator == GridComponentFilterOperator.IN) {
@@ -222,14 +315,14 @@ public final class GridComponentFilterSQLUtils {
                 value = new BigDecimal(data);
             }
 
-            return createSimpleCriterion(table, filterOperator, value, field);
+            return createSimpleCriterion(table, filterOperator, value, field, parameters);
         } catch (NumberFormatException nfe) {
             throw new GridComponentFilterException(data, nfe);
         }
     }
 
-    private static String createDateCriterion(String table, GridComponentFilterOperator filterOperator, String data, String field)
-            throws ParseException {
+    private static String createDateCriterion(String table, GridComponentFilterOperator filterOperator, String data, String field,
+            final FilterParameters parameters) throws ParseException {
         if (filterOperator == GridComponentFilterOperator.IN) {
             Collection<String> values = parseListValue(data);
             Collection<Date> dates = Lists.newArrayListWithCapacity(values.size());
@@ -256,19 +349,17 @@ public final class GridComponentFilterSQLUtils {
             case CN:
             case BW:
             case EW:
-                return field + " between '" + DateUtils.toDateTimeString(minDate) + "' and '"
-                        + DateUtils.toDateTimeString(maxDate) + "' ";
+                return field + " between " + parameters.bind(minDate) + " and " + parameters.bind(maxDate) + " ";
             case NE:
-                return field + " not between '" + DateUtils.toDateTimeString(minDate) + "' and '"
-                        + DateUtils.toDateTimeString(maxDate) + "' ";
+                return field + " not between " + parameters.bind(minDate) + " and " + parameters.bind(maxDate) + " ";
             case GT:
-                return field + " > '" + DateUtils.toDateTimeString(maxDate) + "' ";
+                return field + " > " + parameters.bind(maxDate) + " ";
             case GE:
-                return field + " >= '" + DateUtils.toDateTimeString(minDate) + "' ";
+                return field + " >= " + parameters.bind(minDate) + " ";
             case LT:
-                return field + " < '" + DateUtils.toDateTimeString(minDate) + "' ";
+                return field + " < " + parameters.bind(minDate) + " ";
             case LE:
-                return field + " >= '" + DateUtils.toDateTimeString(maxDate) + "' ";
+                return field + " >= " + parameters.bind(maxDate) + " ";
             case ISNULL:
                 return field + " IS NULL ";
             default:
@@ -277,7 +368,7 @@ public final class GridComponentFilterSQLUtils {
     }
 
     private static String createStringCriterion(String table, GridComponentFilterOperator filterOperator, String data,
-            String field) {
+            String field, final FilterParameters parameters) {
         if (!field.contains(".")) {
             field = table + "." + field;
         }
@@ -285,28 +376,28 @@ public final class GridComponentFilterSQLUtils {
             case EQ:
             case LE:
             case GE:
-                return field + " = '" + data + "' ";
+                return field + " = " + parameters.bind(data) + " ";
             case CN:
-                return field + " ilike '%" + data + "%' ";
+                return field + " ilike " + parameters.bind("%" + data + "%") + " ";
             case BW:
-                return field + " ilike '" + data + "%' ";
+                return field + " ilike " + parameters.bind(data + "%") + " ";
             case EW:
-                return field + " ilike '%" + data + "' ";
+                return field + " ilike " + parameters.bind("%" + data) + " ";
             case IN:
-                Collection<String> values = parseListValue(data);
-                return "lower(" + field + ") in (" + convertToIn(values) + ") ";
+                Collection<String> values = parseListValue(data).stream().map(String::toLowerCase).collect(Collectors.toList());
+                return "lower(" + field + ") in (" + parameters.bindList(values) + ") ";
             case CIN:
                 StringBuilder sb = new StringBuilder("(");
                 Collection<String> cinValues = parseListValue(data);
                 final String finalField = field;
-                String collected = cinValues.stream().map(s -> finalField + " ilike '%" + s + "%'")
+                String collected = cinValues.stream().map(s -> finalField + " ilike " + parameters.bind("%" + s + "%"))
                         .collect(Collectors.joining(" OR "));
                 sb.append(collected).append(") ");
                 return sb.toString();
             case NE:
             case GT:
             case LT:
-                return field + " <> '" + data + "' ";
+                return field + " <> " + parameters.bind(data) + " ";
             case ISNULL:
                 return field + " IS NULL ";
             default:
@@ -314,21 +405,6 @@ public final class GridComponentFilterSQLUtils {
         }
     }
 
-    private static String convertToIn(final Collection<String> values) {
-        StringBuilder builder = new StringBuilder();
-        values.forEach(v -> joinToIn(v.toLowerCase(), builder));
-        return builder.toString();
-    }
-
-    private static void joinToIn(final String v, final StringBuilder builder) {
-        if (builder.length() > 0) {
-            builder.append(", ");
-        }
-        builder.append("'");
-        builder.append(v);
-        builder.append("'");
-    }
-
     private static Collection<String> parseListValue(String data) {
         String[] tokens = data.split(",");
         Collection<String> values = Lists.newArrayListWithCapacity(tokens.length);
@@ -339,27 +415,28 @@ public final class GridComponentFilterSQLUtils {
     }
 
     private static void addIntegerFilter(String table, StringBuilder filterQuery,
-            final Entry<GridComponentFilterOperator, String> filterValue, final String field)
+            final Entry<GridComponentFilterOperator, String> filterValue, final String field, final FilterParameters parameters)
             throws GridComponentFilterException {
         filterQuery.append(GridComponentFilterGroupOperator.AND + " ");
-        filterQuery.append(createIntegerCriterion(table, filterValue.getKey(), filterValue.getValue(), field));
+        filterQuery.append(createIntegerCriterion(table, filterValue.getKey(), filterValue.getValue(), field, parameters));
     }
 
     private static void addDecimalFilter(String table, StringBuilder filterQuery,
-            final Entry<GridComponentFilterOperator, String> filterValue, final String field)
+            final Entry<GridComponentFilterOperator, String> filterValue, final String field, final FilterParameters parameters)
             throws GridComponentFilterException {
         filterQuery.append(GridComponentFilterGroupOperator.AND + " ");
-        filterQuery.append(createDecimalCriterion(table, filterValue.getKey(), filterValue.getValue(), field));
+        filterQuery.append(createDecimalCriterion(table, filterValue.getKey(), filterValue.getValue(), field, parameters));
     }
 
     private static void addSimpleFilter(String table, StringBuilder filterQuery,
-            final Entry<GridComponentFilterOperator, String> filterValue, final String field, final Object value) {
+            final Entry<GridComponentFilterOperator, String> filterValue, final String field, final Object value,
+            final FilterParameters parameters) {
         filterQuery.append(GridComponentFilterGroupOperator.AND + " ");
-        filterQuery.append(createSimpleCriterion(table, filterValue.getKey(), value, field));
+        filterQuery.append(createSimpleCriterion(table, filterValue.getKey(), value, field, parameters));
     }
 
     private static void addStringFilter(final String table, final StringBuilder filterQuery,
-            final Entry<GridComponentFilterOperator, String> filterValue, final String field) {
+            final Entry<GridComponentFilterOperator, String> filterValue, final String field, final FilterParameters parameters) {
         String value = filterValue.getValue();
 
         GridComponentFilterOperator operator = filterValue.getKey();
@@ -367,13 +444,14 @@ public final class GridComponentFilterSQLUtils {
             operator = GridComponentFilterOperator.CN;
         }
         filterQuery.append(GridComponentFilterGroupOperator.AND + " ");
-        filterQuery.append(createStringCriterion(table, operator, value, field));
+        filterQuery.append(createStringCriterion(table, operator, value, field, parameters));
     }
 
     private static void addDateFilter(String table, final StringBuilder filterQuery,
-            final Entry<GridComponentFilterOperator, String> filterValue, final String field) throws ParseException {
+            final Entry<GridComponentFilterOperator, String> filterValue, final String field, final FilterParameters parameters)
+            throws ParseException {
         filterQuery.append(GridComponentFilterGroupOperator.AND + " ");
-        filterQuery.append(createDateCriterion(table, filterValue.getKey(), filterValue.getValue(), field));
+        filterQuery.append(createDateCriterion(table, filterValue.getKey(), filterValue.getValue(), field, parameters));
     }
 
     private static Entry<GridComponentFilterOperator, String> parseFilterValue(final String filterValue) {
@@ -470,8 +548,7 @@ public final class GridComponentFilterSQLUtils {
     }
 
     private static String getFieldNameFromExpression(final String expression) {
-        String pattern = "#(\\w+)(\\['(\\w+)'\\])?([[?]?.[get|getStringField|getBooleanField|getDecimalField|getIntegerField|getDateField|getBelongsToField]\\('\\w+'\\)]*)";
-        Matcher matcher = Pattern.compile(pattern).matcher(StringUtils.trim(expression));
+        Matcher matcher = FIELD_EXPRESSION_PATTERN.matcher(StringUtils.trim(expression));
         if (matcher.matches()) {
             final StringBuilder fieldNameBuilder = new StringBuilder(matcher.group(1));
             if (StringUtils.isNotBlank(matcher.group(3))) {
@@ -493,4 +570,47 @@ public final class GridComponentFilterSQLUtils {
         return null;
     }
 
+    /**
+     * Renders filter values either inlined as SQL literals or as named parameters' placeholders.
+     */
+    private static final class FilterParameters {
+
+        private static final FilterParameters INLINE = new FilterParameters(null);
+
+        private final String prefix;
+
+        private final Map<String, Object> values = new LinkedHashMap<String, Object>();
+
+        private FilterParameters(final String prefix) {
+            this.prefix = prefix;
+        }
+
+        private String bind(final Object value) {
+            if (prefix == null) {
+                return "'" + (value instanceof Date ? DateUtils.toDateTimeString((Date) value) : value) + "'";
+            }
+
+            String name = prefix + values.size();
+            values.put(name, value);
+
+            return ":" + name;
+        }
+
+        private String bindList(final Collection<?> listValues) {
+            if (prefix == null) {
+                return listValues.stream().map(this::bind).collect(Collectors.joining(", "));
+            }
+
+            String name = prefix + values.size();
+            values.put(name, listValues);
+
+            return ":" + name;
+        }
+
+        private Map<String, Object> getValues() {
+            return values;
+        }
+
+    }
+
 }
@@ -0,0 +1,85 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.view.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.json.JSONException;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.qcadoo.view.internal.api.InternalComponentState;
+
+/**
+ * View state streamed into a buffer, ready to be written by {@link ViewStateHttpMessageConverter}.
+ * 
+ * Rendering happens before the response is committed, so errors still end up in a regular error response instead of a
+ * truncated JSON.
+ */
+public final class RenderedViewState {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final ByteArrayOutputStream content;
+
+    private RenderedViewState(final ByteArrayOutputStream content) {
+        this.content = content;
+    }
+
+    public static RenderedViewState render(final InternalComponentState state) {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+        try {
+            JsonGenerator generator = JSON_FACTORY.createGenerator(content, JsonEncoding.UTF8);
+            try {
+                state.render(generator);
+            } finally {
+                generator.close();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        } catch (JSONException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+
+        return new RenderedViewState(content);
+    }
+
+    public int getLength() {
+        return content.size();
+    }
+
+    public void writeTo(final OutputStream outputStream) throws IOException {
+        content.writeTo(outputStream);
+    }
+
+    @Override
+    public String toString() {
+        return new String(content.toByteArray(), JsonHttpMessageConverter.CHARSET);
+    }
+
+}
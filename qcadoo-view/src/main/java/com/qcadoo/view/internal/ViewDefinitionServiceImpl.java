@@ -28,10 +28,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.context.ApplicationListener;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.qcadoo.localization.api.TranslationsChangedEvent;
 import com.qcadoo.model.api.aop.Monitorable;
 import com.qcadoo.plugin.api.PluginUtils;
 import com.qcadoo.security.api.SecurityRole;
@@ -41,7 +43,8 @@ import com.qcadoo.view.internal.api.ViewDefinition;
 import com.qcadoo.view.internal.security.SecurityViewDefinitionRoleResolver;
 
 @Service
-public class ViewDefinitionServiceImpl implements InternalViewDefinitionService, SecurityViewDefinitionRoleResolver {
+public class ViewDefinitionServiceImpl implements InternalViewDefinitionService, SecurityViewDefinitionRoleResolver,
+        ApplicationListener<TranslationsChangedEvent> {
 
     private final Map<String, InternalViewDefinition> viewDefinitions = new HashMap<String, InternalViewDefinition>();
 
@@ -95,6 +98,13 @@ public class ViewDefinitionServiceImpl implements InternalViewDefinitionService,
         viewDefinitions.remove(viewDefinition.getPluginIdentifier() + "." + viewDefinition.getName());
     }
 
+    @Override
+    public void onApplicationEvent(final TranslationsChangedEvent event) {
+        for (InternalViewDefinition viewDefinition : viewDefinitions.values()) {
+            viewDefinition.clearPreparedViews();
+        }
+    }
+
     @Override
     public SecurityRole getRoleForView(final String pluginIdentifier, final String viewName) {
         ViewDefinition view = getWithoutSession(pluginIdentifier, viewName);
@@ -0,0 +1,69 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.view.internal;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+/**
+ * Writes view state streamed by {@link RenderedViewState}, without building org.json tree of the whole view.
+ */
+public final class ViewStateHttpMessageConverter extends AbstractHttpMessageConverter<RenderedViewState> {
+
+    public ViewStateHttpMessageConverter() {
+        super(JsonHttpMessageConverter.MEDIA_TYPE);
+    }
+
+    @Override
+    protected boolean supports(final Class<?> clazz) {
+        return RenderedViewState.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(final Class<?> clazz, final MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected RenderedViewState readInternal(final Class<? extends RenderedViewState> clazz,
+            final HttpInputMessage inputMessage) throws IOException {
+        throw new HttpMessageNotReadableException("View state can't be read");
+    }
+
+    @Override
+    protected Long getContentLength(final RenderedViewState state, final MediaType contentType) {
+        return (long) state.getLength();
+    }
+
+    @Override
+    protected void writeInternal(final RenderedViewState state, final HttpOutputMessage outputMessage) throws IOException {
+        state.writeTo(outputMessage.getBody());
+    }
+
+}
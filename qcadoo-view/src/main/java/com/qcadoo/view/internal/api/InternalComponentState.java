@@ -23,11 +23,14 @@
  */
 package com.qcadoo.view.internal.api;
 
+import java.io.IOException;
 import java.util.Locale;
 
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+
 import com.qcadoo.view.api.ComponentState;
 
 public interface InternalComponentState extends ComponentState {
@@ -53,6 +56,18 @@ public interface InternalComponentState extends ComponentState {
      */
     JSONObject render() throws JSONException;
 
+    /**
+     * Streams this component state back to client, writing the same data as {@link #render()}. <b>For internal usage only</b>
+     * 
+     * @param generator
+     *            generator writing response
+     * @throws IOException
+     *             when response can't be written
+     * @throws JSONException
+     *             when data for client contains errors
+     */
+    void render(JsonGenerator generator) throws IOException, JSONException;
+
     /**
      * Returns true if element defined by this component is permanently disabled
      * 
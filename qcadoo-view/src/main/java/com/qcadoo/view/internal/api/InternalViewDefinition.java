@@ -49,6 +49,8 @@ public interface InternalViewDefinition extends ViewDefinition {
 
     Map<String, Object> prepareView(JSONObject jsonObject, Locale locale);
 
+    void clearPreparedViews();
+
     ViewDefinitionState performEvent(JSONObject jsonObject, Locale locale) throws JSONException;
 
     boolean isMenuAccessible();
@@ -23,6 +23,7 @@
  */
 package com.qcadoo.view.internal.components.form;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.google.common.collect.Maps;
 import com.qcadoo.model.api.*;
 import com.qcadoo.model.api.expression.ExpressionUtils;
@@ -43,6 +44,7 @@ import com.qcadoo.view.internal.states.AbstractContainerState;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.IOException;
 import java.util.*;
 
 public class FormComponentState extends AbstractContainerState implements FormComponent {
@@ -254,6 +256,13 @@ public class FormComponentState extends AbstractContainerState implements FormCo
         return json;
     }
 
+    @Override
+    protected void renderFields(final JsonGenerator generator) throws IOException, JSONException {
+        super.renderFields(generator);
+
+        generator.writeBooleanField(JSON_BACK_REQUIRED, performBackRequired);
+    }
+
     @Override
     protected JSONObject renderContent() throws JSONException {
         JSONObject json = new JSONObject();
@@ -23,6 +23,7 @@
  */
 package com.qcadoo.view.internal.components.grid;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
@@ -41,6 +42,8 @@ import com.qcadoo.model.internal.types.EnumType;
 import com.qcadoo.security.api.SecurityRole;
 import com.qcadoo.security.api.SecurityRolesService;
 import com.qcadoo.view.api.components.GridComponent;
+import com.qcadoo.view.api.components.grid.GridComponentFilterSQL;
+import com.qcadoo.view.api.components.grid.GridComponentFilterSQLUtils;
 import com.qcadoo.view.api.components.grid.GridComponentMultiSearchFilter;
 import com.qcadoo.view.api.components.lookup.FilterValueHolder;
 import com.qcadoo.view.api.utils.SecurityEscapeService;
@@ -48,12 +51,15 @@ import com.qcadoo.view.internal.CriteriaModifier;
 import com.qcadoo.view.internal.FilterValueHolderImpl;
 import com.qcadoo.view.internal.RowStyleResolver;
 import com.qcadoo.view.internal.states.AbstractComponentState;
+import com.qcadoo.view.internal.states.JsonRenderUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.function.Consumer;
 
 public final class GridComponentState extends AbstractComponentState implements GridComponent {
 
@@ -124,6 +130,8 @@ public final class GridComponentState extends AbstractComponentState implements
 
     private List<Entity> entities;
 
+    private boolean entitiesProvided;
+
     private int totalEntities;
 
     private int firstResult;
@@ -458,6 +466,7 @@ public final class GridComponentState extends AbstractComponentState implements
     private void passEntitiesFromJson(final JSONObject json) throws JSONException {
         if (gridIsEmpty() && json.has(JSON_ENTITIES) && !json.isNull(JSON_ENTITIES)) {
             entities = Lists.newArrayList();
+            entitiesProvided = true;
 
             JSONArray givenEntities = json.getJSONArray(JSON_ENTITIES);
 
@@ -592,6 +601,118 @@ public final class GridComponentState extends AbstractComponentState implements
         return json;
     }
 
+    @Override
+    protected void renderContent(final JsonGenerator generator) throws IOException, JSONException {
+        if (Objects.isNull(entities)) {
+            eventPerformer.reload();
+        }
+
+        if (Objects.isNull(entities)) {
+            throw new IllegalStateException("Cannot load entities for grid component");
+        }
+
+        generator.writeObjectFieldStart(JSON_CONTENT);
+
+        JsonRenderUtils.writeField(generator, JSON_SELECTED_ENTITY_ID, selectedEntityId);
+        JsonRenderUtils.writeField(generator, JSON_BELONGS_TO_ENTITY_ID, belongsToEntityId);
+        generator.writeNumberField(JSON_FIRST_ENTITY, firstResult);
+        generator.writeNumberField(JSON_MAX_ENTITIES, maxResults);
+        generator.writeBooleanField(JSON_FILTERS_ENABLED, filtersEnabled);
+        generator.writeBooleanField(JSON_MULTI_SEARCH_ENABLED, multiSearchEnabled);
+        generator.writeNumberField(JSON_TOTAL_ENTITIES, totalEntities);
+        generator.writeBooleanField(JSON_ONLY_ACTIVE, onlyActive);
+        generator.writeBooleanField(JSON_ONLY_INACTIVE, onlyInactive);
+        generator.writeBooleanField(JSON_MULTISELECT_MODE, multiselectMode);
+
+        generator.writeObjectFieldStart(JSON_SELECTED_ENTITIES);
+
+        for (Long entityId : selectedEntities) {
+            generator.writeBooleanField(entityId.toString(), true);
+        }
+
+        generator.writeEndObject();
+
+        if (Objects.nonNull(isEditable)) {
+            generator.writeBooleanField(JSON_EDITABLE, isEditable);
+        }
+
+        if (!entitiesToMarkAsNew.isEmpty()) {
+            generator.writeObjectFieldStart(JSON_ENTITIES_TO_MARK_AS_NEW);
+
+            for (Long entityId : entitiesToMarkAsNew) {
+                generator.writeBooleanField(entityId.toString(), true);
+            }
+
+            generator.writeEndObject();
+        }
+
+        if (Objects.nonNull(rowStyleResolver)) {
+            JsonRenderUtils.writeField(generator, JSON_ENTITIES_TO_MARK_WITH_CSS_CLASS, getRowStyles());
+        }
+
+        if (!orderColumns.isEmpty()) {
+            generator.writeArrayFieldStart(JSON_ORDER);
+
+            for (GridComponentOrderColumn orderColumn : orderColumns) {
+                generator.writeStartObject();
+                JsonRenderUtils.writeField(generator, JSON_ORDER_COLUMN, orderColumn.getName());
+                JsonRenderUtils.writeField(generator, JSON_ORDER_DIRECTION, orderColumn.getDirection());
+                generator.writeEndObject();
+            }
+
+            generator.writeEndArray();
+        }
+
+        JsonRenderUtils.writeField(generator, JSON_FILTERS, filters);
+        JsonRenderUtils.writeField(generator, JSON_MULTI_SEARCH_FILTER, multiSearchFilter.toJson());
+
+        Collection<GridComponentColumn> columnsWithAccess = pattern.filterColumnsWithAccess(columns.values());
+
+        generator.writeArrayFieldStart(JSON_ENTITIES);
+
+        for (Entity entity : entities) {
+            writeEntity(generator, entity, columnsWithAccess);
+        }
+
+        generator.writeEndArray();
+
+        if (Objects.nonNull(criteriaModifierParameter)) {
+            JsonRenderUtils.writeField(generator, JSON_CRITERIA_MODIFIER_PARAMETER, criteriaModifierParameter);
+
+            if (criteriaModifierParameter.has(JSON_HEADER_VALUE)) {
+                JsonRenderUtils.writeField(generator, JSON_HEADER_VALUE, criteriaModifierParameter.getString(JSON_HEADER_VALUE));
+            }
+        }
+
+        generator.writeBooleanField(JSON_DELETE_ENABLED, this.deleteEnabled);
+        generator.writeBooleanField(JSON_AUTOMATIC_REFRESH, this.autoRefresh);
+
+        generator.writeEndObject();
+    }
+
+    private void writeEntity(final JsonGenerator generator, final Entity entity,
+            final Collection<GridComponentColumn> columnsWithAccess) throws IOException, JSONException {
+        generator.writeStartObject();
+
+        JsonRenderUtils.writeField(generator, "id", entity.getId());
+
+        if (activable) {
+            generator.writeBooleanField("active", entity.isActive());
+        } else {
+            generator.writeBooleanField("active", true);
+        }
+
+        generator.writeObjectFieldStart("fields");
+
+        for (GridComponentColumn column : columnsWithAccess) {
+            JsonRenderUtils.writeField(generator, column.getName(), column.getValue(entity, getLocale()));
+        }
+
+        generator.writeEndObject();
+
+        generator.writeEndObject();
+    }
+
     private JSONObject getRowStyles() throws JSONException {
         final JSONObject stylesForEntities = new JSONObject();
 
@@ -661,6 +782,7 @@ public final class GridComponentState extends AbstractComponentState implements
     @Override
     public void setEntities(final List<Entity> entities) {
         this.entities = entities;
+        this.entitiesProvided = true;
 
         totalEntities = entities.size();
     }
@@ -918,51 +1040,11 @@ public final class GridComponentState extends AbstractComponentState implements
 
         private void reload() {
             if (Objects.isNull(belongsToFieldDefinition) || Objects.nonNull(belongsToEntityId)) {
-                SearchCriteriaBuilder criteria = getDataDefinition().find();
-
-                if (Objects.nonNull(belongsToFieldDefinition) && !useDto) {
-                    if (belongsToFieldDefinition.getType() instanceof ManyToManyType) {
-                        String belongsToFieldName = belongsToFieldDefinition.getName();
-
-                        criteria.createAlias(belongsToFieldName, belongsToFieldName)
-                                .add(SearchRestrictions.eq(belongsToFieldName + ".id", belongsToEntityId));
-                    } else {
-                        // criteria.add(SearchRestrictions.belongsTo(belongsToFieldDefinition.getName(), ((DataDefinitionHolder)
-                        // belongsToFieldDefinition.getType()).getDataDefinition(), belongsToEntityId));
-                        criteria.add(SearchRestrictions.eq(belongsToFieldDefinition.getName() + ".id", belongsToEntityId));
-                    }
-                }
-                if (useDto) {
-                    criteria.add(SearchRestrictions.eq(buildDtoIdFieldName(belongsToFieldDefinition.getName()),
-                            belongsToEntityId.intValue()));
-                }
-
                 try {
-                    if (filtersEnabled) {
-                        GridComponentFilterUtils.addFilters(filters, columns, getDataDefinition(), criteria);
-                    }
-
-                    if (multiSearchEnabled) {
-                        GridComponentFilterUtils.addMultiSearchFilter(multiSearchFilter, columns, getDataDefinition(), criteria);
-                    }
-
-                    if (Objects.nonNull(customRestriction)) {
-                        customRestriction.addRestriction(criteria);
-                    }
+                    SearchCriteriaBuilder criteria = createCriteria();
 
-                    if (activable && onlyActive) {
-                        criteria.add(SearchRestrictions.eq("active", true));
-                    }
-                    if (activable && onlyInactive) {
-                        criteria.add(SearchRestrictions.eq("active", false));
-                    }
-
-                    addOrder(criteria);
                     addPaging(criteria);
-
-                    if (Objects.nonNull(criteriaModifier)) {
-                        criteriaModifier.modifyCriteria(criteria, criteriaModifierParameter);
-                    }
+                    modifyCriteria(criteria);
 
                     SearchResult result = criteria.list();
 
@@ -972,6 +1054,7 @@ public final class GridComponentState extends AbstractComponentState implements
                     }
 
                     entities = result.getEntities();
+                    entitiesProvided = false;
                     totalEntities = result.getTotalNumberOfEntities();
                 } catch (GridComponentFilterException gcfe) {
                     addMessage("qcadooView.grid.filter.incorrectValue", MessageType.FAILURE, gcfe.getFilterValue());
@@ -983,6 +1066,93 @@ public final class GridComponentState extends AbstractComponentState implements
             }
         }
 
+        private void export(final Set<String> exportedColumns, final ExportMode mode,
+                final Consumer<Map<String, String>> rowConsumer) {
+            if (entitiesProvided) {
+                for (Entity entity : entities) {
+                    if (mode == ExportMode.ALL || getSelectedEntitiesIds().contains(entity.getId())) {
+                        rowConsumer.accept(convertEntityToMap(entity, exportedColumns));
+                    }
+                }
+
+                return;
+            }
+            if (Objects.nonNull(belongsToFieldDefinition) && Objects.isNull(belongsToEntityId)) {
+                return;
+            }
+            if (mode == ExportMode.SELECTED && getSelectedEntitiesIds().isEmpty()) {
+                return;
+            }
+
+            try {
+                SearchCriteriaBuilder criteria = createCriteria();
+
+                if (mode == ExportMode.SELECTED) {
+                    criteria.add(SearchRestrictions.in("id", getSelectedEntitiesIds()));
+                }
+
+                modifyCriteria(criteria);
+
+                try (ScrollableSearchResult result = criteria.scroll()) {
+                    while (result.hasNext()) {
+                        rowConsumer.accept(convertEntityToMap(result.next(), exportedColumns));
+                    }
+                }
+            } catch (GridComponentFilterException gcfe) {
+                addMessage("qcadooView.grid.filter.incorrectValue", MessageType.FAILURE, gcfe.getFilterValue());
+            }
+        }
+
+        private SearchCriteriaBuilder createCriteria() throws GridComponentFilterException {
+            SearchCriteriaBuilder criteria = getDataDefinition().find();
+
+            if (Objects.nonNull(belongsToFieldDefinition) && !useDto) {
+                if (belongsToFieldDefinition.getType() instanceof ManyToManyType) {
+                    String belongsToFieldName = belongsToFieldDefinition.getName();
+
+                    criteria.createAlias(belongsToFieldName, belongsToFieldName)
+                            .add(SearchRestrictions.eq(belongsToFieldName + ".id", belongsToEntityId));
+                } else {
+                    // criteria.add(SearchRestrictions.belongsTo(belongsToFieldDefinition.getName(), ((DataDefinitionHolder)
+                    // belongsToFieldDefinition.getType()).getDataDefinition(), belongsToEntityId));
+                    criteria.add(SearchRestrictions.eq(belongsToFieldDefinition.getName() + ".id", belongsToEntityId));
+                }
+            }
+            if (useDto) {
+                criteria.add(SearchRestrictions.eq(buildDtoIdFieldName(belongsToFieldDefinition.getName()),
+                        belongsToEntityId.intValue()));
+            }
+
+            if (filtersEnabled) {
+                GridComponentFilterUtils.addFilters(filters, columns, getDataDefinition(), criteria);
+            }
+
+            if (multiSearchEnabled) {
+                GridComponentFilterUtils.addMultiSearchFilter(multiSearchFilter, columns, getDataDefinition(), criteria);
+            }
+
+            if (Objects.nonNull(customRestriction)) {
+                customRestriction.addRestriction(criteria);
+            }
+
+            if (activable && onlyActive) {
+                criteria.add(SearchRestrictions.eq("active", true));
+            }
+            if (activable && onlyInactive) {
+                criteria.add(SearchRestrictions.eq("active", false));
+            }
+
+            addOrder(criteria);
+
+            return criteria;
+        }
+
+        private void modifyCriteria(final SearchCriteriaBuilder criteria) {
+            if (Objects.nonNull(criteriaModifier)) {
+                criteriaModifier.modifyCriteria(criteria, criteriaModifierParameter);
+            }
+        }
+
         private void clear() {
             entities = Lists.newArrayList();
             totalEntities = 0;
@@ -1065,6 +1235,18 @@ public final class GridComponentState extends AbstractComponentState implements
         return getColumnValues(ExportMode.SELECTED);
     }
 
+    @Override
+    public void exportColumnValuesOfAllRecords(final List<String> exportedColumns,
+            final Consumer<Map<String, String>> rowConsumer) {
+        eventPerformer.export(Sets.newHashSet(exportedColumns), ExportMode.ALL, rowConsumer);
+    }
+
+    @Override
+    public void exportColumnValuesOfSelectedRecords(final List<String> exportedColumns,
+            final Consumer<Map<String, String>> rowConsumer) {
+        eventPerformer.export(Sets.newHashSet(exportedColumns), ExportMode.SELECTED, rowConsumer);
+    }
+
     private List<Map<String, String>> getColumnValues(final ExportMode mode) {
         if (Objects.isNull(entities)) {
             eventPerformer.reload();
@@ -1078,18 +1260,18 @@ public final class GridComponentState extends AbstractComponentState implements
 
         for (Entity entity : entities) {
             if (mode == ExportMode.ALL || (mode == ExportMode.SELECTED && getSelectedEntitiesIds().contains(entity.getId()))) {
-                values.add(convertEntityToMap(entity));
+                values.add(convertEntityToMap(entity, null));
             }
         }
 
         return values;
     }
 
-    private Map<String, String> convertEntityToMap(final Entity entity) {
+    private Map<String, String> convertEntityToMap(final Entity entity, final Set<String> exportedColumns) {
         Map<String, String> values = Maps.newLinkedHashMap();
 
         for (GridComponentColumn column : pattern.filterColumnsWithAccess(columns.values())) {
-            if (column.isHidden()) {
+            if (column.isHidden() || (Objects.nonNull(exportedColumns) && !exportedColumns.contains(column.getName()))) {
                 continue;
             }
 
@@ -1188,4 +1370,18 @@ public final class GridComponentState extends AbstractComponentState implements
             filters.remove(field);
     }
 
+    @Override
+    public GridComponentFilterSQL getFilterSQL(final String table) throws GridComponentFilterException {
+        GridComponentFilterSQL filterSQL = GridComponentFilterSQLUtils.addParameterizedFilters(filters, columns, table,
+                getDataDefinition());
+        GridComponentFilterSQL multiSearchFilterSQL = GridComponentFilterSQLUtils.addParameterizedMultiSearchFilter(
+                multiSearchFilter, columns, table, getDataDefinition());
+
+        Map<String, Object> parameters = Maps.newLinkedHashMap(filterSQL.getParameters());
+        parameters.putAll(multiSearchFilterSQL.getParameters());
+
+        return new GridComponentFilterSQL("(" + filterSQL.getSql() + ") AND (" + multiSearchFilterSQL.getSql() + ")",
+                parameters);
+    }
+
 }
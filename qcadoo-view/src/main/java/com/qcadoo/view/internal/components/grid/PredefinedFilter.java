@@ -23,9 +23,6 @@
  */
 package com.qcadoo.view.internal.components.grid;
 
-import static org.springframework.context.i18n.LocaleContextHolder.getLocale;
-
-import java.text.SimpleDateFormat;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.regex.Matcher;
@@ -37,7 +34,7 @@ import org.json.JSONObject;
 
 import com.google.common.base.Function;
 import com.google.common.collect.Maps;
-import com.qcadoo.localization.api.utils.DateUtils;
+import com.qcadoo.model.api.utils.FormattingUtils;
 
 public class PredefinedFilter {
 
@@ -117,7 +114,7 @@ public class PredefinedFilter {
         } else {
             throw new IllegalStateException("unsupported predefined filter expression: '" + expression + "'");
         }
-        return new SimpleDateFormat(DateUtils.L_DATE_FORMAT, getLocale()).format(date.toDate());
+        return FormattingUtils.formatDate(date.toDate());
     }
 
     public String getOrderColumn() {
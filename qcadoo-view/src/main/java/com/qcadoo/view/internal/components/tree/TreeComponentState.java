@@ -25,6 +25,7 @@ package com.qcadoo.view.internal.components.tree;
 
 import static com.qcadoo.model.api.types.TreeType.NODE_NUMBER_FIELD;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Deque;
@@ -37,6 +38,7 @@ import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.google.common.collect.Lists;
 import com.qcadoo.model.api.Entity;
 import com.qcadoo.model.api.EntityOpResult;
@@ -51,6 +53,7 @@ import com.qcadoo.model.api.utils.TreeNumberingServiceImpl;
 import com.qcadoo.model.internal.DetachedEntityTreeImpl;
 import com.qcadoo.view.api.components.TreeComponent;
 import com.qcadoo.view.internal.components.FieldComponentState;
+import com.qcadoo.view.internal.states.JsonRenderUtils;
 
 public final class TreeComponentState extends FieldComponentState implements TreeComponent {
 
@@ -150,6 +153,31 @@ public final class TreeComponentState extends FieldComponentState implements Tre
         return json;
     }
 
+    @Override
+    protected void renderContent(final JsonGenerator generator) throws IOException, JSONException {
+        if (rootNode == null) {
+            reload();
+        }
+
+        generator.writeObjectFieldStart(JSON_CONTENT);
+        JsonRenderUtils.writeFields(generator, super.renderContent());
+        JsonRenderUtils.writeField(generator, JSON_SELECTED_ENTITY_ID, selectedEntityId);
+        JsonRenderUtils.writeField(generator, JSON_BELONGS_TO_ENTITY_ID, belongsToEntityId);
+
+        if (openedNodes != null) {
+            generator.writeArrayFieldStart(JSON_OPENED_NODES_ID);
+            for (Long openedNodeId : openedNodes) {
+                JsonRenderUtils.writeJson(generator, openedNodeId);
+            }
+            generator.writeEndArray();
+        }
+        if (rootNode != null) {
+            generator.writeFieldName(JSON_ROOT_NODE_ID);
+            rootNode.writeJson(generator);
+        }
+        generator.writeEndObject();
+    }
+
     @Override
     public void onFieldEntityIdChange(final Long fieldEntityId) {
         if (belongsToEntityId != null && !belongsToEntityId.equals(fieldEntityId)) {
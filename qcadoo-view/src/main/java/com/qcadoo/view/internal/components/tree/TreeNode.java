@@ -23,6 +23,7 @@
  */
 package com.qcadoo.view.internal.components.tree;
 
+import java.io.IOException;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -30,6 +31,9 @@ import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.qcadoo.view.internal.states.JsonRenderUtils;
+
 public final class TreeNode {
 
     private Long id;
@@ -93,6 +97,22 @@ public final class TreeNode {
         return jsonNode;
     }
 
+    public void writeJson(final JsonGenerator generator) throws IOException, JSONException {
+        generator.writeStartObject();
+        JsonRenderUtils.writeField(generator, "id", id);
+        JsonRenderUtils.writeField(generator, "label", label);
+        JsonRenderUtils.writeField(generator, "dataType", dataType.toJson());
+
+        if (children != null) {
+            generator.writeArrayFieldStart("children");
+            for (TreeNode kid : children) {
+                kid.writeJson(generator);
+            }
+            generator.writeEndArray();
+        }
+        generator.writeEndObject();
+    }
+
     @Override
     public String toString() {
         return toStringWithTabs(0);
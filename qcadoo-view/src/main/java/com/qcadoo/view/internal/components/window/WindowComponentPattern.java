@@ -169,6 +169,34 @@ public class WindowComponentPattern extends AbstractContainerPattern {
 
     }
 
+    @Override
+    public Map<String, Object> prepareView(final Locale locale) {
+        return prepareView(locale, ribbon);
+    }
+
+    /**
+     * Prepares view model of this window rendering given ribbon instead of the window's own one, which is left untouched.
+     * 
+     * @param locale
+     *            locale
+     * @param ribbonToRender
+     *            ribbon to render, usually a per-request copy of {@link #getRibbon()}
+     * @return view model
+     */
+    public Map<String, Object> prepareView(final Locale locale, final InternalRibbon ribbonToRender) {
+        Map<String, Object> model = super.prepareView(locale);
+
+        if (ribbonToRender != null) {
+            try {
+                ((JSONObject) model.get("jsOptions")).put("ribbon", RibbonUtils.translateRibbon(ribbonToRender, locale, this));
+            } catch (JSONException e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        }
+
+        return model;
+    }
+
     @Override
     protected Map<String, Object> getJspOptions(final Locale locale) {
         Map<String, Object> options = new HashMap<String, Object>();
@@ -185,9 +213,6 @@ public class WindowComponentPattern extends AbstractContainerPattern {
         json.put(HEADER, header);
         json.put("oneTab", this.getChildren().size() < 2);
         json.put("hasRibbon", hasRibbon);
-        if (ribbon != null) {
-            json.put("ribbon", RibbonUtils.translateRibbon(ribbon, locale, this));
-        }
         json.put("firstTabName", firstTabName);
         JSONObject translations = new JSONObject();
         for (String childName : getChildren().keySet()) {
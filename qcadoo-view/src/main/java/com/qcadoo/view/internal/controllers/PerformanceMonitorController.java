@@ -0,0 +1,110 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.view.internal.controllers;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import com.qcadoo.model.api.aop.PerformanceMonitor;
+import com.qcadoo.model.api.aop.PerformanceStatistics;
+import com.qcadoo.security.api.SecurityRolesService;
+import com.qcadoo.security.constants.QcadooSecurityConstants;
+
+@Controller
+public final class PerformanceMonitorController {
+
+    @Autowired
+    private PerformanceMonitor performanceMonitor;
+
+    @Autowired
+    private SecurityRolesService securityRolesService;
+
+    @RequestMapping(value = "performanceMonitor", method = RequestMethod.GET)
+    public ResponseEntity<String> getStatistics() {
+        if (!securityRolesService.canAccess(QcadooSecurityConstants.ROLE_SUPERADMIN)) {
+            return new ResponseEntity<String>(HttpStatus.FORBIDDEN);
+        }
+
+        try {
+            JSONArray statistics = new JSONArray();
+
+            for (PerformanceStatistics methodStatistics : performanceMonitor.getStatistics()) {
+                JSONObject json = new JSONObject();
+
+                json.put("method", methodStatistics.getMethod());
+                json.put("dataDefinition", methodStatistics.getDataDefinition());
+                json.put("count", methodStatistics.getCount());
+                json.put("errorCount", methodStatistics.getErrorCount());
+                json.put("mean", methodStatistics.getMean());
+                json.put("max", methodStatistics.getMax());
+                json.put("median", methodStatistics.getMedian());
+                json.put("percentile90", methodStatistics.getPercentile90());
+                json.put("percentile99", methodStatistics.getPercentile99());
+                json.put("percentile999", methodStatistics.getPercentile999());
+
+                statistics.put(json);
+            }
+
+            JSONObject responseBody = new JSONObject();
+
+            responseBody.put("slowCallThreshold", performanceMonitor.getSlowCallThreshold());
+            responseBody.put("statistics", statistics);
+
+            HttpHeaders responseHeaders = new HttpHeaders();
+            responseHeaders.add("Content-Type", "application/json; charset=utf-8");
+            responseHeaders.add("Cache-Control", "no-store, no-cache, must-revalidate, max-age=0");
+
+            return new ResponseEntity<String>(responseBody.toString(), responseHeaders, HttpStatus.OK);
+        } catch (JSONException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    @RequestMapping(value = "performanceMonitor", method = RequestMethod.POST)
+    public ResponseEntity<String> configure(@RequestParam(value = "slowCallThreshold", required = false) final Long slowCallThreshold,
+            @RequestParam(value = "reset", required = false) final boolean reset) {
+        if (!securityRolesService.canAccess(QcadooSecurityConstants.ROLE_SUPERADMIN)) {
+            return new ResponseEntity<String>(HttpStatus.FORBIDDEN);
+        }
+
+        if (slowCallThreshold != null) {
+            performanceMonitor.setSlowCallThreshold(slowCallThreshold);
+        }
+        if (reset) {
+            performanceMonitor.reset();
+        }
+
+        return getStatistics();
+    }
+
+}
@@ -39,7 +39,10 @@ import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.servlet.ModelAndView;
 
 import com.qcadoo.model.api.aop.Monitorable;
+import com.qcadoo.view.api.ViewDefinitionState;
 import com.qcadoo.view.api.crud.CrudService;
+import com.qcadoo.view.internal.RenderedViewState;
+import com.qcadoo.view.internal.api.InternalComponentState;
 
 @Controller
 public class CrudController {
@@ -72,7 +75,11 @@ public class CrudController {
     @RequestMapping(value = { CONTROLLER_PATH }, method = RequestMethod.POST)
     public Object performEvent(@PathVariable(PLUGIN_IDENTIFIER_VARIABLE) final String pluginIdentifier,
             @PathVariable(VIEW_NAME_VARIABLE) final String viewName, @RequestBody final JSONObject body, final Locale locale) {
-        return crudService.invokeEventAndRenderView(pluginIdentifier, viewName, body, locale);
+        ViewDefinitionState state = crudService.invokeEvent(pluginIdentifier, viewName, body, locale);
+
+        // rendered here, before anything is written to the response, so a failing render gives an error response instead of a
+        // truncated one
+        return RenderedViewState.render((InternalComponentState) state);
     }
 
 }
@@ -27,7 +27,9 @@ import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.qcadoo.localization.api.TranslationService;
 import com.qcadoo.model.api.DataDefinition;
+import com.qcadoo.plugin.api.PluginUtils;
 import com.qcadoo.security.api.SecurityRole;
+import com.qcadoo.tenant.api.MultiTenantUtil;
 import com.qcadoo.view.api.ViewDefinitionState;
 import com.qcadoo.view.api.ribbon.RibbonActionItem.Type;
 import com.qcadoo.view.constants.QcadooViewConstants;
@@ -44,9 +46,14 @@ import com.qcadoo.view.internal.states.AbstractComponentState;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.util.StringUtils;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public final class ViewDefinitionImpl implements InternalViewDefinition {
 
@@ -76,12 +83,14 @@ public final class ViewDefinitionImpl implements InternalViewDefinition {
 
     private boolean alreadyHasNavigation;
 
-    private boolean permanentlyDisabled;
-
     private RibbonGroupsPack ribbonNavigationGroupPack;
     
     private JSONObject jsonContext;
 
+    private boolean preparedViewsCacheEnabled;
+
+    private final ConcurrentMap<PreparedViewKey, PreparedView> preparedViews = new ConcurrentHashMap<PreparedViewKey, PreparedView>();
+
     public ViewDefinitionImpl(final String name, final String pluginIdentifier, final DataDefinition dataDefinition,
             final boolean menuAccessible, final TranslationService translationService) {
         this(name, pluginIdentifier, null, dataDefinition, menuAccessible, translationService);
@@ -136,15 +145,50 @@ public final class ViewDefinitionImpl implements InternalViewDefinition {
     public Map<String, Object> prepareView(final JSONObject jsonObject, final Locale locale) {
         viewHooksHolder.callConstructionHooks(this, jsonObject, locale);
 
+        boolean showBack = getBooleanFromJson(jsonObject, "window.showBack");
+        boolean permanentlyDisabled = getBooleanFromJson(jsonObject, "window." + AbstractComponentState.JSON_PERMANENTLY_DISABLED);
+
+        // construction hooks are free to change the view on each request, so such views cannot be reused
+        if (!preparedViewsCacheEnabled || viewHooksHolder.hasConstructionHooks()) {
+            return buildView(locale, showBack, permanentlyDisabled);
+        }
+
+        long pluginStateVersion = PluginUtils.getStateVersion();
+        PreparedViewKey key = new PreparedViewKey(locale, showBack, permanentlyDisabled, MultiTenantUtil.getCurrentTenantId(),
+                getCurrentAuthorities());
+        PreparedView preparedView = preparedViews.get(key);
+
+        if (preparedView == null || preparedView.pluginStateVersion != pluginStateVersion) {
+            preparedView = new PreparedView(buildView(locale, showBack, permanentlyDisabled), pluginStateVersion);
+            preparedViews.put(key, preparedView);
+        }
+
+        // cached model is shared by all requests, so each of them gets its own copy to modify
+        return copyModel(preparedView.model);
+    }
+
+    @Override
+    public void clearPreparedViews() {
+        preparedViews.clear();
+    }
+
+    public void setPreparedViewsCacheEnabled(final boolean preparedViewsCacheEnabled) {
+        this.preparedViewsCacheEnabled = preparedViewsCacheEnabled;
+    }
+
+    private Map<String, Object> buildView(final Locale locale, final boolean showBack, final boolean permanentlyDisabled) {
         Map<String, Object> model = Maps.newHashMap();
         Map<String, Object> childrenModels = Maps.newHashMap();
 
-        toggleAdditionalNavigationGroup(getBooleanFromJson(jsonObject, "window.showBack"));
-        permanentlyDisabled = getBooleanFromJson(jsonObject, "window." + AbstractComponentState.JSON_PERMANENTLY_DISABLED);
-        toggleRibbonPermanentlyDisabled();
+        InternalRibbon ribbon = prepareRibbon(showBack, permanentlyDisabled);
 
         for (ComponentPattern componentPattern : patterns.values()) {
-            childrenModels.put(componentPattern.getName(), componentPattern.prepareView(locale));
+            if (ribbon != null && componentPattern == patterns.get(QcadooViewConstants.L_WINDOW)) {
+                childrenModels.put(componentPattern.getName(),
+                        ((WindowComponentPattern) componentPattern).prepareView(locale, ribbon));
+            } else {
+                childrenModels.put(componentPattern.getName(), componentPattern.prepareView(locale));
+            }
         }
 
         model.put(JSON_COMPONENTS, childrenModels);
@@ -172,6 +216,89 @@ public final class ViewDefinitionImpl implements InternalViewDefinition {
         return model;
     }
 
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> copyModel(final Map<String, Object> model) {
+        return (Map<String, Object>) copyModelValue(model);
+    }
+
+    private static Object copyModelValue(final Object value) {
+        try {
+            if (value instanceof Map) {
+                Map<Object, Object> copy = Maps.newHashMap();
+
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                    copy.put(entry.getKey(), copyModelValue(entry.getValue()));
+                }
+
+                return copy;
+            } else if (value instanceof List) {
+                List<Object> copy = new ArrayList<Object>();
+
+                for (Object element : (List<?>) value) {
+                    copy.add(copyModelValue(element));
+                }
+
+                return copy;
+            } else if (value instanceof Set) {
+                Set<Object> copy = Sets.newLinkedHashSet();
+
+                for (Object element : (Set<?>) value) {
+                    copy.add(copyModelValue(element));
+                }
+
+                return copy;
+            } else if (value instanceof JSONObject) {
+                JSONObject jsonObject = (JSONObject) value;
+                JSONObject copy = new JSONObject();
+
+                for (Iterator<?> keys = jsonObject.keys(); keys.hasNext();) {
+                    String key = (String) keys.next();
+                    copy.put(key, copyModelValue(jsonObject.get(key)));
+                }
+
+                return copy;
+            } else if (value instanceof JSONArray) {
+                JSONArray jsonArray = (JSONArray) value;
+                JSONArray copy = new JSONArray();
+
+                for (int i = 0; i < jsonArray.length(); i++) {
+                    copy.put(copyModelValue(jsonArray.get(i)));
+                }
+
+                return copy;
+            }
+        } catch (JSONException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+
+        return value;
+    }
+
+    private Set<String> getCurrentAuthorities() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        if (authentication == null) {
+            return Collections.emptySet();
+        }
+
+        Set<String> authorities = Sets.newHashSet();
+
+        for (GrantedAuthority grantedAuthority : authentication.getAuthorities()) {
+            authorities.add(grantedAuthority.getAuthority());
+        }
+
+        return authorities;
+    }
+
+    private boolean isPermanentlyDisabled(final JSONObject jsonObject) throws JSONException {
+        // context of the opened view is sent back by the window with each event
+        JSONObject componentsJson = jsonObject.optJSONObject(JSON_COMPONENTS);
+        JSONObject windowJson = componentsJson == null ? null : componentsJson.optJSONObject(QcadooViewConstants.L_WINDOW);
+        JSONObject contextJson = windowJson == null ? null : windowJson.optJSONObject(AbstractComponentState.JSON_CONTEXT);
+
+        return contextJson != null && getBooleanFromJson(contextJson, AbstractComponentState.JSON_PERMANENTLY_DISABLED);
+    }
+
     private boolean getBooleanFromJson(final JSONObject jsonObject, final String fieldName) {
         try {
             return jsonObject.has(fieldName) && !jsonObject.isNull(fieldName) && jsonObject.getBoolean(fieldName);
@@ -208,25 +335,17 @@ public final class ViewDefinitionImpl implements InternalViewDefinition {
     }
 
     // TODO MAKU move additional navigation to template
-    private void toggleAdditionalNavigationGroup(final boolean showBack) {
+    private InternalRibbon prepareRibbon(final boolean showBack, final boolean permanentlyDisabled) {
         InternalRibbon ribbon = getRibbon();
-        if (ribbon == null || alreadyHasNavigation) {
-            return;
-        }
-        if (!showBack) {
-            ribbon.removeGroupsPack(ribbonNavigationGroupPack);
-            return;
-        }
-        if (ribbon.getGroupByName("navigation") == null) {
-            ribbon.addGroupPackAsFirst(ribbonNavigationGroupPack);
+        if (ribbon == null) {
+            return null;
         }
-    }
-
-    private void toggleRibbonPermanentlyDisabled() {
-        InternalRibbon ribbon = getRibbon();
-        if (ribbon != null) {
-            ribbon.setPermanentlyDisabled(permanentlyDisabled);
+        InternalRibbon ribbonCopy = ribbon.getCopy();
+        if (showBack && !alreadyHasNavigation) {
+            ribbonCopy.addGroupPackAsFirst(ribbonNavigationGroupPack.getCopy());
         }
+        ribbonCopy.setPermanentlyDisabled(permanentlyDisabled);
+        return ribbonCopy;
     }
 
     @Override
@@ -250,7 +369,7 @@ public final class ViewDefinitionImpl implements InternalViewDefinition {
 
         viewHooksHolder.callLifecycleHooks(HookType.BEFORE_INITIALIZE, viewDefinitionState);
 
-        if (permanentlyDisabled) {
+        if (isPermanentlyDisabled(jsonObject)) {
             jsonObject.put(AbstractComponentState.JSON_PERMANENTLY_DISABLED, true);
         }
         viewDefinitionState.initialize(jsonObject, locale);
@@ -413,4 +532,58 @@ public final class ViewDefinitionImpl implements InternalViewDefinition {
     public void setJsonContext(JSONObject jsonContext) {
         this.jsonContext = jsonContext;
     }
+    private static final class PreparedViewKey {
+
+        private final Locale locale;
+
+        private final boolean showBack;
+
+        private final boolean permanentlyDisabled;
+
+        private final int tenantId;
+
+        private final Set<String> authorities;
+
+        private PreparedViewKey(final Locale locale, final boolean showBack, final boolean permanentlyDisabled,
+                final int tenantId, final Set<String> authorities) {
+            this.locale = locale;
+            this.showBack = showBack;
+            this.permanentlyDisabled = permanentlyDisabled;
+            this.tenantId = tenantId;
+            this.authorities = authorities;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(locale, showBack, permanentlyDisabled, tenantId, authorities);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof PreparedViewKey)) {
+                return false;
+            }
+            PreparedViewKey other = (PreparedViewKey) obj;
+            return showBack == other.showBack && permanentlyDisabled == other.permanentlyDisabled && tenantId == other.tenantId
+                    && Objects.equals(locale, other.locale) && authorities.equals(other.authorities);
+        }
+
+    }
+
+    private static final class PreparedView {
+
+        private final Map<String, Object> model;
+
+        private final long pluginStateVersion;
+
+        private PreparedView(final Map<String, Object> model, final long pluginStateVersion) {
+            this.model = model;
+            this.pluginStateVersion = pluginStateVersion;
+        }
+
+    }
+
 }
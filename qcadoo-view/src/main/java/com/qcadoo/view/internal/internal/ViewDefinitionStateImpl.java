@@ -23,15 +23,18 @@
  */
 package com.qcadoo.view.internal.internal;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.google.common.base.Optional;
 import com.qcadoo.view.api.ComponentState;
 import com.qcadoo.view.internal.api.ContainerState;
 import com.qcadoo.view.internal.api.InternalComponentState;
 import com.qcadoo.view.internal.api.InternalViewDefinitionState;
 import com.qcadoo.view.internal.states.AbstractContainerState;
+import com.qcadoo.view.internal.states.JsonRenderUtils;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.IOException;
 import java.util.*;
 
 public final class ViewDefinitionStateImpl extends AbstractContainerState implements InternalViewDefinitionState {
@@ -83,6 +86,23 @@ public final class ViewDefinitionStateImpl extends AbstractContainerState implem
         return json;
     }
 
+    @Override
+    public void render(final JsonGenerator generator) throws IOException, JSONException {
+        if (redirectToUrl == null) {
+            super.render(generator);
+            return;
+        }
+
+        generator.writeStartObject();
+        generator.writeObjectFieldStart("redirect");
+        JsonRenderUtils.writeField(generator, "url", redirectToUrl);
+        generator.writeBooleanField("openInNewWindow", openInNewWindow);
+        generator.writeBooleanField("openInModalWindow", openInModalWindow);
+        generator.writeBooleanField("shouldSerializeWindow", shouldSerializeWindow);
+        generator.writeEndObject();
+        generator.writeEndObject();
+    }
+
     @Override
     protected JSONObject renderContent() throws JSONException {
         JSONObject json = new JSONObject();
@@ -92,6 +92,10 @@ public class ViewHooksHolder {
         }
     }
 
+    public boolean hasConstructionHooks() {
+        return !constructionHooks.isEmpty();
+    }
+
     public void callConstructionHooks(final ViewDefinition viewDefinition, final JSONObject jsonObject, final Locale locale) {
         for (ViewConstructionHook constructionHook : constructionHooks) {
             constructionHook.callWithJSONObject(viewDefinition, jsonObject, locale);
@@ -66,6 +66,8 @@ public abstract class AbstractComponentPattern implements ComponentPattern {
 
     protected static final String JS_OBJECT = "AbstractJavascriptObject";
 
+    private static final Pattern TRANSLATE_EXPRESSION_PATTERN = Pattern.compile("#\\{translate\\(.*?\\)\\}");
+
     private final String name;
 
     private final String uuid;
@@ -279,8 +281,7 @@ public abstract class AbstractComponentPattern implements ComponentPattern {
     }
 
     public String prepareScript(final String scriptBody, final Locale locale) {
-        Pattern p = Pattern.compile("#\\{translate\\(.*?\\)\\}");
-        Matcher m = p.matcher(scriptBody);
+        Matcher m = TRANSLATE_EXPRESSION_PATTERN.matcher(scriptBody);
         int lastEnd = 0;
         StringBuilder result = new StringBuilder();
         while (m.find()) {
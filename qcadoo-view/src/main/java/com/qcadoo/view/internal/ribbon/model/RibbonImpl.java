@@ -108,6 +108,7 @@ public class RibbonImpl implements InternalRibbon {
     public InternalRibbon getCopy() {
         InternalRibbon copy = new RibbonImpl();
         copy.setName(name);
+        copy.setAlignment(alignment);
         for (RibbonGroupsPack groupPack : groupPacks) {
             copy.addGroupsPack(groupPack.getCopy());
         }
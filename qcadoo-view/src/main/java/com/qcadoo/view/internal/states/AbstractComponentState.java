@@ -40,6 +40,9 @@ import com.qcadoo.view.internal.internal.MessageHolder;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -311,8 +314,53 @@ public abstract class AbstractComponentState implements InternalComponentState,
         return json;
     }
 
+    @Override
+    public void render(final JsonGenerator generator) throws IOException, JSONException {
+        if (JsonRenderUtils.usesTreeRendering(getClass(), "render", "render", "renderFields")) {
+            JsonRenderUtils.writeJson(generator, render());
+            return;
+        }
+
+        generator.writeStartObject();
+        renderFields(generator);
+        generator.writeEndObject();
+    }
+
+    /**
+     * Writes fields of this component state, streaming counterpart of {@link #render()}.
+     */
+    protected void renderFields(final JsonGenerator generator) throws IOException, JSONException {
+        generator.writeBooleanField(JSON_ENABLED, isEnabled());
+        generator.writeBooleanField(JSON_PERMANENTLY_DISABLED, permanentlyDisabled);
+        generator.writeBooleanField(JSON_VISIBLE, isVisible());
+
+        if (requestRender) {
+            if (JsonRenderUtils.usesTreeRendering(getClass(), "renderContent", "renderContent")) {
+                JsonRenderUtils.writeField(generator, JSON_CONTENT, renderContent());
+            } else {
+                renderContent(generator);
+            }
+
+            generator.writeBooleanField(JSON_UPDATE_STATE, requestUpdateState);
+        } else {
+            generator.writeBooleanField(JSON_UPDATE_STATE, false);
+        }
+
+        if (messageHolder != null) {
+            JsonRenderUtils.writeField(generator, JSON_MESSAGES, messageHolder.renderMessages());
+        }
+    }
+
     protected abstract JSONObject renderContent() throws JSONException;
 
+    /**
+     * Writes content field of this component state, streaming counterpart of {@link #renderContent()}. By default writes
+     * result of {@link #renderContent()}, override it to avoid building whole content in memory.
+     */
+    protected void renderContent(final JsonGenerator generator) throws IOException, JSONException {
+        JsonRenderUtils.writeField(generator, JSON_CONTENT, renderContent());
+    }
+
     protected final void notifyEntityIdChangeListeners(final Long entityId) {
         listenerHolder.notifyEntityIdChangeListeners(entityId);
     }
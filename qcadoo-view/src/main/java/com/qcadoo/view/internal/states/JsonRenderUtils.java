@@ -0,0 +1,191 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.view.internal.states;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONString;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Helpers for streaming component states with {@link JsonGenerator}, writing values the same way {@link JSONObject} does.
+ */
+public final class JsonRenderUtils {
+
+    private static final ConcurrentMap<List<Object>, Boolean> TREE_RENDERING = new ConcurrentHashMap<>();
+
+    private JsonRenderUtils() {
+    }
+
+    /**
+     * Writes field with given value, skips it when value is null - like {@link JSONObject#put(String, Object)}.
+     */
+    public static void writeField(final JsonGenerator generator, final String name, final Object value) throws IOException,
+            JSONException {
+        if (value != null) {
+            generator.writeFieldName(name);
+            writeJson(generator, value);
+        }
+    }
+
+    /**
+     * Writes all fields of given object into currently written object.
+     */
+    public static void writeFields(final JsonGenerator generator, final JSONObject json) throws IOException, JSONException {
+        Iterator<?> keys = json.keys();
+
+        while (keys.hasNext()) {
+            String key = keys.next().toString();
+
+            generator.writeFieldName(key);
+            writeJson(generator, json.opt(key));
+        }
+    }
+
+    /**
+     * Writes value, which can be org.json tree, map, collection, array or simple value.
+     */
+    public static void writeJson(final JsonGenerator generator, final Object value) throws IOException, JSONException {
+        if (value == null || JSONObject.NULL.equals(value)) {
+            generator.writeNull();
+        } else if (value instanceof String) {
+            generator.writeString((String) value);
+        } else if (value instanceof Boolean) {
+            generator.writeBoolean((Boolean) value);
+        } else if (value instanceof Number) {
+            generator.writeNumber(JSONObject.numberToString((Number) value));
+        } else if (value instanceof JSONObject) {
+            generator.writeStartObject();
+            writeFields(generator, (JSONObject) value);
+            generator.writeEndObject();
+        } else if (value instanceof JSONArray) {
+            JSONArray array = (JSONArray) value;
+
+            generator.writeStartArray();
+
+            for (int i = 0; i < array.length(); i++) {
+                writeJson(generator, array.opt(i));
+            }
+
+            generator.writeEndArray();
+        } else if (value instanceof JSONString) {
+            generator.writeRawValue(((JSONString) value).toJSONString());
+        } else if (value instanceof Map) {
+            generator.writeStartObject();
+
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                writeField(generator, String.valueOf(entry.getKey()), entry.getValue());
+            }
+
+            generator.writeEndObject();
+        } else if (value instanceof Collection) {
+            generator.writeStartArray();
+
+            for (Object element : (Collection<?>) value) {
+                writeJson(generator, element);
+            }
+
+            generator.writeEndArray();
+        } else if (value.getClass().isArray()) {
+            generator.writeStartArray();
+
+            for (int i = 0; i < Array.getLength(value); i++) {
+                writeJson(generator, Array.get(value, i));
+            }
+
+            generator.writeEndArray();
+        } else {
+            String json = new JSONArray().put(value).toString();
+
+            generator.writeRawValue(json.substring(1, json.length() - 1));
+        }
+    }
+
+    /**
+     * Checks if given state class renders with org.json tree method, i.e. overrides it below the closest streaming
+     * counterpart. Such states have to be streamed by converting result of the tree method.
+     * 
+     * @param stateClass
+     *            state class
+     * @param treeMethod
+     *            name of method without arguments returning org.json tree
+     * @param streamingMethods
+     *            names of methods taking {@link JsonGenerator} doing the same
+     * @return true if tree method has to be used
+     */
+    public static boolean usesTreeRendering(final Class<?> stateClass, final String treeMethod, final String... streamingMethods) {
+        List<Object> cacheKey = Arrays.<Object> asList(stateClass, treeMethod);
+
+        Boolean usesTreeRendering = TREE_RENDERING.get(cacheKey);
+
+        if (usesTreeRendering == null) {
+            usesTreeRendering = findTreeRendering(stateClass, treeMethod, streamingMethods);
+
+            TREE_RENDERING.put(cacheKey, usesTreeRendering);
+        }
+
+        return usesTreeRendering;
+    }
+
+    private static boolean findTreeRendering(final Class<?> stateClass, final String treeMethod,
+            final String... streamingMethods) {
+        for (Class<?> clazz = stateClass; clazz != null; clazz = clazz.getSuperclass()) {
+            boolean declaresTreeMethod = false;
+
+            for (Method method : clazz.getDeclaredMethods()) {
+                Class<?>[] parameterTypes = method.getParameterTypes();
+
+                if (parameterTypes.length == 1 && JsonGenerator.class.equals(parameterTypes[0])) {
+                    for (String streamingMethod : streamingMethods) {
+                        if (streamingMethod.equals(method.getName())) {
+                            return false;
+                        }
+                    }
+                } else if (parameterTypes.length == 0 && treeMethod.equals(method.getName())) {
+                    declaresTreeMethod = true;
+                }
+            }
+
+            if (declaresTreeMethod) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+}
@@ -25,6 +25,7 @@ package com.qcadoo.view.internal.xml;
 
 import com.google.common.base.Preconditions;
 import com.qcadoo.localization.api.TranslationService;
+import com.qcadoo.localization.internal.ConfigUtil;
 import com.qcadoo.model.api.DataDefinition;
 import com.qcadoo.model.api.DataDefinitionService;
 import com.qcadoo.security.api.SecurityRole;
@@ -45,6 +46,7 @@ import org.apache.commons.lang3.ObjectUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationContext;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
@@ -96,6 +98,12 @@ public final class ViewDefinitionParserImpl implements ViewDefinitionParser {
     @Autowired
     private RibbonParserService ribbonService;
 
+    @Autowired
+    private ConfigUtil configUtil;
+
+    @Value("${cachePreparedViews:true}")
+    private boolean cachePreparedViews;
+
     private int currentIndexOrder;
 
     @Override
@@ -160,6 +168,7 @@ public final class ViewDefinitionParserImpl implements ViewDefinitionParser {
                 translationService);
 
         viewDefinition.setWindowDimmension(windowWidth, windowHeight);
+        viewDefinition.setPreparedViewsCacheEnabled(cachePreparedViews && !configUtil.isHotDeploy());
 
         ComponentPattern root = null;
 
@@ -0,0 +1,173 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.view.api.components.grid;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.google.common.collect.ImmutableMap;
+import com.qcadoo.model.api.DataDefinition;
+import com.qcadoo.model.api.FieldDefinition;
+import com.qcadoo.model.api.types.FieldType;
+import com.qcadoo.view.internal.components.grid.GridComponentColumn;
+import com.qcadoo.view.internal.components.grid.GridComponentFilterException;
+
+public class GridComponentFilterSQLUtilsTest {
+
+    private static final String TEST_TABLE = "testTable";
+
+    private static final String TEST_COL = "testCol";
+
+    private static final String TEST_FIELD = "testField";
+
+    @Mock
+    private DataDefinition dataDefinition;
+
+    @Before
+    public final void init() {
+        MockitoAnnotations.initMocks(this);
+    }
+
+    @Test
+    public final void shouldInlineStringFilterValue() throws GridComponentFilterException {
+        // given
+        Map<String, GridComponentColumn> columns = mockColumns(String.class);
+
+        // when
+        String sql = GridComponentFilterSQLUtils.addFilters(ImmutableMap.of(TEST_COL, "abc"), columns, TEST_TABLE, dataDefinition);
+
+        // then
+        assertEquals(" 1=1 AND testTable.testField ilike '%abc%' ", sql);
+    }
+
+    @Test
+    public final void shouldBindStringFilterValue() throws GridComponentFilterException {
+        // given
+        Map<String, GridComponentColumn> columns = mockColumns(String.class);
+
+        // when
+        GridComponentFilterSQL filterSQL = GridComponentFilterSQLUtils.addParameterizedFilters(ImmutableMap.of(TEST_COL, "abc"),
+                columns, TEST_TABLE, dataDefinition);
+
+        // then
+        assertEquals(" 1=1 AND testTable.testField ilike :gridFilter_0 ", filterSQL.getSql());
+        assertEquals(ImmutableMap.of("gridFilter_0", "%abc%"), filterSQL.getParameters());
+    }
+
+    @Test
+    public final void shouldGiveSameSqlForStringFiltersDifferingOnlyInValue() throws GridComponentFilterException {
+        // given
+        Map<String, GridComponentColumn> columns = mockColumns(String.class);
+
+        // when
+        GridComponentFilterSQL first = GridComponentFilterSQLUtils.addParameterizedFilters(ImmutableMap.of(TEST_COL, "abc"),
+                columns, TEST_TABLE, dataDefinition);
+        GridComponentFilterSQL second = GridComponentFilterSQLUtils.addParameterizedFilters(
+                ImmutableMap.of(TEST_COL, "x' or 1=1 --"), columns, TEST_TABLE, dataDefinition);
+
+        // then
+        assertEquals(first.getSql(), second.getSql());
+        assertFalse(first.getParameters().equals(second.getParameters()));
+        assertFalse(second.getSql().contains("1=1 --"));
+    }
+
+    @Test
+    public final void shouldGiveSameSqlForDecimalFiltersDifferingOnlyInValue() throws GridComponentFilterException {
+        // given
+        Map<String, GridComponentColumn> columns = mockColumns(BigDecimal.class);
+
+        // when
+        GridComponentFilterSQL first = GridComponentFilterSQLUtils.addParameterizedFilters(ImmutableMap.of(TEST_COL, ">=3.14"),
+                columns, TEST_TABLE, dataDefinition);
+        GridComponentFilterSQL second = GridComponentFilterSQLUtils.addParameterizedFilters(ImmutableMap.of(TEST_COL, ">=42"),
+                columns, TEST_TABLE, dataDefinition);
+
+        // then
+        assertEquals(" 1=1 AND testTable.testField >= :gridFilter_0 ", first.getSql());
+        assertEquals(first.getSql(), second.getSql());
+        assertEquals(new BigDecimal("3.14"), first.getParameters().get("gridFilter_0"));
+        assertEquals(new BigDecimal("42"), second.getParameters().get("gridFilter_0"));
+    }
+
+    @Test
+    public final void shouldGiveSameSqlForMultiSearchFiltersDifferingOnlyInValue() throws GridComponentFilterException {
+        // given
+        Map<String, GridComponentColumn> columns = mockColumns(Integer.class);
+
+        GridComponentMultiSearchFilter firstFilter = new GridComponentMultiSearchFilter();
+        firstFilter.setGroupOperator("AND");
+        firstFilter.addRule(TEST_COL, "gt", "3");
+        firstFilter.addRule(TEST_COL, "lt", "10");
+
+        GridComponentMultiSearchFilter secondFilter = new GridComponentMultiSearchFilter();
+        secondFilter.setGroupOperator("AND");
+        secondFilter.addRule(TEST_COL, "lt", "20");
+        secondFilter.addRule(TEST_COL, "gt", "5");
+
+        // when
+        GridComponentFilterSQL first = GridComponentFilterSQLUtils.addParameterizedMultiSearchFilter(firstFilter, columns,
+                TEST_TABLE, dataDefinition);
+        GridComponentFilterSQL second = GridComponentFilterSQLUtils.addParameterizedMultiSearchFilter(secondFilter, columns,
+                TEST_TABLE, dataDefinition);
+
+        // then
+        assertEquals(first.getSql(), second.getSql());
+        assertTrue(first.getSql().contains(":gridMultiSearchFilter_0"));
+        assertTrue(first.getSql().contains(":gridMultiSearchFilter_1"));
+        assertFalse(first.getParameters().equals(second.getParameters()));
+    }
+
+    private Map<String, GridComponentColumn> mockColumns(@SuppressWarnings("rawtypes") final Class typeClass) {
+        final GridComponentColumn gridComponentColumn = new GridComponentColumn(TEST_COL);
+        gridComponentColumn.addField(mockFieldDefinition(TEST_FIELD, typeClass));
+
+        return ImmutableMap.of(TEST_COL, gridComponentColumn);
+    }
+
+    @SuppressWarnings("unchecked")
+    private FieldDefinition mockFieldDefinition(final String fieldName, @SuppressWarnings("rawtypes") final Class typeClass) {
+        final FieldDefinition fieldDefinition = mock(FieldDefinition.class);
+        given(fieldDefinition.getName()).willReturn(fieldName);
+
+        final FieldType fieldType = mock(FieldType.class);
+        given(fieldType.getType()).willReturn(typeClass);
+        given(fieldDefinition.getType()).willReturn(fieldType);
+
+        given(dataDefinition.getField(fieldName)).willReturn(fieldDefinition);
+
+        return fieldDefinition;
+    }
+
+}
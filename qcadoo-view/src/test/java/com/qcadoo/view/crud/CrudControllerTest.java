@@ -25,24 +25,34 @@ package com.qcadoo.view.crud;
 
 import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.fail;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 
+import java.io.ByteArrayOutputStream;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 
+import org.json.JSONException;
 import org.json.JSONObject;
 import org.junit.Test;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.servlet.ModelAndView;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.qcadoo.view.api.crud.CrudService;
+import com.qcadoo.view.internal.RenderedViewState;
 import com.qcadoo.view.internal.api.InternalComponentState;
 import com.qcadoo.view.internal.api.InternalViewDefinition;
 import com.qcadoo.view.internal.api.InternalViewDefinitionState;
 import com.qcadoo.view.internal.api.ViewDefinitionService;
+import com.qcadoo.view.internal.crud.CrudController;
 import com.qcadoo.view.internal.crud.CrudServiceImpl;
 
 public class CrudControllerTest {
@@ -128,4 +138,82 @@ public class CrudControllerTest {
         // then
         assertEquals(jsonResult, result);
     }
+
+    @Test
+    public void shouldRenderViewStateBeforeReturningIt() throws Exception {
+        // given
+        InternalViewDefinitionState state = mock(InternalViewDefinitionState.class,
+                Mockito.withSettings().extraInterfaces(InternalComponentState.class));
+        doAnswer(new Answer<Void>() {
+
+            @Override
+            public Void answer(final InvocationOnMock invocation) throws Throwable {
+                JsonGenerator generator = (JsonGenerator) invocation.getArguments()[0];
+                generator.writeStartObject();
+                generator.writeStringField("test", "testVal2");
+                generator.writeEndObject();
+                return null;
+            }
+        }).when((InternalComponentState) state).render(any(JsonGenerator.class));
+
+        JSONObject jsonBody = new JSONObject();
+        CrudController crudController = createCrudController(jsonBody, state);
+
+        // when
+        Object result = crudController.performEvent("testPlugin", "testView", jsonBody, Locale.ENGLISH);
+
+        // then
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+        ((RenderedViewState) result).writeTo(response);
+
+        assertEquals("{\"test\":\"testVal2\"}", response.toString("UTF-8"));
+        assertEquals(response.size(), ((RenderedViewState) result).getLength());
+    }
+
+    @Test
+    public void shouldFailBeforeWritingResponseIfRenderingFails() throws Exception {
+        // given
+        InternalViewDefinitionState state = mock(InternalViewDefinitionState.class,
+                Mockito.withSettings().extraInterfaces(InternalComponentState.class));
+        doAnswer(new Answer<Void>() {
+
+            @Override
+            public Void answer(final InvocationOnMock invocation) throws Throwable {
+                JsonGenerator generator = (JsonGenerator) invocation.getArguments()[0];
+                generator.writeStartObject();
+                generator.writeStringField("test", "testVal2");
+                throw new JSONException("broken component");
+            }
+        }).when((InternalComponentState) state).render(any(JsonGenerator.class));
+
+        JSONObject jsonBody = new JSONObject();
+        CrudController crudController = createCrudController(jsonBody, state);
+
+        // when
+        try {
+            crudController.performEvent("testPlugin", "testView", jsonBody, Locale.ENGLISH);
+            fail();
+        } catch (IllegalStateException e) {
+            // then
+            assertEquals("broken component", e.getMessage());
+        }
+    }
+
+    private CrudController createCrudController(final JSONObject jsonBody, final InternalViewDefinitionState state)
+            throws JSONException {
+        InternalViewDefinition viewDefinition = mock(InternalViewDefinition.class);
+        given(viewDefinition.performEvent(jsonBody, Locale.ENGLISH)).willReturn(state);
+
+        ViewDefinitionService viewDefinitionService = mock(ViewDefinitionService.class);
+        given(viewDefinitionService.get("testPlugin", "testView")).willReturn(viewDefinition);
+
+        CrudService crud = new CrudServiceImpl();
+        ReflectionTestUtils.setField(crud, "viewDefinitionService", viewDefinitionService);
+
+        CrudController crudController = new CrudController();
+        ReflectionTestUtils.setField(crudController, "crudService", crud);
+
+        return crudController;
+    }
+
 }
@@ -0,0 +1,232 @@
+/**
+ * ***************************************************************************
+ * Copyright (c) 2010 Qcadoo Limited
+ * Project: Qcadoo Framework
+ * Version: 1.4
+ *
+ * This file is part of Qcadoo.
+ *
+ * Qcadoo is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ * ***************************************************************************
+ */
+package com.qcadoo.view.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Locale;
+import java.util.Map;
+
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.google.common.collect.Maps;
+import com.qcadoo.localization.api.TranslationService;
+import com.qcadoo.model.api.DataDefinition;
+import com.qcadoo.tenant.api.MultiTenantUtil;
+import com.qcadoo.view.internal.api.ComponentPattern;
+import com.qcadoo.view.internal.components.window.WindowComponentPattern;
+import com.qcadoo.view.internal.hooks.ViewConstructionHook;
+import com.qcadoo.view.internal.internal.ViewDefinitionImpl;
+import com.qcadoo.view.internal.ribbon.model.InternalRibbon;
+import com.qcadoo.view.internal.ribbon.model.InternalRibbonActionItem;
+import com.qcadoo.view.internal.ribbon.model.InternalRibbonGroup;
+import com.qcadoo.view.internal.ribbon.model.RibbonActionItemImpl;
+import com.qcadoo.view.internal.ribbon.model.RibbonGroupImpl;
+import com.qcadoo.view.internal.ribbon.model.RibbonImpl;
+import com.qcadoo.view.internal.ribbon.model.SingleRibbonGroupPack;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest(MultiTenantUtil.class)
+public class ViewDefinitionPrepareViewTest {
+
+    private ViewDefinitionImpl viewDefinition;
+
+    private ComponentPattern pattern;
+
+    @Before
+    public void init() {
+        PowerMockito.mockStatic(MultiTenantUtil.class);
+        given(MultiTenantUtil.getCurrentTenantId()).willReturn(0);
+
+        viewDefinition = new ViewDefinitionImpl("name", "plugin", mock(DataDefinition.class), true,
+                mock(TranslationService.class));
+        viewDefinition.setPreparedViewsCacheEnabled(true);
+
+        pattern = mock(ComponentPattern.class);
+        given(pattern.getName()).willReturn("pattern");
+        given(pattern.initialize()).willReturn(true);
+        viewDefinition.addComponentPattern(pattern);
+    }
+
+    @Test
+    public void shouldReusePreparedView() throws Exception {
+        // when
+        Map<String, Object> firstModel = viewDefinition.prepareView(new JSONObject(), Locale.ENGLISH);
+        Map<String, Object> secondModel = viewDefinition.prepareView(new JSONObject(), Locale.ENGLISH);
+
+        // then
+        assertEquals(firstModel.get("components"), secondModel.get("components"));
+        verify(pattern, times(1)).prepareView(Locale.ENGLISH);
+    }
+
+    @Test
+    public void shouldReturnCopyOfPreparedView() throws Exception {
+        // given
+        JSONObject patternOptions = new JSONObject();
+        patternOptions.put("defaultEnabled", true);
+
+        Map<String, Object> patternModel = Maps.newHashMap();
+        patternModel.put("jsOptions", patternOptions);
+
+        given(pattern.prepareView(Locale.ENGLISH)).willReturn(patternModel);
+
+        Map<String, Object> firstModel = viewDefinition.prepareView(new JSONObject(), Locale.ENGLISH);
+
+        // when
+        getPatternOptions(firstModel).put("defaultEnabled", false);
+        firstModel.put("hasDataDefinition", false);
+
+        Map<String, Object> secondModel = viewDefinition.prepareView(new JSONObject(), Locale.ENGLISH);
+
+        // then
+        assertNotSame(firstModel, secondModel);
+        assertTrue(getPatternOptions(secondModel).getBoolean("defaultEnabled"));
+        assertEquals(true, secondModel.get("hasDataDefinition"));
+        verify(pattern, times(1)).prepareView(Locale.ENGLISH);
+    }
+
+    @Test
+    public void shouldPrepareViewSeparatelyForEachLocaleAndOptions() throws Exception {
+        // given
+        JSONObject showBackJson = new JSONObject();
+        showBackJson.put("window.showBack", true);
+
+        // when
+        viewDefinition.prepareView(new JSONObject(), Locale.ENGLISH);
+        viewDefinition.prepareView(new JSONObject(), Locale.GERMAN);
+        viewDefinition.prepareView(showBackJson, Locale.ENGLISH);
+
+        // then
+        verify(pattern, times(2)).prepareView(Locale.ENGLISH);
+        verify(pattern, times(1)).prepareView(Locale.GERMAN);
+    }
+
+    @Test
+    public void shouldPrepareViewAgainAfterClear() throws Exception {
+        // given
+        viewDefinition.prepareView(new JSONObject(), Locale.ENGLISH);
+
+        // when
+        viewDefinition.clearPreparedViews();
+        viewDefinition.prepareView(new JSONObject(), Locale.ENGLISH);
+
+        // then
+        verify(pattern, times(2)).prepareView(Locale.ENGLISH);
+    }
+
+    @Test
+    public void shouldNotReuseViewWithConstructionHooks() throws Exception {
+        // given
+        viewDefinition.addHook(mock(ViewConstructionHook.class));
+
+        // when
+        viewDefinition.prepareView(new JSONObject(), Locale.ENGLISH);
+        viewDefinition.prepareView(new JSONObject(), Locale.ENGLISH);
+
+        // then
+        verify(pattern, times(2)).prepareView(Locale.ENGLISH);
+    }
+
+    @Test
+    public void shouldNotReuseViewIfCacheIsDisabled() throws Exception {
+        // given
+        viewDefinition.setPreparedViewsCacheEnabled(false);
+
+        // when
+        viewDefinition.prepareView(new JSONObject(), Locale.ENGLISH);
+        viewDefinition.prepareView(new JSONObject(), Locale.ENGLISH);
+
+        // then
+        verify(pattern, times(2)).prepareView(Locale.ENGLISH);
+    }
+
+    @Test
+    public void shouldRenderCopyOfWindowRibbon() throws Exception {
+        // given
+        InternalRibbonActionItem saveItem = new RibbonActionItemImpl();
+        saveItem.setName("save");
+        saveItem.setEnabled(true);
+
+        InternalRibbonGroup actionsGroup = new RibbonGroupImpl("actions");
+        actionsGroup.addItem(saveItem);
+
+        InternalRibbon ribbon = new RibbonImpl();
+        ribbon.addGroupsPack(new SingleRibbonGroupPack(actionsGroup));
+
+        WindowComponentPattern window = mock(WindowComponentPattern.class);
+        ReflectionTestUtils.setField(window, "name", "window");
+        given(window.initialize()).willReturn(true);
+        given(window.getRibbon()).willReturn(ribbon);
+        ReflectionTestUtils.setField(window, "children", Maps.newLinkedHashMap());
+
+        ViewDefinitionImpl windowViewDefinition = new ViewDefinitionImpl("name", "plugin", mock(DataDefinition.class), true,
+                mock(TranslationService.class));
+        windowViewDefinition.addComponentPattern(window);
+        windowViewDefinition.initialize();
+
+        JSONObject json = new JSONObject();
+        json.put("window.showBack", true);
+        json.put("window.permanentlyDisabled", true);
+
+        // when
+        windowViewDefinition.prepareView(json, Locale.ENGLISH);
+
+        // then
+        ArgumentCaptor<InternalRibbon> renderedRibbon = ArgumentCaptor.forClass(InternalRibbon.class);
+        verify(window).prepareView(eq(Locale.ENGLISH), renderedRibbon.capture());
+
+        assertNotNull(renderedRibbon.getValue().getGroupByName("navigation"));
+        assertFalse(renderedRibbon.getValue().getGroupByName("actions").getItemByName("save").isEnabled());
+
+        assertNull(ribbon.getGroupByName("navigation"));
+        assertTrue(saveItem.isEnabled());
+        assertEquals(1, ribbon.getGroups().size());
+    }
+
+    @SuppressWarnings("unchecked")
+    private JSONObject getPatternOptions(final Map<String, Object> model) {
+        Map<String, Object> childrenModels = (Map<String, Object>) model.get("components");
+
+        return (JSONObject) ((Map<String, Object>) childrenModels.get("pattern")).get("jsOptions");
+    }
+
+}
@@ -26,6 +26,7 @@ package com.qcadoo.view.internal;
 import static com.google.common.collect.ImmutableMap.of;
 import static com.google.common.collect.Lists.newArrayList;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.BDDMockito.given;
@@ -43,6 +44,7 @@ import org.junit.Assert;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import com.qcadoo.localization.api.TranslationService;
 import com.qcadoo.model.api.DataDefinition;
 import com.qcadoo.view.api.ViewDefinitionState;
 import com.qcadoo.view.internal.api.ComponentPattern;
@@ -198,6 +200,49 @@ public class ViewDefinitionTest extends AbstractPatternTest {
                 .get("asd"));
     }
 
+    @Test
+    public void shouldNotDisableEventStateAfterPreparingDisabledView() throws Exception {
+        // given
+        ViewDefinitionImpl viewDefinition = new ViewDefinitionImpl("name", "plugin", mock(DataDefinition.class), true,
+                mock(TranslationService.class));
+
+        ComponentStateMock state = new ComponentStateMock();
+        viewDefinition.addComponentPattern(new ComponentPatternMock(getComponentDefinition("componentName", viewDefinition),
+                state));
+
+        JSONObject prepareJson = new JSONObject();
+        prepareJson.put("window." + AbstractComponentState.JSON_PERMANENTLY_DISABLED, true);
+
+        viewDefinition.prepareView(prepareJson, Locale.ENGLISH);
+
+        // when
+        viewDefinition.performEvent(createEventJson(new JSONObject()), Locale.ENGLISH);
+
+        // then
+        assertFalse(state.isPermanentlyDisabled());
+    }
+
+    @Test
+    public void shouldDisableEventStateIfViewWasOpenedAsDisabled() throws Exception {
+        // given
+        ViewDefinitionImpl viewDefinition = new ViewDefinitionImpl("name", "plugin", mock(DataDefinition.class), true,
+                mock(TranslationService.class));
+
+        ComponentStateMock state = new ComponentStateMock();
+        viewDefinition.addComponentPattern(new ComponentPatternMock(getComponentDefinition("componentName", viewDefinition),
+                state));
+
+        JSONObject windowJson = new JSONObject();
+        windowJson.put(AbstractComponentState.JSON_CONTEXT,
+                new JSONObject(of(AbstractComponentState.JSON_PERMANENTLY_DISABLED, true)));
+
+        // when
+        viewDefinition.performEvent(createEventJson(windowJson), Locale.ENGLISH);
+
+        // then
+        assertTrue(state.isPermanentlyDisabled());
+    }
+
     @Test
     public void shouldReturnJsFilePaths() throws Exception {
         // given
@@ -254,6 +299,21 @@ public class ViewDefinitionTest extends AbstractPatternTest {
         verify(preRenderHook).callWithViewState(any(ViewDefinitionState.class));
     }
 
+    private JSONObject createEventJson(final JSONObject windowJson) throws Exception {
+        JSONObject eventJson = new JSONObject();
+        eventJson.put(InternalViewDefinition.JSON_EVENT_NAME, "eventName");
+
+        JSONObject componentsJson = new JSONObject();
+        componentsJson.put("window", windowJson);
+        componentsJson.put("componentName", new JSONObject());
+
+        JSONObject json = new JSONObject();
+        json.put(InternalViewDefinition.JSON_EVENT, eventJson);
+        json.put(InternalViewDefinition.JSON_COMPONENTS, componentsJson);
+
+        return json;
+    }
+
     private ViewLifecycleHook mockLifecycleHook(final HookType type) {
         ViewLifecycleHook preInitializeHook = mock(ViewLifecycleHook.class);
         given(preInitializeHook.getType()).willReturn(type);
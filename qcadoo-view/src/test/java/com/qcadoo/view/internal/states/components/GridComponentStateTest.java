@@ -36,7 +36,9 @@ import static org.mockito.Mockito.verify;
 import static org.springframework.test.util.ReflectionTestUtils.getField;
 import static org.springframework.test.util.ReflectionTestUtils.setField;
 
+import java.io.StringWriter;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
@@ -44,13 +46,17 @@ import java.util.Map;
 import java.util.Objects;
 
 import org.json.JSONArray;
+import org.json.JSONException;
 import org.json.JSONObject;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
 import org.springframework.context.ApplicationContext;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
 import com.qcadoo.localization.api.TranslationService;
 import com.qcadoo.model.api.DataDefinition;
 import com.qcadoo.model.api.Entity;
@@ -366,4 +372,53 @@ public class GridComponentStateTest extends AbstractStateTest {
         assertEquals("Johny, Smithy", value);
     }
 
+    @Test
+    public void shouldStreamSameJsonAsRendered() throws Exception {
+        // given
+        Entity entity = mock(Entity.class);
+        given(entity.getId()).willReturn(7L);
+
+        grid.initialize(json, Locale.ENGLISH);
+        grid.setEntities(Lists.newArrayList(entity));
+
+        StringWriter writer = new StringWriter();
+        JsonGenerator generator = new JsonFactory().createGenerator(writer);
+
+        // when
+        grid.render(generator);
+        generator.close();
+
+        // then
+        assertJsonEquals(grid.render(), new JSONObject(writer.toString()));
+    }
+
+    private static void assertJsonEquals(final Object expected, final Object actual) throws JSONException {
+        if (expected instanceof JSONObject) {
+            JSONObject expectedObject = (JSONObject) expected;
+            JSONObject actualObject = (JSONObject) actual;
+
+            assertEquals(expectedObject.length(), actualObject.length());
+
+            Iterator<?> keys = expectedObject.keys();
+
+            while (keys.hasNext()) {
+                String key = keys.next().toString();
+
+                assertTrue(key, actualObject.has(key));
+                assertJsonEquals(expectedObject.get(key), actualObject.get(key));
+            }
+        } else if (expected instanceof JSONArray) {
+            JSONArray expectedArray = (JSONArray) expected;
+            JSONArray actualArray = (JSONArray) actual;
+
+            assertEquals(expectedArray.length(), actualArray.length());
+
+            for (int i = 0; i < expectedArray.length(); i++) {
+                assertJsonEquals(expectedArray.get(i), actualArray.get(i));
+            }
+        } else {
+            assertEquals(String.valueOf(expected), String.valueOf(actual));
+        }
+    }
+
 }